@@ -0,0 +1,16 @@
+-- Size of every table and index in the bot's schema, largest first.
+-- Run before and after the snowflake migration to compare:
+--   psql -d discordbot -f scripts/index-sizes.sql
+SELECT c.relname                               AS name,
+       CASE c.relkind WHEN 'i' THEN 'index' ELSE 'table' END AS kind,
+       t.relname                               AS table_name,
+       pg_size_pretty(pg_relation_size(c.oid)) AS size,
+       pg_relation_size(c.oid)                 AS bytes
+FROM pg_class c
+JOIN pg_namespace n ON n.oid = c.relnamespace
+LEFT JOIN pg_index i ON i.indexrelid = c.oid
+LEFT JOIN pg_class t ON t.oid = COALESCE(i.indrelid, c.oid)
+WHERE n.nspname = current_schema()
+  AND c.relkind IN ('r', 'i')
+  AND COALESCE(t.relname, c.relname) IN ('users', 'events', 'timeslots', 'availabilities')
+ORDER BY bytes DESC;
@@ -0,0 +1,66 @@
+#!/usr/bin/env bash
+set -euo pipefail
+
+# Runs a streaming replica of the local PostgreSQL on another port, for trying out read/write
+# routing (HANGOUT_REPLICA_ENABLED=true). Usage: ./scripts/replica-db.sh [start|stop|pause|resume]
+
+SCRIPT_DIR="$(cd "$(dirname "$0")" && pwd)"
+PROJECT_ROOT="$(cd "${SCRIPT_DIR}/.." && pwd)"
+cd "${PROJECT_ROOT}"
+
+if [ -f .env ]; then
+  set -a
+  source ./.env
+  set +a
+fi
+
+DB_NAME="${DB_NAME:-hangout_db}"
+
+# Primary to copy from, as a user allowed to replicate (superusers are, over local connections by default)
+PGHOST="${PGHOST:-localhost}"
+PGPORT="${PGPORT:-5432}"
+PGUSER="${PGUSER:-postgres}"
+
+REPLICA_PORT="${REPLICA_PORT:-5433}"
+REPLICA_DIR="${REPLICA_DIR:-${PROJECT_ROOT}/.replica}"
+
+for tool in pg_basebackup pg_ctl psql; do
+  if ! command -v "$tool" >/dev/null 2>&1; then
+    echo "❌ $tool not found. Install the PostgreSQL server tools and try again."
+    exit 1
+  fi
+done
+
+replica_sql() {
+  psql -h "$PGHOST" -p "$REPLICA_PORT" -U "$PGUSER" -d "$DB_NAME" -v ON_ERROR_STOP=1 -tAc "$1"
+}
+
+case "${1:-start}" in
+  start)
+    if [ ! -d "$REPLICA_DIR" ]; then
+      echo "📦 Copying ${PGUSER}@${PGHOST}:${PGPORT} into ${REPLICA_DIR}..."
+      # -R writes standby.signal and primary_conninfo, so the copy starts as a streaming standby
+      pg_basebackup -h "$PGHOST" -p "$PGPORT" -U "$PGUSER" -D "$REPLICA_DIR" -R -X stream -c fast
+    fi
+    pg_ctl -D "$REPLICA_DIR" -l "$REPLICA_DIR/replica.log" \
+      -o "-p ${REPLICA_PORT} -c hot_standby=on -c unix_socket_directories=''" start
+    echo "🎉 Replica on port ${REPLICA_PORT}. Run the bot with:"
+    echo "   HANGOUT_REPLICA_ENABLED=true HANGOUT_REPLICA_URL=jdbc:postgresql://${PGHOST}:${REPLICA_PORT}/${DB_NAME} ./scripts/dev.sh"
+    ;;
+  stop)
+    pg_ctl -D "$REPLICA_DIR" stop
+    ;;
+  pause)
+    # Replay stops, so the replica falls behind with the next write on the primary
+    replica_sql "SELECT pg_wal_replay_pause()"
+    echo "⏸️  Replay paused; reads move to the primary once the lag passes HANGOUT_REPLICA_MAX_LAG."
+    ;;
+  resume)
+    replica_sql "SELECT pg_wal_replay_resume()"
+    echo "▶️  Replay resumed."
+    ;;
+  *)
+    echo "Usage: $0 [start|stop|pause|resume]"
+    exit 1
+    ;;
+esac
@@ -0,0 +1,69 @@
+package uk.co.louiseconnell.hangout.service;
+
+import discord4j.core.spec.EmbedCreateSpec;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+import uk.co.louiseconnell.hangout.entity.Event;
+import uk.co.louiseconnell.hangout.support.BenchmarkFixtures;
+import uk.co.louiseconnell.hangout.support.StubHangoutService;
+
+/**
+ * Embed construction with the reads served from memory, as they are on a warm cache; what is left
+ * is formatting and building the spec.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DiscordEmbedServiceBenchmark {
+
+  @Param({"1", "5", "10", "25", "50"})
+  public int timeslots;
+
+  private DiscordEmbedService embedService;
+  private Event active;
+  private Event draft;
+  private final String userId = String.valueOf(BenchmarkFixtures.USER_ID);
+
+  @Setup
+  public void setUp() {
+    final StubHangoutService hangoutService = new StubHangoutService(1, timeslots);
+    embedService = new DiscordEmbedService(hangoutService);
+    active = hangoutService.firstEvent(Event.EventStatus.ACTIVE);
+    draft = hangoutService.firstEvent(Event.EventStatus.DRAFT);
+  }
+
+  @Benchmark
+  public EmbedCreateSpec hangoutEmbed() {
+    return embedService.createHangoutEmbed(active, "Europe/London");
+  }
+
+  @Benchmark
+  public EmbedCreateSpec draftEmbed() {
+    return embedService.createHangoutEmbed(draft, "Europe/London");
+  }
+
+  @Benchmark
+  public EmbedCreateSpec summaryEmbed() {
+    return embedService.createEventSummaryEmbed(active);
+  }
+
+  @Benchmark
+  public EmbedCreateSpec personalAvailabilityEmbed() {
+    return embedService.createPersonalAvailabilityEmbed(active, userId, "Europe/London");
+  }
+}
@@ -0,0 +1,184 @@
+package uk.co.louiseconnell.hangout.service;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.autoconfigure.AutoConfigurationPackage;
+import org.springframework.boot.autoconfigure.EnableAutoConfiguration;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import uk.co.louiseconnell.hangout.HangoutApplication;
+import uk.co.louiseconnell.hangout.datasource.ReadYourWrites;
+import uk.co.louiseconnell.hangout.entity.Availability;
+import uk.co.louiseconnell.hangout.entity.Event;
+import uk.co.louiseconnell.hangout.entity.Timeslot;
+import uk.co.louiseconnell.hangout.repository.AvailabilityRepository;
+import uk.co.louiseconnell.hangout.repository.EventRepository;
+import uk.co.louiseconnell.hangout.repository.TimeslotRepository;
+import uk.co.louiseconnell.hangout.repository.UserRepository;
+import uk.co.louiseconnell.hangout.support.BenchmarkFixtures;
+import uk.co.louiseconnell.hangout.support.RoundTripCounter;
+
+/**
+ * Database round trips for the write paths, against the real entities and Liquibase schema on an
+ * in-memory H2 database. Each iteration is a single operation, and JMH reports the
+ * {@code roundTrips} counter summed over the iterations: divide by the count for round trips per
+ * operation. The timings say little about Postgres over a network.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 20)
+@Measurement(iterations = 30)
+@Fork(1)
+public class PersistenceRoundTripBenchmark {
+
+  private static final int TIMESLOTS = 10;
+  private static final int VOTES = 1000;
+  private static final long VOTER_BASE = 500_000_000_000_000_000L;
+
+  private static final String[] ARGS = {
+      "--spring.profiles.active=benchmark",
+      "--spring.datasource.url=jdbc:h2:mem:round-trips;MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1",
+      "--spring.datasource.driver-class-name=org.h2.Driver",
+      "--spring.datasource.username=sa",
+      "--spring.datasource.password=",
+      "--spring.jpa.show-sql=false",
+      "--spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+      "--logging.level.root=warn",
+      "--logging.level.org.springframework=warn",
+      "--logging.level.uk.co.louiseconnell=warn"
+  };
+
+  private ConfigurableApplicationContext context;
+  private RoundTripCounter counter;
+  private HangoutService hangoutService;
+  private TransactionTemplate transactions;
+  private EventRepository eventRepository;
+  private TimeslotRepository timeslotRepository;
+  private AvailabilityRepository availabilityRepository;
+  private UserRepository userRepository;
+
+  private final List<HangoutService.TimeslotRequest> timeslots = new ArrayList<>();
+  /** A fresh event per iteration, so the votes never hit the (user, timeslot) unique key. */
+  private Event voteEvent;
+
+  /** Round trips of the operations in the current iteration; one operation per iteration. */
+  @State(Scope.Thread)
+  @AuxCounters(AuxCounters.Type.EVENTS)
+  public static class RoundTrips {
+
+    public long roundTrips;
+
+    @Setup(Level.Iteration)
+    public void reset() {
+      roundTrips = 0;
+    }
+  }
+
+  @Setup(Level.Trial)
+  public void setUp() {
+    // DevTools only reads this from system properties
+    System.setProperty("spring.devtools.restart.enabled", "false");
+    context = new SpringApplicationBuilder(Config.class).web(WebApplicationType.NONE).run(ARGS);
+    counter = context.getBean(RoundTripCounter.class);
+    hangoutService = context.getBean(HangoutService.class);
+    transactions = new TransactionTemplate(context.getBean(PlatformTransactionManager.class));
+    eventRepository = context.getBean(EventRepository.class);
+    timeslotRepository = context.getBean(TimeslotRepository.class);
+    availabilityRepository = context.getBean(AvailabilityRepository.class);
+    userRepository = context.getBean(UserRepository.class);
+
+    final LocalDateTime start = LocalDateTime.now().plusDays(7).withNano(0);
+    for (int t = 0; t < TIMESLOTS; t++) {
+      timeslots.add(new HangoutService.TimeslotRequest(start.plusDays(t), start.plusDays(t).plusHours(3), null));
+    }
+
+    final List<Object[]> voters = new ArrayList<>();
+    for (int v = 0; v < VOTES; v++) {
+      voters.add(new Object[] {VOTER_BASE + v, "voter-" + v});
+    }
+    context.getBean(JdbcTemplate.class).batchUpdate("INSERT INTO users (discord_id, username) VALUES (?, ?)", voters);
+  }
+
+  @Setup(Level.Iteration)
+  public void newVoteEvent() {
+    voteEvent = hangoutService.createHangoutEvent("Votes", null, BenchmarkFixtures.USER_ID, BenchmarkFixtures.CHANNEL_ID,
+        null, timeslots.subList(0, 1));
+  }
+
+  @TearDown(Level.Trial)
+  public void tearDown() {
+    context.close();
+  }
+
+  /** A poll with ten timeslots, as /hangout create writes it. */
+  @Benchmark
+  public Event createEvent(final RoundTrips trips) {
+    final long before = counter.get();
+    final Event event = hangoutService.createHangoutEvent("Games night", null, BenchmarkFixtures.USER_ID,
+        BenchmarkFixtures.CHANNEL_ID, null, timeslots);
+    trips.roundTrips += counter.get() - before;
+    return event;
+  }
+
+  /** A thousand votes saved in one transaction. */
+  @Benchmark
+  public List<Availability> writeVotes(final RoundTrips trips) {
+    final long before = counter.get();
+    final List<Availability> saved = transactions.execute(status -> {
+      final Event event = eventRepository.getReferenceById(voteEvent.getId());
+      final Timeslot timeslot = timeslotRepository.getReferenceById(voteEvent.getTimeslots().iterator().next().getId());
+      final LocalDateTime now = LocalDateTime.now();
+      final List<Availability> votes = new ArrayList<>(VOTES);
+      for (int v = 0; v < VOTES; v++) {
+        votes.add(Availability.builder()
+            .user(userRepository.getReferenceById(VOTER_BASE + v))
+            .event(event)
+            .timeslot(timeslot)
+            .status(Availability.AvailabilityStatus.AVAILABLE)
+            .votedAt(now)
+            .build());
+      }
+      return availabilityRepository.saveAll(votes);
+    });
+    trips.roundTrips += counter.get() - before;
+    return saved;
+  }
+
+  /** The JPA side of the application only: entities, repositories, Liquibase and the service. */
+  @Configuration(proxyBeanMethods = false)
+  @EnableAutoConfiguration
+  @AutoConfigurationPackage(basePackageClasses = HangoutApplication.class)
+  @Import({HangoutService.class, EventCache.class, EventArchive.class, EventSummaries.class, ReadYourWrites.class})
+  static class Config {
+
+    @Bean
+    static RoundTripCounter roundTripCounter() {
+      return new RoundTripCounter();
+    }
+  }
+}
@@ -0,0 +1,103 @@
+package uk.co.louiseconnell.hangout.service.listeners;
+
+import discord4j.core.GatewayDiscordClient;
+import discord4j.core.event.domain.interaction.ChatInputInteractionEvent;
+import discord4j.core.event.domain.message.MessageCreateEvent;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import uk.co.louiseconnell.hangout.discord.InFlightWork;
+import uk.co.louiseconnell.hangout.discord.InteractionAcks;
+import uk.co.louiseconnell.hangout.service.commands.slash.SlashCommand;
+import uk.co.louiseconnell.hangout.service.commands.text.TextCommand;
+import uk.co.louiseconnell.hangout.support.BenchmarkFixtures;
+
+/**
+ * Finding the command for an event. The registered commands are stand-ins with the real names that
+ * complete immediately, so only the listeners' own dispatch is measured.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CommandDispatchBenchmark {
+
+  /** The slash command that is invoked; {@code hangout} is registered last. */
+  @Param({"ping", "hangout"})
+  public String command;
+
+  private SlashCommandListener slashListener;
+  private TextCommandListener textListener;
+  private ChatInputInteractionEvent slashEvent;
+  private MessageCreateEvent textEvent;
+
+  @Setup
+  public void setUp() {
+    final GatewayDiscordClient gateway = BenchmarkFixtures.gateway();
+    // The gateway never emits, so the scheduler and acks the listener wraps handlers in are unused
+    slashListener = new SlashCommandListener(
+        List.of(slash("ping"), slash("greet"), slash("help"), slash("hangout")),
+        gateway, new InFlightWork(), null, null);
+    textListener = new TextCommandListener(List.of(text("!ping"), text("!help")), gateway, new InFlightWork());
+    slashEvent = BenchmarkFixtures.slashCommand(gateway, command, command.equals("hangout") ? "create" : null);
+    textEvent = BenchmarkFixtures.message(gateway, "!help me please");
+  }
+
+  @Benchmark
+  public Void slashCommand() {
+    return slashListener.handle(slashEvent).block();
+  }
+
+  @Benchmark
+  public String slashCommandKey() {
+    return InteractionAcks.commandKey(slashEvent);
+  }
+
+  @Benchmark
+  public Void textCommand() {
+    return textListener.handle(textEvent).block();
+  }
+
+  private static SlashCommand slash(final String name) {
+    return new SlashCommand() {
+      @Override
+      public String getName() {
+        return name;
+      }
+
+      @Override
+      public Mono<Void> handle(final ChatInputInteractionEvent event) {
+        return Mono.empty();
+      }
+    };
+  }
+
+  private static TextCommand text(final String name) {
+    return new TextCommand() {
+      @Override
+      public String getName() {
+        return name;
+      }
+
+      @Override
+      public Mono<Void> handle(final MessageCreateEvent event) {
+        return Mono.empty();
+      }
+    };
+  }
+}
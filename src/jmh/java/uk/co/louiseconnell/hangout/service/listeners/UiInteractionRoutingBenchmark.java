@@ -0,0 +1,76 @@
+package uk.co.louiseconnell.hangout.service.listeners;
+
+import discord4j.core.GatewayDiscordClient;
+import discord4j.core.event.domain.interaction.ButtonInteractionEvent;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+import uk.co.louiseconnell.hangout.discord.InFlightWork;
+import uk.co.louiseconnell.hangout.discord.InteractionAcks;
+import uk.co.louiseconnell.hangout.metrics.GuildTiers;
+import uk.co.louiseconnell.hangout.service.DiscordEmbedService;
+import uk.co.louiseconnell.hangout.support.BenchmarkFixtures;
+import uk.co.louiseconnell.hangout.support.StubHangoutService;
+
+/**
+ * Routing a button's custom ID to its handler and assembling the reply. The returned Mono is not
+ * subscribed, so nothing is sent; reads come from {@link StubHangoutService}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class UiInteractionRoutingBenchmark {
+
+  @Param({
+      "hangout:action:create",
+      "hangout:action:list",
+      "hangout:list:page:1:1749000000000000:5:5",
+      "hangout:evt:view:1",
+      "hangout:evt:propose:1",
+      "hangout:evt:close:1",
+      "hangout:unknown"
+  })
+  public String customId;
+
+  private UiInteractionListener listener;
+  private ButtonInteractionEvent event;
+
+  @Setup
+  public void setUp() {
+    final GatewayDiscordClient gateway = BenchmarkFixtures.gateway();
+    final StubHangoutService hangoutService = new StubHangoutService(4, 5);
+    final InteractionAcks interactionAcks = new InteractionAcks(true, Duration.ofSeconds(2), 200,
+        new SimpleMeterRegistry(), new GuildTiers(100, 1000, 10000));
+    // The gateway never emits, so the scheduler is unused; nothing edits poll messages here
+    listener = new UiInteractionListener(hangoutService, new DiscordEmbedService(hangoutService), gateway,
+        null, new InFlightWork(), null, interactionAcks);
+    event = BenchmarkFixtures.button(gateway, customId);
+  }
+
+  @Benchmark
+  public Mono<Void> route() {
+    return listener.handleButton(event);
+  }
+
+  @Benchmark
+  public String componentKey() {
+    return InteractionAcks.componentKey("button", customId);
+  }
+}
@@ -0,0 +1,111 @@
+package uk.co.louiseconnell.hangout.support;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import discord4j.core.GatewayDiscordClient;
+import discord4j.core.event.domain.interaction.ButtonInteractionEvent;
+import discord4j.core.event.domain.interaction.ChatInputInteractionEvent;
+import discord4j.core.event.domain.message.MessageCreateEvent;
+import discord4j.core.object.command.ApplicationCommandOption;
+import discord4j.core.object.command.Interaction;
+import discord4j.core.object.component.MessageComponent;
+import discord4j.core.object.entity.Message;
+import discord4j.discordjson.json.ApplicationCommandInteractionData;
+import discord4j.discordjson.json.ApplicationCommandInteractionOptionData;
+import discord4j.discordjson.json.ImmutableApplicationCommandInteractionData;
+import discord4j.discordjson.json.InteractionData;
+import discord4j.discordjson.json.MessageData;
+import discord4j.discordjson.json.UserData;
+import discord4j.gateway.ShardInfo;
+import reactor.core.publisher.Flux;
+
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Real Discord4J events built from gateway payloads, so benchmarks measure our code rather than
+ * mock dispatch. The gateway itself is a mock that never emits; nothing here talks to Discord.
+ */
+public final class BenchmarkFixtures {
+
+  public static final long GUILD_ID = 300_000_000_000_000_001L;
+  public static final long CHANNEL_ID = 300_000_000_000_000_002L;
+  public static final long USER_ID = 300_000_000_000_000_003L;
+
+  private static final ShardInfo SHARD = ShardInfo.create(0, 1);
+
+  private BenchmarkFixtures() {
+  }
+
+  @SuppressWarnings("unchecked")
+  public static GatewayDiscordClient gateway() {
+    final GatewayDiscordClient gateway = mock(GatewayDiscordClient.class);
+    when(gateway.on(any(Class.class), any(Function.class))).thenReturn(Flux.empty());
+    return gateway;
+  }
+
+  public static ChatInputInteractionEvent slashCommand(final GatewayDiscordClient gateway, final String name,
+                                                       final String subcommand) {
+    final ImmutableApplicationCommandInteractionData.Builder data = ApplicationCommandInteractionData.builder()
+        .id("1")
+        .name(name)
+        .type(1);
+    if (subcommand != null) {
+      data.addOption(ApplicationCommandInteractionOptionData.builder()
+          .name(subcommand)
+          .type(ApplicationCommandOption.Type.SUB_COMMAND.getValue())
+          .build());
+    }
+    return new ChatInputInteractionEvent(gateway, SHARD,
+        new Interaction(gateway, interaction(Interaction.Type.APPLICATION_COMMAND, data.build())));
+  }
+
+  public static ButtonInteractionEvent button(final GatewayDiscordClient gateway, final String customId) {
+    final ApplicationCommandInteractionData data = ApplicationCommandInteractionData.builder()
+        .customId(customId)
+        .componentType(MessageComponent.Type.BUTTON.getValue())
+        .build();
+    return new ButtonInteractionEvent(gateway, SHARD,
+        new Interaction(gateway, interaction(Interaction.Type.MESSAGE_COMPONENT, data)));
+  }
+
+  public static MessageCreateEvent message(final GatewayDiscordClient gateway, final String content) {
+    final MessageData data = MessageData.builder()
+        .id(4L)
+        .channelId(CHANNEL_ID)
+        .author(user())
+        .content(content)
+        .timestamp("2025-01-01T00:00:00.000000+00:00")
+        .tts(false)
+        .mentionEveryone(false)
+        .pinned(false)
+        .type(Message.Type.DEFAULT.getValue())
+        .build();
+    return new MessageCreateEvent(gateway, SHARD, new Message(gateway, data), GUILD_ID, null);
+  }
+
+  private static InteractionData interaction(final Interaction.Type type, final ApplicationCommandInteractionData data) {
+    return InteractionData.builder()
+        .id(5L)
+        .applicationId(6L)
+        .type(type.getValue())
+        .data(data)
+        .guildId(GUILD_ID)
+        .channelId(CHANNEL_ID)
+        .user(user())
+        .token("token")
+        .version(1)
+        .entitlements(List.of())
+        .build();
+  }
+
+  private static UserData user() {
+    return UserData.builder()
+        .id(USER_ID)
+        .username("benchmark")
+        .discriminator("0")
+        .build();
+  }
+}
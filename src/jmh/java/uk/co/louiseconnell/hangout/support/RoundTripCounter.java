@@ -0,0 +1,76 @@
+package uk.co.louiseconnell.hangout.support;
+
+import org.springframework.beans.factory.config.BeanPostProcessor;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.Statement;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import javax.sql.DataSource;
+
+/**
+ * Counts database round trips by wrapping the {@link DataSource}: every statement execution,
+ * {@code executeBatch} and commit or rollback is one. Unlike a count of SQL strings, a batch of 50
+ * inserts is one round trip here.
+ */
+public class RoundTripCounter implements BeanPostProcessor {
+
+  private static final Set<String> EXECUTIONS = Set.of(
+      "execute", "executeQuery", "executeUpdate", "executeLargeUpdate", "executeBatch", "executeLargeBatch");
+  private static final Set<String> ENDS = Set.of("commit", "rollback");
+
+  private final AtomicLong roundTrips = new AtomicLong();
+
+  public long get() {
+    return roundTrips.get();
+  }
+
+  @Override
+  public Object postProcessAfterInitialization(final Object bean, final String beanName) {
+    return bean instanceof DataSource dataSource ? wrap(DataSource.class, dataSource, this::wrapConnection) : bean;
+  }
+
+  private Object wrapConnection(final String method, final Object result) {
+    if (result instanceof Connection connection) {
+      return wrap(Connection.class, connection, this::wrapStatement);
+    }
+    return result;
+  }
+
+  private Object wrapStatement(final String method, final Object result) {
+    if (result instanceof Statement statement) {
+      // The interface the caller asked for: PreparedStatement, CallableStatement or Statement
+      final Class<?> type = method.equals("prepareStatement") ? PreparedStatement.class
+          : method.equals("prepareCall") ? CallableStatement.class : Statement.class;
+      return wrap(type, statement, (name, value) -> value);
+    }
+    return result;
+  }
+
+  private <T> T wrap(final Class<?> type, final Object target, final ResultWrapper results) {
+    final InvocationHandler handler = (proxy, method, args) -> {
+      final String name = method.getName();
+      if (EXECUTIONS.contains(name) || ENDS.contains(name)) {
+        roundTrips.incrementAndGet();
+      }
+      try {
+        return results.wrap(name, method.invoke(target, args));
+      } catch (InvocationTargetException e) {
+        throw e.getCause();
+      }
+    };
+    @SuppressWarnings("unchecked")
+    final T proxy = (T) Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[] {type}, handler);
+    return proxy;
+  }
+
+  @FunctionalInterface
+  private interface ResultWrapper {
+    Object wrap(String method, Object result);
+  }
+}
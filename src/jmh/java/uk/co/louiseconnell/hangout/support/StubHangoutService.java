@@ -0,0 +1,135 @@
+package uk.co.louiseconnell.hangout.support;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.stream.Collectors;
+
+import uk.co.louiseconnell.hangout.entity.Event;
+import uk.co.louiseconnell.hangout.entity.Timeslot;
+import uk.co.louiseconnell.hangout.service.EventListPage;
+import uk.co.louiseconnell.hangout.service.HangoutService;
+
+/**
+ * {@link HangoutService} answering the reads used when rendering from fixed in-memory data, the
+ * way a warm {@code EventCache} would. Writes are not supported.
+ */
+public class StubHangoutService extends HangoutService {
+
+  private static final String[] EMOJIS = {"1️⃣", "2️⃣", "3️⃣", "4️⃣", "5️⃣", "6️⃣", "7️⃣", "8️⃣", "9️⃣", "🔟"};
+
+  private final List<Event> events = new ArrayList<>();
+  private final Map<Long, List<Timeslot>> timeslots = new HashMap<>();
+  private final Map<Long, Map<Long, Integer>> counts = new HashMap<>();
+
+  /**
+   * {@code eventsPerStatus} draft, active and closed events in the benchmark channel, each with
+   * {@code timeslotsPerEvent} timeslots and a spread of votes.
+   */
+  public StubHangoutService(final int eventsPerStatus, final int timeslotsPerEvent) {
+    super(null, null, null, null, null, null, null, null);
+    final LocalDateTime start = LocalDateTime.of(2025, 6, 6, 18, 0);
+    long nextId = 1;
+    for (Event.EventStatus status : Event.EventStatus.values()) {
+      for (int e = 0; e < eventsPerStatus; e++) {
+        final Event event = Event.builder()
+            .id(nextId++)
+            .title("Games night " + e)
+            .description("Bring snacks")
+            .creatorDiscordId(BenchmarkFixtures.USER_ID)
+            .channelId(BenchmarkFixtures.CHANNEL_ID)
+            .messageId(400_000_000_000_000_000L + e)
+            .createdAt(start.minusDays(3))
+            .deadline(start.minusDays(1))
+            .status(status)
+            .build();
+        final List<Timeslot> slots = new ArrayList<>();
+        final Map<Long, Integer> tally = new HashMap<>();
+        for (int t = 0; t < timeslotsPerEvent; t++) {
+          final Timeslot slot = Timeslot.builder()
+              .id(nextId++)
+              .event(event)
+              .startTime(start.plusDays(t))
+              .endTime(start.plusDays(t).plusHours(3))
+              .description(t % 2 == 0 ? "At the pub" : null)
+              .emoji(EMOJIS[t % EMOJIS.length])
+              .build();
+          slots.add(slot);
+          tally.put(slot.getId(), (t * 7) % 13);
+        }
+        events.add(event);
+        timeslots.put(event.getId(), slots);
+        counts.put(event.getId(), tally);
+      }
+    }
+  }
+
+  public Event firstEvent(final Event.EventStatus status) {
+    return events.stream().filter(event -> event.getStatus() == status).findFirst().orElseThrow();
+  }
+
+  @Override
+  public Optional<Event> getEventById(final Long id) {
+    return events.stream().filter(event -> event.getId().equals(id)).findFirst();
+  }
+
+  @Override
+  public List<Timeslot> getTimeslotsByEvent(final Long eventId) {
+    return timeslots.getOrDefault(eventId, List.of());
+  }
+
+  @Override
+  public Map<Long, Integer> getAvailabilityCounts(final Long eventId) {
+    return counts.getOrDefault(eventId, Map.of());
+  }
+
+  @Override
+  public boolean isRenderCached(final Long eventId) {
+    return true;
+  }
+
+  @Override
+  public String getUserTimezoneOrDefault(final Long userDiscordId) {
+    return "Europe/London";
+  }
+
+  @Override
+  public List<Event> getActiveEventsForChannel(final Long channelId) {
+    return getEventsByChannelAndStatus(channelId, Event.EventStatus.ACTIVE);
+  }
+
+  @Override
+  public EventListPage getEventListPage(final Long channelId, final EventListPage.Cursor after, final int pageSize) {
+    final List<Event.EventStatus> listed = List.of(Event.EventStatus.DRAFT, Event.EventStatus.ACTIVE, Event.EventStatus.CLOSED);
+    final Comparator<Event> order = Comparator.<Event>comparingInt(event -> listed.indexOf(event.getStatus()))
+        .thenComparing(Event::getCreatedAt, Comparator.reverseOrder())
+        .thenComparing(Event::getId, Comparator.reverseOrder());
+    final Event marker = after == null ? null
+        : Event.builder().status(listed.get(after.rank())).createdAt(after.createdAt()).id(after.id()).build();
+    final List<Event> page = events.stream()
+        .filter(event -> event.getChannelId().equals(channelId) && listed.contains(event.getStatus()))
+        .sorted(order)
+        .filter(event -> marker == null || order.compare(event, marker) > 0)
+        .limit(pageSize + 1L)
+        .collect(Collectors.toCollection(ArrayList::new));
+    final int offset = after == null ? 0 : after.offset();
+    EventListPage.Cursor next = null;
+    if (page.size() > pageSize) {
+      page.remove(pageSize);
+      final Event last = page.get(pageSize - 1);
+      next = new EventListPage.Cursor(listed.indexOf(last.getStatus()), last.getCreatedAt(), last.getId(), offset + pageSize);
+    }
+    return new EventListPage(page, offset, next, events.size(), Map.of());
+  }
+
+  @Override
+  public List<Event> getEventsByChannelAndStatus(final Long channelId, final Event.EventStatus status) {
+    return events.stream()
+        .filter(event -> event.getChannelId().equals(channelId) && event.getStatus() == status)
+        .toList();
+  }
+}
@@ -0,0 +1,51 @@
+package uk.co.louiseconnell.hangout.util;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * One input per supported format. The explicit patterns are tried in order, so later formats pay
+ * for every failed attempt before them.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DateTimeParserBenchmark {
+
+  @Param({
+      "today 19:00",
+      "tomorrow 08:30",
+      "fri 19:00",
+      "2025-06-06 19:30",
+      "2025/06/06 19:30",
+      "06/06/2025 19:30",
+      "06-06-2025 19:30",
+      "Jun 6 2025 19:30",
+      "6 Jun 2025 19:30",
+      "Jun 6, 2025 19:30",
+      "2025-06-06T19:30"
+  })
+  public String input;
+
+  private final ZoneId zone = ZoneId.of("Europe/London");
+
+  @Benchmark
+  public LocalDateTime parseToUtc() {
+    return DateTimeParser.parseToUtc(input, zone);
+  }
+}
@@ -0,0 +1,48 @@
+package uk.co.louiseconnell.hangout.util;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TimezoneUtilBenchmark {
+
+  @Param({"UTC", "Europe/London", "America/Los_Angeles"})
+  public String timezone;
+
+  private ZoneId zone;
+  private final LocalDateTime start = LocalDateTime.of(2025, 6, 6, 18, 0);
+  private final LocalDateTime end = start.plusHours(3);
+
+  @Setup
+  public void setUp() {
+    zone = ZoneId.of(timezone);
+  }
+
+  @Benchmark
+  public String formatTimeRange() {
+    return TimezoneUtil.formatTimeRange(start, end, zone);
+  }
+
+  @Benchmark
+  public String formatForDiscord() {
+    return TimezoneUtil.formatForDiscord(start, zone);
+  }
+}
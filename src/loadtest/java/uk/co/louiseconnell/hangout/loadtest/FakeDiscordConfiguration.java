@@ -0,0 +1,68 @@
+package uk.co.louiseconnell.hangout.loadtest;
+
+import discord4j.common.ReactorResources;
+import discord4j.core.DiscordClient;
+import discord4j.core.DiscordClientBuilder;
+import discord4j.core.GatewayDiscordClient;
+import discord4j.rest.RestClient;
+import discord4j.rest.request.BucketGlobalRateLimiter;
+import discord4j.rest.request.RouterOptions;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import reactor.core.scheduler.Schedulers;
+import uk.co.louiseconnell.hangout.metrics.DiscordRestMetrics;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Base64;
+
+/**
+ * Stands in for {@code HangoutApplication.DiscordConfiguration} under the {@code loadtest} profile:
+ * the same beans, backed by {@link FakeGateway} and a real Discord4J REST client pointed at
+ * {@link FakeDiscordRest}.
+ */
+@Configuration
+@Profile("loadtest")
+public class FakeDiscordConfiguration {
+
+  /** Discord4J reads the bot's ID out of the first part of the token, so it has to look real. */
+  private static final String TOKEN = Base64.getEncoder()
+      .encodeToString(String.valueOf(FakeDiscordRest.BOT_USER_ID).getBytes(StandardCharsets.US_ASCII))
+      + ".fake.fake";
+
+  @Bean(destroyMethod = "stop")
+  public FakeDiscordRest fakeDiscordRest(final @Value("${loadtest.channel-limit:5}") int channelLimit,
+                                         final @Value("${loadtest.channel-window:5s}") Duration channelWindow,
+                                         final @Value("${loadtest.inject-429:0.0}") double injected429Share) {
+    return new FakeDiscordRest(channelLimit, channelWindow, injected429Share).start();
+  }
+
+  /**
+   * The client is built the way {@code DiscordConfiguration} builds it, including Discord's global
+   * limit of 50 requests a second, which {@code loadtest.global-limit} can raise to look past it.
+   */
+  @Bean(destroyMethod = "shutdown")
+  public FakeGateway fakeGateway(final FakeDiscordRest rest,
+                                 final @Value("${loadtest.global-limit:50}") int globalLimit) {
+    final DiscordClient client = DiscordClientBuilder.create(TOKEN)
+        .setReactorResources(ReactorResources.builder().httpClient(DiscordRestMetrics.httpClient()).build())
+        .setGlobalRateLimiter(BucketGlobalRateLimiter.create(globalLimit, Duration.ofSeconds(1), Schedulers.parallel()))
+        .setExtraOptions(options -> new RouterOptions(options.getAuthorizationScheme(), options.getToken(),
+            options.getReactorResources(), options.getExchangeStrategies(), options.getResponseTransformers(),
+            options.getGlobalRateLimiter(), options.getRequestQueueFactory(), rest.getBaseUrl()))
+        .build();
+    return new FakeGateway(client);
+  }
+
+  @Bean
+  public GatewayDiscordClient gatewayDiscordClient(final FakeGateway gateway) {
+    return gateway.getClient();
+  }
+
+  @Bean
+  public RestClient discordRestClient(final GatewayDiscordClient client) {
+    return client.getRestClient();
+  }
+}
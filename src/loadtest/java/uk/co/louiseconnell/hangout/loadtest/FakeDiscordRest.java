@@ -0,0 +1,290 @@
+package uk.co.louiseconnell.hangout.loadtest;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import discord4j.common.JacksonResources;
+import discord4j.discordjson.json.MessageData;
+import discord4j.discordjson.json.UserData;
+import io.netty.handler.codec.http.HttpMethod;
+import io.netty.handler.codec.http.HttpResponseStatus;
+import lombok.extern.slf4j.Slf4j;
+import reactor.core.publisher.Mono;
+import reactor.netty.DisposableServer;
+import reactor.netty.http.server.HttpServer;
+import reactor.netty.http.server.HttpServerRequest;
+import reactor.netty.http.server.HttpServerResponse;
+
+import java.time.Duration;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * In-process stand-in for the parts of Discord's REST API the bot uses, served over plain HTTP on a
+ * random local port. Discord4J's real client, including its rate limit handling, talks to it
+ * unchanged.
+ *
+ * <p>Message edits and reactions share a per-channel bucket of {@code channelLimit} requests per
+ * {@code channelWindow}, advertised through the usual {@code X-RateLimit-*} headers. A request past
+ * the limit gets a 429, and {@code injected429Share} of all requests get one regardless. Edits and
+ * interaction callbacks are reported to the {@link Listener} as they arrive.
+ */
+@Slf4j
+public class FakeDiscordRest {
+
+  public static final long APPLICATION_ID = 900_000_000_000_000_001L;
+  public static final long BOT_USER_ID = 900_000_000_000_000_002L;
+
+  private static final String API = "/api/v10";
+  /** Reactor Netty has no PATCH route helper, so message edits are matched by hand. */
+  private static final Pattern EDIT = Pattern.compile(API + "/channels/(\\d+)/messages/(\\d+)");
+
+  /** Told about every write the bot gets through to Discord, on a server thread. */
+  public interface Listener {
+    void onEdit(long channelId, long messageId, long nanoTime);
+
+    void onInteractionCallback(long interactionId, long nanoTime);
+  }
+
+  private final int channelLimit;
+  private final Duration channelWindow;
+  private final double injected429Share;
+  private final ObjectMapper json = JacksonResources.create().getObjectMapper();
+  private final Map<Long, Bucket> buckets = new ConcurrentHashMap<>();
+  private final String messageBody;
+
+  private final LongAdder edits = new LongAdder();
+  private final LongAdder reactions = new LongAdder();
+  private final LongAdder userLookups = new LongAdder();
+  private final LongAdder interactionCallbacks = new LongAdder();
+  private final LongAdder rateLimited = new LongAdder();
+  private final LongAdder injected429s = new LongAdder();
+
+  private volatile Listener listener = new Listener() {
+    @Override
+    public void onEdit(final long channelId, final long messageId, final long nanoTime) {
+    }
+
+    @Override
+    public void onInteractionCallback(final long interactionId, final long nanoTime) {
+    }
+  };
+  private DisposableServer server;
+
+  public FakeDiscordRest(final int channelLimit, final Duration channelWindow, final double injected429Share) {
+    this.channelLimit = channelLimit;
+    this.channelWindow = channelWindow;
+    this.injected429Share = injected429Share;
+    this.messageBody = write(MessageData.builder()
+        .id(1L)
+        .channelId(1L)
+        .author(user(BOT_USER_ID, "hangout", true))
+        .content("")
+        .timestamp("2025-01-01T00:00:00.000000+00:00")
+        .tts(false)
+        .mentionEveryone(false)
+        .pinned(false)
+        .type(0)
+        .build());
+  }
+
+  public FakeDiscordRest start() {
+    server = HttpServer.create()
+        .host("127.0.0.1")
+        .port(0)
+        .route(routes -> routes
+            .get(API + "/oauth2/applications/@me", (req, res) -> json(res, applicationBody()))
+            .get(API + "/applications/@me", (req, res) -> json(res, applicationBody()))
+            .put(API + "/applications/{app}/commands", (req, res) -> json(res, "[]"))
+            .put(API + "/applications/{app}/guilds/{guild}/commands", (req, res) -> json(res, "[]"))
+            .get(API + "/users/{user}", this::getUser)
+            .route(req -> HttpMethod.PATCH.equals(req.method()) && EDIT.matcher(req.uri()).matches(), this::editMessage)
+            .put(API + "/channels/{channel}/messages/{message}/reactions/{emoji}/@me", this::addReaction)
+            .post(API + "/interactions/{interaction}/{token}/callback", this::interactionCallback)
+            .route(req -> req.uri().startsWith(API + "/webhooks/"), this::webhook)
+            .route(req -> true, (req, res) -> {
+              log.warn("Fake Discord has no route for {} {}", req.method(), req.uri());
+              return error(res, HttpResponseStatus.NOT_FOUND, "{\"message\":\"Unknown route\",\"code\":0}");
+            }))
+        .bindNow();
+    log.info("Fake Discord REST API listening on {}", getBaseUrl());
+    return this;
+  }
+
+  public void stop() {
+    if (server != null) {
+      server.disposeNow();
+    }
+  }
+
+  /** What Discord4J should use instead of {@code https://discord.com/api/v10}. */
+  public String getBaseUrl() {
+    return "http://127.0.0.1:" + server.port() + API;
+  }
+
+  public void setListener(final Listener listener) {
+    this.listener = listener;
+  }
+
+  public long getEditCount() {
+    return edits.sum();
+  }
+
+  public long getReactionCount() {
+    return reactions.sum();
+  }
+
+  public long getUserLookupCount() {
+    return userLookups.sum();
+  }
+
+  public long getInteractionCallbackCount() {
+    return interactionCallbacks.sum();
+  }
+
+  /** 429s earned by going over a channel's bucket. */
+  public long getRateLimitedCount() {
+    return rateLimited.sum();
+  }
+
+  /** 429s handed out at random. */
+  public long getInjected429Count() {
+    return injected429s.sum();
+  }
+
+  private Mono<Void> getUser(final HttpServerRequest req, final HttpServerResponse res) {
+    userLookups.increment();
+    final long id = Long.parseLong(req.param("user"));
+    return json(res, write(user(id, "voter" + id, id == BOT_USER_ID)));
+  }
+
+  private Mono<Void> editMessage(final HttpServerRequest req, final HttpServerResponse res) {
+    final Matcher uri = EDIT.matcher(req.uri());
+    uri.matches();
+    final long channelId = Long.parseLong(uri.group(1));
+    final long messageId = Long.parseLong(uri.group(2));
+    return req.receive().then(Mono.defer(() -> {
+      if (!admit(channelId, res)) {
+        return tooManyRequests(res);
+      }
+      edits.increment();
+      listener.onEdit(channelId, messageId, System.nanoTime());
+      return json(res, messageBody);
+    }));
+  }
+
+  private Mono<Void> addReaction(final HttpServerRequest req, final HttpServerResponse res) {
+    final long channelId = Long.parseLong(req.param("channel"));
+    return req.receive().then(Mono.defer(() -> {
+      if (!admit(channelId, res)) {
+        return tooManyRequests(res);
+      }
+      reactions.increment();
+      return res.status(HttpResponseStatus.NO_CONTENT).send();
+    }));
+  }
+
+  private Mono<Void> interactionCallback(final HttpServerRequest req, final HttpServerResponse res) {
+    final long interactionId = Long.parseLong(req.param("interaction"));
+    return req.receive().then(Mono.defer(() -> {
+      interactionCallbacks.increment();
+      listener.onInteractionCallback(interactionId, System.nanoTime());
+      return res.status(HttpResponseStatus.NO_CONTENT).send();
+    }));
+  }
+
+  /** Follow-ups and edits of deferred interaction replies. */
+  private Mono<Void> webhook(final HttpServerRequest req, final HttpServerResponse res) {
+    return req.receive().then(Mono.defer(() -> "DELETE".equals(req.method().name())
+        ? res.status(HttpResponseStatus.NO_CONTENT).send()
+        : json(res, messageBody)));
+  }
+
+  /**
+   * Take a request from the channel's bucket and set the rate limit headers.
+   *
+   * @return false if the request should be answered with a 429
+   */
+  private boolean admit(final long channelId, final HttpServerResponse res) {
+    if (injected429Share > 0 && ThreadLocalRandom.current().nextDouble() < injected429Share) {
+      injected429s.increment();
+      res.header("Retry-After", "0.1");
+      return false;
+    }
+    final Bucket bucket = buckets.computeIfAbsent(channelId, id -> new Bucket());
+    final long now = System.nanoTime();
+    final int remaining;
+    final long resetAfterNanos;
+    synchronized (bucket) {
+      if (now - bucket.windowStart >= channelWindow.toNanos()) {
+        bucket.windowStart = now;
+        bucket.used = 0;
+      }
+      resetAfterNanos = bucket.windowStart + channelWindow.toNanos() - now;
+      if (bucket.used >= channelLimit) {
+        rateLimited.increment();
+        res.header("Retry-After", seconds(resetAfterNanos))
+            .header("X-RateLimit-Scope", "user");
+        return false;
+      }
+      bucket.used++;
+      remaining = channelLimit - bucket.used;
+    }
+    res.header("X-RateLimit-Bucket", "channel-" + channelId)
+        .header("X-RateLimit-Limit", String.valueOf(channelLimit))
+        .header("X-RateLimit-Remaining", String.valueOf(remaining))
+        .header("X-RateLimit-Reset-After", seconds(resetAfterNanos))
+        .header("X-RateLimit-Reset", seconds(System.currentTimeMillis() * 1_000_000L + resetAfterNanos));
+    return true;
+  }
+
+  private Mono<Void> tooManyRequests(final HttpServerResponse res) {
+    final String retryAfter = res.responseHeaders().get("Retry-After");
+    return error(res, HttpResponseStatus.TOO_MANY_REQUESTS,
+        "{\"message\":\"You are being rate limited.\",\"retry_after\":" + retryAfter + ",\"global\":false}");
+  }
+
+  private String applicationBody() {
+    return "{\"id\":\"" + APPLICATION_ID + "\",\"name\":\"hangout\",\"icon\":null,\"description\":\"\","
+        + "\"bot_public\":false,\"bot_require_code_grant\":false,\"summary\":\"\",\"verify_key\":\"\","
+        + "\"flags\":0}";
+  }
+
+  private static UserData user(final long id, final String username, final boolean bot) {
+    return UserData.builder()
+        .id(id)
+        .username(username)
+        .discriminator("0")
+        .bot(bot)
+        .build();
+  }
+
+  private static String seconds(final long nanos) {
+    return String.format(Locale.ROOT, "%.3f", nanos / 1e9);
+  }
+
+  private static Mono<Void> json(final HttpServerResponse res, final String body) {
+    return res.header("Content-Type", "application/json").sendString(Mono.just(body)).then();
+  }
+
+  private static Mono<Void> error(final HttpServerResponse res, final HttpResponseStatus status, final String body) {
+    return json(res.status(status), body);
+  }
+
+  private String write(final Object value) {
+    try {
+      return json.writeValueAsString(value);
+    } catch (JsonProcessingException e) {
+      throw new IllegalStateException(e);
+    }
+  }
+
+  private static final class Bucket {
+    private long windowStart = System.nanoTime();
+    private int used;
+  }
+}
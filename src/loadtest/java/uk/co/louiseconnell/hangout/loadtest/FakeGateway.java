@@ -0,0 +1,137 @@
+package uk.co.louiseconnell.hangout.loadtest;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import discord4j.common.util.Snowflake;
+import discord4j.core.DiscordClient;
+import discord4j.core.GatewayDiscordClient;
+import discord4j.core.event.EventDispatcher;
+import discord4j.core.event.domain.Event;
+import discord4j.core.event.domain.interaction.ButtonInteractionEvent;
+import discord4j.core.event.domain.lifecycle.ReadyEvent;
+import discord4j.core.event.domain.message.ReactionAddEvent;
+import discord4j.core.event.domain.message.ReactionRemoveEvent;
+import discord4j.core.object.command.Interaction;
+import discord4j.core.object.component.MessageComponent;
+import discord4j.core.object.emoji.Emoji;
+import discord4j.core.object.entity.User;
+import discord4j.discordjson.json.ApplicationCommandInteractionData;
+import discord4j.discordjson.json.InteractionData;
+import discord4j.discordjson.json.PartialApplicationInfoData;
+import discord4j.discordjson.json.UserData;
+import discord4j.discordjson.json.gateway.Ready;
+import discord4j.gateway.ShardInfo;
+import org.reactivestreams.Publisher;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+import java.util.Set;
+import java.util.function.Function;
+
+/**
+ * A {@link GatewayDiscordClient} with no gateway connection behind it. Subscriptions made through
+ * {@code on(...)} go to a real {@link EventDispatcher}, and the harness publishes synthetic events
+ * into it; every subscriber to {@link ReadyEvent} gets one straight away, as on a fresh login.
+ *
+ * <p>REST calls go to {@link FakeDiscordRest}, user lookups included, as they do in production for
+ * members that aren't in the gateway cache; the vote path should not make any.
+ */
+public class FakeGateway {
+
+  private static final ShardInfo SHARD = ShardInfo.create(0, 1);
+
+  private final EventDispatcher dispatcher = EventDispatcher.builder().build();
+  private final DiscordClient rest;
+  private final GatewayDiscordClient client;
+
+  @SuppressWarnings({"unchecked", "rawtypes"})
+  public FakeGateway(final DiscordClient rest) {
+    this.rest = rest;
+    this.client = mock(GatewayDiscordClient.class);
+    when(client.getRestClient()).thenReturn(rest);
+    when(client.rest()).thenReturn(rest);
+    when(client.getEventDispatcher()).thenReturn(dispatcher);
+    when(client.getSelfId()).thenReturn(Snowflake.of(FakeDiscordRest.BOT_USER_ID));
+    when(client.logout()).thenReturn(Mono.empty());
+    when(client.on(any(Class.class), any(Function.class))).thenAnswer(invocation -> {
+      final Class<? extends Event> type = invocation.getArgument(0);
+      final Function<Event, Publisher<Object>> mapper = invocation.getArgument(1);
+      final Flux<Object> live = dispatcher.on((Class<Event>) type, mapper);
+      return type == ReadyEvent.class
+          ? Flux.defer(() -> mapper.apply(ready())).concatWith(live)
+          : live;
+    });
+    when(client.getUserById(any(Snowflake.class))).thenAnswer(invocation -> {
+      final Snowflake id = invocation.getArgument(0);
+      return rest.getUserService().getUser(id.asLong()).map(data -> new User(client, data));
+    });
+  }
+
+  public GatewayDiscordClient getClient() {
+    return client;
+  }
+
+  public void reactionAdd(final long guildId, final long channelId, final long messageId, final long userId,
+                          final String emoji) {
+    dispatcher.publish(new ReactionAddEvent(client, SHARD, userId, channelId, messageId, guildId,
+        Emoji.unicode(emoji), null, FakeDiscordRest.BOT_USER_ID, false, List.of(), 0));
+  }
+
+  public void reactionRemove(final long guildId, final long channelId, final long messageId, final long userId,
+                             final String emoji) {
+    dispatcher.publish(new ReactionRemoveEvent(client, SHARD, userId, channelId, messageId, guildId,
+        Emoji.unicode(emoji), false, 0));
+  }
+
+  public void button(final long interactionId, final long guildId, final long channelId, final long userId,
+                     final String customId) {
+    final InteractionData data = InteractionData.builder()
+        .id(interactionId)
+        .applicationId(FakeDiscordRest.APPLICATION_ID)
+        .type(Interaction.Type.MESSAGE_COMPONENT.getValue())
+        .data(ApplicationCommandInteractionData.builder()
+            .customId(customId)
+            .componentType(MessageComponent.Type.BUTTON.getValue())
+            .build())
+        .guildId(guildId)
+        .channelId(channelId)
+        .user(user(userId))
+        .token("token" + interactionId)
+        .version(1)
+        .entitlements(List.of())
+        .build();
+    dispatcher.publish(new ButtonInteractionEvent(client, SHARD, new Interaction(client, data)));
+  }
+
+  public void shutdown() {
+    dispatcher.shutdown();
+  }
+
+  private ReadyEvent ready() {
+    final UserData self = UserData.builder()
+        .id(FakeDiscordRest.BOT_USER_ID)
+        .username("hangout")
+        .discriminator("0")
+        .bot(true)
+        .build();
+    final Ready data = Ready.builder()
+        .v(10)
+        .user(self)
+        .sessionId("fake")
+        .resumeGatewayUrl("ws://127.0.0.1")
+        .application(PartialApplicationInfoData.builder().id(String.valueOf(FakeDiscordRest.APPLICATION_ID)).build())
+        .build();
+    return new ReadyEvent(client, SHARD, data, new User(client, self), Set.of());
+  }
+
+  private static UserData user(final long id) {
+    return UserData.builder()
+        .id(id)
+        .username("voter" + id)
+        .discriminator("0")
+        .build();
+  }
+}
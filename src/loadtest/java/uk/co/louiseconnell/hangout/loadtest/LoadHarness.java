@@ -0,0 +1,386 @@
+package uk.co.louiseconnell.hangout.loadtest;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.core.env.Environment;
+import org.springframework.jdbc.core.JdbcTemplate;
+import uk.co.louiseconnell.hangout.HangoutApplication;
+import uk.co.louiseconnell.hangout.discord.GuildScheduler;
+import uk.co.louiseconnell.hangout.discord.InFlightWork;
+import uk.co.louiseconnell.hangout.entity.Event;
+import uk.co.louiseconnell.hangout.entity.Timeslot;
+import uk.co.louiseconnell.hangout.service.HangoutService;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Random;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Drives the whole bot, Spring context and database included, with synthetic reaction and button
+ * traffic from {@link FakeGateway}, and reports how it kept up: votes handled per second, the
+ * latency from a vote arriving to an edit of its poll reaching {@link FakeDiscordRest}, 429s, and
+ * SQL statements per vote from Hibernate's statistics.
+ *
+ * <p>Polls are seeded into the configured database (local Postgres by default) and removed again
+ * afterwards. A vote is credited to the first edit of its poll that lands after it, which is what
+ * a user watching the message would see; votes still waiting when the run ends are reported as
+ * unresolved. All options are {@code loadtest.*} properties, e.g.
+ * {@code --loadtest.rate=500 --loadtest.hot-share=0.9}.
+ */
+@Slf4j
+public final class LoadHarness {
+
+  private static final long GUILD_BASE = 700_000_000_000_000_000L;
+  private static final long CHANNEL_BASE = 710_000_000_000_000_000L;
+  private static final long MESSAGE_BASE = 720_000_000_000_000_000L;
+  private static final long VOTER_BASE = 730_000_000_000_000_000L;
+  private static final long INTERACTION_BASE = 740_000_000_000_000_000L;
+  private static final long CREATOR = 750_000_000_000_000_000L;
+  /** Emoji run out after ten timeslots. */
+  private static final int MAX_TIMESLOTS = 10;
+  private static final long TICK_NANOS = TimeUnit.MILLISECONDS.toNanos(10);
+
+  private static final Map<String, String> DEFAULTS = Map.of(
+      "server.port", "0",
+      "spring.devtools.restart.enabled", "false",
+      "spring.jpa.show-sql", "false",
+      "spring.jpa.properties.hibernate.generate_statistics", "true",
+      "hangout.gateway.resume.enabled", "false",
+      "logging.level.root", "warn",
+      "logging.level.org.springframework", "warn",
+      "logging.level.uk.co.louiseconnell", "warn",
+      "logging.level.org.hibernate.engine.internal.StatisticalLoggingSessionEventListener", "warn");
+
+  private final ConfigurableApplicationContext context;
+  private final Options options;
+  private final FakeGateway gateway;
+  private final FakeDiscordRest rest;
+  private final Random random = new Random(42);
+
+  private final List<Poll> polls = new ArrayList<>();
+  private final Map<Long, Queue<Long>> awaitingEdit = new ConcurrentHashMap<>();
+  private final Queue<Long> voteLatencies = new ConcurrentLinkedQueue<>();
+  private final Map<Long, Long> awaitingAck = new ConcurrentHashMap<>();
+  private final Queue<Long> ackLatencies = new ConcurrentLinkedQueue<>();
+  private final AtomicLong lastEditNanos = new AtomicLong();
+  private long interactions;
+
+  private LoadHarness(final ConfigurableApplicationContext context) {
+    this.context = context;
+    this.options = new Options(context.getEnvironment());
+    this.gateway = context.getBean(FakeGateway.class);
+    this.rest = context.getBean(FakeDiscordRest.class);
+  }
+
+  public static void main(final String[] args) {
+    // System properties rather than defaults, so they win over the dev profile's logging and SQL
+    // echo but still lose to --arguments; DevTools also only looks here before deciding to restart
+    DEFAULTS.forEach((key, value) -> System.getProperties().putIfAbsent(key, value));
+    final ConfigurableApplicationContext context = new SpringApplicationBuilder(HangoutApplication.class)
+        .profiles("loadtest")
+        .run(args);
+    try {
+      new LoadHarness(context).run();
+    } finally {
+      context.close();
+    }
+  }
+
+  private void run() {
+    seed();
+    try {
+      rest.setListener(new FakeDiscordRest.Listener() {
+        @Override
+        public void onEdit(final long channelId, final long messageId, final long nanoTime) {
+          edited(messageId, nanoTime);
+        }
+
+        @Override
+        public void onInteractionCallback(final long interactionId, final long nanoTime) {
+          acknowledged(interactionId, nanoTime);
+        }
+      });
+
+      final Statistics statistics = context.getBean(EntityManagerFactory.class)
+          .unwrap(SessionFactory.class)
+          .getStatistics();
+      final long statementsBefore = statistics.getPrepareStatementCount();
+      final long handledBefore = handled();
+      final long editsBefore = rest.getEditCount();
+      final long lookupsBefore = rest.getUserLookupCount();
+
+      log.warn("Injecting {} votes/s for {} across {} poll(s) in {} guild(s)",
+          options.rate, options.duration, polls.size(), options.guilds);
+      final long injected = inject();
+      final long handledInWindow = handled() - handledBefore;
+      final boolean drained = drain();
+
+      report(injected, handledInWindow, handled() - handledBefore, drained,
+          rest.getEditCount() - editsBefore, rest.getUserLookupCount() - lookupsBefore,
+          statistics.getPrepareStatementCount() - statementsBefore);
+    } finally {
+      // Stop taking events and drain as on SIGTERM, so nothing still queued trips over the clean-up
+      context.stop();
+      if (!options.keepData) {
+        cleanUp();
+      }
+    }
+  }
+
+  private void seed() {
+    final HangoutService hangoutService = context.getBean(HangoutService.class);
+    final LocalDateTime start = LocalDateTime.now().plusDays(7).withNano(0);
+    long messageId = MESSAGE_BASE;
+    for (int g = 0; g < options.guilds; g++) {
+      for (int p = 0; p < options.pollsPerGuild; p++) {
+        final List<HangoutService.TimeslotRequest> slots = new ArrayList<>();
+        for (int t = 0; t < options.timeslots; t++) {
+          slots.add(new HangoutService.TimeslotRequest(start.plusDays(t), start.plusDays(t).plusHours(3), null));
+        }
+        final Event event = hangoutService.createHangoutEvent("Load test " + g + "/" + p, null, CREATOR,
+            CHANNEL_BASE + g, start.minusDays(1), slots);
+        hangoutService.updateEventMessageId(event.getId(), ++messageId);
+        final String[] emojis = event.getTimeslots().stream().map(Timeslot::getEmoji).sorted().toArray(String[]::new);
+        polls.add(new Poll(event.getId(), GUILD_BASE + g, CHANNEL_BASE + g, messageId, emojis));
+      }
+    }
+  }
+
+  /** Publish votes (and button clicks) at the configured rates, one tick at a time. */
+  private long inject() {
+    final long start = System.nanoTime();
+    final long end = start + options.duration.toNanos();
+    long votes = 0;
+    long nextInteraction = INTERACTION_BASE;
+    for (long now = start; now < end; now = System.nanoTime()) {
+      final double elapsed = (now - start) / 1e9;
+      for (long due = (long) (elapsed * options.rate); votes < due; votes++) {
+        vote(pick());
+      }
+      for (long due = (long) (elapsed * options.interactionRate); interactions < due; interactions++) {
+        final Poll poll = polls.get(random.nextInt(polls.size()));
+        final long id = ++nextInteraction;
+        awaitingAck.put(id, System.nanoTime());
+        gateway.button(id, poll.guildId, poll.channelId, voter(), "hangout:evt:view:" + poll.eventId);
+      }
+      LockSupport.parkNanos(TICK_NANOS);
+    }
+    return votes;
+  }
+
+  /** The hot polls share {@code hot-share} of the traffic between them; the rest is spread evenly. */
+  private Poll pick() {
+    final int hot = Math.min(options.hotPolls, polls.size());
+    if (hot > 0 && (hot == polls.size() || random.nextDouble() < options.hotShare)) {
+      return polls.get(random.nextInt(hot));
+    }
+    return polls.get(hot + random.nextInt(polls.size() - hot));
+  }
+
+  private void vote(final Poll poll) {
+    awaitingEdit.computeIfAbsent(poll.messageId, id -> new ConcurrentLinkedQueue<>()).add(System.nanoTime());
+    final long[] previous = poll.recentAdds.pollFirst();
+    if (previous != null && random.nextDouble() < options.removeShare) {
+      gateway.reactionRemove(poll.guildId, poll.channelId, poll.messageId, previous[0], poll.emojis[(int) previous[1]]);
+      return;
+    }
+    if (previous != null) {
+      poll.recentAdds.addFirst(previous);
+    }
+    final long voter = voter();
+    final int slot = random.nextInt(poll.emojis.length);
+    gateway.reactionAdd(poll.guildId, poll.channelId, poll.messageId, voter, poll.emojis[slot]);
+    poll.recentAdds.addLast(new long[] {voter, slot});
+    if (poll.recentAdds.size() > 1_000) {
+      poll.recentAdds.pollFirst();
+    }
+  }
+
+  private long voter() {
+    return VOTER_BASE + random.nextInt(options.voters);
+  }
+
+  private void edited(final long messageId, final long nanoTime) {
+    lastEditNanos.set(nanoTime);
+    final Queue<Long> waiting = awaitingEdit.get(messageId);
+    if (waiting == null) {
+      return;
+    }
+    for (Long injectedAt = waiting.peek(); injectedAt != null && injectedAt <= nanoTime; injectedAt = waiting.peek()) {
+      if (waiting.remove(injectedAt)) {
+        voteLatencies.add(nanoTime - injectedAt);
+      }
+    }
+  }
+
+  private void acknowledged(final long interactionId, final long nanoTime) {
+    final Long injectedAt = awaitingAck.remove(interactionId);
+    if (injectedAt != null) {
+      ackLatencies.add(nanoTime - injectedAt);
+    }
+  }
+
+  /**
+   * Wait for admitted work, queued guild tasks and throttled edits to finish: nothing in flight
+   * and no edit for a quiet period, or the drain timeout.
+   *
+   * @return false if the timeout ran out first
+   */
+  private boolean drain() {
+    final InFlightWork inFlightWork = context.getBean(InFlightWork.class);
+    final GuildScheduler guildScheduler = context.getBean(GuildScheduler.class);
+    final long quiet = options.quietPeriod.toNanos();
+    final long deadline = System.nanoTime() + options.drainTimeout.toNanos();
+    while (System.nanoTime() < deadline) {
+      final boolean idle = inFlightWork.getInFlightCount() == 0
+          && guildScheduler.getQueuedCount() == 0
+          && guildScheduler.getRunningCount() == 0;
+      if (idle && System.nanoTime() - lastEditNanos.get() >= quiet) {
+        return true;
+      }
+      LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(100));
+    }
+    return false;
+  }
+
+  private long handled() {
+    final MeterRegistry registry = context.getBean(MeterRegistry.class);
+    return registry.find("hangout.gateway.handle").tag("type", "reaction_add").timers().stream()
+        .mapToLong(Timer::count).sum()
+        + registry.find("hangout.gateway.handle").tag("type", "reaction_remove").timers().stream()
+        .mapToLong(Timer::count).sum();
+  }
+
+  private void report(final long injected, final long handledInWindow, final long handled, final boolean drained,
+                      final long edits, final long userLookups, final long statements) {
+    final double seconds = options.duration.toNanos() / 1e9;
+    final long[] votes = sorted(voteLatencies);
+    final long[] acks = sorted(ackLatencies);
+    final long unresolved = awaitingEdit.values().stream().mapToLong(Queue::size).sum();
+    final StringBuilder out = new StringBuilder()
+        .append("\n==== Load test: ").append(polls.size()).append(" poll(s), ").append(options.guilds)
+        .append(" guild(s), hot share ").append(options.hotShare).append(" over ").append(options.hotPolls)
+        .append(" poll(s) ====\n")
+        .append(line("votes injected", "%d (%.1f/s)", injected, injected / seconds))
+        .append(line("votes handled", "%d (%.1f/s during injection, %d total)%s", handledInWindow,
+            handledInWindow / seconds, handled, drained ? "" : " - drain timed out"))
+        .append(line("poll edits", "%d (%.2f per vote)", edits, injected == 0 ? 0.0 : (double) edits / injected))
+        .append(line("429s", "%d over bucket, %d injected", rest.getRateLimitedCount(), rest.getInjected429Count()))
+        .append(line("user lookups", "%d", userLookups))
+        .append(line("vote -> edit", "p50 %s  p95 %s  p99 %s  max %s  (%d unresolved)", percentile(votes, 0.50),
+            percentile(votes, 0.95), percentile(votes, 0.99), percentile(votes, 1.0), unresolved))
+        .append(line("button -> ack", "p50 %s  p99 %s  (%d of %d acknowledged)", percentile(acks, 0.50),
+            percentile(acks, 0.99), acks.length, interactions))
+        .append(line("SQL statements", "%d (%.2f per vote)", statements,
+            injected == 0 ? 0.0 : (double) statements / injected));
+    log.warn(out.toString());
+  }
+
+  private void cleanUp() {
+    final JdbcTemplate jdbc = context.getBean(JdbcTemplate.class);
+    final String events = "select id from events where creator_discord_id = " + CREATOR;
+    jdbc.update("delete from availabilities where event_id in (" + events + ")");
+    jdbc.update("delete from timeslots where event_id in (" + events + ")");
+    jdbc.update("delete from events where creator_discord_id = ?", CREATOR);
+    final List<Object[]> voters = new ArrayList<>();
+    for (int v = 0; v < options.voters; v++) {
+      voters.add(new Object[] {VOTER_BASE + v});
+    }
+    jdbc.batchUpdate("delete from users where discord_id = ?", voters);
+  }
+
+  private static long[] sorted(final Queue<Long> values) {
+    final long[] sorted = values.stream().mapToLong(Long::longValue).toArray();
+    Arrays.sort(sorted);
+    return sorted;
+  }
+
+  private static String percentile(final long[] sorted, final double quantile) {
+    if (sorted.length == 0) {
+      return "-";
+    }
+    final int index = (int) Math.min(sorted.length - 1, Math.ceil(quantile * sorted.length) - 1);
+    return String.format(Locale.ROOT, "%.1fms", sorted[Math.max(0, index)] / 1e6);
+  }
+
+  private static String line(final String label, final String format, final Object... args) {
+    return String.format(Locale.ROOT, "  %-16s " + format + "%n", prepend(label, args));
+  }
+
+  private static Object[] prepend(final Object first, final Object[] rest) {
+    final Object[] all = new Object[rest.length + 1];
+    all[0] = first;
+    System.arraycopy(rest, 0, all, 1, rest.length);
+    return all;
+  }
+
+  private static final class Poll {
+    private final long eventId;
+    private final long guildId;
+    private final long channelId;
+    private final long messageId;
+    private final String[] emojis;
+    /** Recent (voter, timeslot) adds, so removes take back a vote that exists. */
+    private final Deque<long[]> recentAdds = new ArrayDeque<>();
+
+    private Poll(final long eventId, final long guildId, final long channelId, final long messageId,
+                 final String[] emojis) {
+      this.eventId = eventId;
+      this.guildId = guildId;
+      this.channelId = channelId;
+      this.messageId = messageId;
+      this.emojis = emojis;
+    }
+  }
+
+  private static final class Options {
+    private final double rate;
+    private final Duration duration;
+    private final int guilds;
+    private final int pollsPerGuild;
+    private final int hotPolls;
+    private final double hotShare;
+    private final int voters;
+    private final int timeslots;
+    private final double removeShare;
+    private final double interactionRate;
+    private final Duration quietPeriod;
+    private final Duration drainTimeout;
+    private final boolean keepData;
+
+    private Options(final Environment env) {
+      rate = env.getProperty("loadtest.rate", Double.class, 200.0);
+      duration = env.getProperty("loadtest.duration", Duration.class, Duration.ofSeconds(60));
+      guilds = env.getProperty("loadtest.guilds", Integer.class, 50);
+      pollsPerGuild = env.getProperty("loadtest.polls-per-guild", Integer.class, 2);
+      hotPolls = env.getProperty("loadtest.hot-polls", Integer.class, 1);
+      hotShare = env.getProperty("loadtest.hot-share", Double.class, 0.5);
+      voters = env.getProperty("loadtest.voters", Integer.class, 2_000);
+      timeslots = Math.min(MAX_TIMESLOTS, env.getProperty("loadtest.timeslots", Integer.class, 3));
+      removeShare = env.getProperty("loadtest.remove-share", Double.class, 0.2);
+      interactionRate = env.getProperty("loadtest.interaction-rate", Double.class, 5.0);
+      quietPeriod = env.getProperty("loadtest.quiet-period", Duration.class, Duration.ofSeconds(3));
+      drainTimeout = env.getProperty("loadtest.drain-timeout", Duration.class, Duration.ofSeconds(120));
+      keepData = env.getProperty("loadtest.keep-data", Boolean.class, false);
+    }
+  }
+}
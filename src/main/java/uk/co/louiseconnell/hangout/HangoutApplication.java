@@ -1,11 +1,13 @@
 package uk.co.louiseconnell.hangout;
 
+import discord4j.common.ReactorResources;
 import discord4j.core.DiscordClientBuilder;
 import discord4j.core.GatewayDiscordClient;
 import discord4j.core.object.presence.ClientActivity;
 import discord4j.core.object.presence.ClientPresence;
 import discord4j.rest.RestClient;
 import discord4j.gateway.intent.Intent;
+import discord4j.gateway.SessionInfo;
 import discord4j.gateway.intent.IntentSet;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
@@ -13,6 +15,11 @@ import org.springframework.scheduling.annotation.EnableScheduling;
 import org.springframework.boot.builder.SpringApplicationBuilder;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import uk.co.louiseconnell.hangout.discord.GatewaySessionStore;
+import uk.co.louiseconnell.hangout.metrics.DiscordRestMetrics;
+
+import java.util.Map;
 
 @SpringBootApplication
 @EnableScheduling
@@ -22,7 +29,11 @@ public class HangoutApplication {
     new SpringApplicationBuilder(HangoutApplication.class).build().run(args);
   }
 
+  /**
+   * Logs in to Discord. The {@code loadtest} profile swaps in an in-process fake instead.
+   */
   @Configuration
+  @Profile("!loadtest")
   public static class DiscordConfiguration {
     private final String token;
 
@@ -36,14 +47,19 @@ public class HangoutApplication {
 
     /**
      * Create a Discord client and set the initial presence to online with a listening activity.
+     * Resumes the gateway session saved by the previous instance when it is still fresh. REST calls
+     * are timed per route and status through Reactor Netty's client metrics.
      *
      * @return a GatewayDiscordClient instance
      */
     @Bean
-    public GatewayDiscordClient gatewayDiscordClient() {
+    public GatewayDiscordClient gatewayDiscordClient(final GatewaySessionStore sessionStore) {
+      final Map<Integer, SessionInfo> sessions = sessionStore.takeResumableSessions();
       return DiscordClientBuilder.create(token)
+          .setReactorResources(ReactorResources.builder().httpClient(DiscordRestMetrics.httpClient()).build())
           .build()
           .gateway()
+          .setResumeOptions(shard -> sessions.get(shard.getIndex()))
           .setEnabledIntents(IntentSet.of(
               Intent.GUILDS,
               Intent.GUILD_MESSAGES,
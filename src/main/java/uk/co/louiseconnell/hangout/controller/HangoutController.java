@@ -4,6 +4,7 @@ import lombok.RequiredArgsConstructor;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import uk.co.louiseconnell.hangout.entity.Event;
+import uk.co.louiseconnell.hangout.entity.EventSummary;
 import uk.co.louiseconnell.hangout.entity.Timeslot;
 import uk.co.louiseconnell.hangout.entity.Availability;
 import uk.co.louiseconnell.hangout.service.HangoutService;
@@ -23,18 +24,29 @@ public class HangoutController {
      * Get active events for a channel
      */
     @GetMapping("/events/channel/{channelId}")
-    public ResponseEntity<List<Event>> getActiveEventsForChannel(@PathVariable String channelId) {
+    public ResponseEntity<List<Event>> getActiveEventsForChannel(@PathVariable Long channelId) {
         List<Event> events = hangoutService.getActiveEventsForChannel(channelId);
         return ResponseEntity.ok(events);
     }
     
     /**
-     * Get event by ID
+     * Get event by ID, archived or not
      */
     @GetMapping("/events/{eventId}")
     public ResponseEntity<Event> getEvent(@PathVariable Long eventId) {
-        // This would need to be implemented in the service
-        return ResponseEntity.notFound().build();
+        return hangoutService.getEventById(eventId)
+                .map(ResponseEntity::ok)
+                .orElse(ResponseEntity.notFound().build());
+    }
+    
+    /**
+     * Get an event's vote totals, from its summary row
+     */
+    @GetMapping("/events/{eventId}/summary")
+    public ResponseEntity<EventSummary> getEventSummary(@PathVariable Long eventId) {
+        return hangoutService.getEventSummary(eventId)
+                .map(ResponseEntity::ok)
+                .orElse(ResponseEntity.notFound().build());
     }
     
     /**
@@ -61,7 +73,7 @@ public class HangoutController {
     @GetMapping("/events/{eventId}/users/{userDiscordId}/votes")
     public ResponseEntity<List<Availability>> getUserVotes(
             @PathVariable Long eventId, 
-            @PathVariable String userDiscordId) {
+            @PathVariable Long userDiscordId) {
         List<Availability> votes = hangoutService.getUserVotesForEvent(userDiscordId, eventId);
         return ResponseEntity.ok(votes);
     }
@@ -72,7 +84,7 @@ public class HangoutController {
     @PostMapping("/timeslots/{timeslotId}/vote")
     public ResponseEntity<Void> voteForTimeslot(
             @PathVariable Long timeslotId,
-            @RequestParam String userDiscordId,
+            @RequestParam Long userDiscordId,
             @RequestParam Availability.AvailabilityStatus status) {
         try {
             hangoutService.voteForTimeslot(userDiscordId, timeslotId, status);
@@ -88,7 +100,7 @@ public class HangoutController {
     @DeleteMapping("/timeslots/{timeslotId}/vote")
     public ResponseEntity<Void> removeVote(
             @PathVariable Long timeslotId,
-            @RequestParam String userDiscordId) {
+            @RequestParam Long userDiscordId) {
         hangoutService.removeUserVote(userDiscordId, timeslotId);
         return ResponseEntity.ok().build();
     }
@@ -111,7 +123,7 @@ public class HangoutController {
      */
     @PutMapping("/users/{userDiscordId}/timezone")
     public ResponseEntity<Void> updateUserTimezone(
-            @PathVariable String userDiscordId,
+            @PathVariable Long userDiscordId,
             @RequestParam String timezone) {
         hangoutService.updateUserTimezone(userDiscordId, timezone);
         return ResponseEntity.ok().build();
@@ -0,0 +1,41 @@
+package uk.co.louiseconnell.hangout.controller;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import uk.co.louiseconnell.hangout.discord.GuildScheduler;
+import uk.co.louiseconnell.hangout.discord.InteractionAcks;
+
+import java.util.List;
+
+/**
+ * Operational views and controls for whoever is running the bot. Not meant to be reachable from
+ * outside the deployment. Flight recordings and summary rebuilds are on the management port instead,
+ * see {@link uk.co.louiseconnell.hangout.metrics.jfr.FlightRecordingsEndpoint} and
+ * {@link uk.co.louiseconnell.hangout.jobs.SummaryRebuildEndpoint}.
+ */
+@RestController
+@RequestMapping("/api/ops")
+@RequiredArgsConstructor
+public class OpsController {
+    
+    private final GuildScheduler guildScheduler;
+    private final InteractionAcks interactionAcks;
+    
+    /**
+     * Per-guild queue depth, running work and latency, busiest guild first
+     */
+    @GetMapping("/guilds")
+    public ResponseEntity<List<GuildScheduler.GuildStats>> getGuildQueues(@RequestParam(defaultValue = "50") int limit) {
+        List<GuildScheduler.GuildStats> stats = guildScheduler.snapshot();
+        return ResponseEntity.ok(stats.subList(0, Math.min(Math.max(limit, 0), stats.size())));
+    }
+    
+    /**
+     * Time to acknowledge interactions per slash command and custom ID prefix, busiest first
+     */
+    @GetMapping("/interactions")
+    public ResponseEntity<List<InteractionAcks.AckStats>> getInteractionAcks() {
+        return ResponseEntity.ok(interactionAcks.snapshot());
+    }
+}
@@ -0,0 +1,56 @@
+package uk.co.louiseconnell.hangout.datasource;
+
+import org.springframework.jdbc.datasource.AbstractDataSource;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.Set;
+import javax.sql.DataSource;
+
+/**
+ * Hands out connections from the pool of the thread's current {@link Workload}, so a burst of
+ * background work can only exhaust its own pool and interactive work keeps its connections. Several
+ * workloads may share a pool.
+ */
+public class BulkheadDataSource extends AbstractDataSource implements AutoCloseable {
+
+  private final Map<Workload, DataSource> pools;
+
+  public BulkheadDataSource(final Map<Workload, DataSource> pools) {
+    this.pools = new EnumMap<>(pools);
+    for (Workload workload : Workload.values()) {
+      if (!this.pools.containsKey(workload)) {
+        throw new IllegalArgumentException("No connection pool for " + workload);
+      }
+    }
+  }
+
+  public DataSource pool(final Workload workload) {
+    return pools.get(workload);
+  }
+
+  @Override
+  public Connection getConnection() throws SQLException {
+    return pools.get(Workload.current()).getConnection();
+  }
+
+  @Override
+  public Connection getConnection(final String username, final String password) throws SQLException {
+    return pools.get(Workload.current()).getConnection(username, password);
+  }
+
+  @Override
+  public void close() throws Exception {
+    final Set<DataSource> distinct = Collections.newSetFromMap(new IdentityHashMap<>());
+    distinct.addAll(pools.values());
+    for (DataSource pool : distinct) {
+      if (pool instanceof AutoCloseable closeable) {
+        closeable.close();
+      }
+    }
+  }
+}
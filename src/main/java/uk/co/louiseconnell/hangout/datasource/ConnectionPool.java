@@ -0,0 +1,21 @@
+package uk.co.louiseconnell.hangout.datasource;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Run a bean method, or every public method of a bean, as the given {@link Workload}, so its
+ * queries use that workload's connection pool. Applied by {@link ConnectionPoolAspect}, which only
+ * sees calls made through the Spring proxy: calls from within the same class need
+ * {@link Workload#call}.
+ */
+@Target({ElementType.METHOD, ElementType.TYPE})
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+public @interface ConnectionPool {
+
+  Workload value();
+}
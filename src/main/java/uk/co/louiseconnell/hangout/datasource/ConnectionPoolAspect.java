@@ -0,0 +1,41 @@
+package uk.co.louiseconnell.hangout.datasource;
+
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+/**
+ * Sets the {@link Workload} for {@link ConnectionPool} methods. Runs outside the transaction
+ * interceptor, so the workload is in place before a transaction takes its connection.
+ */
+@Aspect
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class ConnectionPoolAspect {
+
+  @Around("@annotation(uk.co.louiseconnell.hangout.datasource.ConnectionPool)"
+      + " || @within(uk.co.louiseconnell.hangout.datasource.ConnectionPool)")
+  public Object withWorkload(final ProceedingJoinPoint joinPoint) throws Throwable {
+    final Workload previous = workloadOf(joinPoint).enter();
+    try {
+      return joinPoint.proceed();
+    } finally {
+      Workload.exit(previous);
+    }
+  }
+
+  private static Workload workloadOf(final ProceedingJoinPoint joinPoint) {
+    // The method's own annotation wins over its class's
+    ConnectionPool pool = AnnotatedElementUtils.findMergedAnnotation(
+        ((MethodSignature) joinPoint.getSignature()).getMethod(), ConnectionPool.class);
+    if (pool == null) {
+      pool = AnnotatedElementUtils.findMergedAnnotation(joinPoint.getTarget().getClass(), ConnectionPool.class);
+    }
+    return pool.value();
+  }
+}
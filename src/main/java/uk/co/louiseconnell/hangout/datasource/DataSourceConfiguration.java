@@ -0,0 +1,157 @@
+package uk.co.louiseconnell.hangout.datasource;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.resource.jdbc.spi.PhysicalConnectionHandlingMode;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.orm.jpa.AbstractEntityManagerFactoryBean;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.util.StringUtils;
+
+import java.time.Duration;
+import java.util.Map;
+import javax.sql.DataSource;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Replaces the auto-configured data source. The primary is split into an interactive and a
+ * background pool ({@link BulkheadDataSource}), and with {@code hangout.datasource.replica.enabled}
+ * a read-only replica pool is added in front of it ({@link ReplicaRoutingDataSource}). Every pool
+ * reports {@code hikaricp.*} metrics under its own name.
+ */
+@Configuration(proxyBeanMethods = false)
+public class DataSourceConfiguration {
+
+  @Bean
+  public BulkheadDataSource bulkheadDataSource(
+      final DataSourceProperties properties,
+      final MeterRegistry registry,
+      final @Value("${hangout.datasource.bulkheads.enabled:true}") boolean enabled,
+      final @Value("${hangout.datasource.bulkheads.interactive.pool-size:10}") int interactiveSize,
+      final @Value("${hangout.datasource.bulkheads.interactive.connection-timeout:3s}") Duration interactiveTimeout,
+      final @Value("${hangout.datasource.bulkheads.background.pool-size:4}") int backgroundSize,
+      final @Value("${hangout.datasource.bulkheads.background.connection-timeout:30s}") Duration backgroundTimeout) {
+    if (!enabled) {
+      // One pool for both, with Hikari's default size and timeout
+      final HikariDataSource shared = primaryPool(properties, "primary", registry);
+      return new BulkheadDataSource(Map.of(Workload.INTERACTIVE, shared, Workload.BACKGROUND, shared));
+    }
+    final HikariDataSource interactive = primaryPool(properties, "interactive", registry);
+    interactive.setMaximumPoolSize(interactiveSize);
+    interactive.setConnectionTimeout(interactiveTimeout.toMillis());
+    final HikariDataSource background = primaryPool(properties, "background", registry);
+    background.setMaximumPoolSize(backgroundSize);
+    background.setConnectionTimeout(backgroundTimeout.toMillis());
+    // Idle background connections are given back rather than held for the next job
+    background.setMinimumIdle(0);
+    return new BulkheadDataSource(Map.of(Workload.INTERACTIVE, interactive, Workload.BACKGROUND, background));
+  }
+
+  /**
+   * The replica pool, and the router sending read-only transactions to it. The replica borrows
+   * the primary's credentials unless it has its own.
+   */
+  @Bean
+  @ConditionalOnProperty(name = "hangout.datasource.replica.enabled", havingValue = "true")
+  public ReplicaRoutingDataSource replicaRoutingDataSource(
+      final BulkheadDataSource primary,
+      final DataSourceProperties properties,
+      final ReadYourWrites readYourWrites,
+      final TaskScheduler scheduler,
+      final MeterRegistry registry,
+      final @Value("${hangout.datasource.replica.url}") String url,
+      final @Value("${hangout.datasource.replica.username:}") String username,
+      final @Value("${hangout.datasource.replica.password:}") String password,
+      final @Value("${hangout.datasource.replica.pool-size:10}") int poolSize,
+      final @Value("${hangout.datasource.replica.connection-timeout:2s}") Duration connectionTimeout,
+      final @Value("${hangout.datasource.replica.max-lag:5s}") Duration maxLag,
+      final @Value("${hangout.datasource.replica.lag-check-interval:2s}") Duration lagCheckInterval) {
+    final HikariDataSource replica = new HikariDataSource();
+    replica.setPoolName("replica");
+    replica.setJdbcUrl(url);
+    replica.setDriverClassName(properties.determineDriverClassName());
+    replica.setUsername(StringUtils.hasText(username) ? username : properties.determineUsername());
+    replica.setPassword(StringUtils.hasText(username) ? password : properties.determinePassword());
+    replica.setReadOnly(true);
+    replica.setMaximumPoolSize(poolSize);
+    // A dead replica delays a read by this much at most before it falls back to the primary
+    replica.setConnectionTimeout(connectionTimeout.toMillis());
+    // Don't fail startup over the replica; the lag monitor keeps reads off it until it answers
+    replica.setInitializationFailTimeout(-1);
+    replica.setMetricRegistry(registry);
+
+    final JdbcTemplate replicaJdbc = new JdbcTemplate(replica);
+    replicaJdbc.setQueryTimeout((int) Math.max(1, connectionTimeout.toSeconds()));
+    final ReplicaLagMonitor lagMonitor = new ReplicaLagMonitor(replicaJdbc, maxLag);
+    Gauge.builder("hangout.datasource.replica.lag", lagMonitor, ReplicaLagMonitor::getLagSeconds)
+        .description("Replica replay lag at the last check; NaN when unreachable")
+        .baseUnit("seconds")
+        .register(registry);
+    scheduler.scheduleWithFixedDelay(lagMonitor::check, lagCheckInterval);
+
+    return new ReplicaRoutingDataSource(primary, replica, lagMonitor, readYourWrites, registry);
+  }
+
+  /**
+   * What the rest of the application sees. Connections are only taken from the pools when the
+   * first statement runs, by which time a transaction is known to be read-only and the workload
+   * has been set.
+   */
+  @Bean
+  @Primary
+  public DataSource dataSource(final BulkheadDataSource primary,
+                               final ObjectProvider<ReplicaRoutingDataSource> replicaRouting) {
+    final DataSource routing = replicaRouting.getIfAvailable();
+    return new LazyConnectionDataSourceProxy(routing != null ? routing : primary);
+  }
+
+  /**
+   * Give the connection back at the end of each transaction. Holding it for the whole session, as
+   * Spring does by default, would run a write under open-session-in-view on the connection an
+   * earlier read-only transaction in the same request took from the replica.
+   */
+  @Bean
+  @ConditionalOnProperty(name = "hangout.datasource.replica.enabled", havingValue = "true")
+  public HibernatePropertiesCustomizer releaseConnectionsAfterTransaction() {
+    return properties -> properties.put(AvailableSettings.CONNECTION_HANDLING,
+        PhysicalConnectionHandlingMode.DELAYED_ACQUISITION_AND_RELEASE_AFTER_TRANSACTION);
+  }
+
+  /**
+   * Keep entities read from the replica out of the second-level cache ({@link ReplicaReadsJpaDialect}).
+   * Set on the entity manager factory, which hands its dialect to the transaction manager.
+   */
+  @Bean
+  @ConditionalOnProperty(name = "hangout.datasource.replica.enabled", havingValue = "true")
+  public static BeanPostProcessor replicaReadsJpaDialect(final ObjectProvider<ReadYourWrites> readYourWrites) {
+    return new BeanPostProcessor() {
+      @Override
+      public Object postProcessBeforeInitialization(final Object bean, final String beanName) {
+        if (bean instanceof AbstractEntityManagerFactoryBean entityManagerFactory) {
+          entityManagerFactory.setJpaDialect(new ReplicaReadsJpaDialect(readYourWrites::getObject));
+        }
+        return bean;
+      }
+    };
+  }
+
+  private static HikariDataSource primaryPool(final DataSourceProperties properties, final String name,
+                                              final MeterRegistry registry) {
+    final HikariDataSource pool = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+    pool.setPoolName(name);
+    pool.setMetricRegistry(registry);
+    return pool;
+  }
+}
@@ -0,0 +1,120 @@
+package uk.co.louiseconnell.hangout.datasource;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+
+/**
+ * Keeps a user's reads on the primary for a short window after their own write commits, so they
+ * never read from a replica that hasn't replayed their vote yet.
+ *
+ * <p>{@link uk.co.louiseconnell.hangout.service.HangoutService} reports writes with {@link #wrote}
+ * and runs reads made on a user's behalf inside {@link #callAs}, and cache loads inside
+ * {@link #callOnPrimary}; {@link ReplicaRoutingDataSource} checks {@link #isPinnedToPrimary()}
+ * before handing out a replica connection. Does nothing while no replica is configured.
+ */
+@Component
+public class ReadYourWrites {
+
+  /** Expired windows are swept once this many users have one. */
+  private static final int SWEEP_THRESHOLD = 10_000;
+
+  private static final ThreadLocal<Boolean> PINNED = new ThreadLocal<>();
+
+  private final boolean enabled;
+  private final long windowNanos;
+  private final LongSupplier nanoClock;
+  private final Map<Long, Long> stickyUntil = new ConcurrentHashMap<>();
+
+  @Autowired
+  public ReadYourWrites(final @Value("${hangout.datasource.replica.enabled:false}") boolean enabled,
+                        final @Value("${hangout.datasource.replica.sticky-window:5s}") Duration window) {
+    this(enabled, window, System::nanoTime);
+  }
+
+  ReadYourWrites(final boolean enabled, final Duration window, final LongSupplier nanoClock) {
+    this.enabled = enabled;
+    this.windowNanos = window.toNanos();
+    this.nanoClock = nanoClock;
+  }
+
+  /**
+   * Start the user's window when the current transaction commits, or now outside of one.
+   */
+  public void wrote(final long userDiscordId) {
+    if (!enabled) {
+      return;
+    }
+    if (TransactionSynchronizationManager.isSynchronizationActive()) {
+      TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+        @Override
+        public void afterCommit() {
+          stick(userDiscordId);
+        }
+      });
+    } else {
+      stick(userDiscordId);
+    }
+  }
+
+  public boolean isSticky(final long userDiscordId) {
+    final Long until = stickyUntil.get(userDiscordId);
+    return until != null && until - nanoClock.getAsLong() > 0;
+  }
+
+  /**
+   * Run {@code work} as a read for the given user: on the primary if the user's window is open.
+   */
+  public <T> T callAs(final long userDiscordId, final Supplier<T> work) {
+    if (!enabled) {
+      return work.get();
+    }
+    return pinned(isSticky(userDiscordId), work);
+  }
+
+  /**
+   * Run {@code work} on the primary, whoever it reads for. For loads that fill a cache: a result
+   * read from a replica that hasn't replayed the latest vote would be served until the next
+   * eviction, long after any user's window has closed.
+   */
+  public <T> T callOnPrimary(final Supplier<T> work) {
+    if (!enabled) {
+      return work.get();
+    }
+    return pinned(true, work);
+  }
+
+  public boolean isPinnedToPrimary() {
+    return Boolean.TRUE.equals(PINNED.get());
+  }
+
+  private <T> T pinned(final boolean pin, final Supplier<T> work) {
+    final Boolean previous = PINNED.get();
+    PINNED.set(Boolean.TRUE.equals(previous) || pin);
+    try {
+      return work.get();
+    } finally {
+      if (previous == null) {
+        PINNED.remove();
+      } else {
+        PINNED.set(previous);
+      }
+    }
+  }
+
+  private void stick(final long userDiscordId) {
+    final long now = nanoClock.getAsLong();
+    stickyUntil.put(userDiscordId, now + windowNanos);
+    if (stickyUntil.size() > SWEEP_THRESHOLD) {
+      stickyUntil.values().removeIf(until -> until - now <= 0);
+    }
+  }
+}
@@ -0,0 +1,78 @@
+package uk.co.louiseconnell.hangout.datasource;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.Duration;
+
+/**
+ * Polls the replica for how far its replay is behind the primary, and decides whether it may serve
+ * reads: only while the last check succeeded and the lag was within the limit. Starts out unusable,
+ * so reads stay on the primary until the first check passes.
+ */
+@Slf4j
+public class ReplicaLagMonitor {
+
+  /**
+   * Replay lag in seconds, as the replica sees it. Zero when it has replayed everything it received
+   * and is still streaming; otherwise the age of the last replayed transaction, which also grows
+   * while the primary is idle, erring towards the primary. Zero on a server that isn't a standby.
+   */
+  static final String LAG_SQL = """
+      SELECT CASE
+        WHEN NOT pg_is_in_recovery() THEN 0
+        WHEN pg_last_wal_receive_lsn() = pg_last_wal_replay_lsn()
+          AND EXISTS (SELECT 1 FROM pg_stat_wal_receiver WHERE status = 'streaming') THEN 0
+        ELSE COALESCE(EXTRACT(EPOCH FROM now() - pg_last_xact_replay_timestamp()), 0)
+      END""";
+
+  private final JdbcTemplate replica;
+  private final double maxLagSeconds;
+
+  private volatile boolean usable;
+  private volatile double lagSeconds = Double.NaN;
+
+  public ReplicaLagMonitor(final JdbcTemplate replica, final Duration maxLag) {
+    this.replica = replica;
+    this.maxLagSeconds = maxLag.toMillis() / 1000.0;
+  }
+
+  public void check() {
+    final double lag;
+    try {
+      lag = replica.queryForObject(LAG_SQL, Double.class);
+    } catch (DataAccessException e) {
+      replicaFailed(e);
+      return;
+    }
+    lagSeconds = lag;
+    final boolean wasUsable = usable;
+    usable = lag <= maxLagSeconds;
+    if (wasUsable && !usable) {
+      log.warn("Replica is {}s behind, over the {}s limit; reading from the primary", lag, maxLagSeconds);
+    } else if (!wasUsable && usable) {
+      log.info("Replica is {}s behind; serving read-only transactions from it", lag);
+    }
+  }
+
+  /**
+   * Take the replica out of rotation until the next successful check.
+   */
+  public void replicaFailed(final Exception cause) {
+    if (usable) {
+      log.warn("Replica unavailable; reading from the primary: {}", cause.getMessage());
+    }
+    usable = false;
+    lagSeconds = Double.NaN;
+  }
+
+  public boolean isUsable() {
+    return usable;
+  }
+
+  /** Lag at the last check, or NaN if the replica couldn't be reached. */
+  public double getLagSeconds() {
+    return lagSeconds;
+  }
+}
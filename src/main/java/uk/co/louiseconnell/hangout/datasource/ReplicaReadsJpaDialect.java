@@ -0,0 +1,54 @@
+package uk.co.louiseconnell.hangout.datasource;
+
+import jakarta.persistence.CacheStoreMode;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceException;
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.lang.Nullable;
+import org.springframework.orm.jpa.vendor.HibernateJpaDialect;
+import org.springframework.transaction.TransactionDefinition;
+
+import java.sql.SQLException;
+import java.util.function.Supplier;
+
+/**
+ * Keeps what a read-only transaction loads out of Hibernate's second-level cache, since
+ * {@link ReplicaRoutingDataSource} may serve it from a replica that hasn't replayed the latest
+ * writes. Such a transaction still reads the cache; only transactions known to be on the primary
+ * fill it: writes, and reads {@link ReadYourWrites} has pinned there.
+ */
+class ReplicaReadsJpaDialect extends HibernateJpaDialect {
+
+  private final Supplier<ReadYourWrites> readYourWrites;
+
+  ReplicaReadsJpaDialect(final Supplier<ReadYourWrites> readYourWrites) {
+    this.readYourWrites = readYourWrites;
+  }
+
+  @Override
+  public Object beginTransaction(final EntityManager entityManager, final TransactionDefinition definition)
+      throws PersistenceException, SQLException {
+    final Object transactionData = super.beginTransaction(entityManager, definition);
+    if (!definition.isReadOnly() || readYourWrites.get().isPinnedToPrimary()) {
+      return transactionData;
+    }
+    // A session property rather than the session's cache mode, which find() replaces with it
+    final Object previous = entityManager.getProperties().get(AvailableSettings.JAKARTA_SHARED_CACHE_STORE_MODE);
+    entityManager.setProperty(AvailableSettings.JAKARTA_SHARED_CACHE_STORE_MODE, CacheStoreMode.BYPASS);
+    return new ReplicaReadData(transactionData, entityManager, previous != null ? previous : CacheStoreMode.USE);
+  }
+
+  @Override
+  public void cleanupTransaction(final @Nullable Object transactionData) {
+    if (transactionData instanceof ReplicaReadData read) {
+      // The session outlives the transaction under open-session-in-view
+      read.entityManager().setProperty(AvailableSettings.JAKARTA_SHARED_CACHE_STORE_MODE, read.previousStoreMode());
+      super.cleanupTransaction(read.transactionData());
+    } else {
+      super.cleanupTransaction(transactionData);
+    }
+  }
+
+  private record ReplicaReadData(Object transactionData, EntityManager entityManager, Object previousStoreMode) {
+  }
+}
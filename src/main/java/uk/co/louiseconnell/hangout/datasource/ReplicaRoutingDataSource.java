@@ -0,0 +1,109 @@
+package uk.co.louiseconnell.hangout.datasource;
+
+import org.springframework.jdbc.datasource.AbstractDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import javax.sql.DataSource;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Sends read-only transactions to the replica and everything else to the primary. A read-only
+ * transaction still gets a primary connection while the user it reads for is inside their
+ * {@link ReadYourWrites} window, while the replica is lagging or unreachable, or if taking a replica
+ * connection fails.
+ *
+ * <p>The decision is made when a connection is taken, so this must sit behind a
+ * {@link org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy}: the transaction
+ * manager asks for a connection before it marks the transaction read-only.
+ */
+public class ReplicaRoutingDataSource extends AbstractDataSource implements AutoCloseable {
+
+  private final DataSource primary;
+  private final DataSource replica;
+  private final ReplicaLagMonitor lagMonitor;
+  private final ReadYourWrites readYourWrites;
+
+  private final Counter replicaReads;
+  private final Counter stickyReads;
+  private final Counter laggingReads;
+  private final Counter failedOverReads;
+
+  public ReplicaRoutingDataSource(final DataSource primary, final DataSource replica, final ReplicaLagMonitor lagMonitor,
+                                  final ReadYourWrites readYourWrites, final MeterRegistry registry) {
+    this.primary = primary;
+    this.replica = replica;
+    this.lagMonitor = lagMonitor;
+    this.readYourWrites = readYourWrites;
+    this.replicaReads = reads(registry, "replica", "replica");
+    this.stickyReads = reads(registry, "primary", "read-your-writes");
+    this.laggingReads = reads(registry, "primary", "lagging");
+    this.failedOverReads = reads(registry, "primary", "replica-error");
+  }
+
+  @Override
+  public Connection getConnection() throws SQLException {
+    if (useReplica()) {
+      try {
+        final Connection connection = replica.getConnection();
+        replicaReads.increment();
+        return connection;
+      } catch (SQLException e) {
+        lagMonitor.replicaFailed(e);
+        failedOverReads.increment();
+      }
+    }
+    return primary.getConnection();
+  }
+
+  @Override
+  public Connection getConnection(final String username, final String password) throws SQLException {
+    if (useReplica()) {
+      try {
+        final Connection connection = replica.getConnection(username, password);
+        replicaReads.increment();
+        return connection;
+      } catch (SQLException e) {
+        lagMonitor.replicaFailed(e);
+        failedOverReads.increment();
+      }
+    }
+    return primary.getConnection(username, password);
+  }
+
+  /**
+   * Close the replica pool; the primary belongs to whoever passed it in.
+   */
+  @Override
+  public void close() throws Exception {
+    if (replica instanceof AutoCloseable closeable) {
+      closeable.close();
+    }
+  }
+
+  private boolean useReplica() {
+    if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+      return false;
+    }
+    if (readYourWrites.isPinnedToPrimary()) {
+      stickyReads.increment();
+      return false;
+    }
+    if (!lagMonitor.isUsable()) {
+      laggingReads.increment();
+      return false;
+    }
+    return true;
+  }
+
+  private static Counter reads(final MeterRegistry registry, final String target, final String reason) {
+    return Counter.builder("hangout.datasource.reads")
+        .description("Read-only transactions by the database they were sent to")
+        .tag("target", target)
+        .tag("reason", reason)
+        .register(registry);
+  }
+}
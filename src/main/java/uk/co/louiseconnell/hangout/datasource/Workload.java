@@ -0,0 +1,57 @@
+package uk.co.louiseconnell.hangout.datasource;
+
+import java.util.function.Supplier;
+
+/**
+ * Which connection pool bulkhead a thread's database work draws from. Work is
+ * {@link #INTERACTIVE} unless it runs inside a {@link ConnectionPool} method or {@link #call}.
+ */
+public enum Workload {
+
+  /** Votes, interactions and the REST API: someone is waiting on the answer. */
+  INTERACTIVE,
+  /** Scheduled jobs, cache warm-up, exports and maintenance. */
+  BACKGROUND;
+
+  private static final ThreadLocal<Workload> CURRENT = new ThreadLocal<>();
+
+  public static Workload current() {
+    final Workload workload = CURRENT.get();
+    return workload == null ? INTERACTIVE : workload;
+  }
+
+  /**
+   * Run {@code work} with {@link #current()} reporting this workload on this thread. A connection
+   * is drawn from the pool of whichever workload is current when the first statement of a
+   * transaction runs, and kept to the end of that transaction.
+   */
+  public <T> T call(final Supplier<T> work) {
+    final Workload previous = enter();
+    try {
+      return work.get();
+    } finally {
+      exit(previous);
+    }
+  }
+
+  public void run(final Runnable work) {
+    call(() -> {
+      work.run();
+      return null;
+    });
+  }
+
+  Workload enter() {
+    final Workload previous = CURRENT.get();
+    CURRENT.set(this);
+    return previous;
+  }
+
+  static void exit(final Workload previous) {
+    if (previous == null) {
+      CURRENT.remove();
+    } else {
+      CURRENT.set(previous);
+    }
+  }
+}
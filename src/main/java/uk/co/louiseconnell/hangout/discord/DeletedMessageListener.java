@@ -0,0 +1,133 @@
+package uk.co.louiseconnell.hangout.discord;
+
+import lombok.extern.slf4j.Slf4j;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+import discord4j.common.util.Snowflake;
+import discord4j.core.event.domain.message.MessageBulkDeleteEvent;
+import discord4j.core.event.domain.message.MessageDeleteEvent;
+import discord4j.core.object.component.ActionRow;
+import discord4j.core.object.component.Button;
+import discord4j.core.spec.MessageCreateSpec;
+import discord4j.rest.RestClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import uk.co.louiseconnell.hangout.entity.Event;
+import uk.co.louiseconnell.hangout.entity.Timeslot;
+import uk.co.louiseconnell.hangout.service.DiscordEmbedService;
+import uk.co.louiseconnell.hangout.service.HangoutService;
+
+/**
+ * Detaches events from poll messages that have been deleted, whether Discord told us through
+ * MESSAGE_DELETE / MESSAGE_DELETE_BULK or we found out from a 404 on an edit. The event's message ID
+ * is cleared so no code path tries to edit it again, and the routing cache entry is evicted. With
+ * {@code hangout.polls.repost-deleted} on, open polls are posted again in the same channel.
+ */
+@Component
+@Slf4j
+public class DeletedMessageListener {
+
+  private final HangoutService hangoutService;
+  private final DiscordEmbedService embedService;
+  private final MessageEditor messageEditor;
+  private final RestClient restClient;
+  private final InFlightWork inFlightWork;
+  private final boolean repostDeleted;
+
+  public DeletedMessageListener(final HangoutService hangoutService,
+                                final DiscordEmbedService embedService,
+                                final MessageEditor messageEditor,
+                                final RestClient restClient,
+                                final InFlightWork inFlightWork,
+                                final @Value("${hangout.polls.repost-deleted:false}") boolean repostDeleted) {
+    this.hangoutService = hangoutService;
+    this.embedService = embedService;
+    this.messageEditor = messageEditor;
+    this.restClient = restClient;
+    this.inFlightWork = inFlightWork;
+    this.repostDeleted = repostDeleted;
+  }
+
+  public Mono<Void> handleDelete(final MessageDeleteEvent event) {
+    return detach(event.getChannelId(), event.getMessageId());
+  }
+
+  public Mono<Void> handleBulkDelete(final MessageBulkDeleteEvent event) {
+    return Flux.fromIterable(event.getMessageIds())
+        .concatMap(messageId -> detach(event.getChannelId(), messageId))
+        .then();
+  }
+
+  @EventListener
+  public void onMessageGone(final PollMessageGoneEvent event) {
+    inFlightWork.submit(detach(event.channelId(), event.messageId()), "detach deleted message " + event.messageId().asString());
+  }
+
+  private Mono<Void> detach(final Snowflake channelId, final Snowflake messageId) {
+    try {
+      // Most deleted messages were never polls; the cached routing says so without a transaction
+      if (hangoutService.getEventByMessageId(messageId.asLong()).isEmpty()) {
+        return Mono.empty();
+      }
+      final Optional<Event> detached = hangoutService.detachMessage(messageId.asLong());
+      if (detached.isEmpty()) {
+        return Mono.empty(); // Not a poll message, or already detached
+      }
+      // Drop edits that were already queued for the old message
+      messageEditor.markGone(messageId.asLong());
+      final Event event = detached.get();
+      log.info("Poll message {} for event {} was deleted", messageId.asString(), event.getId());
+      if (!repostDeleted || event.getStatus() == Event.EventStatus.CLOSED) {
+        return Mono.empty();
+      }
+      return repost(event, channelId);
+    } catch (Exception e) {
+      log.error("Failed to detach deleted message {}", messageId.asString(), e);
+      return Mono.empty();
+    }
+  }
+
+  private Mono<Void> repost(final Event event, final Snowflake channelId) {
+    final var embed = embedService.createHangoutEmbed(event, hangoutService.getUserTimezoneOrDefault(event.getCreatorDiscordId()));
+    final ActionRow buttons = event.getStatus() == Event.EventStatus.DRAFT
+        ? ActionRow.of(
+            Button.success("hangout:evt:propose:" + event.getId(), "Propose Time"),
+            Button.primary("hangout:evt:finalize:" + event.getId(), "Finalize"))
+        : ActionRow.of(
+            Button.secondary("hangout:evt:setdeadline:" + event.getId(), "Set Deadline"),
+            Button.danger("hangout:evt:close:" + event.getId(), "Close"));
+    final MessageCreateSpec spec = MessageCreateSpec.builder()
+        .addEmbed(embed)
+        .addComponent(buttons)
+        .build();
+
+    return restClient.getChannelService().createMessage(channelId.asLong(), spec.asRequest())
+        .flatMap(created -> {
+          final Snowflake messageId = Snowflake.of(created.id());
+          hangoutService.updateEventMessageId(event.getId(), messageId.asLong());
+          log.info("Reposted poll for event {} as message {}", event.getId(), messageId.asString());
+
+          final MessageHandle pollMessage = messageEditor.handle(channelId, messageId);
+          final List<String> emojis = new ArrayList<>();
+          for (Timeslot timeslot : hangoutService.getTimeslotsByEvent(event.getId())) {
+            emojis.add(timeslot.getEmoji());
+          }
+          emojis.add("❓");
+          emojis.add("❌");
+          return Flux.fromIterable(emojis)
+              .concatMap(pollMessage::addReaction)
+              .then();
+        })
+        .onErrorResume(err -> {
+          log.warn("Failed to repost poll for event {} in channel {}: {}", event.getId(), channelId.asString(), err.toString());
+          return Mono.empty();
+        });
+  }
+}
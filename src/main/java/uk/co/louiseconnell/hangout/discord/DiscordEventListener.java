@@ -1,8 +1,15 @@
 package uk.co.louiseconnell.hangout.discord;
 
 import discord4j.core.GatewayDiscordClient;
+import discord4j.core.event.domain.guild.GuildCreateEvent;
+import discord4j.core.event.domain.guild.GuildDeleteEvent;
 import discord4j.core.event.domain.lifecycle.ReadyEvent;
+import discord4j.core.event.domain.lifecycle.ResumeEvent;
+import discord4j.core.event.domain.message.MessageBulkDeleteEvent;
+import discord4j.core.event.domain.message.MessageDeleteEvent;
 import discord4j.core.event.domain.message.ReactionAddEvent;
+import discord4j.core.event.domain.message.ReactionRemoveAllEvent;
+import discord4j.core.event.domain.message.ReactionRemoveEmojiEvent;
 import discord4j.core.event.domain.message.ReactionRemoveEvent;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -10,6 +17,8 @@ import org.springframework.boot.ApplicationArguments;
 import org.springframework.boot.ApplicationRunner;
 import org.springframework.stereotype.Component;
 import reactor.core.publisher.Mono;
+import uk.co.louiseconnell.hangout.metrics.GuildTiers;
+import uk.co.louiseconnell.hangout.service.EventCacheWarmer;
 
 import java.util.List;
 
@@ -20,21 +29,82 @@ public class DiscordEventListener implements ApplicationRunner {
     
     private final GatewayDiscordClient gateway;
     private final ReactionListener reactionListener;
+    private final ReactionDeduplicator reactionDeduplicator;
+    private final DeletedMessageListener deletedMessageListener;
+    private final InFlightWork inFlightWork;
+    private final GuildScheduler guildScheduler;
+    private final EventCacheWarmer cacheWarmer;
+    private final GuildTiers guildTiers;
     
     @Override
     public void run(ApplicationArguments args) {
         // Log on ready
         gateway.on(ReadyEvent.class, this::onReady).subscribe();
+        gateway.on(ResumeEvent.class, this::onResume).subscribe();
+        
+        // Track guild sizes for the tier tag on metrics
+        gateway.on(GuildCreateEvent.class, event -> {
+            guildTiers.record(event.getGuild().getId().asLong(), event.getGuild().getMemberCount());
+            return Mono.empty();
+        }).subscribe();
+        gateway.on(GuildDeleteEvent.class, event -> {
+            if (!event.isUnavailable()) {
+                guildTiers.forget(event.getGuildId().asLong());
+            }
+            return Mono.empty();
+        }).subscribe();
+        // The GUILD_CREATE burst after login went to whichever listener subscribed first; those guilds are in the store
+        gateway.getGuilds()
+                .doOnNext(guild -> guildTiers.record(guild.getId().asLong(), guild.getMemberCount()))
+                .onErrorResume(err -> {
+                    log.warn("Could not load guild sizes; tier tags read unknown until GUILD_CREATE: {}", err.toString());
+                    return Mono.empty();
+                })
+                .subscribe();
         
         // Handle reaction events
-        gateway.on(ReactionAddEvent.class, reactionListener::handleReactionAdd).subscribe();
-        gateway.on(ReactionRemoveEvent.class, reactionListener::handleReactionRemove).subscribe();
+        gateway.on(ReactionAddEvent.class, event -> inFlightWork.admit(() -> reactionListener.scheduleReactionAdd(event))).subscribe();
+        gateway.on(ReactionRemoveEvent.class, event -> inFlightWork.admit(() -> reactionListener.scheduleReactionRemove(event))).subscribe();
+        // Bulk removals send no remove per user, so the deduplicator has to forget those reactions itself
+        gateway.on(ReactionRemoveAllEvent.class, event -> {
+            reactionDeduplicator.clearMessage(event.getMessageId().asLong());
+            return Mono.empty();
+        }).subscribe();
+        gateway.on(ReactionRemoveEmojiEvent.class, event -> {
+            reactionDeduplicator.clearEmoji(event.getMessageId().asLong(), ReactionListener.getEmojiString(event.getEmoji()));
+            return Mono.empty();
+        }).subscribe();
+        
+        // Detach events from poll messages that get deleted
+        gateway.on(MessageDeleteEvent.class, event -> inFlightWork.admit(() ->
+                guildScheduler.schedule("message_delete", event.getGuildId(), () -> deletedMessageListener.handleDelete(event)))).subscribe();
+        gateway.on(MessageBulkDeleteEvent.class, event -> inFlightWork.admit(() ->
+                guildScheduler.schedule("message_delete_bulk", event.getGuildId().asLong(), () -> deletedMessageListener.handleBulkDelete(event)))).subscribe();
         
         log.info("Discord event listeners registered");
+        
+        // The client logged in before this runner, and the READY or RESUME that followed went to whichever
+        // listener subscribed first, so start warm-up here rather than waiting for one
+        cacheWarmer.warmUpOnce().subscribe();
+        
+        // Spring Boot reports the app as ready once runners return, so hold that back until the caches are warm
+        try {
+            if (!cacheWarmer.awaitWarm()) {
+                log.warn("Cache warm-up has not finished; reporting ready with a cold cache");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
     }
     
     private Mono<Void> onReady(ReadyEvent event) {
         log.info("Bot is ready! Logged in as {}", event.getSelf().getUsername());
         return Mono.empty();
     }
+    
+    private Mono<Void> onResume(ResumeEvent event) {
+        log.info("Gateway session resumed on shard {}; {} replayed reaction(s) dropped so far",
+                event.getShardInfo().getIndex(), reactionDeduplicator.getDroppedCount());
+        return Mono.empty();
+    }
 }
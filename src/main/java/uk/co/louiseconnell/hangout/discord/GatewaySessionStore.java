@@ -0,0 +1,100 @@
+package uk.co.louiseconnell.hangout.discord;
+
+import lombok.extern.slf4j.Slf4j;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import discord4j.core.GatewayDiscordClient;
+import discord4j.gateway.GatewayClient;
+import discord4j.gateway.SessionInfo;
+import uk.co.louiseconnell.hangout.entity.GatewaySession;
+import uk.co.louiseconnell.hangout.repository.GatewaySessionRepository;
+
+/**
+ * Persists gateway session IDs and sequence numbers across restarts so the next boot can RESUME
+ * instead of paying for a full IDENTIFY. Sessions are handed out once and only while younger than
+ * {@code hangout.gateway.resume.max-age}; Discord answers a stale RESUME with INVALID_SESSION and
+ * Discord4J then falls back to IDENTIFY on its own.
+ */
+@Component
+@Slf4j
+public class GatewaySessionStore {
+
+  private final GatewaySessionRepository repository;
+  private final boolean enabled;
+  private final Duration maxAge;
+
+  public GatewaySessionStore(final GatewaySessionRepository repository,
+                             final @Value("${hangout.gateway.resume.enabled:true}") boolean enabled,
+                             final @Value("${hangout.gateway.resume.max-age:90s}") Duration maxAge) {
+    this.repository = repository;
+    this.enabled = enabled;
+    this.maxAge = maxAge;
+  }
+
+  public boolean isEnabled() {
+    return enabled;
+  }
+
+  /**
+   * Load every saved session that is still fresh enough to resume, keyed by shard index. Saved rows
+   * are deleted either way so two instances never try to resume the same session.
+   */
+  @Transactional
+  public Map<Integer, SessionInfo> takeResumableSessions() {
+    final Map<Integer, SessionInfo> sessions = new HashMap<>();
+    if (!enabled) {
+      return sessions;
+    }
+    final LocalDateTime oldest = LocalDateTime.now().minus(maxAge);
+    final List<GatewaySession> saved = repository.findAll();
+    for (GatewaySession session : saved) {
+      if (session.getSavedAt().isAfter(oldest)) {
+        sessions.put(session.getShardIndex(), SessionInfo.create(session.getSessionId(), session.getSequence()));
+      } else {
+        log.info("Gateway session for shard {} is too old to resume; will IDENTIFY", session.getShardIndex());
+      }
+    }
+    repository.deleteAll(saved);
+    return sessions;
+  }
+
+  /**
+   * Save the current session of every connected shard and close each one in a way that keeps the
+   * session resumable.
+   */
+  public void suspend(final GatewayDiscordClient gateway, final Duration timeout) {
+    final int shards = gateway.getGatewayClientGroup().getShardCount();
+    for (int index = 0; index < shards; index++) {
+      final var client = gateway.getGatewayClient(index);
+      if (client.isEmpty()) {
+        continue;
+      }
+      final GatewayClient shard = client.get();
+      final String sessionId = shard.getSessionId();
+      if (sessionId != null && !sessionId.isBlank()) {
+        save(index, sessionId, shard.getSequence());
+      }
+      shard.close(true).block(timeout);
+    }
+  }
+
+  @Transactional
+  public void save(final int shardIndex, final String sessionId, final int sequence) {
+    repository.save(GatewaySession.builder()
+        .shardIndex(shardIndex)
+        .sessionId(sessionId)
+        .sequence(sequence)
+        .savedAt(LocalDateTime.now())
+        .build());
+    log.info("Saved gateway session for shard {} at sequence {}", shardIndex, sequence);
+  }
+}
@@ -0,0 +1,90 @@
+package uk.co.louiseconnell.hangout.discord;
+
+import lombok.extern.slf4j.Slf4j;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+import discord4j.core.GatewayDiscordClient;
+
+/**
+ * Shutdown phase for the bot: stop taking gateway events, let admitted votes and pending message
+ * edits finish within a deadline, then either suspend the gateway session for the next instance to
+ * resume or log out cleanly. Runs before the web server and datasource are torn down so the drained
+ * work, and the saved session, can still reach Postgres.
+ */
+@Component
+@Slf4j
+public class GracefulShutdown implements SmartLifecycle {
+
+  private final GatewayDiscordClient gateway;
+  private final InFlightWork inFlightWork;
+  private final GatewaySessionStore sessionStore;
+  private final Duration drainTimeout;
+  private final Duration logoutTimeout;
+  private volatile boolean running;
+
+  public GracefulShutdown(final GatewayDiscordClient gateway,
+                          final InFlightWork inFlightWork,
+                          final GatewaySessionStore sessionStore,
+                          final @Value("${hangout.shutdown.drain-timeout:20s}") Duration drainTimeout,
+                          final @Value("${hangout.shutdown.logout-timeout:5s}") Duration logoutTimeout) {
+    this.gateway = gateway;
+    this.inFlightWork = inFlightWork;
+    this.sessionStore = sessionStore;
+    this.drainTimeout = drainTimeout;
+    this.logoutTimeout = logoutTimeout;
+  }
+
+  @Override
+  public void start() {
+    running = true;
+  }
+
+  @Override
+  public void stop() {
+    inFlightWork.stopAccepting();
+    log.info("Shutting down: no longer accepting gateway events, draining {} in-flight task(s)", inFlightWork.getInFlightCount());
+    try {
+      if (inFlightWork.awaitIdle(drainTimeout)) {
+        log.info("Drain complete");
+      } else {
+        log.warn("Drain timed out after {} with {} task(s) still in flight", drainTimeout, inFlightWork.getInFlightCount());
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      log.warn("Interrupted while draining in-flight work");
+    }
+
+    try {
+      if (sessionStore.isEnabled()) {
+        // Keep the session alive for the next instance to RESUME
+        sessionStore.suspend(gateway, logoutTimeout);
+        log.info("Suspended the Discord gateway session for resume");
+      } else {
+        gateway.logout().block(logoutTimeout);
+        log.info("Logged out of the Discord gateway");
+      }
+    } catch (Exception e) {
+      log.warn("Gateway did not disconnect cleanly: {}", e.toString());
+    } finally {
+      running = false;
+    }
+  }
+
+  @Override
+  public boolean isRunning() {
+    return running;
+  }
+
+  /**
+   * Highest phase, so this stops before the web server and anything else that is a lifecycle bean.
+   */
+  @Override
+  public int getPhase() {
+    return SmartLifecycle.DEFAULT_PHASE;
+  }
+}
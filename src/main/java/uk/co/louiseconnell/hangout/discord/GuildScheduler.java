@@ -0,0 +1,353 @@
+package uk.co.louiseconnell.hangout.discord;
+
+import lombok.extern.slf4j.Slf4j;
+
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import discord4j.common.util.Snowflake;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import reactor.core.Disposable;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.MonoSink;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+import uk.co.louiseconnell.hangout.metrics.GuildTiers;
+
+/**
+ * Runs gateway event handlers with a fixed amount of concurrency shared fairly between guilds, so a
+ * burst of votes in one large server cannot queue up everyone else's commands behind it.
+ *
+ * <p>Each guild has its own FIFO queue. Free slots are handed out by deficit round robin: on its
+ * turn a guild earns {@code quantum * weight} credits and may start one task per credit, and a guild
+ * with nothing queued loses any credit it had left. A handler holds its slot until its Mono
+ * completes, so the database work and the Discord REST calls it returns are both covered. Per-guild
+ * quotas cap how much of the pool one guild can hold and how much it can queue; work beyond the
+ * queue quota is counted and handed to the caller's fallback instead, which must not drop anything
+ * the user would miss: votes are folded into later work, interactions are told to try again.
+ *
+ * <p>Each piece of work carries a type (reaction_add, button, ...) used to tag the
+ * {@code hangout.gateway.wait} and {@code hangout.gateway.handle} timers along with the guild's tier.
+ */
+@Component
+@Slf4j
+public class GuildScheduler implements DisposableBean {
+
+  /** Queue key for work that has no guild, e.g. DMs. */
+  public static final long NO_GUILD = 0L;
+
+  private final int concurrency;
+  private final int maxRunningPerGuild;
+  private final int maxQueuedPerGuild;
+  private final int quantum;
+  private final Map<Long, Integer> weights;
+  private final Scheduler workers;
+  private final boolean ownsWorkers;
+  private final MeterRegistry registry;
+  private final GuildTiers guildTiers;
+
+  private final Object lock = new Object();
+  private final Map<Long, GuildQueue> queues = new HashMap<>();
+  private final ArrayDeque<GuildQueue> active = new ArrayDeque<>();
+  private int running;
+
+  @Autowired
+  public GuildScheduler(final @Value("${hangout.scheduler.concurrency:16}") int concurrency,
+                        final @Value("${hangout.scheduler.max-running-per-guild:4}") int maxRunningPerGuild,
+                        final @Value("${hangout.scheduler.max-queued-per-guild:500}") int maxQueuedPerGuild,
+                        final @Value("${hangout.scheduler.quantum:1}") int quantum,
+                        final @Value("${hangout.scheduler.guild-weights:}") String guildWeights,
+                        final MeterRegistry registry,
+                        final GuildTiers guildTiers) {
+    this(concurrency, maxRunningPerGuild, maxQueuedPerGuild, quantum, parseWeights(guildWeights),
+        Schedulers.newBoundedElastic(concurrency, Integer.MAX_VALUE, "guild-work"), true, registry, guildTiers);
+  }
+
+  GuildScheduler(final int concurrency, final int maxRunningPerGuild, final int maxQueuedPerGuild,
+                 final int quantum, final Map<Long, Integer> weights, final Scheduler workers, final boolean ownsWorkers,
+                 final MeterRegistry registry, final GuildTiers guildTiers) {
+    this.concurrency = Math.max(1, concurrency);
+    this.maxRunningPerGuild = Math.max(1, maxRunningPerGuild);
+    this.maxQueuedPerGuild = Math.max(1, maxQueuedPerGuild);
+    this.quantum = Math.max(1, quantum);
+    this.weights = weights;
+    this.workers = workers;
+    this.ownsWorkers = ownsWorkers;
+    this.registry = registry;
+    this.guildTiers = guildTiers;
+  }
+
+  public <T> Mono<T> schedule(final String type, final Optional<Snowflake> guildId, final Supplier<Mono<T>> work) {
+    return schedule(type, guildId.map(Snowflake::asLong).orElse(NO_GUILD), work);
+  }
+
+  public <T> Mono<T> schedule(final String type, final Optional<Snowflake> guildId, final Supplier<Mono<T>> work,
+                              final Supplier<Mono<T>> whenFull) {
+    return schedule(type, guildId.map(Snowflake::asLong).orElse(NO_GUILD), work, whenFull);
+  }
+
+  /**
+   * Queue work for a guild, dropping it if the guild's queue is full. Only for work that is safe to
+   * lose; see {@link #schedule(String, long, Supplier, Supplier)}.
+   */
+  public <T> Mono<T> schedule(final String type, final long guildId, final Supplier<Mono<T>> work) {
+    return schedule(type, guildId, work, Mono::empty);
+  }
+
+  /**
+   * Queue work for a guild. The returned Mono subscribes to {@code work} on a worker thread once the
+   * guild's turn comes round. If the guild's queue is full it subscribes to {@code whenFull} instead,
+   * straight away on the caller's thread, so that should be cheap and must not wait for the queue.
+   *
+   * @param type what kind of work this is, for metrics, e.g. {@code reaction_add}
+   */
+  public <T> Mono<T> schedule(final String type, final long guildId, final Supplier<Mono<T>> work,
+                              final Supplier<Mono<T>> whenFull) {
+    return Mono.create(sink -> {
+      final Task<T> task = new Task<>(type, guildId, work, sink);
+      final boolean full;
+      final List<Task<?>> toStart;
+      synchronized (lock) {
+        final GuildQueue queue = queues.computeIfAbsent(guildId, id -> new GuildQueue(id, weights.getOrDefault(id, 1)));
+        full = queue.tasks.size() >= maxQueuedPerGuild;
+        if (full) {
+          queue.rejected++;
+          registry.counter("hangout.gateway.rejected", "type", type, "tier", guildTiers.tierOf(guildId)).increment();
+          if (queue.rejected % 100 == 1) {
+            log.warn("Work queue for guild {} is full ({} queued); turning work away", guildId, queue.tasks.size());
+          }
+          toStart = List.of();
+        } else {
+          task.enqueuedAt = System.nanoTime();
+          queue.tasks.addLast(task);
+          queue.submitted++;
+          if (!queue.isActive) {
+            queue.isActive = true;
+            active.addLast(queue);
+          }
+          toStart = dispatch();
+        }
+      }
+      if (full) {
+        sink.onCancel(Mono.defer(whenFull).subscribe(sink::success, sink::error, sink::success));
+        return;
+      }
+      sink.onCancel(task::cancel);
+      startAll(toStart);
+    });
+  }
+
+  /**
+   * Per-guild counters, busiest queue first.
+   */
+  public List<GuildStats> snapshot() {
+    final List<GuildStats> stats = new ArrayList<>();
+    synchronized (lock) {
+      for (GuildQueue queue : queues.values()) {
+        stats.add(new GuildStats(queue.guildId, queue.weight, queue.tasks.size(), queue.running,
+            queue.submitted, queue.completed, queue.rejected,
+            queue.completed == 0 ? 0 : queue.totalWaitNanos / queue.completed / 1_000_000,
+            queue.maxWaitNanos / 1_000_000,
+            queue.completed == 0 ? 0 : queue.totalRunNanos / queue.completed / 1_000_000));
+      }
+    }
+    stats.sort(Comparator.comparingInt(GuildStats::queued).thenComparingInt(GuildStats::running).reversed());
+    return stats;
+  }
+
+  public int getQueuedCount() {
+    synchronized (lock) {
+      int queued = 0;
+      for (GuildQueue queue : active) {
+        queued += queue.tasks.size();
+      }
+      return queued;
+    }
+  }
+
+  public int getRunningCount() {
+    synchronized (lock) {
+      return running;
+    }
+  }
+
+  @Override
+  public void destroy() {
+    if (ownsWorkers) {
+      workers.dispose();
+    }
+  }
+
+  /**
+   * Hand free slots to queued tasks in deficit round robin order. Must hold {@code lock}; returns
+   * the tasks to start once the lock is released.
+   */
+  private List<Task<?>> dispatch() {
+    final List<Task<?>> toStart = new ArrayList<>();
+    int idleVisits = 0;
+    // Stop once every active guild has been visited without starting anything (all at their cap)
+    while (running < concurrency && !active.isEmpty() && idleVisits < active.size()) {
+      final GuildQueue queue = active.pollFirst();
+      if (queue.deficit <= 0) {
+        queue.deficit += quantum * queue.weight; // Start of this guild's turn
+      }
+      boolean started = false;
+      while (queue.deficit > 0 && !queue.tasks.isEmpty() && running < concurrency && queue.running < maxRunningPerGuild) {
+        final Task<?> task = queue.tasks.pollFirst();
+        queue.deficit--;
+        queue.running++;
+        running++;
+        task.startedAt = System.nanoTime();
+        final long waited = task.startedAt - task.enqueuedAt;
+        queue.totalWaitNanos += waited;
+        queue.maxWaitNanos = Math.max(queue.maxWaitNanos, waited);
+        task.timer("hangout.gateway.wait").record(waited, TimeUnit.NANOSECONDS);
+        toStart.add(task);
+        started = true;
+      }
+      if (queue.tasks.isEmpty()) {
+        queue.deficit = 0;
+        queue.isActive = false;
+      } else if (queue.deficit > 0 && running >= concurrency) {
+        active.addFirst(queue); // Pool is full mid-turn; carry on from here when a slot frees
+      } else {
+        active.addLast(queue);
+      }
+      idleVisits = started ? 0 : idleVisits + 1;
+    }
+    return toStart;
+  }
+
+  private void startAll(final List<Task<?>> tasks) {
+    for (Task<?> task : tasks) {
+      task.start();
+    }
+  }
+
+  private void finished(final Task<?> task) {
+    final List<Task<?>> toStart;
+    synchronized (lock) {
+      final GuildQueue queue = queues.get(task.guildId);
+      queue.running--;
+      queue.completed++;
+      final long ran = System.nanoTime() - task.startedAt;
+      queue.totalRunNanos += ran;
+      task.timer("hangout.gateway.handle").record(ran, TimeUnit.NANOSECONDS);
+      running--;
+      if (!queue.tasks.isEmpty() && !queue.isActive) {
+        queue.isActive = true;
+        active.addLast(queue);
+      }
+      toStart = dispatch();
+    }
+    startAll(toStart);
+  }
+
+  private void removeQueued(final Task<?> task) {
+    synchronized (lock) {
+      final GuildQueue queue = queues.get(task.guildId);
+      if (queue != null) {
+        queue.tasks.remove(task);
+      }
+    }
+  }
+
+  static Map<Long, Integer> parseWeights(final String spec) {
+    final Map<Long, Integer> weights = new HashMap<>();
+    if (spec == null || spec.isBlank()) {
+      return weights;
+    }
+    for (String entry : spec.split(",")) {
+      final String[] parts = entry.trim().split(":");
+      if (parts.length != 2) {
+        throw new IllegalArgumentException("Guild weight must look like <guildId>:<weight>, got: " + entry);
+      }
+      weights.put(Long.parseLong(parts[0].trim()), Math.max(1, Integer.parseInt(parts[1].trim())));
+    }
+    return weights;
+  }
+
+  public record GuildStats(long guildId, int weight, int queued, int running, long submitted, long completed,
+                           long rejected, long avgWaitMillis, long maxWaitMillis, long avgRunMillis) {}
+
+  private static final class GuildQueue {
+    private final long guildId;
+    private final int weight;
+    private final ArrayDeque<Task<?>> tasks = new ArrayDeque<>();
+    private boolean isActive;
+    private int deficit;
+    private int running;
+    private long submitted;
+    private long completed;
+    private long rejected;
+    private long totalWaitNanos;
+    private long maxWaitNanos;
+    private long totalRunNanos;
+
+    private GuildQueue(final long guildId, final int weight) {
+      this.guildId = guildId;
+      this.weight = weight;
+    }
+  }
+
+  private final class Task<T> {
+    private final String type;
+    private final long guildId;
+    private final Supplier<Mono<T>> work;
+    private final MonoSink<T> sink;
+    private long enqueuedAt;
+    private long startedAt;
+    private volatile boolean started;
+    private volatile boolean cancelled;
+    private volatile Disposable subscription;
+
+    private Task(final String type, final long guildId, final Supplier<Mono<T>> work, final MonoSink<T> sink) {
+      this.type = type;
+      this.guildId = guildId;
+      this.work = work;
+      this.sink = sink;
+    }
+
+    private void start() {
+      started = true;
+      if (cancelled) {
+        finished(this);
+        return;
+      }
+      // The handler's synchronous part (mostly database work) sees the guild's tier for its own timers
+      subscription = Mono.defer(() -> guildTiers.callAs(guildId, work))
+          .subscribeOn(workers)
+          .doFinally(signal -> finished(this))
+          .subscribe(sink::success, sink::error, sink::success);
+    }
+
+    private Timer timer(final String name) {
+      return Timer.builder(name)
+          .tag("type", type)
+          .tag("tier", guildTiers.tierOf(guildId))
+          .register(registry);
+    }
+
+    private void cancel() {
+      cancelled = true;
+      if (!started) {
+        removeQueued(this);
+      } else if (subscription != null) {
+        subscription.dispose();
+      }
+    }
+  }
+}
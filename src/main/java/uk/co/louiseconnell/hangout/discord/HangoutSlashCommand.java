@@ -30,6 +30,7 @@ import uk.co.louiseconnell.hangout.entity.Availability;
 import uk.co.louiseconnell.hangout.entity.Event;
 import uk.co.louiseconnell.hangout.entity.Timeslot;
 import uk.co.louiseconnell.hangout.service.DiscordEmbedService;
+import uk.co.louiseconnell.hangout.service.EventListPage;
 import uk.co.louiseconnell.hangout.service.HangoutService;
 import uk.co.louiseconnell.hangout.service.commands.slash.SlashCommand;
 import uk.co.louiseconnell.hangout.util.TimezoneUtil;
@@ -39,10 +40,14 @@ import uk.co.louiseconnell.hangout.util.TimezoneUtil;
 @Slf4j
 public class HangoutSlashCommand implements SlashCommand {
 
+  private static final int LIST_PAGE_SIZE = 10;
   private static final DateTimeFormatter DATETIME_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm");
   private final HangoutService hangoutService;
   private final DiscordEmbedService embedService;
   private final GatewayDiscordClient gateway;
+  private final MessageEditor messageEditor;
+  private final InFlightWork inFlightWork;
+  private final InteractionAcks interactionAcks;
 
   @Override
   public String getName() {
@@ -56,7 +61,7 @@ public class HangoutSlashCommand implements SlashCommand {
     try {
       final Optional<ApplicationCommandInteractionOption> subOpt = event.getOptions().stream().findFirst();
       if (subOpt.isEmpty()) {
-        return event.reply(InteractionApplicationCommandCallbackSpec.builder()
+        return interactionAcks.reply(event, InteractionApplicationCommandCallbackSpec.builder()
             .content("❌ Please specify a subcommand: create or availability.")
             .ephemeral(true)
             .build());
@@ -76,14 +81,14 @@ public class HangoutSlashCommand implements SlashCommand {
         case "draft_create" -> handleDraftCreate(event, sub);
         case "draft_propose" -> handleDraftPropose(event, sub);
         case "draft_finalize" -> handleDraftFinalize(event, sub);
-        default -> event.reply(InteractionApplicationCommandCallbackSpec.builder()
+        default -> interactionAcks.reply(event, InteractionApplicationCommandCallbackSpec.builder()
             .content("❌ Unknown subcommand: " + subName)
             .ephemeral(true)
             .build());
       };
     } catch (final Exception ex) {
       log.error("Error handling hangout command", ex);
-      return event.reply(InteractionApplicationCommandCallbackSpec.builder()
+      return interactionAcks.reply(event, InteractionApplicationCommandCallbackSpec.builder()
           .content("❌ An error occurred while processing the command. Please try again.")
           .ephemeral(true)
           .build());
@@ -113,7 +118,7 @@ public class HangoutSlashCommand implements SlashCommand {
         .description("Choose an action below\n• Create Event: Start and publish an event now\n• Create Draft: Start a draft to collect proposals\n• List: See events in this channel\n• Propose: Add a timeslot to a draft via modal")
         .build();
 
-    return event.reply(InteractionApplicationCommandCallbackSpec.builder()
+    return interactionAcks.reply(event, InteractionApplicationCommandCallbackSpec.builder()
         .addEmbed(embed)
         .components(ActionRow.of(
             Button.primary("hangout:action:create", "Create Event"),
@@ -134,13 +139,13 @@ public class HangoutSlashCommand implements SlashCommand {
       try {
         deadline = LocalDateTime.parse(deadlineStrOpt.get(), DATETIME_FORMAT);
       } catch (Exception e) {
-        return event.reply(InteractionApplicationCommandCallbackSpec.builder()
+        return interactionAcks.reply(event, InteractionApplicationCommandCallbackSpec.builder()
             .content("❌ Invalid deadline format. Use YYYY-MM-DD HH:MM (UTC).")
             .ephemeral(true)
             .build());
       }
       if (deadline.isBefore(LocalDateTime.now())) {
-        return event.reply(InteractionApplicationCommandCallbackSpec.builder()
+        return interactionAcks.reply(event, InteractionApplicationCommandCallbackSpec.builder()
             .content("❌ Deadline must be in the future (UTC).")
             .ephemeral(true)
             .build());
@@ -150,7 +155,7 @@ public class HangoutSlashCommand implements SlashCommand {
     final List<HangoutService.TimeslotRequest> timeslots = parseTimeslots(sub);
 
     if (timeslots.isEmpty()) {
-      return event.reply(InteractionApplicationCommandCallbackSpec.builder()
+      return interactionAcks.reply(event, InteractionApplicationCommandCallbackSpec.builder()
           .content("❌ You must provide at least one timeslot! Use the format: `YYYY-MM-DD HH:MM`")
           .ephemeral(true)
           .build());
@@ -163,31 +168,30 @@ public class HangoutSlashCommand implements SlashCommand {
           .max(LocalDateTime::compareTo)
           .orElse(null);
       if (latestEnd != null && deadline.isBefore(latestEnd)) {
-        return event.reply(InteractionApplicationCommandCallbackSpec.builder()
+        return interactionAcks.reply(event, InteractionApplicationCommandCallbackSpec.builder()
             .content("❌ Deadline must be after the latest timeslot end (UTC).")
             .ephemeral(true)
             .build());
       }
     }
 
-    final String creatorId = event.getInteraction().getUser().getId().asString();
-    final String channelId = event.getInteraction().getChannelId().asString();
+    final long creatorId = event.getInteraction().getUser().getId().asLong();
+    final long channelId = event.getInteraction().getChannelId().asLong();
 
     final Event hangoutEvent = hangoutService.createHangoutEvent(title, description, creatorId, channelId, deadline, timeslots);
 
     final String userTimezone = hangoutService.getUserTimezoneOrDefault(creatorId);
     final var embed = embedService.createHangoutEmbed(hangoutEvent, userTimezone);
 
-    return event.reply(InteractionApplicationCommandCallbackSpec.builder()
+    return interactionAcks.replyWithMessage(event, InteractionApplicationCommandCallbackSpec.builder()
             .addEmbed(embed)
             .components(ActionRow.of(
                 Button.secondary("hangout:evt:setdeadline:" + hangoutEvent.getId(), "Set Deadline"),
                 Button.danger("hangout:evt:close:" + hangoutEvent.getId(), "Close")
             ))
             .build())
-        .then(event.getReply())
         .flatMap(message -> {
-          hangoutService.updateEventMessageId(hangoutEvent.getId(), message.getId().asString());
+          hangoutService.updateEventMessageId(hangoutEvent.getId(), message.getId().asLong());
 
           final Snowflake channelSnowflake = event.getInteraction().getChannelId();
           final List<Permission> required = java.util.List.of(Permission.VIEW_CHANNEL, Permission.READ_MESSAGE_HISTORY, Permission.ADD_REACTIONS);
@@ -204,10 +208,10 @@ public class HangoutSlashCommand implements SlashCommand {
             final List<Mono<Void>> reactions = new ArrayList<>();
             final List<Timeslot> eventTimeslots = hangoutService.getTimeslotsByEvent(hangoutEvent.getId());
             for (Timeslot timeslot : eventTimeslots) {
-              reactions.add(message.addReaction(discord4j.core.object.reaction.ReactionEmoji.unicode(timeslot.getEmoji())));
+              reactions.add(message.addReaction(discord4j.core.object.emoji.Emoji.unicode(timeslot.getEmoji())));
             }
-            reactions.add(message.addReaction(discord4j.core.object.reaction.ReactionEmoji.unicode("❓")));
-            reactions.add(message.addReaction(discord4j.core.object.reaction.ReactionEmoji.unicode("❌")));
+            reactions.add(message.addReaction(discord4j.core.object.emoji.Emoji.unicode("❓")));
+            reactions.add(message.addReaction(discord4j.core.object.emoji.Emoji.unicode("❌")));
             return Mono.when(reactions).onErrorResume(err -> Mono.empty());
           });
         });
@@ -220,13 +224,13 @@ public class HangoutSlashCommand implements SlashCommand {
 
       final var evOpt = hangoutService.getEventById(eventId);
       if (evOpt.isEmpty()) {
-        return event.reply(InteractionApplicationCommandCallbackSpec.builder()
+        return interactionAcks.reply(event, InteractionApplicationCommandCallbackSpec.builder()
             .content("❌ Event not found.")
             .ephemeral(true)
             .build());
       }
       if (evOpt.get().getStatus() == Event.EventStatus.CLOSED) {
-        return event.reply(InteractionApplicationCommandCallbackSpec.builder()
+        return interactionAcks.reply(event, InteractionApplicationCommandCallbackSpec.builder()
             .content("🔒 This event is closed. Availability updates are disabled.")
             .ephemeral(true)
             .build());
@@ -237,21 +241,21 @@ public class HangoutSlashCommand implements SlashCommand {
 
       final List<Timeslot> slots = hangoutService.getTimeslotsByEvent(eventId);
       if (slots.isEmpty()) {
-        return event.reply(InteractionApplicationCommandCallbackSpec.builder()
+        return interactionAcks.reply(event, InteractionApplicationCommandCallbackSpec.builder()
             .content("❌ Event not found or has no timeslots.")
             .ephemeral(true)
             .build());
       }
 
       if (choice < 1 || choice > slots.size()) {
-        return event.reply(InteractionApplicationCommandCallbackSpec.builder()
+        return interactionAcks.reply(event, InteractionApplicationCommandCallbackSpec.builder()
             .content("❌ Invalid choice. Please select between 1 and " + slots.size() + ".")
             .ephemeral(true)
             .build());
       }
 
       final Timeslot selected = slots.get(choice - 1);
-      final String userId = event.getInteraction().getUser().getId().asString();
+      final long userId = event.getInteraction().getUser().getId().asLong();
 
       if (remove) {
         hangoutService.removeUserVote(userId, selected.getId());
@@ -262,7 +266,7 @@ public class HangoutSlashCommand implements SlashCommand {
       try {
         status = Availability.AvailabilityStatus.valueOf(statusStr.toUpperCase());
       } catch (IllegalArgumentException e) {
-        return event.reply(InteractionApplicationCommandCallbackSpec.builder()
+        return interactionAcks.reply(event, InteractionApplicationCommandCallbackSpec.builder()
             .content("❌ Invalid status. Use AVAILABLE, MAYBE, or UNAVAILABLE.")
             .ephemeral(true)
             .build());
@@ -277,7 +281,7 @@ public class HangoutSlashCommand implements SlashCommand {
       return postAvailabilityUpdate(event, eventId, verb + choice + ".");
     } catch (Exception ex) {
       log.error("Error handling availability subcommand", ex);
-      return event.reply(InteractionApplicationCommandCallbackSpec.builder()
+      return interactionAcks.reply(event, InteractionApplicationCommandCallbackSpec.builder()
           .content("❌ Failed to set availability. Please check inputs and try again.")
           .ephemeral(true)
           .build());
@@ -294,16 +298,14 @@ public class HangoutSlashCommand implements SlashCommand {
           final var embed = embedService.createHangoutEmbed(ev, hangoutService.getUserTimezoneOrDefault(ev.getCreatorDiscordId()));
           final var channelSnowflake = Snowflake.of(ev.getChannelId());
           final var messageSnowflake = Snowflake.of(ev.getMessageId());
-          gateway.getMessageById(channelSnowflake, messageSnowflake)
-              .flatMap(msg -> msg.edit(MessageEditSpec.builder().addEmbed(embed).build()))
-              .onErrorResume(err -> Mono.empty())
-              .subscribe();
+          inFlightWork.submit(messageEditor.edit(channelSnowflake, messageSnowflake, MessageEditSpec.builder().addEmbed(embed).build())
+              .onErrorResume(err -> Mono.empty()), "availability embed update");
         }
       }
     } catch (Exception e) {
       log.warn("Could not update embed after availability change for event {}", eventId, e);
     }
-    return event.reply(InteractionApplicationCommandCallbackSpec.builder()
+    return interactionAcks.reply(event, InteractionApplicationCommandCallbackSpec.builder()
         .content(message)
         .ephemeral(true)
         .build());
@@ -334,7 +336,7 @@ public class HangoutSlashCommand implements SlashCommand {
         messageId = link; // assume raw snowflake
       }
       if (messageId != null && !messageId.isBlank()) {
-        return hangoutService.getEventByMessageId(messageId).map(Event::getId);
+        return hangoutService.findEventByMessageId(Long.parseLong(messageId)).map(Event::getId);
       }
     } catch (Exception ignored) {
     }
@@ -342,17 +344,13 @@ public class HangoutSlashCommand implements SlashCommand {
   }
 
   private Mono<Void> handleList(final ChatInputInteractionEvent event) {
-    final String channelId = event.getInteraction().getChannelId().asString();
-    final String viewerTz = hangoutService.getUserTimezoneOrDefault(event.getInteraction().getUser().getId().asString());
+    final long channelId = event.getInteraction().getChannelId().asLong();
+    final String viewerTz = hangoutService.getUserTimezoneOrDefault(event.getInteraction().getUser().getId().asLong());
     final java.time.ZoneId viewerZone = java.time.ZoneId.of(viewerTz);
-    final var events = hangoutService.getActiveEventsForChannel(channelId);
-    final var drafts = hangoutService.getEventsByChannelAndStatus(channelId, Event.EventStatus.DRAFT);
+    final EventListPage page = hangoutService.getEventListPage(channelId, null, LIST_PAGE_SIZE);
 
-    final var closedAll = hangoutService.getEventsByChannelAndStatus(channelId, Event.EventStatus.CLOSED);
-    final var closed = closedAll.size() > 5 ? closedAll.subList(0, 5) : closedAll;
-
-    if (events.isEmpty() && closed.isEmpty() && drafts.isEmpty()) {
-      return event.reply(InteractionApplicationCommandCallbackSpec.builder()
+    if (page.events().isEmpty()) {
+      return interactionAcks.reply(event, InteractionApplicationCommandCallbackSpec.builder()
           .content("No hangout events found in this channel.")
           .ephemeral(true)
           .build());
@@ -361,59 +359,41 @@ public class HangoutSlashCommand implements SlashCommand {
     final var builder = new StringBuilder();
     final var guildIdOpt = event.getInteraction().getGuildId().map(Snowflake::asString);
 
-    if (!drafts.isEmpty()) {
-      builder.append("Drafts:\n");
-      for (Event ev : drafts) {
-        builder.append("• ").append(ev.getTitle())
-            .append(" (ID: ").append(ev.getId()).append(", DRAFT)");
-        if (ev.getMessageId() != null && guildIdOpt.isPresent()) {
-          String url = "https://discord.com/channels/" + guildIdOpt.get() + "/" + ev.getChannelId() + "/" + ev.getMessageId();
-          builder.append(" — ").append(url);
+    // The page is already in list order, so a heading goes in wherever the status changes
+    Event.EventStatus section = null;
+    for (Event ev : page.events()) {
+      if (ev.getStatus() != section) {
+        if (section != null) {
+          builder.append("\n");
         }
-        builder.append("\n");
+        section = ev.getStatus();
+        builder.append(switch (section) {
+          case DRAFT -> "Drafts:\n";
+          case ACTIVE -> "Active events:\n";
+          default -> "Closed:\n";
+        });
       }
-      builder.append("\n");
-    }
-
-    if (!events.isEmpty()) {
-      builder.append("Active events:\n");
-      for (Event ev : events) {
-        builder.append("• ").append(ev.getTitle())
-            .append(" (ID: ").append(ev.getId()).append(", ACTIVE)");
-        if (ev.getDeadline() != null) {
-          builder.append(" — deadline: ")
-              .append(TimezoneUtil.formatForDiscord(ev.getDeadline(), viewerZone));
-        }
-        if (ev.getMessageId() != null && guildIdOpt.isPresent()) {
-          String url = "https://discord.com/channels/" + guildIdOpt.get() + "/" + ev.getChannelId() + "/" + ev.getMessageId();
-          builder.append(" — ").append(url);
-        }
-        builder.append("\n");
+      builder.append("• ").append(ev.getTitle())
+          .append(" (ID: ").append(ev.getId()).append(", ").append(ev.getStatus().name()).append(")");
+      if (ev.getStatus() != Event.EventStatus.DRAFT && ev.getDeadline() != null) {
+        builder.append(" — deadline: ")
+            .append(TimezoneUtil.formatForDiscord(ev.getDeadline(), viewerZone));
+      }
+      page.summary(ev).ifPresent(summary -> builder.append(" — ").append(summary.getVoterCount()).append(" voted"));
+      if (ev.getMessageId() != null && guildIdOpt.isPresent()) {
+        String url = "https://discord.com/channels/" + guildIdOpt.get() + "/" + ev.getChannelId() + "/" + ev.getMessageId();
+        builder.append(" — ").append(url);
       }
       builder.append("\n");
     }
 
-    if (!closed.isEmpty()) {
-      builder.append("Recently closed (up to 5):\n");
-      for (Event ev : closed) {
-        builder.append("• ").append(ev.getTitle())
-            .append(" (ID: ").append(ev.getId()).append(", CLOSED)");
-        if (ev.getDeadline() != null) {
-          builder.append(" — deadline: ")
-              .append(TimezoneUtil.formatForDiscord(ev.getDeadline(), viewerZone));
-        }
-        if (ev.getMessageId() != null && guildIdOpt.isPresent()) {
-          String url = "https://discord.com/channels/" + guildIdOpt.get() + "/" + ev.getChannelId() + "/" + ev.getMessageId();
-          builder.append(" — ").append(url);
-        }
-        builder.append("\n");
-      }
+    final var reply = InteractionApplicationCommandCallbackSpec.builder().ephemeral(true);
+    if (page.next() != null) {
+      builder.append("\nShowing ").append(page.events().size()).append(" of ").append(page.total())
+          .append(page.isTotalCapped() ? "+" : "").append(".");
+      reply.addComponent(ActionRow.of(Button.primary("hangout:list:page:" + page.next().encode(), "Load More")));
     }
-
-    return event.reply(InteractionApplicationCommandCallbackSpec.builder()
-        .content(builder.toString())
-        .ephemeral(true)
-        .build());
+    return interactionAcks.reply(event, reply.content(builder.toString()).build());
   }
 
   private Mono<Void> handleView(final ChatInputInteractionEvent event, final ApplicationCommandInteractionOption sub) {
@@ -424,20 +404,20 @@ public class HangoutSlashCommand implements SlashCommand {
 
       final var evOpt = hangoutService.getEventById(eventId);
       if (evOpt.isEmpty()) {
-        return event.reply(InteractionApplicationCommandCallbackSpec.builder()
+        return interactionAcks.reply(event, InteractionApplicationCommandCallbackSpec.builder()
             .content("❌ Event not found.")
             .ephemeral(true)
             .build());
       }
 
       final var summary = embedService.createEventSummaryEmbed(evOpt.get());
-      return event.reply(InteractionApplicationCommandCallbackSpec.builder()
+      return interactionAcks.reply(event, InteractionApplicationCommandCallbackSpec.builder()
           .addEmbed(summary)
           .ephemeral(!isPublic)
           .build());
     } catch (Exception ex) {
       log.error("Error handling view subcommand", ex);
-      return event.reply(InteractionApplicationCommandCallbackSpec.builder()
+      return interactionAcks.reply(event, InteractionApplicationCommandCallbackSpec.builder()
           .content("❌ Failed to view event.")
           .ephemeral(true)
           .build());
@@ -454,7 +434,7 @@ public class HangoutSlashCommand implements SlashCommand {
 
       final var evOpt = hangoutService.getEventById(eventId);
       if (evOpt.isEmpty()) {
-        return event.reply(InteractionApplicationCommandCallbackSpec.builder()
+        return interactionAcks.reply(event, InteractionApplicationCommandCallbackSpec.builder()
             .content("❌ Event not found after closing.")
             .ephemeral(true)
             .build());
@@ -469,25 +449,23 @@ public class HangoutSlashCommand implements SlashCommand {
         try {
           final var channelSnowflake = Snowflake.of(ev.getChannelId());
           final var messageSnowflake = Snowflake.of(ev.getMessageId());
-          gateway.getMessageById(channelSnowflake, messageSnowflake)
-              .flatMap(msg -> msg.edit(MessageEditSpec.builder()
+          inFlightWork.submit(messageEditor.edit(channelSnowflake, messageSnowflake, MessageEditSpec.builder()
                   .addEmbed(summary)
-                  .components()
-                  .build()))
-              .subscribe();
+                  .components(java.util.List.of())
+                  .build()), "close event " + ev.getId());
         } catch (Exception e) {
           log.warn("Could not edit original message for event {}", ev.getId(), e);
         }
       }
 
       // Announce results (public)
-      return event.reply(InteractionApplicationCommandCallbackSpec.builder()
+      return interactionAcks.reply(event, InteractionApplicationCommandCallbackSpec.builder()
           .content("Event closed. Here are the results:")
           .addEmbed(summary)
           .build());
     } catch (Exception ex) {
       log.error("Error handling close subcommand", ex);
-      return event.reply(InteractionApplicationCommandCallbackSpec.builder()
+      return interactionAcks.reply(event, InteractionApplicationCommandCallbackSpec.builder()
           .content("❌ Failed to close event.")
           .ephemeral(true)
           .build());
@@ -495,11 +473,11 @@ public class HangoutSlashCommand implements SlashCommand {
   }
 
   private Mono<Void> handleTimezone(final ChatInputInteractionEvent event, final ApplicationCommandInteractionOption sub) {
-    final String userId = event.getInteraction().getUser().getId().asString();
+    final long userId = event.getInteraction().getUser().getId().asLong();
     final Optional<String> zoneOpt = getSubOptionString(sub, "zone");
     if (zoneOpt.isEmpty() || zoneOpt.get().isBlank()) {
       final String current = hangoutService.getUserTimezoneOrDefault(userId);
-      return event.reply(InteractionApplicationCommandCallbackSpec.builder()
+      return interactionAcks.reply(event, InteractionApplicationCommandCallbackSpec.builder()
           .content("Your current timezone is: " + current + "\nSet a new one with /hangout timezone zone:<IANA id> e.g. Europe/London")
           .ephemeral(true)
           .build());
@@ -509,13 +487,13 @@ public class HangoutSlashCommand implements SlashCommand {
       // Validate IANA timezone
       java.time.ZoneId.of(zone);
     } catch (Exception ex) {
-      return event.reply(InteractionApplicationCommandCallbackSpec.builder()
+      return interactionAcks.reply(event, InteractionApplicationCommandCallbackSpec.builder()
           .content("❌ Invalid timezone. Use an IANA timezone like Europe/London or America/New_York.")
           .ephemeral(true)
           .build());
     }
     hangoutService.updateUserTimezone(userId, zone);
-    return event.reply(InteractionApplicationCommandCallbackSpec.builder()
+    return interactionAcks.reply(event, InteractionApplicationCommandCallbackSpec.builder()
         .content("✅ Timezone updated to " + zone + ". New events you create will display in your timezone.")
         .ephemeral(true)
         .build());
@@ -524,22 +502,21 @@ public class HangoutSlashCommand implements SlashCommand {
   private Mono<Void> handleDraftCreate(final ChatInputInteractionEvent event, final ApplicationCommandInteractionOption sub) {
     final String title = getSubOptionString(sub, "title").orElse("Draft Event");
     final String description = getSubOptionString(sub, "description").orElse(null);
-    final String creatorId = event.getInteraction().getUser().getId().asString();
-    final String channelId = event.getInteraction().getChannelId().asString();
+    final long creatorId = event.getInteraction().getUser().getId().asLong();
+    final long channelId = event.getInteraction().getChannelId().asLong();
 
     final Event draft = hangoutService.createDraftEvent(title, description, creatorId, channelId);
     final String tz = hangoutService.getUserTimezoneOrDefault(creatorId);
     final var embed = embedService.createHangoutEmbed(draft, tz);
-    return event.reply(InteractionApplicationCommandCallbackSpec.builder()
+    return interactionAcks.replyWithMessage(event, InteractionApplicationCommandCallbackSpec.builder()
         .addEmbed(embed)
         .components(java.util.List.of(ActionRow.of(
             Button.success("hangout:evt:propose:" + draft.getId(), "Propose Time"),
             Button.primary("hangout:evt:finalize:" + draft.getId(), "Finalize")
         )))
         .build())
-        .then(event.getReply())
         .flatMap(message -> {
-          hangoutService.updateEventMessageId(draft.getId(), message.getId().asString());
+          hangoutService.updateEventMessageId(draft.getId(), message.getId().asLong());
           return Mono.empty();
         });
   }
@@ -554,7 +531,7 @@ public class HangoutSlashCommand implements SlashCommand {
       final LocalDateTime start = LocalDateTime.parse(startStr, DATETIME_FORMAT);
       final LocalDateTime end = LocalDateTime.parse(endStr, DATETIME_FORMAT);
       if (end.isBefore(start)) {
-        return event.reply(InteractionApplicationCommandCallbackSpec.builder()
+        return interactionAcks.reply(event, InteractionApplicationCommandCallbackSpec.builder()
             .content("❌ End time must be after start time.")
             .ephemeral(true)
             .build());
@@ -562,13 +539,13 @@ public class HangoutSlashCommand implements SlashCommand {
 
       final var evOpt = hangoutService.getEventById(eventId);
       if (evOpt.isEmpty()) {
-        return event.reply(InteractionApplicationCommandCallbackSpec.builder()
+        return interactionAcks.reply(event, InteractionApplicationCommandCallbackSpec.builder()
             .content("❌ Draft event not found.")
             .ephemeral(true)
             .build());
       }
       if (evOpt.get().getStatus() != Event.EventStatus.DRAFT) {
-        return event.reply(InteractionApplicationCommandCallbackSpec.builder()
+        return interactionAcks.reply(event, InteractionApplicationCommandCallbackSpec.builder()
             .content("❌ This command only works for DRAFT events.")
             .ephemeral(true)
             .build());
@@ -582,20 +559,19 @@ public class HangoutSlashCommand implements SlashCommand {
       if (ev.getMessageId() != null) {
         final var channelSnowflake = Snowflake.of(ev.getChannelId());
         final var messageSnowflake = Snowflake.of(ev.getMessageId());
-        gateway.getMessageById(channelSnowflake, messageSnowflake)
-            .flatMap(msg -> msg.edit(MessageEditSpec.builder().addEmbed(embed).build()))
-            .then(gateway.getMessageById(channelSnowflake, messageSnowflake)
-                .flatMap(msg -> msg.addReaction(discord4j.core.object.reaction.ReactionEmoji.unicode(t.getEmoji()))))
-            .subscribe();
+        final var pollMessage = messageEditor.handle(channelSnowflake, messageSnowflake);
+        inFlightWork.submit(pollMessage.edit(MessageEditSpec.builder().addEmbed(embed).build())
+            .then(pollMessage.addReaction(t.getEmoji())),
+            "draft proposal for event " + eventId);
       }
 
-      return event.reply(InteractionApplicationCommandCallbackSpec.builder()
+      return interactionAcks.reply(event, InteractionApplicationCommandCallbackSpec.builder()
           .content("✅ Proposed timeslot added.")
           .ephemeral(true)
           .build());
     } catch (Exception ex) {
       log.error("Error handling draft_propose", ex);
-      return event.reply(InteractionApplicationCommandCallbackSpec.builder()
+      return interactionAcks.reply(event, InteractionApplicationCommandCallbackSpec.builder()
           .content("❌ Failed to propose timeslot. Check your inputs.")
           .ephemeral(true)
           .build());
@@ -613,22 +589,20 @@ public class HangoutSlashCommand implements SlashCommand {
       if (ev.getMessageId() != null) {
         final var channelSnowflake = Snowflake.of(ev.getChannelId());
         final var messageSnowflake = Snowflake.of(ev.getMessageId());
-        gateway.getMessageById(channelSnowflake, messageSnowflake)
-            .flatMap(msg -> msg.edit(MessageEditSpec.builder().addEmbed(embed).build()))
-            .then(gateway.getMessageById(channelSnowflake, messageSnowflake)
-                .flatMap(msg -> msg.addReaction(discord4j.core.object.reaction.ReactionEmoji.unicode("❓"))))
-            .then(gateway.getMessageById(channelSnowflake, messageSnowflake)
-                .flatMap(msg -> msg.addReaction(discord4j.core.object.reaction.ReactionEmoji.unicode("❌"))))
-            .subscribe();
+        final var pollMessage = messageEditor.handle(channelSnowflake, messageSnowflake);
+        inFlightWork.submit(pollMessage.edit(MessageEditSpec.builder().addEmbed(embed).build())
+            .then(pollMessage.addReaction("❓"))
+            .then(pollMessage.addReaction("❌")),
+            "finalize draft " + eventId);
       }
 
-      return event.reply(InteractionApplicationCommandCallbackSpec.builder()
+      return interactionAcks.reply(event, InteractionApplicationCommandCallbackSpec.builder()
           .content("🎯 Draft finalized. Event is now active with the winning time.")
           .ephemeral(false)
           .build());
     } catch (Exception ex) {
       log.error("Error finalizing draft", ex);
-      return event.reply(InteractionApplicationCommandCallbackSpec.builder()
+      return interactionAcks.reply(event, InteractionApplicationCommandCallbackSpec.builder()
           .content("❌ Failed to finalize draft: " + ex.getMessage())
           .ephemeral(true)
           .build());
@@ -0,0 +1,98 @@
+package uk.co.louiseconnell.hangout.discord;
+
+import lombok.extern.slf4j.Slf4j;
+
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import reactor.core.publisher.Mono;
+
+/**
+ * Keeps count of gateway event handling and background Discord edits that have started but not
+ * finished, so shutdown can wait for them instead of cutting them off.
+ */
+@Component
+@Slf4j
+public class InFlightWork {
+
+  private final AtomicInteger inFlight = new AtomicInteger();
+  private final Object idle = new Object();
+  private volatile boolean accepting = true;
+
+  public boolean isAccepting() {
+    return accepting;
+  }
+
+  public int getInFlightCount() {
+    return inFlight.get();
+  }
+
+  /**
+   * Run a gateway event handler unless shutdown has begun, in which case the event is ignored.
+   */
+  public <T> Mono<T> admit(final Supplier<Mono<T>> handler) {
+    if (!accepting) {
+      return Mono.empty();
+    }
+    return track(Mono.defer(handler));
+  }
+
+  /**
+   * Count the given work as in flight from subscription until it completes, errors or is cancelled.
+   */
+  public <T> Mono<T> track(final Mono<T> work) {
+    return Mono.defer(() -> {
+      inFlight.incrementAndGet();
+      return work.doFinally(signal -> finished());
+    });
+  }
+
+  /**
+   * Fire-and-forget replacement for {@code subscribe()} on edits that must still land during a drain.
+   */
+  public void submit(final Mono<?> work, final String description) {
+    track(work)
+        .onErrorResume(err -> {
+          log.warn("Background Discord work failed ({}): {}", description, err.toString());
+          return Mono.empty();
+        })
+        .subscribe();
+  }
+
+  /**
+   * Stop admitting new gateway events. Work already admitted or submitted keeps running.
+   */
+  void stopAccepting() {
+    accepting = false;
+  }
+
+  /**
+   * Block until nothing is in flight or the timeout passes.
+   *
+   * @return true if everything finished in time
+   */
+  boolean awaitIdle(final Duration timeout) throws InterruptedException {
+    final long deadline = System.nanoTime() + timeout.toNanos();
+    synchronized (idle) {
+      while (inFlight.get() > 0) {
+        final long remainingMillis = (deadline - System.nanoTime()) / 1_000_000;
+        if (remainingMillis <= 0) {
+          return false;
+        }
+        idle.wait(remainingMillis);
+      }
+      return true;
+    }
+  }
+
+  private void finished() {
+    if (inFlight.decrementAndGet() == 0) {
+      synchronized (idle) {
+        idle.notifyAll();
+      }
+    }
+  }
+}
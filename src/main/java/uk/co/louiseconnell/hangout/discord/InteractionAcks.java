@@ -0,0 +1,405 @@
+package uk.co.louiseconnell.hangout.discord;
+
+import lombok.extern.slf4j.Slf4j;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+import discord4j.core.event.domain.interaction.ChatInputInteractionEvent;
+import discord4j.core.event.domain.interaction.DeferrableInteractionEvent;
+import discord4j.core.object.command.ApplicationCommandInteractionOption;
+import discord4j.core.object.command.ApplicationCommandOption;
+import discord4j.core.object.entity.Message;
+import discord4j.core.spec.InteractionApplicationCommandCallbackSpec;
+import discord4j.core.spec.InteractionCallbackSpec;
+import discord4j.core.spec.InteractionFollowupCreateSpec;
+import discord4j.core.spec.InteractionPresentModalSpec;
+import discord4j.core.spec.InteractionReplyEditSpec;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import reactor.core.Disposable;
+import reactor.core.Disposables;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+import uk.co.louiseconnell.hangout.metrics.GuildTiers;
+
+/**
+ * Makes sure every interaction is acknowledged inside Discord's three second deadline, however long
+ * the handler behind it takes.
+ *
+ * <p>{@link #run} races the handler against {@code hangout.interactions.auto-defer.budget}. If the
+ * handler hasn't replied by then, an ephemeral deferred reply is sent straight away and the
+ * handler's eventual reply is delivered by editing it. Replies that should be public are posted as
+ * a followup instead and the placeholder removed. Handlers must reply through {@link #reply},
+ * {@link #replyWithMessage} or {@link #presentModal} for this to work; they fall back to the plain
+ * event methods for interactions that were not started through {@link #run}.
+ *
+ * <p>Time to acknowledge is recorded per slash command and per custom ID prefix, counted from when
+ * the interaction arrived, so time spent waiting in {@link GuildScheduler} is included. It goes to
+ * the {@code hangout.interaction.ack} timer, tagged with the key, whether the reply was deferred and
+ * the guild's tier, and to an in-memory histogram behind {@link #snapshot()}.
+ */
+@Component
+@Slf4j
+public class InteractionAcks {
+
+  private static final int PENDING = 0;
+  private static final int ACKED = 1;
+  private static final int DEFERRED = 2;
+
+  /** Upper bounds of the latency histogram buckets; anything slower lands in an overflow bucket. */
+  static final long[] BUCKET_MILLIS = {100, 250, 500, 1000, 1500, 2000, 2500, 3000, 5000, 10_000};
+  private static final long DISCORD_DEADLINE_MILLIS = 3000;
+  private static final String OTHER_KEY = "other";
+  private static final InteractionCallbackSpec EPHEMERAL = InteractionCallbackSpec.builder().ephemeral(true).build();
+  private static final InteractionApplicationCommandCallbackSpec BUSY = InteractionApplicationCommandCallbackSpec.builder()
+      .content("⏳ This server is keeping me very busy right now. Please try again in a moment.")
+      .ephemeral(true)
+      .build();
+
+  private final boolean enabled;
+  private final Duration budget;
+  private final int maxKeys;
+  private final Scheduler timer;
+  private final MeterRegistry registry;
+  private final GuildTiers guildTiers;
+  private final Map<Long, Invocation> invocations = new ConcurrentHashMap<>();
+  private final Map<String, Histogram> histograms = new ConcurrentHashMap<>();
+
+  @Autowired
+  public InteractionAcks(final @Value("${hangout.interactions.auto-defer.enabled:true}") boolean enabled,
+                         final @Value("${hangout.interactions.auto-defer.budget:2s}") Duration budget,
+                         final @Value("${hangout.interactions.metrics.max-keys:200}") int maxKeys,
+                         final MeterRegistry registry,
+                         final GuildTiers guildTiers) {
+    this(enabled, budget, maxKeys, Schedulers.parallel(), registry, guildTiers);
+  }
+
+  InteractionAcks(final boolean enabled, final Duration budget, final int maxKeys, final Scheduler timer,
+                  final MeterRegistry registry, final GuildTiers guildTiers) {
+    this.enabled = enabled;
+    this.budget = budget;
+    this.maxKeys = maxKeys;
+    this.timer = timer;
+    this.registry = registry;
+    this.guildTiers = guildTiers;
+  }
+
+  /**
+   * Run an interaction handler, deferring the reply if the handler hasn't acknowledged the
+   * interaction within the budget.
+   *
+   * @param key what to record ack latency against, see {@link #commandKey} and {@link #componentKey}
+   */
+  public Mono<Void> run(final DeferrableInteractionEvent event, final String key, final Supplier<Mono<Void>> handler) {
+    return Mono.defer(() -> {
+      final long interactionId = event.getInteraction().getId().asLong();
+      final Invocation invocation = new Invocation(event, boundedKey(key));
+      invocations.put(interactionId, invocation);
+      final Disposable timeout = enabled
+          ? Mono.delay(budget, timer).subscribe(tick -> invocation.deferIfPending())
+          : Disposables.disposed();
+      return Mono.defer(handler)
+          .then(Mono.defer(invocation::completeUnanswered))
+          .onErrorResume(err -> invocation.failUnanswered().then(Mono.error(err)))
+          .doFinally(signal -> {
+            timeout.dispose();
+            invocations.remove(interactionId, invocation);
+          });
+    });
+  }
+
+  /**
+   * Reply to the interaction, or fill in the deferred reply if the budget has already run out.
+   */
+  public Mono<Void> reply(final DeferrableInteractionEvent event, final InteractionApplicationCommandCallbackSpec spec) {
+    return Mono.defer(() -> {
+      final Invocation invocation = invocations.get(event.getInteraction().getId().asLong());
+      return invocation == null ? event.reply(spec) : invocation.reply(spec, false).then();
+    });
+  }
+
+  /**
+   * Like {@link #reply}, but returns the message the reply ended up in, for callers that go on to
+   * edit it or add reactions.
+   */
+  public Mono<Message> replyWithMessage(final DeferrableInteractionEvent event, final InteractionApplicationCommandCallbackSpec spec) {
+    return Mono.defer(() -> {
+      final Invocation invocation = invocations.get(event.getInteraction().getId().asLong());
+      return invocation == null ? event.reply(spec).then(event.getReply()) : invocation.reply(spec, true);
+    });
+  }
+
+  /**
+   * Tell the user the interaction was turned away, for a handler {@link GuildScheduler} had no room
+   * to queue; otherwise it would simply fail in their client after three seconds.
+   */
+  public Mono<Void> replyBusy(final DeferrableInteractionEvent event) {
+    return reply(event, BUSY);
+  }
+
+  /**
+   * Open a modal. A deferred interaction can no longer show one, so if the budget has run out the
+   * user is asked to try again instead.
+   */
+  public Mono<Void> presentModal(final DeferrableInteractionEvent event, final InteractionPresentModalSpec spec) {
+    return Mono.defer(() -> {
+      final Invocation invocation = invocations.get(event.getInteraction().getId().asLong());
+      return invocation == null ? event.presentModal(spec) : invocation.presentModal(spec);
+    });
+  }
+
+  /**
+   * Ack latency per key, busiest first.
+   */
+  public List<AckStats> snapshot() {
+    final List<AckStats> stats = new ArrayList<>();
+    histograms.forEach((key, histogram) -> stats.add(histogram.stats(key)));
+    stats.sort(Comparator.comparingLong(AckStats::count).reversed());
+    return stats;
+  }
+
+  public long getDeferredCount() {
+    long deferred = 0;
+    for (Histogram histogram : histograms.values()) {
+      deferred += histogram.deferred.sum();
+    }
+    return deferred;
+  }
+
+  /**
+   * Histogram key for a slash command, including its subcommand, e.g. {@code /hangout create}.
+   */
+  public static String commandKey(final ChatInputInteractionEvent event) {
+    final String sub = event.getOptions().stream()
+        .filter(option -> option.getType() == ApplicationCommandOption.Type.SUB_COMMAND
+            || option.getType() == ApplicationCommandOption.Type.SUB_COMMAND_GROUP)
+        .map(ApplicationCommandInteractionOption::getName)
+        .findFirst()
+        .map(name -> " " + name)
+        .orElse("");
+    return "/" + event.getCommandName() + sub;
+  }
+
+  /**
+   * Histogram key for a component or modal, with trailing IDs dropped from the custom ID so that
+   * e.g. every event's Finalize button is counted together.
+   */
+  public static String componentKey(final String type, final String customId) {
+    return type + ":" + customId.replaceFirst("(:-?\\d+)+$", "");
+  }
+
+  private String boundedKey(final String key) {
+    if (histograms.containsKey(key)) {
+      return key;
+    }
+    final String bounded = histograms.size() < maxKeys ? key : OTHER_KEY;
+    histograms.computeIfAbsent(bounded, k -> new Histogram());
+    return bounded;
+  }
+
+  private static InteractionReplyEditSpec toEdit(final InteractionApplicationCommandCallbackSpec spec) {
+    InteractionReplyEditSpec edit = InteractionReplyEditSpec.builder().build();
+    if (!spec.content().isAbsent()) {
+      edit = edit.withContent(spec.content().get());
+    }
+    if (!spec.embeds().isAbsent()) {
+      edit = edit.withEmbedsOrNull(spec.embeds().get());
+    }
+    if (!spec.components().isAbsent()) {
+      edit = edit.withComponentsOrNull(spec.components().get());
+    }
+    if (!spec.allowedMentions().isAbsent()) {
+      edit = edit.withAllowedMentions(spec.allowedMentions().get());
+    }
+    return edit.withFiles(spec.files()).withFileSpoilers(spec.fileSpoilers());
+  }
+
+  private static InteractionFollowupCreateSpec toFollowup(final InteractionApplicationCommandCallbackSpec spec) {
+    return InteractionFollowupCreateSpec.builder()
+        .content(spec.content())
+        .tts(spec.tts().toOptional().orElse(false))
+        .embeds(spec.embeds().toOptional().orElse(List.of()))
+        .components(spec.components())
+        .allowedMentions(spec.allowedMentions())
+        .files(spec.files())
+        .fileSpoilers(spec.fileSpoilers())
+        .ephemeral(spec.ephemeral())
+        .build();
+  }
+
+  /**
+   * One interaction from arrival until its handler finishes. The state moves from PENDING to either
+   * ACKED (the handler replied in time) or DEFERRED (the timer got there first), exactly once.
+   */
+  private final class Invocation {
+    private final DeferrableInteractionEvent event;
+    private final String key;
+    private final long startedAt = System.nanoTime();
+    private final AtomicInteger state = new AtomicInteger(PENDING);
+    private volatile Mono<Void> deferral;
+    private volatile boolean answered;
+
+    private Invocation(final DeferrableInteractionEvent event, final String key) {
+      this.event = event;
+      this.key = key;
+    }
+
+    private void deferIfPending() {
+      // Assigned before the state change so anyone who sees DEFERRED also sees the deferral
+      deferral = event.deferReply(EPHEMERAL)
+          .doOnSuccess(ignored -> acked(true))
+          .cache();
+      if (state.compareAndSet(PENDING, DEFERRED)) {
+        log.debug("Interaction {} passed its {} ms budget; deferring reply", event.getInteraction().getId().asString(), budget.toMillis());
+        deferral.subscribe(null, err -> log.warn("Failed to defer interaction {}: {}", event.getInteraction().getId().asString(), err.toString()));
+      }
+    }
+
+    /**
+     * @param fetchMessage whether a reply sent directly should be fetched back; a deferred one
+     *                     always yields its message since edits and followups return it anyway
+     */
+    private Mono<Message> reply(final InteractionApplicationCommandCallbackSpec spec, final boolean fetchMessage) {
+      if (state.compareAndSet(PENDING, ACKED)) {
+        final Mono<Void> reply = event.reply(spec).doOnSuccess(ignored -> acked(false));
+        return fetchMessage ? reply.then(event.getReply()) : reply.then(Mono.empty());
+      }
+      if (state.get() != DEFERRED) {
+        // Second reply; Discord rejects it as it always has
+        return fetchMessage ? event.reply(spec).then(event.getReply()) : event.reply(spec).then(Mono.empty());
+      }
+      answered = true;
+      if (spec.ephemeral().toOptional().orElse(false)) {
+        return deferral.then(event.editReply(toEdit(spec)));
+      }
+      // The deferred reply is ephemeral, so a public reply goes out as a followup instead
+      return deferral
+          .then(event.createFollowup(toFollowup(spec)))
+          .flatMap(message -> event.deleteReply().onErrorResume(err -> Mono.empty()).thenReturn(message));
+    }
+
+    private Mono<Void> presentModal(final InteractionPresentModalSpec spec) {
+      if (state.compareAndSet(PENDING, ACKED)) {
+        return event.presentModal(spec).doOnSuccess(ignored -> acked(false));
+      }
+      if (state.get() != DEFERRED) {
+        return event.presentModal(spec);
+      }
+      answered = true;
+      return deferral.then(event.editReply("⌛ That took too long to open the form. Please try again.")).then();
+    }
+
+    /**
+     * The handler finished. If it never replied after being deferred, remove the "thinking" placeholder.
+     */
+    private Mono<Void> completeUnanswered() {
+      state.compareAndSet(PENDING, ACKED); // Handler chose not to respond; keep a late timer from deferring
+      if (state.get() != DEFERRED || answered) {
+        return Mono.empty();
+      }
+      return deferral.then(event.deleteReply()).onErrorResume(err -> Mono.empty());
+    }
+
+    private Mono<Void> failUnanswered() {
+      state.compareAndSet(PENDING, ACKED);
+      if (state.get() != DEFERRED || answered) {
+        return Mono.empty();
+      }
+      return deferral
+          .then(event.editReply("❌ An error occurred while processing the command. Please try again."))
+          .then()
+          .onErrorResume(err -> Mono.empty());
+    }
+
+    private void acked(final boolean deferred) {
+      final long elapsed = System.nanoTime() - startedAt;
+      histograms.get(key).record(elapsed / 1_000_000, deferred);
+      Timer.builder("hangout.interaction.ack")
+          .tag("key", key)
+          .tag("deferred", Boolean.toString(deferred))
+          .tag("tier", guildTiers.tierOf(event.getInteraction().getGuildId()))
+          .register(registry)
+          .record(elapsed, TimeUnit.NANOSECONDS);
+    }
+  }
+
+  static final class Histogram {
+    private final LongAdder[] buckets = new LongAdder[BUCKET_MILLIS.length + 1];
+    private final LongAdder count = new LongAdder();
+    private final LongAdder totalMillis = new LongAdder();
+    private final LongAdder deferred = new LongAdder();
+    private final LongAdder late = new LongAdder();
+    private final LongAccumulator maxMillis = new LongAccumulator(Long::max, 0);
+
+    Histogram() {
+      for (int i = 0; i < buckets.length; i++) {
+        buckets[i] = new LongAdder();
+      }
+    }
+
+    void record(final long millis, final boolean wasDeferred) {
+      int bucket = 0;
+      while (bucket < BUCKET_MILLIS.length && millis > BUCKET_MILLIS[bucket]) {
+        bucket++;
+      }
+      buckets[bucket].increment();
+      count.increment();
+      totalMillis.add(millis);
+      maxMillis.accumulate(millis);
+      if (wasDeferred) {
+        deferred.increment();
+      }
+      if (millis > DISCORD_DEADLINE_MILLIS) {
+        late.increment();
+      }
+    }
+
+    /**
+     * Upper bound of the bucket holding the given quantile, or the maximum for the overflow bucket.
+     */
+    long percentile(final double quantile) {
+      final long[] counts = new long[buckets.length];
+      long total = 0;
+      for (int i = 0; i < buckets.length; i++) {
+        counts[i] = buckets[i].sum();
+        total += counts[i];
+      }
+      if (total == 0) {
+        return 0;
+      }
+      final long rank = (long) Math.ceil(quantile * total);
+      long seen = 0;
+      for (int i = 0; i < BUCKET_MILLIS.length; i++) {
+        seen += counts[i];
+        if (seen >= rank) {
+          return BUCKET_MILLIS[i];
+        }
+      }
+      return maxMillis.get();
+    }
+
+    AckStats stats(final String key) {
+      final long n = count.sum();
+      return new AckStats(key, n, deferred.sum(), late.sum(), n == 0 ? 0 : totalMillis.sum() / n,
+          percentile(0.5), percentile(0.95), percentile(0.99), maxMillis.get());
+    }
+  }
+
+  public record AckStats(String key, long count, long deferred, long late, long meanMillis,
+                         long p50Millis, long p95Millis, long p99Millis, long maxMillis) {}
+}
@@ -0,0 +1,204 @@
+package uk.co.louiseconnell.hangout.discord;
+
+import lombok.extern.slf4j.Slf4j;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.atomic.LongAdder;
+
+import discord4j.common.util.Snowflake;
+import discord4j.core.GatewayDiscordClient;
+import discord4j.core.spec.MessageEditSpec;
+import discord4j.rest.http.client.ClientException;
+import discord4j.rest.service.ChannelService;
+import reactor.core.publisher.Mono;
+
+/**
+ * Single path for editing the bot's poll messages. Edits and reactions are sent by ID through the
+ * REST channel service, so nothing is fetched first and the channel's rate limit bucket only pays
+ * for the write. A 404 means the message was deleted: it is counted, treated as done, and announced
+ * as a {@link PollMessageGoneEvent}. Deleted messages are tombstoned so later edits and reactions
+ * aimed at them are dropped without a request.
+ *
+ * <p>Also remembers a 64-bit hash of the last edit payload sent to each message, and skips an edit
+ * whose payload hashes the same, since re-sending an identical embed is a wasted request.
+ *
+ * <p>Hashes live in a fixed-size, direct-mapped table keyed by message ID. A slot collision only
+ * loses the record, so the worst case is a redundant edit. Every edit to a poll message must go
+ * through here, or the stored hash would no longer describe what is on the message.
+ */
+@Component
+@Slf4j
+public class MessageEditor {
+
+  private static final int LOCK_STRIPES = 64;
+  /** Stored in place of a payload hash once a message is known to be deleted. */
+  private static final long GONE = Long.MIN_VALUE;
+
+  private final ChannelService channelService;
+  private final ApplicationEventPublisher events;
+  private final boolean skipUnchanged;
+  private final long[] messageIds;
+  private final long[] payloadHashes;
+  private final int slotMask;
+  private final Object[] locks = new Object[LOCK_STRIPES];
+
+  private final LongAdder sent = new LongAdder();
+  private final LongAdder skipped = new LongAdder();
+  private final LongAdder gone = new LongAdder();
+
+  public MessageEditor(final GatewayDiscordClient gateway,
+                       final ApplicationEventPublisher events,
+                       final @Value("${hangout.edits.skip-unchanged:true}") boolean skipUnchanged,
+                       final @Value("${hangout.edits.slots:4096}") int slots) {
+    final int size = slots <= 1 ? 1 : Integer.highestOneBit(slots - 1) << 1;
+    this.channelService = gateway.getRestClient().getChannelService();
+    this.events = events;
+    this.skipUnchanged = skipUnchanged;
+    this.messageIds = new long[size];
+    this.payloadHashes = new long[size];
+    this.slotMask = size - 1;
+    for (int i = 0; i < LOCK_STRIPES; i++) {
+      locks[i] = new Object();
+    }
+  }
+
+  public MessageHandle handle(final Snowflake channelId, final Snowflake messageId) {
+    return new MessageHandle(this, channelId, messageId);
+  }
+
+  /**
+   * Shorthand for {@code handle(channelId, messageId).edit(spec)}.
+   */
+  public Mono<Void> edit(final Snowflake channelId, final Snowflake messageId, final MessageEditSpec spec) {
+    return handle(channelId, messageId).edit(spec);
+  }
+
+  Mono<Void> edit(final MessageHandle handle, final MessageEditSpec spec) {
+    return Mono.defer(() -> {
+      final long message = handle.getMessageId().asLong();
+      final long hash = hash(spec);
+      final long last = lastHash(message);
+      if (last == GONE) {
+        log.debug("Dropped edit of deleted {}", handle);
+        return Mono.empty();
+      }
+      if (skipUnchanged && last == hash) {
+        skipped.increment();
+        log.debug("Skipped unchanged edit of {}", handle);
+        return Mono.empty();
+      }
+      return channelService.editMessage(handle.getChannelId().asLong(), message, spec.asRequest())
+          .doOnSuccess(ignored -> {
+            sent.increment();
+            record(message, hash);
+          })
+          .then()
+          .onErrorResume(ClientException.isStatusCode(404), err -> messageGone(handle))
+          // The message may or may not have changed; make sure the next edit goes out
+          .doOnError(err -> forget(message));
+    });
+  }
+
+  Mono<Void> addReaction(final MessageHandle handle, final String unicodeEmoji) {
+    if (lastHash(handle.getMessageId().asLong()) == GONE) {
+      return Mono.empty();
+    }
+    return channelService.createReaction(handle.getChannelId().asLong(), handle.getMessageId().asLong(), unicodeEmoji)
+        .onErrorResume(ClientException.isStatusCode(404), err -> messageGone(handle));
+  }
+
+  /**
+   * Tombstone a deleted message so nothing else is sent to it.
+   *
+   * @return false if the message was already tombstoned
+   */
+  public boolean markGone(final long messageId) {
+    final int slot = slot(messageId);
+    synchronized (locks[slot & (LOCK_STRIPES - 1)]) {
+      if (messageIds[slot] == messageId && payloadHashes[slot] == GONE) {
+        return false;
+      }
+      messageIds[slot] = messageId;
+      payloadHashes[slot] = GONE;
+      return true;
+    }
+  }
+
+  /**
+   * Forget the last payload sent to a message, e.g. after it was changed some other way.
+   */
+  public void forget(final long messageId) {
+    final int slot = slot(messageId);
+    synchronized (locks[slot & (LOCK_STRIPES - 1)]) {
+      if (messageIds[slot] == messageId) {
+        messageIds[slot] = 0L;
+        payloadHashes[slot] = 0L;
+      }
+    }
+  }
+
+  public long getSentCount() {
+    return sent.sum();
+  }
+
+  public long getSkippedCount() {
+    return skipped.sum();
+  }
+
+  public long getGoneCount() {
+    return gone.sum();
+  }
+
+  /**
+   * 64-bit FNV-1a over the JSON request's value-based string form, which covers every field that
+   * would be serialised, then finalised so similar payloads spread across the range. Poll edits never
+   * carry file attachments, so the multipart files are not hashed.
+   */
+  static long hash(final MessageEditSpec spec) {
+    final String payload = spec.asRequest().getJsonPayload().toString();
+    long h = 0xcbf29ce484222325L;
+    for (int i = 0; i < payload.length(); i++) {
+      h ^= payload.charAt(i);
+      h *= 0x100000001b3L;
+    }
+    h = mix(h);
+    return h == GONE ? h + 1 : h;
+  }
+
+  private Mono<Void> messageGone(final MessageHandle handle) {
+    gone.increment();
+    if (markGone(handle.getMessageId().asLong())) {
+      log.info("Skipping update of {}: the message no longer exists", handle);
+      events.publishEvent(new PollMessageGoneEvent(handle.getChannelId(), handle.getMessageId()));
+    }
+    return Mono.empty();
+  }
+
+  private long lastHash(final long messageId) {
+    final int slot = slot(messageId);
+    synchronized (locks[slot & (LOCK_STRIPES - 1)]) {
+      return messageIds[slot] == messageId ? payloadHashes[slot] : 0L;
+    }
+  }
+
+  private void record(final long messageId, final long hash) {
+    final int slot = slot(messageId);
+    synchronized (locks[slot & (LOCK_STRIPES - 1)]) {
+      messageIds[slot] = messageId;
+      payloadHashes[slot] = hash;
+    }
+  }
+
+  private int slot(final long messageId) {
+    return (int) (mix(messageId) >>> 32) & slotMask;
+  }
+
+  private static long mix(long z) {
+    z = (z ^ (z >>> 33)) * 0xff51afd7ed558ccdL;
+    z = (z ^ (z >>> 33)) * 0xc4ceb9fe1a85ec53L;
+    return z ^ (z >>> 33);
+  }
+}
@@ -0,0 +1,52 @@
+package uk.co.louiseconnell.hangout.discord;
+
+import discord4j.common.util.Snowflake;
+import discord4j.core.spec.MessageEditSpec;
+import reactor.core.publisher.Mono;
+
+/**
+ * A message addressed only by channel and message ID, as stored on an event. Operations go
+ * straight to Discord's channel REST endpoints without fetching the message first, and complete
+ * empty if Discord answers 404 because the message has been deleted.
+ */
+public final class MessageHandle {
+
+  private final MessageEditor editor;
+  private final Snowflake channelId;
+  private final Snowflake messageId;
+
+  MessageHandle(final MessageEditor editor, final Snowflake channelId, final Snowflake messageId) {
+    this.editor = editor;
+    this.channelId = channelId;
+    this.messageId = messageId;
+  }
+
+  public Snowflake getChannelId() {
+    return channelId;
+  }
+
+  public Snowflake getMessageId() {
+    return messageId;
+  }
+
+  /**
+   * Edit the message, unless the payload is the same as the last one sent to it.
+   */
+  public Mono<Void> edit(final MessageEditSpec spec) {
+    return editor.edit(this, spec);
+  }
+
+  /**
+   * Add a reaction as the bot.
+   *
+   * @param unicodeEmoji the raw unicode emoji, e.g. "❓"
+   */
+  public Mono<Void> addReaction(final String unicodeEmoji) {
+    return editor.addReaction(this, unicodeEmoji);
+  }
+
+  @Override
+  public String toString() {
+    return "message " + messageId.asString() + " in channel " + channelId.asString();
+  }
+}
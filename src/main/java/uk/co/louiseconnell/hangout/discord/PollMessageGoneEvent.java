@@ -0,0 +1,8 @@
+package uk.co.louiseconnell.hangout.discord;
+
+import discord4j.common.util.Snowflake;
+
+/**
+ * Published when Discord answers 404 for a message the bot tried to edit or react to.
+ */
+public record PollMessageGoneEvent(Snowflake channelId, Snowflake messageId) {}
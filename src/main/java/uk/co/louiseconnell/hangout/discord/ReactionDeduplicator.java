@@ -0,0 +1,176 @@
+package uk.co.louiseconnell.hangout.discord;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+/**
+ * Drops reaction events that Discord redelivers after a gateway RESUME or reconnect.
+ *
+ * <p>Discord never sends the same reaction add (or remove) twice in a row for one user, message and
+ * emoji, so an event that repeats the last operation seen for that triple is a replay. The last
+ * operation is remembered in a fixed-size, direct-mapped table of primitive fingerprints that is
+ * overwritten ring-style, and entries older than the window are ignored. A lookup is O(1) and does
+ * not allocate; a slot collision only lets a replay through, it never drops a real vote.
+ *
+ * <p>MESSAGE_REACTION_REMOVE_ALL and MESSAGE_REACTION_REMOVE_EMOJI take reactions away without a
+ * remove per user, so the next add would repeat the last operation recorded and be mistaken for a
+ * replay. {@link #clearMessage} and {@link #clearEmoji} stamp the message (or message and emoji) in
+ * a second, smaller table, and operations recorded before the stamp no longer count. When a stamp
+ * still inside the window has to be overwritten, everything recorded before it stops counting
+ * instead, which again only lets replays through.
+ *
+ * <p>Discord4J does not expose the gateway sequence number on its events, so this works from the
+ * operations alone and only some replay shapes are caught outright. A replayed run of operations
+ * on one triple alternates add and remove, as the original did, and ends on the same operation:
+ * <ul>
+ *   <li>a single replayed add or remove repeats the last operation and is dropped;</li>
+ *   <li>a run of odd length (add, remove, add) has only its first event dropped, and the rest are
+ *       applied again as toggles;</li>
+ *   <li>a run of even length (add, remove) starts on the opposite operation, so nothing is
+ *       dropped and it is applied again in full.</li>
+ * </ul>
+ * In every case the vote ends up where it was before the replay; what gets through only repeats
+ * intermediate toggles (and their poll edits).
+ */
+@Component
+public class ReactionDeduplicator {
+
+  private static final int LOCK_STRIPES = 64;
+
+  private final boolean enabled;
+  private final long windowNanos;
+  private final long[] fingerprints;
+  private final long[] seenAt;
+  private final int slotMask;
+  private final Object[] locks = new Object[LOCK_STRIPES];
+  private final long[] clearedKeys;
+  private final long[] clearedAt;
+  private final int clearedMask;
+  private final Object[] clearedLocks = new Object[LOCK_STRIPES];
+  /** Operations recorded at or before this no longer count, after a clear stamp was overwritten early. */
+  private final AtomicLong clearedFloor = new AtomicLong();
+  private final LongSupplier nanoClock;
+  private final long origin;
+
+  private final LongAdder checked = new LongAdder();
+  private final LongAdder dropped = new LongAdder();
+
+  @Autowired
+  public ReactionDeduplicator(final @Value("${hangout.gateway.dedup.enabled:true}") boolean enabled,
+                              final @Value("${hangout.gateway.dedup.window:PT2M}") Duration window,
+                              final @Value("${hangout.gateway.dedup.slots:16384}") int slots) {
+    this(enabled, window, slots, System::nanoTime);
+  }
+
+  ReactionDeduplicator(final boolean enabled, final Duration window, final int slots, final LongSupplier nanoClock) {
+    final int size = slots <= 1 ? 1 : Integer.highestOneBit(slots - 1) << 1;
+    this.enabled = enabled;
+    this.windowNanos = window.toNanos();
+    this.fingerprints = new long[size];
+    this.seenAt = new long[size];
+    this.slotMask = size - 1;
+    // Bulk removals are rare next to single reactions
+    final int clearedSize = Math.max(1, size >> 4);
+    this.clearedKeys = new long[clearedSize];
+    this.clearedAt = new long[clearedSize];
+    this.clearedMask = clearedSize - 1;
+    for (int i = 0; i < LOCK_STRIPES; i++) {
+      locks[i] = new Object();
+      clearedLocks[i] = new Object();
+    }
+    this.nanoClock = nanoClock;
+    // Keep recorded times positive so an untouched slot (time 0) is always outside the window
+    this.origin = nanoClock.getAsLong() - windowNanos - 1;
+  }
+
+  /**
+   * Record a reaction event and report whether it repeats the last one seen for the same triple.
+   *
+   * @return true if the event is a replay and should be dropped
+   */
+  public boolean isReplay(final long messageId, final long userId, final String emoji, final boolean isAdd) {
+    if (!enabled) {
+      return false;
+    }
+    checked.increment();
+    final long now = nanoClock.getAsLong() - origin;
+    final long messageKey = mix(messageId);
+    final long cleared = Math.max(clearedAt(messageKey), clearedAt(mix(messageKey + emoji.hashCode())));
+    final long hash = mix(mix(messageId ^ mix(userId)) + emoji.hashCode());
+    // Low bit carries add/remove; the other 63 bits identify the (message, user, emoji) triple
+    final long fingerprint = (hash & ~1L) | (isAdd ? 1L : 0L);
+    final int slot = (int) (hash >>> 32) & slotMask;
+
+    synchronized (locks[slot & (LOCK_STRIPES - 1)]) {
+      final boolean replay = fingerprints[slot] == fingerprint && now - seenAt[slot] <= windowNanos && seenAt[slot] > cleared;
+      fingerprints[slot] = fingerprint;
+      seenAt[slot] = now;
+      if (replay) {
+        dropped.increment();
+      }
+      return replay;
+    }
+  }
+
+  /**
+   * Forget every reaction recorded on a message, after MESSAGE_REACTION_REMOVE_ALL.
+   */
+  public void clearMessage(final long messageId) {
+    if (enabled) {
+      recordCleared(mix(messageId));
+    }
+  }
+
+  /**
+   * Forget every reaction with one emoji recorded on a message, after MESSAGE_REACTION_REMOVE_EMOJI.
+   */
+  public void clearEmoji(final long messageId, final String emoji) {
+    if (enabled) {
+      recordCleared(mix(mix(messageId) + emoji.hashCode()));
+    }
+  }
+
+  public long getCheckedCount() {
+    return checked.sum();
+  }
+
+  public long getDroppedCount() {
+    return dropped.sum();
+  }
+
+  private void recordCleared(final long key) {
+    final long now = nanoClock.getAsLong() - origin;
+    final int slot = (int) (key >>> 32) & clearedMask;
+    synchronized (clearedLocks[slot & (LOCK_STRIPES - 1)]) {
+      if (clearedKeys[slot] != key && now - clearedAt[slot] <= windowNanos) {
+        clearedFloor.accumulateAndGet(clearedAt[slot], Math::max);
+      }
+      clearedKeys[slot] = key;
+      clearedAt[slot] = now;
+    }
+  }
+
+  /**
+   * When operations recorded for the given key stopped counting; 0 if they all still do.
+   */
+  private long clearedAt(final long key) {
+    final int slot = (int) (key >>> 32) & clearedMask;
+    final long stamp;
+    synchronized (clearedLocks[slot & (LOCK_STRIPES - 1)]) {
+      stamp = clearedKeys[slot] == key ? clearedAt[slot] : 0L;
+    }
+    return Math.max(stamp, clearedFloor.get());
+  }
+
+  private static long mix(long z) {
+    z = (z ^ (z >>> 33)) * 0xff51afd7ed558ccdL;
+    z = (z ^ (z >>> 33)) * 0xc4ceb9fe1a85ec53L;
+    return z ^ (z >>> 33);
+  }
+}
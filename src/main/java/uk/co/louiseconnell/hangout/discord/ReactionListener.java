@@ -2,8 +2,8 @@ package uk.co.louiseconnell.hangout.discord;
 
 import discord4j.core.event.domain.message.ReactionAddEvent;
 import discord4j.core.event.domain.message.ReactionRemoveEvent;
-import discord4j.core.object.entity.User;
-import discord4j.core.object.reaction.ReactionEmoji;
+import discord4j.core.object.emoji.Emoji;
+import discord4j.core.object.entity.Member;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Component;
@@ -11,13 +11,21 @@ import reactor.core.publisher.Mono;
 import uk.co.louiseconnell.hangout.entity.Availability;
 import uk.co.louiseconnell.hangout.entity.Event;
 import uk.co.louiseconnell.hangout.entity.Timeslot;
+import uk.co.louiseconnell.hangout.metrics.jfr.VoteProcessedEvent;
 import uk.co.louiseconnell.hangout.service.DiscordEmbedService;
 import uk.co.louiseconnell.hangout.service.HangoutService;
 
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.BooleanSupplier;
+import java.util.function.Supplier;
 
 import discord4j.common.util.Snowflake;
-import discord4j.core.GatewayDiscordClient;
 import discord4j.core.spec.MessageEditSpec;
 
 @Component
@@ -25,22 +33,52 @@ import discord4j.core.spec.MessageEditSpec;
 @Slf4j
 public class ReactionListener {
     
+    /** How long votes turned away by a full guild queue wait before trying to get in again. */
+    private static final Duration OVERFLOW_RETRY = Duration.ofMillis(500);
+    
     private final HangoutService hangoutService;
     private final DiscordEmbedService embedService;
-    private final GatewayDiscordClient gateway;
+    private final MessageEditor messageEditor;
+    private final VoteThrottle voteThrottle;
+    private final ReactionDeduplicator deduplicator;
+    private final GuildScheduler guildScheduler;
+    private final InFlightWork inFlightWork;
+    
+    private final Map<VoteKey, PendingVote> pendingVotes = new ConcurrentHashMap<>();
+    private final Map<OverflowKey, PendingVote> overflowVotes = new ConcurrentHashMap<>();
+    
+    /**
+     * Queue a reaction add on its guild's {@link GuildScheduler}. Votes are never turned away: if the
+     * guild's queue is full, or this user's earlier reactions on the message are still waiting for
+     * room, the reaction is folded into those and applied once the queue has room again.
+     */
+    public Mono<Void> scheduleReactionAdd(ReactionAddEvent event) {
+        return scheduleVote("reaction_add", event.getGuildId(), event.getMessageId().asLong(), event.getUserId().asLong(),
+                getEmojiString(event.getEmoji()), true, () -> handleReactionAdd(event), () -> isIgnored(event));
+    }
+    
+    /**
+     * Queue a reaction remove, like {@link #scheduleReactionAdd}.
+     */
+    public Mono<Void> scheduleReactionRemove(ReactionRemoveEvent event) {
+        return scheduleVote("reaction_remove", event.getGuildId(), event.getMessageId().asLong(), event.getUserId().asLong(),
+                getEmojiString(event.getEmoji()), false, () -> handleReactionRemove(event), () -> isIgnored(event));
+    }
     
     /**
      * Handle reaction add events
      */
     public Mono<Void> handleReactionAdd(ReactionAddEvent event) {
-        return event.getUser()
-                .filter(user -> !user.isBot()) // Ignore bot reactions
-                .flatMap(user -> {
-                    String messageId = event.getMessageId().asString();
-                    String userId = user.getId().asString();
+        if (isIgnored(event)) {
+            return Mono.empty();
+        }
+        
+        return Mono.defer(() -> {
+                    long messageId = event.getMessageId().asLong();
+                    long guildId = event.getGuildId().map(Snowflake::asLong).orElse(GuildScheduler.NO_GUILD);
                     String emoji = getEmojiString(event.getEmoji());
                     
-                    return processVote(messageId, userId, emoji, true);
+                    return processVote(guildId, messageId, event.getUserId(), emoji, true);
                 })
                 .onErrorResume(error -> {
                     log.error("Error handling reaction add", error);
@@ -52,14 +90,16 @@ public class ReactionListener {
      * Handle reaction remove events
      */
     public Mono<Void> handleReactionRemove(ReactionRemoveEvent event) {
-        return event.getUser()
-                .filter(user -> !user.isBot()) // Ignore bot reactions
-                .flatMap(user -> {
-                    String messageId = event.getMessageId().asString();
-                    String userId = user.getId().asString();
+        if (isIgnored(event)) {
+            return Mono.empty();
+        }
+        
+        return Mono.defer(() -> {
+                    long messageId = event.getMessageId().asLong();
+                    long guildId = event.getGuildId().map(Snowflake::asLong).orElse(GuildScheduler.NO_GUILD);
                     String emoji = getEmojiString(event.getEmoji());
                     
-                    return processVote(messageId, userId, emoji, false);
+                    return processVote(guildId, messageId, event.getUserId(), emoji, false);
                 })
                 .onErrorResume(error -> {
                     log.error("Error handling reaction remove", error);
@@ -67,78 +107,266 @@ public class ReactionListener {
                 });
     }
     
-    private Mono<Void> processVote(String messageId, String userId, String emoji, boolean isAdd) {
+    private boolean isIgnored(ReactionAddEvent event) {
+        // Drop events redelivered after a gateway resume before they cost any database work
+        if (deduplicator.isReplay(event.getMessageId().asLong(), event.getUserId().asLong(),
+                getEmojiString(event.getEmoji()), true)) {
+            log.debug("Dropped replayed reaction add on message {}", event.getMessageId().asString());
+            return true;
+        }
+        
+        // Ignore bot reactions. The member comes with the event in guilds; a REST user lookup here
+        // would resume the rest of the handler, database work included, off the guild-work pool
+        return event.getUserId().equals(event.getClient().getSelfId())
+                || event.getMember().map(Member::isBot).orElse(false);
+    }
+    
+    private boolean isIgnored(ReactionRemoveEvent event) {
+        // Drop events redelivered after a gateway resume before they cost any database work
+        if (deduplicator.isReplay(event.getMessageId().asLong(), event.getUserId().asLong(),
+                getEmojiString(event.getEmoji()), false)) {
+            log.debug("Dropped replayed reaction remove on message {}", event.getMessageId().asString());
+            return true;
+        }
+        
+        // Removes carry no member; our own reactions are the only bot ones on a poll, and another
+        // bot's remove finds no vote to delete
+        return event.getUserId().equals(event.getClient().getSelfId());
+    }
+    
+    private Mono<Void> scheduleVote(String type, Optional<Snowflake> guild, long messageId, long userId, String emoji,
+                                    boolean isAdd, Supplier<Mono<Void>> handler, BooleanSupplier ignored) {
+        long guildId = guild.map(Snowflake::asLong).orElse(GuildScheduler.NO_GUILD);
+        OverflowKey key = new OverflowKey(userId, messageId);
+        Supplier<Mono<Void>> overflow = () -> Mono.fromRunnable(() -> overflowVote(key, guildId, emoji, isAdd, ignored));
+        // Queued behind the user's waiting reactions, this one could be applied before them
+        if (overflowVotes.containsKey(key)) {
+            return overflow.get();
+        }
+        return guildScheduler.schedule(type, guildId, handler, overflow);
+    }
+    
+    /**
+     * Hold on to a reaction the guild's queue had no room for. Only the checks that need no database
+     * work are made here, on the gateway thread; the rest happens when the burst is flushed.
+     */
+    private void overflowVote(OverflowKey key, long guildId, String emoji, boolean isAdd, BooleanSupplier ignored) {
+        if (ignored.getAsBoolean()) {
+            return;
+        }
+        PendingVote started = new PendingVote();
+        PendingVote pending = overflowVotes.compute(key, (k, existing) -> (existing != null ? existing : started).merge(emoji, isAdd));
+        if (pending != started) {
+            voteThrottle.recordCoalesced();
+            return;
+        }
+        log.debug("Guild {} is busy; holding votes from user {} on message {}", guildId, key.userId(), key.messageId());
+        retryOverflow(key, guildId);
+    }
+    
+    private void retryOverflow(OverflowKey key, long guildId) {
+        inFlightWork.submit(Mono.delay(OVERFLOW_RETRY)
+                .then(guildScheduler.schedule("vote_overflow", guildId, () -> flushOverflow(key, guildId),
+                        () -> Mono.fromRunnable(() -> retryOverflow(key, guildId)))),
+                "held votes on message " + key.messageId());
+    }
+    
+    /**
+     * Run a held burst through the normal vote path, so it is throttled and coalesced like any other.
+     * Every write is made before the embed edits are waited on.
+     */
+    private Mono<Void> flushOverflow(OverflowKey key, long guildId) {
+        PendingVote pending = overflowVotes.remove(key);
+        if (pending == null) {
+            return Mono.empty();
+        }
+        Snowflake user = Snowflake.of(key.userId());
+        List<Mono<Void>> edits = new ArrayList<>();
+        if (pending.clearAll) {
+            edits.add(processVote(guildId, key.messageId(), user, "❌", true));
+        }
+        pending.emojis.forEach((emoji, isAdd) -> edits.add(processVote(guildId, key.messageId(), user, emoji, isAdd)));
+        return Mono.when(edits);
+    }
+    
+    private Mono<Void> processVote(long guildId, long messageId, Snowflake user, String emoji, boolean isAdd) {
+        VoteProcessedEvent trace = VoteProcessedEvent.start(emoji, isAdd);
+        String outcome = "error";
+        long eventId = 0;
+        long timeslotId = 0;
         try {
             // Find event by message ID
             Optional<Event> eventOpt = hangoutService.getEventByMessageId(messageId);
             if (eventOpt.isEmpty()) {
+                outcome = "not_poll";
                 return Mono.empty(); // Not a hangout event message
             }
             
             Event event = eventOpt.get();
+            eventId = event.getId();
             
             // Ignore votes for closed events
             if (event.getStatus() == Event.EventStatus.CLOSED) {
+                outcome = "closed";
                 return Mono.empty();
             }
             
-            // Handle special emojis
-            if ("❌".equals(emoji)) {
-                if (isAdd) {
-                    // Remove all votes for this user on this event
-                    removeAllUserVotes(userId, event.getId());
-                }
+            // Only adding ❌ does anything; removing it is a no-op
+            if ("❌".equals(emoji) && !isAdd) {
+                outcome = "ignored";
                 return Mono.empty();
             }
             
             if ("❓".equals(emoji)) {
                 // Handle "maybe" votes - could be implemented later
+                outcome = "ignored";
                 return Mono.empty();
             }
             
-            // Find timeslot by emoji
-            Optional<Timeslot> timeslotOpt = hangoutService.findTimeslotByEmoji(event.getId(), emoji);
-            if (timeslotOpt.isEmpty()) {
-                return Mono.empty(); // Not a valid timeslot emoji
+            // Ignore reactions that don't map to a timeslot before they cost a token
+            if (!"❌".equals(emoji)) {
+                Optional<Timeslot> timeslot = hangoutService.findTimeslotByEmoji(event.getId(), emoji);
+                if (timeslot.isEmpty()) {
+                    outcome = "ignored";
+                    return Mono.empty(); // Not a valid timeslot emoji
+                }
+                timeslotId = timeslot.get().getId();
             }
             
-            Timeslot timeslot = timeslotOpt.get();
+            VoteKey key = new VoteKey(user.asLong(), event.getId());
             
-            if (isAdd) {
-                // Add vote
-                hangoutService.voteForTimeslot(userId, timeslot.getId(), Availability.AvailabilityStatus.AVAILABLE);
-                log.info("User {} voted for timeslot {} ({})", userId, timeslot.getId(), emoji);
-            } else {
-                // Remove vote
-                removeUserVote(userId, timeslot.getId());
-                log.info("User {} removed vote for timeslot {} ({})", userId, timeslot.getId(), emoji);
+            // A burst for this user is already waiting; fold this toggle into it
+            if (pendingVotes.computeIfPresent(key, (k, pending) -> pending.merge(emoji, isAdd)) != null) {
+                voteThrottle.recordCoalesced();
+                outcome = "coalesced";
+                return Mono.empty();
+            }
+            
+            long waitNanos = voteThrottle.tryAcquire(key.userId(), key.eventId());
+            if (waitNanos == 0) {
+                applyVote(user.asLong(), event.getId(), emoji, isAdd);
+                outcome = "applied";
+                return updateEventEmbed(event, messageId);
             }
             
-            // Update the embed to reflect new vote counts
-            return updateEventEmbed(event, messageId);
+            // Out of tokens: start a burst that is applied once, in its final state, when the bucket refills
+            PendingVote started = new PendingVote();
+            PendingVote pending = pendingVotes.compute(key, (k, existing) -> (existing != null ? existing : started).merge(emoji, isAdd));
+            if (pending != started) {
+                voteThrottle.recordCoalesced();
+                outcome = "coalesced";
+                return Mono.empty();
+            }
+            log.debug("Throttling votes from user {} on event {} for {}ms", user.asString(), event.getId(), waitNanos / 1_000_000);
+            outcome = "throttled";
+            deferFlush(key, guildId, messageId, waitNanos);
+            return Mono.empty();
             
         } catch (Exception e) {
             log.error("Error processing vote", e);
             return Mono.empty();
+        } finally {
+            trace.finish(outcome, eventId, timeslotId);
+        }
+    }
+    
+    /**
+     * Apply a pending burst once the user's bucket has refilled. The wait happens outside the guild's
+     * queue, so a throttled user does not hold one of its running slots; the flush is queued as new
+     * guild work when the wait is over, and still counts as in flight for a drain. A full queue puts
+     * it off again rather than losing it.
+     */
+    private void deferFlush(VoteKey key, long guildId, long messageId, long waitNanos) {
+        inFlightWork.submit(Mono.delay(Duration.ofNanos(waitNanos))
+                .then(guildScheduler.schedule("vote_flush", guildId, () -> flushPendingVote(key, guildId, messageId),
+                        () -> Mono.fromRunnable(() -> deferFlush(key, guildId, messageId, OVERFLOW_RETRY.toNanos())))),
+                "throttled votes on event " + key.eventId());
+    }
+    
+    private Mono<Void> flushPendingVote(VoteKey key, long guildId, long messageId) {
+        PendingVote waiting = pendingVotes.get(key);
+        if (waiting == null) {
+            return Mono.empty();
+        }
+        VoteProcessedEvent trace = VoteProcessedEvent.start(waiting.clearAll ? "❌" : null, true);
+        String outcome = "error";
+        try {
+            Optional<Event> eventOpt = hangoutService.getEventById(key.eventId());
+            if (eventOpt.isEmpty() || eventOpt.get().getStatus() == Event.EventStatus.CLOSED) {
+                pendingVotes.remove(key);
+                outcome = "closed";
+                return Mono.empty();
+            }
+            // Another vote may have taken the token first; keep the burst open and wait again
+            long waitNanos = voteThrottle.tryAcquire(key.userId(), key.eventId());
+            if (waitNanos > 0) {
+                deferFlush(key, guildId, messageId, waitNanos);
+                outcome = "throttled";
+                return Mono.empty();
+            }
+            PendingVote pending = pendingVotes.remove(key);
+            if (pending == null) {
+                outcome = "coalesced";
+                return Mono.empty();
+            }
+            
+            long userId = key.userId();
+            if (pending.clearAll) {
+                applyVote(userId, key.eventId(), "❌", true);
+            }
+            pending.emojis.forEach((emoji, isAdd) -> applyVote(userId, key.eventId(), emoji, isAdd));
+            outcome = "flushed";
+            
+            return updateEventEmbed(eventOpt.get(), messageId);
+        } catch (Exception e) {
+            log.error("Error applying throttled votes for event {}", key.eventId(), e);
+            return Mono.empty();
+        } finally {
+            trace.finish(outcome, key.eventId(), 0);
+        }
+    }
+    
+    private void applyVote(long userId, Long eventId, String emoji, boolean isAdd) {
+        if ("❌".equals(emoji)) {
+            // Remove all votes for this user on this event
+            removeAllUserVotes(userId, eventId);
+            log.info("User {} removed all votes for event {}", userId, eventId);
+            return;
+        }
+        
+        // Find timeslot by emoji
+        Optional<Timeslot> timeslotOpt = hangoutService.findTimeslotByEmoji(eventId, emoji);
+        if (timeslotOpt.isEmpty()) {
+            return; // Timeslot was removed while the vote was pending
+        }
+        
+        Timeslot timeslot = timeslotOpt.get();
+        
+        if (isAdd) {
+            // Add vote
+            hangoutService.voteForTimeslot(userId, timeslot.getId(), Availability.AvailabilityStatus.AVAILABLE);
+            log.info("User {} voted for timeslot {} ({})", userId, timeslot.getId(), emoji);
+        } else {
+            // Remove vote
+            removeUserVote(userId, timeslot.getId());
+            log.info("User {} removed vote for timeslot {} ({})", userId, timeslot.getId(), emoji);
         }
     }
     
-    private void removeUserVote(String userId, Long timeslotId) {
+    private void removeUserVote(long userId, Long timeslotId) {
         hangoutService.removeUserVote(userId, timeslotId);
     }
     
-    private void removeAllUserVotes(String userId, Long eventId) {
+    private void removeAllUserVotes(long userId, Long eventId) {
         hangoutService.removeAllUserVotes(userId, eventId);
     }
     
-    private Mono<Void> updateEventEmbed(Event event, String messageId) {
+    private Mono<Void> updateEventEmbed(Event event, long messageId) {
         try {
             var embed = embedService.createHangoutEmbed(event, hangoutService.getUserTimezoneOrDefault(event.getCreatorDiscordId()));
             var channelSnowflake = Snowflake.of(event.getChannelId());
             var messageSnowflake = Snowflake.of(messageId);
-            return gateway
-                    .getMessageById(channelSnowflake, messageSnowflake)
-                    .flatMap(msg -> msg.edit(MessageEditSpec.builder().addEmbed(embed).build()))
+            return messageEditor.edit(channelSnowflake, messageSnowflake, MessageEditSpec.builder().addEmbed(embed).build())
                     .onErrorResume(err -> {
                         log.warn("Failed to update event embed message {} in channel {}: {}", messageSnowflake.asString(), channelSnowflake.asString(), err.toString());
                         return Mono.empty();
@@ -150,10 +378,33 @@ public class ReactionListener {
         }
     }
     
-    private String getEmojiString(ReactionEmoji emoji) {
+    static String getEmojiString(Emoji emoji) {
         if (emoji.asUnicodeEmoji().isPresent()) {
             return emoji.asUnicodeEmoji().get().getRaw();
         }
         return emoji.asCustomEmoji().map(custom -> custom.getName()).orElse("");
     }
+    
+    private record VoteKey(long userId, long eventId) {}
+    
+    private record OverflowKey(long userId, long messageId) {}
+    
+    /**
+     * Reactions from one user on one event that arrived while their bucket was empty (or on one
+     * message, while the guild's queue was full), collapsed to the final state per emoji. A ❌ wipes everything queued before it.
+     */
+    private static final class PendingVote {
+        private boolean clearAll;
+        private final Map<String, Boolean> emojis = new LinkedHashMap<>();
+        
+        private PendingVote merge(String emoji, boolean isAdd) {
+            if ("❌".equals(emoji)) {
+                clearAll = true;
+                emojis.clear();
+            } else {
+                emojis.put(emoji, isAdd);
+            }
+            return this;
+        }
+    }
 }
@@ -0,0 +1,163 @@
+package uk.co.louiseconnell.hangout.discord;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+/**
+ * Per-(user, event) token bucket in front of reaction vote processing.
+ *
+ * <p>Buckets live in fixed-size, open-addressed tables spread over lock stripes, so checking a vote
+ * never allocates. Each slot holds the bucket's theoretical arrival time (the GCRA form of a token
+ * bucket): once that time is in the past the bucket is full again and the slot can be reused by
+ * another key.
+ */
+@Component
+public class VoteThrottle {
+
+  private static final int PROBE_LIMIT = 8;
+
+  private final boolean enabled;
+  private final long emissionIntervalNanos;
+  private final long burstToleranceNanos;
+  private final Stripe[] stripes;
+  private final int stripeMask;
+  private final int slotMask;
+  private final LongSupplier nanoClock;
+  private final long origin;
+
+  private final LongAdder allowed = new LongAdder();
+  private final LongAdder throttled = new LongAdder();
+  private final LongAdder coalesced = new LongAdder();
+  private final LongAdder overflowed = new LongAdder();
+
+  @Autowired
+  public VoteThrottle(final @Value("${hangout.votes.throttle.enabled:true}") boolean enabled,
+                      final @Value("${hangout.votes.throttle.rate-per-second:1.0}") double ratePerSecond,
+                      final @Value("${hangout.votes.throttle.burst:3}") int burst,
+                      final @Value("${hangout.votes.throttle.stripes:32}") int stripes,
+                      final @Value("${hangout.votes.throttle.slots-per-stripe:256}") int slotsPerStripe) {
+    this(enabled, ratePerSecond, burst, stripes, slotsPerStripe, System::nanoTime);
+  }
+
+  VoteThrottle(final boolean enabled,
+               final double ratePerSecond,
+               final int burst,
+               final int stripes,
+               final int slotsPerStripe,
+               final LongSupplier nanoClock) {
+    if (ratePerSecond <= 0 || burst < 1) {
+      throw new IllegalArgumentException("hangout.votes.throttle needs rate-per-second > 0 and burst >= 1");
+    }
+    this.enabled = enabled;
+    this.emissionIntervalNanos = (long) (1_000_000_000L / ratePerSecond);
+    this.burstToleranceNanos = emissionIntervalNanos * (burst - 1);
+    this.stripes = new Stripe[powerOfTwo(stripes)];
+    this.stripeMask = this.stripes.length - 1;
+    final int slots = powerOfTwo(slotsPerStripe);
+    this.slotMask = slots - 1;
+    for (int i = 0; i < this.stripes.length; i++) {
+      this.stripes[i] = new Stripe(slots);
+    }
+    this.nanoClock = nanoClock;
+    this.origin = nanoClock.getAsLong();
+  }
+
+  /**
+   * Take a token from the bucket for this user and event.
+   *
+   * @return 0 if the vote may be applied now, otherwise the nanoseconds until a token is available
+   */
+  public long tryAcquire(final long userId, final long eventId) {
+    if (!enabled) {
+      return 0;
+    }
+    final long now = nanoClock.getAsLong() - origin;
+    final long hash = mix(userId * 31 + eventId);
+    final Stripe stripe = stripes[(int) (hash >>> 32) & stripeMask];
+    final int home = (int) hash & slotMask;
+
+    synchronized (stripe) {
+      int free = -1;
+      for (int probe = 0; probe < PROBE_LIMIT; probe++) {
+        final int slot = (home + probe) & slotMask;
+        if (stripe.arrivals[slot] > now && stripe.users[slot] == userId && stripe.events[slot] == eventId) {
+          return take(stripe, slot, now);
+        }
+        if (free < 0 && stripe.arrivals[slot] <= now) {
+          free = slot;
+        }
+      }
+      if (free < 0) {
+        // Every nearby slot holds a live bucket; let the vote through rather than block it
+        overflowed.increment();
+        allowed.increment();
+        return 0;
+      }
+      stripe.users[free] = userId;
+      stripe.events[free] = eventId;
+      stripe.arrivals[free] = now;
+      return take(stripe, free, now);
+    }
+  }
+
+  private long take(final Stripe stripe, final int slot, final long now) {
+    final long arrival = Math.max(stripe.arrivals[slot], now);
+    final long wait = arrival - burstToleranceNanos - now;
+    if (wait > 0) {
+      throttled.increment();
+      return wait;
+    }
+    stripe.arrivals[slot] = arrival + emissionIntervalNanos;
+    allowed.increment();
+    return 0;
+  }
+
+  /**
+   * Record a vote that was folded into an already pending burst instead of being applied.
+   */
+  public void recordCoalesced() {
+    coalesced.increment();
+  }
+
+  public long getAllowedCount() {
+    return allowed.sum();
+  }
+
+  public long getThrottledCount() {
+    return throttled.sum();
+  }
+
+  public long getCoalescedCount() {
+    return coalesced.sum();
+  }
+
+  public long getOverflowCount() {
+    return overflowed.sum();
+  }
+
+  private static int powerOfTwo(final int value) {
+    return value <= 1 ? 1 : Integer.highestOneBit(value - 1) << 1;
+  }
+
+  private static long mix(long z) {
+    z = (z ^ (z >>> 33)) * 0xff51afd7ed558ccdL;
+    z = (z ^ (z >>> 33)) * 0xc4ceb9fe1a85ec53L;
+    return z ^ (z >>> 33);
+  }
+
+  private static final class Stripe {
+    private final long[] users;
+    private final long[] events;
+    private final long[] arrivals;
+
+    private Stripe(final int slots) {
+      this.users = new long[slots];
+      this.events = new long[slots];
+      this.arrivals = new long[slots];
+    }
+  }
+}
@@ -0,0 +1,41 @@
+package uk.co.louiseconnell.hangout.entity;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.Immutable;
+
+import java.time.LocalDateTime;
+
+/**
+ * A vote on an {@link ArchivedEvent}.
+ */
+@Entity
+@Table(name = "availabilities_archive")
+@Immutable
+@Getter
+@NoArgsConstructor
+public class ArchivedAvailability {
+    
+    @Id
+    private Long id;
+    
+    @Column(nullable = false)
+    private Long userDiscordId;
+    
+    @Column(nullable = false)
+    private Long eventId;
+    
+    @Column(nullable = false)
+    private Long timeslotId;
+    
+    @Column(nullable = false)
+    private LocalDateTime votedAt;
+    
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private Availability.AvailabilityStatus status;
+    
+    @Column(nullable = false)
+    private LocalDateTime closedAt; // The event's, as the partition key on PostgreSQL
+}
@@ -0,0 +1,73 @@
+package uk.co.louiseconnell.hangout.entity;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.Immutable;
+import org.hibernate.annotations.JdbcTypeCode;
+import org.hibernate.type.SqlTypes;
+
+import java.time.LocalDateTime;
+
+/**
+ * A closed event moved out of {@code events} by the archiver. Rows are only ever inserted and
+ * read by plain SQL; {@link #toEvent()} gives the detached {@link Event} callers expect.
+ */
+@Entity
+@Table(name = "events_archive")
+@Immutable
+@Getter
+@NoArgsConstructor
+public class ArchivedEvent {
+    
+    @Id
+    private Long id;
+    
+    @Column(nullable = false)
+    private String title;
+    
+    @Column(length = 1000)
+    private String description;
+    
+    @Column(nullable = false)
+    private Long creatorDiscordId;
+    
+    @Column(nullable = false)
+    private Long channelId;
+    
+    @Column
+    private Long messageId;
+    
+    @Column(nullable = false)
+    private LocalDateTime createdAt;
+    
+    @Column
+    private LocalDateTime deadline;
+    
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private Event.EventStatus status;
+    
+    @Column(nullable = false)
+    private LocalDateTime closedAt; // Partition key on PostgreSQL
+    
+    @Column
+    @JdbcTypeCode(SqlTypes.JSON)
+    private EventResults results;
+    
+    public Event toEvent() {
+        return Event.builder()
+            .id(id)
+            .title(title)
+            .description(description)
+            .creatorDiscordId(creatorDiscordId)
+            .channelId(channelId)
+            .messageId(messageId)
+            .createdAt(createdAt)
+            .deadline(deadline)
+            .status(status)
+            .closedAt(closedAt)
+            .results(results)
+            .build();
+    }
+}
@@ -0,0 +1,53 @@
+package uk.co.louiseconnell.hangout.entity;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.Immutable;
+
+import java.time.LocalDateTime;
+
+/**
+ * A timeslot of an {@link ArchivedEvent}.
+ */
+@Entity
+@Table(name = "timeslots_archive")
+@Immutable
+@Getter
+@NoArgsConstructor
+public class ArchivedTimeslot {
+    
+    @Id
+    private Long id;
+    
+    @Column(nullable = false)
+    private Long eventId;
+    
+    @Column(nullable = false)
+    private LocalDateTime startTime;
+    
+    @Column(nullable = false)
+    private LocalDateTime endTime;
+    
+    @Column
+    private String description;
+    
+    @Column(nullable = false)
+    private String emoji;
+    
+    @Column(nullable = false)
+    private LocalDateTime closedAt; // The event's, as the partition key on PostgreSQL
+    
+    /**
+     * A detached {@link Timeslot} with no event or votes attached.
+     */
+    public Timeslot toTimeslot() {
+        return Timeslot.builder()
+            .id(id)
+            .startTime(startTime)
+            .endTime(endTime)
+            .description(description)
+            .emoji(emoji)
+            .build();
+    }
+}
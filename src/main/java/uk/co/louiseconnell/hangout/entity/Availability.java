@@ -20,7 +20,8 @@ import java.time.LocalDateTime;
 public class Availability {
     
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "availabilities_seq")
+    @SequenceGenerator(name = "availabilities_seq", sequenceName = "availabilities_seq", allocationSize = 50)
     private Long id;
     
     @ManyToOne(fetch = FetchType.LAZY)
@@ -1,5 +1,7 @@
 package uk.co.louiseconnell.hangout.entity;
 
+import com.fasterxml.jackson.annotation.JsonFormat;
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence.*;
 import lombok.Data;
 import lombok.EqualsAndHashCode;
@@ -7,12 +9,18 @@ import lombok.ToString;
 import lombok.NoArgsConstructor;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.JdbcTypeCode;
+import org.hibernate.type.SqlTypes;
 
 import java.time.LocalDateTime;
 import java.util.Set;
 
 @Entity
 @Table(name = "events")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "events")
 @Data
 @EqualsAndHashCode(onlyExplicitlyIncluded = true)
 @NoArgsConstructor
@@ -21,7 +29,8 @@ import java.util.Set;
 public class Event {
     
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "events_seq")
+    @SequenceGenerator(name = "events_seq", sequenceName = "events_seq", allocationSize = 50)
     @EqualsAndHashCode.Include
     private Long id;
     
@@ -32,13 +41,16 @@ public class Event {
     private String description;
     
     @Column(nullable = false)
-    private String creatorDiscordId;
+    @JsonFormat(shape = JsonFormat.Shape.STRING)
+    private Long creatorDiscordId;
     
     @Column(nullable = false)
-    private String channelId; // Discord channel where event was created
+    @JsonFormat(shape = JsonFormat.Shape.STRING)
+    private Long channelId; // Discord channel where event was created
     
     @Column
-    private String messageId; // Discord message ID for the embed
+    @JsonFormat(shape = JsonFormat.Shape.STRING)
+    private Long messageId; // Discord message ID for the embed
     
     @Column(nullable = false)
     private LocalDateTime createdAt;
@@ -50,12 +62,22 @@ public class Event {
     @Column(nullable = false)
     private EventStatus status;
     
+    @Column
+    private LocalDateTime closedAt; // Moved to the archive tables some time after this
+    
+    @Column
+    @JdbcTypeCode(SqlTypes.JSON)
+    private EventResults results; // Frozen by closeEvent; null until then
+    
+    // Served by their own endpoints; lazy, and absent on archived events
     @OneToMany(mappedBy = "event", cascade = CascadeType.ALL, fetch = FetchType.LAZY)
     @ToString.Exclude
+    @JsonIgnore
     private Set<Timeslot> timeslots;
     
     @OneToMany(mappedBy = "event", cascade = CascadeType.ALL, fetch = FetchType.LAZY)
     @ToString.Exclude
+    @JsonIgnore
     private Set<Availability> availabilities;
     
     public enum EventStatus {
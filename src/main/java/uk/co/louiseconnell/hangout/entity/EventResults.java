@@ -0,0 +1,54 @@
+package uk.co.louiseconnell.hangout.entity;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
+import java.io.Serializable;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The outcome of a closed event as it stood when it closed: every timeslot with its final
+ * AVAILABLE count, the winner, and the creator's timezone the results are shown in. Stored as JSON
+ * on the event row, so a closed event is rendered without reading its timeslots or votes again;
+ * serializable because the second-level cache holds it with the row.
+ *
+ * @param winnerTimeslotId the most popular timeslot, the earliest of any tie; {@code null} when
+ *                         nobody voted AVAILABLE
+ */
+public record EventResults(
+    String timezone,
+    @JsonFormat(shape = JsonFormat.Shape.STRING) Long winnerTimeslotId,
+    List<Slot> slots) implements Serializable {
+
+    public record Slot(
+        @JsonFormat(shape = JsonFormat.Shape.STRING) Long timeslotId,
+        String emoji,
+        @JsonFormat(shape = JsonFormat.Shape.STRING) LocalDateTime startTime,
+        @JsonFormat(shape = JsonFormat.Shape.STRING) LocalDateTime endTime,
+        int available) implements Serializable {}
+
+    /**
+     * Results for the timeslots in display order, counting zero for any missing from {@code counts}.
+     */
+    public static EventResults of(List<Timeslot> timeslots, Map<Long, Integer> counts, String timezone) {
+        Slot winner = null;
+        final List<Slot> slots = new ArrayList<>(timeslots.size());
+        for (Timeslot timeslot : timeslots) {
+            final Slot slot = new Slot(timeslot.getId(), timeslot.getEmoji(), timeslot.getStartTime(),
+                timeslot.getEndTime(), counts.getOrDefault(timeslot.getId(), 0));
+            if (slot.available() > 0 && (winner == null || slot.available() > winner.available())) {
+                winner = slot;
+            }
+            slots.add(slot);
+        }
+        return new EventResults(timezone, winner == null ? null : winner.timeslotId(), List.copyOf(slots));
+    }
+
+    @JsonIgnore
+    public Slot winner() {
+        return slots.stream().filter(slot -> slot.timeslotId().equals(winnerTimeslotId)).findFirst().orElse(null);
+    }
+}
@@ -0,0 +1,64 @@
+package uk.co.louiseconnell.hangout.entity;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.JdbcTypeCode;
+import org.hibernate.type.SqlTypes;
+
+import java.io.Serializable;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Vote totals for one event, kept up to date by each vote's transaction so reads never count
+ * availabilities. Written under a row lock; {@link #version} goes up with every change.
+ */
+@Entity
+@Table(name = "event_summaries")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class EventSummary {
+
+    @Id
+    @JsonFormat(shape = JsonFormat.Shape.STRING)
+    private Long eventId;
+
+    @Column(nullable = false)
+    @JdbcTypeCode(SqlTypes.JSON)
+    private List<SlotCount> slots; // In display order
+
+    @Column(nullable = false)
+    private int voterCount; // Users with any vote on the event
+
+    @Column
+    @JsonFormat(shape = JsonFormat.Shape.STRING)
+    private Long leadingTimeslotId; // Earliest of the most AVAILABLE votes; null without any
+
+    @Column
+    private LocalDateTime lastVoteAt;
+
+    @Version
+    private Long version;
+
+    public record SlotCount(@JsonFormat(shape = JsonFormat.Shape.STRING) Long timeslotId, int available)
+        implements Serializable {}
+
+    /**
+     * AVAILABLE count per timeslot ID.
+     */
+    public Map<Long, Integer> counts() {
+        final Map<Long, Integer> counts = new HashMap<>();
+        for (SlotCount slot : slots) {
+            counts.put(slot.timeslotId(), slot.available());
+        }
+        return counts;
+    }
+}
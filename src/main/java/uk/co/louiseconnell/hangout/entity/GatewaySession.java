@@ -0,0 +1,30 @@
+package uk.co.louiseconnell.hangout.entity;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+
+import java.time.LocalDateTime;
+
+@Entity
+@Table(name = "gateway_sessions")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class GatewaySession {
+    
+    @Id
+    private Integer shardIndex;
+    
+    @Column(nullable = false)
+    private String sessionId; // Discord gateway session to RESUME
+    
+    @Column(nullable = false)
+    private Integer sequence; // Last dispatch sequence seen on this session
+    
+    @Column(nullable = false)
+    private LocalDateTime savedAt;
+}
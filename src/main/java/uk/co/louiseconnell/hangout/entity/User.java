@@ -1,17 +1,22 @@
 package uk.co.louiseconnell.hangout.entity;
 
+import com.fasterxml.jackson.annotation.JsonFormat;
 import jakarta.persistence.*;
 import lombok.Data;
 import lombok.EqualsAndHashCode;
 import lombok.NoArgsConstructor;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 import java.time.ZoneId;
 import java.util.Set;
 
 @Entity
 @Table(name = "users")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "users")
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -20,7 +25,8 @@ import java.util.Set;
 public class User {
     
     @Id
-    private String discordId; // Discord user ID as primary key
+    @JsonFormat(shape = JsonFormat.Shape.STRING)
+    private Long discordId; // Discord user ID as primary key
     
     @Column(nullable = false)
     private String username;
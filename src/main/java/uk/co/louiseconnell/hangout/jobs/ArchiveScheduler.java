@@ -0,0 +1,72 @@
+package uk.co.louiseconnell.hangout.jobs;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import uk.co.louiseconnell.hangout.discord.InFlightWork;
+import uk.co.louiseconnell.hangout.service.EventArchive;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+/**
+ * Moves events closed more than {@code hangout.archive.after} ago into the archive, a batch per
+ * transaction, so the hot tables only hold live polls and recent results.
+ */
+@Component
+@Slf4j
+public class ArchiveScheduler {
+
+  private final EventArchive eventArchive;
+  private final InFlightWork inFlightWork;
+  private final MeterRegistry registry;
+  private final boolean enabled;
+  private final Duration after;
+  private final int batchSize;
+
+  public ArchiveScheduler(final EventArchive eventArchive,
+                          final InFlightWork inFlightWork,
+                          final MeterRegistry registry,
+                          final @Value("${hangout.archive.enabled:true}") boolean enabled,
+                          final @Value("${hangout.archive.after:30d}") Duration after,
+                          final @Value("${hangout.archive.batch-size:200}") int batchSize) {
+    this.eventArchive = eventArchive;
+    this.inFlightWork = inFlightWork;
+    this.registry = registry;
+    this.enabled = enabled;
+    this.after = after;
+    this.batchSize = Math.max(1, batchSize);
+  }
+
+  @Scheduled(initialDelayString = "${hangout.archive.initial-delay:PT5M}", fixedDelayString = "${hangout.archive.interval:PT1H}")
+  public void archiveClosedEvents() {
+    if (!enabled || !inFlightWork.isAccepting()) {
+      return;
+    }
+    final Timer.Sample run = Timer.start(registry);
+    String outcome = "success";
+    int archived = 0;
+    try {
+      final LocalDateTime closedBefore = LocalDateTime.now().minus(after);
+      eventArchive.preparePartitions(closedBefore);
+      int moved;
+      do {
+        moved = eventArchive.archiveBatch(closedBefore, batchSize);
+        archived += moved;
+        registry.counter("hangout.archive.events").increment(moved);
+        // Each batch commits on its own; a shutdown stops between them
+      } while (moved == batchSize && inFlightWork.isAccepting());
+      if (archived > 0) {
+        log.info("Archived {} event(s) closed before {}", archived, closedBefore);
+      }
+    } catch (Exception e) {
+      outcome = "error";
+      log.error("Error during archive run after {} event(s)", archived, e);
+    } finally {
+      run.stop(registry.timer("hangout.archive.run", "outcome", outcome));
+    }
+  }
+}
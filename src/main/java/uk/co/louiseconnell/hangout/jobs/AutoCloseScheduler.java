@@ -5,12 +5,18 @@ import lombok.extern.slf4j.Slf4j;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
 import reactor.core.publisher.Mono;
+import uk.co.louiseconnell.hangout.datasource.ConnectionPool;
+import uk.co.louiseconnell.hangout.datasource.Workload;
 import uk.co.louiseconnell.hangout.entity.Event;
+import uk.co.louiseconnell.hangout.discord.InFlightWork;
+import uk.co.louiseconnell.hangout.discord.MessageEditor;
+import uk.co.louiseconnell.hangout.metrics.jfr.AutoCloseRunEvent;
 import uk.co.louiseconnell.hangout.service.DiscordEmbedService;
 import uk.co.louiseconnell.hangout.service.HangoutService;
-import discord4j.core.GatewayDiscordClient;
 import discord4j.common.util.Snowflake;
 import discord4j.core.spec.MessageEditSpec;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 
 import java.time.LocalDateTime;
 import java.util.List;
@@ -22,13 +28,27 @@ public class AutoCloseScheduler {
 
   private final HangoutService hangoutService;
   private final DiscordEmbedService embedService;
-  private final GatewayDiscordClient gateway;
+  private final MessageEditor messageEditor;
+  private final InFlightWork inFlightWork;
+  private final MeterRegistry registry;
 
   // Run every minute
   @Scheduled(fixedDelay = 60_000)
+  @ConnectionPool(Workload.BACKGROUND)
   public void autoCloseDueEvents() {
+    if (!inFlightWork.isAccepting()) {
+      return; // Shutting down; leave due events for the next instance
+    }
+    final Timer.Sample run = Timer.start(registry);
+    final AutoCloseRunEvent trace = AutoCloseRunEvent.start();
+    String outcome = "success";
+    int dueCount = 0;
+    int closed = 0;
+    int failed = 0;
     try {
       List<Event> due = hangoutService.findDueActiveEvents(LocalDateTime.now());
+      dueCount = due.size();
+      registry.summary("hangout.autoclose.due").record(due.size());
       if (due.isEmpty()) {
         return;
       }
@@ -36,25 +56,30 @@ public class AutoCloseScheduler {
       log.info("Auto-closing {} event(s) past deadline", due.size());
       for (Event ev : due) {
         try {
-          hangoutService.closeEvent(ev.getId());
-          var summary = embedService.createEventSummaryEmbed(ev);
+          var summary = embedService.createEventSummaryEmbed(hangoutService.closeEvent(ev.getId()));
           if (ev.getMessageId() != null) {
             var channelSnowflake = Snowflake.of(ev.getChannelId());
             var messageSnowflake = Snowflake.of(ev.getMessageId());
-            gateway.getMessageById(channelSnowflake, messageSnowflake)
-                .flatMap(msg -> msg.edit(MessageEditSpec.builder().addEmbed(summary).build()))
+            inFlightWork.submit(messageEditor.edit(channelSnowflake, messageSnowflake, MessageEditSpec.builder().addEmbed(summary).build())
                 .onErrorResume(err -> {
                   log.warn("Failed to edit message for auto-closed event {}", ev.getId(), err);
                   return Mono.empty();
-                })
-                .subscribe();
+                }), "auto-close summary for event " + ev.getId());
           }
+          registry.counter("hangout.autoclose.events", "result", "closed").increment();
+          closed++;
         } catch (Exception e) {
           log.error("Failed to auto-close event {}", ev.getId(), e);
+          registry.counter("hangout.autoclose.events", "result", "failed").increment();
+          failed++;
         }
       }
     } catch (Exception e) {
+      outcome = "error";
       log.error("Error during auto-close scheduler run", e);
+    } finally {
+      run.stop(registry.timer("hangout.autoclose.run", "outcome", outcome));
+      trace.finish(outcome, dueCount, closed, failed);
     }
   }
 }
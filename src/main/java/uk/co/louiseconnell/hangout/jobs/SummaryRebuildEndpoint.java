@@ -0,0 +1,45 @@
+package uk.co.louiseconnell.hangout.jobs;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Selector;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.boot.actuate.endpoint.web.WebEndpointResponse;
+import org.springframework.boot.actuate.endpoint.web.annotation.WebEndpoint;
+import org.springframework.stereotype.Component;
+
+/**
+ * The {@code summaries} actuator endpoint, for rebuilding every event's vote summary with
+ * {@link SummaryRebuilder}. It is on the management port rather than next to the public API, since
+ * a rebuild rewrites every summary and keeps the background pool busy for as long as it takes.
+ *
+ * <ul>
+ *   <li>{@code GET /actuator/summaries}: whether a rebuild is running, and how the last one went</li>
+ *   <li>{@code POST /actuator/summaries/rebuild}: start a rebuild in the background</li>
+ * </ul>
+ */
+@Component
+@WebEndpoint(id = "summaries")
+@RequiredArgsConstructor
+public class SummaryRebuildEndpoint {
+
+  private static final int STATUS_ACCEPTED = 202;
+
+  private final SummaryRebuilder summaryRebuilder;
+
+  @ReadOperation
+  public SummaryRebuilder.Status status() {
+    return summaryRebuilder.status();
+  }
+
+  @WriteOperation
+  public WebEndpointResponse<SummaryRebuilder.Status> rebuild(final @Selector String action) {
+    if (!"rebuild".equals(action)) {
+      return new WebEndpointResponse<>(WebEndpointResponse.STATUS_NOT_FOUND);
+    }
+    if (!summaryRebuilder.start()) {
+      return new WebEndpointResponse<>(summaryRebuilder.status(), 409);
+    }
+    return new WebEndpointResponse<>(summaryRebuilder.status(), STATUS_ACCEPTED);
+  }
+}
@@ -0,0 +1,108 @@
+package uk.co.louiseconnell.hangout.jobs;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import uk.co.louiseconnell.hangout.service.EventSummaries;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import reactor.core.scheduler.Schedulers;
+
+/**
+ * Works out every event's summary again from its votes, a batch of events per transaction. Run on
+ * demand from {@link SummaryRebuildEndpoint}: once after upgrading, so events from before summaries
+ * get one, and whenever the summaries are in doubt.
+ */
+@Component
+@Slf4j
+public class SummaryRebuilder {
+
+  private final EventSummaries eventSummaries;
+  private final MeterRegistry registry;
+  private final int batchSize;
+  private final AtomicBoolean running = new AtomicBoolean();
+  private volatile Rebuild lastRebuild;
+  private volatile String lastError;
+
+  public SummaryRebuilder(final EventSummaries eventSummaries,
+                          final MeterRegistry registry,
+                          final @Value("${hangout.summaries.rebuild-batch-size:500}") int batchSize) {
+    this.eventSummaries = eventSummaries;
+    this.registry = registry;
+    this.batchSize = Math.max(1, batchSize);
+  }
+
+  /**
+   * Rebuild every summary on a background thread; see {@link #status()} for how it went.
+   *
+   * @return false if a rebuild is already running
+   */
+  public boolean start() {
+    if (!running.compareAndSet(false, true)) {
+      return false;
+    }
+    Schedulers.boundedElastic().schedule(() -> {
+      try {
+        rebuild();
+      } catch (RuntimeException e) {
+        // Logged and kept in the status
+      }
+    });
+    return true;
+  }
+
+  /**
+   * @throws IllegalStateException if a rebuild is already running
+   */
+  public Rebuild rebuildAll() {
+    if (!running.compareAndSet(false, true)) {
+      throw new IllegalStateException("A summary rebuild is already running");
+    }
+    return rebuild();
+  }
+
+  public Status status() {
+    return new Status(running.get(), lastRebuild, lastError);
+  }
+
+  private Rebuild rebuild() {
+    final Timer.Sample run = Timer.start(registry);
+    int rebuilt = 0;
+    try {
+      List<Long> batch;
+      long after = 0;
+      do {
+        batch = eventSummaries.rebuildBatch(after, batchSize);
+        rebuilt += batch.size();
+        if (!batch.isEmpty()) {
+          after = batch.get(batch.size() - 1);
+        }
+      } while (batch.size() == batchSize);
+      final long nanos = run.stop(registry.timer("hangout.summaries.rebuild", "outcome", "success"));
+      log.info("Rebuilt the summaries of {} event(s)", rebuilt);
+      lastRebuild = new Rebuild(rebuilt, TimeUnit.NANOSECONDS.toMillis(nanos));
+      lastError = null;
+      return lastRebuild;
+    } catch (RuntimeException e) {
+      run.stop(registry.timer("hangout.summaries.rebuild", "outcome", "error"));
+      log.error("Summary rebuild failed after {} event(s)", rebuilt, e);
+      lastError = e.toString();
+      throw e;
+    } finally {
+      running.set(false);
+    }
+  }
+
+  public record Rebuild(int events, long millis) {}
+
+  /**
+   * @param lastRebuild the last rebuild to finish, if any has
+   * @param lastError   why the last rebuild failed, if it did
+   */
+  public record Status(boolean running, Rebuild lastRebuild, String lastError) {}
+}
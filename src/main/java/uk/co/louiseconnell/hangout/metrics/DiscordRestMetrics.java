@@ -0,0 +1,65 @@
+package uk.co.louiseconnell.hangout.metrics;
+
+import java.util.regex.Pattern;
+
+import discord4j.common.ReactorResources;
+import io.netty.util.AttributeKey;
+import reactor.netty.Connection;
+import reactor.netty.http.client.HttpClient;
+import uk.co.louiseconnell.hangout.metrics.jfr.DiscordRestCallEvent;
+
+/**
+ * Reactor Netty client metrics for Discord's REST API: {@code reactor.netty.http.client.*} timers
+ * tagged with method, status and route. IDs, tokens and emoji are cut out of the URI so each route
+ * is one series rather than one per message. Each request is also a {@link DiscordRestCallEvent}
+ * while a flight recording is running.
+ */
+public final class DiscordRestMetrics {
+
+  private static final Pattern QUERY = Pattern.compile("\\?.*$");
+  private static final Pattern REACTION = Pattern.compile("/reactions/[^/]+");
+  private static final Pattern TOKEN = Pattern.compile("/(webhooks|interactions)/(\\d+)/[^/]+");
+  private static final Pattern ID = Pattern.compile("/\\d+(?=/|$)");
+  private static final AttributeKey<DiscordRestCallEvent> REST_CALL = AttributeKey.valueOf("hangout.restCall");
+
+  private DiscordRestMetrics() {
+  }
+
+  /**
+   * The HTTP client Discord4J would use by default, with metrics switched on.
+   */
+  public static HttpClient httpClient() {
+    return ReactorResources.DEFAULT_HTTP_CLIENT.get()
+        .metrics(true, DiscordRestMetrics::route)
+        // A connection carries one request at a time, so the event in flight can live on its channel
+        .doOnRequest((request, connection) -> {
+          final DiscordRestCallEvent event = DiscordRestCallEvent.start(request.method().name(),
+              () -> route(request.uri()));
+          if (event.isEnabled()) {
+            connection.channel().attr(REST_CALL).set(event);
+          }
+        })
+        .doOnResponse((response, connection) -> finish(connection, response.status().code(), null))
+        .doOnRequestError((request, error) -> finish(request, 0, error))
+        .doOnResponseError((response, error) -> finish(response, 0, error));
+  }
+
+  /**
+   * Error callbacks only get the request or response, but both are the connection underneath.
+   */
+  private static void finish(final Object connection, final int status, final Throwable error) {
+    if (connection instanceof Connection c) {
+      final DiscordRestCallEvent event = c.channel().attr(REST_CALL).getAndSet(null);
+      if (event != null) {
+        event.finish(status, error);
+      }
+    }
+  }
+
+  static String route(final String uri) {
+    String route = QUERY.matcher(uri).replaceFirst("");
+    route = REACTION.matcher(route).replaceAll("/reactions/{emoji}");
+    route = TOKEN.matcher(route).replaceAll("/$1/$2/{token}");
+    return ID.matcher(route).replaceAll("/{id}");
+  }
+}
@@ -0,0 +1,97 @@
+package uk.co.louiseconnell.hangout.metrics;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+import discord4j.common.util.Snowflake;
+
+/**
+ * Buckets guilds by member count so metrics can be tagged with a handful of tier values instead
+ * of one series per guild. Sizes are learned from the guilds known at startup and from
+ * GUILD_CREATE; a guild we haven't seen yet is {@code unknown} and direct messages are {@code dm}.
+ *
+ * <p>Gateway handlers run inside {@link #callAs}, which lets code with no guild in hand (service
+ * timers, for instance) tag with the tier of the guild it's working for via {@link #currentTier()}.
+ */
+@Component
+public class GuildTiers {
+
+  public static final String DM = "dm";
+  public static final String UNKNOWN = "unknown";
+  /** Tier for work not running on behalf of any guild, e.g. scheduled jobs and the REST API. */
+  public static final String NONE = "none";
+
+  private static final ThreadLocal<String> CURRENT = new ThreadLocal<>();
+
+  private final int smallMax;
+  private final int mediumMax;
+  private final int largeMax;
+  private final Map<Long, String> tiers = new ConcurrentHashMap<>();
+
+  public GuildTiers(final @Value("${hangout.metrics.guild-tiers.small:100}") int smallMax,
+                    final @Value("${hangout.metrics.guild-tiers.medium:1000}") int mediumMax,
+                    final @Value("${hangout.metrics.guild-tiers.large:10000}") int largeMax) {
+    this.smallMax = smallMax;
+    this.mediumMax = mediumMax;
+    this.largeMax = largeMax;
+  }
+
+  public void record(final long guildId, final int memberCount) {
+    tiers.put(guildId, tierFor(memberCount));
+  }
+
+  public void forget(final long guildId) {
+    tiers.remove(guildId);
+  }
+
+  /**
+   * @param guildId the guild, or 0 for work with no guild
+   */
+  public String tierOf(final long guildId) {
+    if (guildId == 0L) {
+      return DM;
+    }
+    return tiers.getOrDefault(guildId, UNKNOWN);
+  }
+
+  public String tierOf(final Optional<Snowflake> guildId) {
+    return tierOf(guildId.map(Snowflake::asLong).orElse(0L));
+  }
+
+  /**
+   * Run {@code work} with {@link #currentTier()} reporting the given guild's tier on this thread.
+   */
+  public <T> T callAs(final long guildId, final Supplier<T> work) {
+    final String previous = CURRENT.get();
+    CURRENT.set(tierOf(guildId));
+    try {
+      return work.get();
+    } finally {
+      if (previous == null) {
+        CURRENT.remove();
+      } else {
+        CURRENT.set(previous);
+      }
+    }
+  }
+
+  public String currentTier() {
+    final String tier = CURRENT.get();
+    return tier == null ? NONE : tier;
+  }
+
+  private String tierFor(final int memberCount) {
+    if (memberCount <= smallMax) {
+      return "small";
+    }
+    if (memberCount <= mediumMax) {
+      return "medium";
+    }
+    return memberCount <= largeMax ? "large" : "huge";
+  }
+}
@@ -0,0 +1,99 @@
+package uk.co.louiseconnell.hangout.metrics;
+
+import lombok.RequiredArgsConstructor;
+
+import org.springframework.stereotype.Component;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import uk.co.louiseconnell.hangout.discord.GuildScheduler;
+import uk.co.louiseconnell.hangout.discord.InFlightWork;
+import uk.co.louiseconnell.hangout.discord.InteractionAcks;
+import uk.co.louiseconnell.hangout.discord.MessageEditor;
+import uk.co.louiseconnell.hangout.discord.ReactionDeduplicator;
+import uk.co.louiseconnell.hangout.discord.VoteThrottle;
+import uk.co.louiseconnell.hangout.service.EventCache;
+
+/**
+ * Publishes the counters the gateway and cache components already keep, so they show up next to
+ * the timers recorded on the hot paths. Nothing here is sampled on the request path; Micrometer
+ * reads the counters when it's scraped.
+ */
+@Component
+@RequiredArgsConstructor
+public class HangoutMetrics implements MeterBinder {
+
+  private final EventCache eventCache;
+  private final MessageEditor messageEditor;
+  private final VoteThrottle voteThrottle;
+  private final ReactionDeduplicator reactionDeduplicator;
+  private final InFlightWork inFlightWork;
+  private final GuildScheduler guildScheduler;
+  private final InteractionAcks interactionAcks;
+
+  @Override
+  public void bindTo(final MeterRegistry registry) {
+    FunctionCounter.builder("hangout.cache.requests", eventCache, EventCache::getHitCount)
+        .tag("result", "hit")
+        .description("Vote path cache lookups")
+        .register(registry);
+    FunctionCounter.builder("hangout.cache.requests", eventCache, EventCache::getMissCount)
+        .tag("result", "miss")
+        .description("Vote path cache lookups")
+        .register(registry);
+    Gauge.builder("hangout.cache.hit.ratio", eventCache, HangoutMetrics::hitRatio)
+        .description("Share of vote path cache lookups served from memory since startup")
+        .register(registry);
+    Gauge.builder("hangout.cache.events", eventCache, EventCache::getEventCount)
+        .description("Events held in the cache")
+        .register(registry);
+
+    FunctionCounter.builder("hangout.edits", messageEditor, MessageEditor::getSentCount)
+        .tag("result", "sent")
+        .register(registry);
+    FunctionCounter.builder("hangout.edits", messageEditor, MessageEditor::getSkippedCount)
+        .tag("result", "unchanged")
+        .register(registry);
+    FunctionCounter.builder("hangout.edits", messageEditor, MessageEditor::getGoneCount)
+        .tag("result", "gone")
+        .register(registry);
+
+    FunctionCounter.builder("hangout.votes.throttle", voteThrottle, VoteThrottle::getAllowedCount)
+        .tag("result", "allowed")
+        .register(registry);
+    FunctionCounter.builder("hangout.votes.throttle", voteThrottle, VoteThrottle::getThrottledCount)
+        .tag("result", "throttled")
+        .register(registry);
+    FunctionCounter.builder("hangout.votes.throttle", voteThrottle, VoteThrottle::getCoalescedCount)
+        .tag("result", "coalesced")
+        .register(registry);
+    FunctionCounter.builder("hangout.votes.throttle", voteThrottle, VoteThrottle::getOverflowCount)
+        .tag("result", "overflow")
+        .register(registry);
+
+    FunctionCounter.builder("hangout.gateway.reactions.replayed", reactionDeduplicator, ReactionDeduplicator::getDroppedCount)
+        .description("Reaction events dropped as redeliveries after a RESUME")
+        .register(registry);
+    Gauge.builder("hangout.gateway.in.flight", inFlightWork, InFlightWork::getInFlightCount)
+        .description("Gateway handlers and background edits that have not finished")
+        .register(registry);
+    Gauge.builder("hangout.gateway.queued", guildScheduler, GuildScheduler::getQueuedCount)
+        .description("Gateway handlers waiting for a worker slot")
+        .register(registry);
+    Gauge.builder("hangout.gateway.running", guildScheduler, GuildScheduler::getRunningCount)
+        .description("Gateway handlers holding a worker slot")
+        .register(registry);
+
+    FunctionCounter.builder("hangout.interaction.deferred", interactionAcks, InteractionAcks::getDeferredCount)
+        .description("Interactions that missed the ack budget and were deferred")
+        .register(registry);
+  }
+
+  private static double hitRatio(final EventCache cache) {
+    final long hits = cache.getHitCount();
+    final long total = hits + cache.getMissCount();
+    return total == 0 ? Double.NaN : (double) hits / total;
+  }
+}
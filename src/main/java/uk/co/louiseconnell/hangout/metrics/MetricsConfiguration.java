@@ -0,0 +1,29 @@
+package uk.co.louiseconnell.hangout.metrics;
+
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.function.Function;
+
+import io.micrometer.core.aop.TimedAspect;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tag;
+import io.micrometer.core.instrument.Tags;
+
+@Configuration
+public class MetricsConfiguration {
+
+  /**
+   * Backs {@code @Timed} on service classes. Besides the usual class and method tags, each timing
+   * is tagged with the tier of the guild the calling gateway handler is working for.
+   */
+  @Bean
+  public TimedAspect timedAspect(final MeterRegistry registry, final GuildTiers guildTiers) {
+    final Function<ProceedingJoinPoint, Iterable<Tag>> tags = joinPoint -> Tags.of(
+        "class", joinPoint.getStaticPart().getSignature().getDeclaringType().getSimpleName(),
+        "method", joinPoint.getStaticPart().getSignature().getName(),
+        "tier", guildTiers.currentTier());
+    return new TimedAspect(registry, tags);
+  }
+}
@@ -0,0 +1,43 @@
+package uk.co.louiseconnell.hangout.metrics.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * One pass of the auto-close job over events past their deadline.
+ */
+@Name("hangout.AutoCloseRun")
+@Label("Auto-close Run")
+@Category({"Hangout", "Jobs"})
+public class AutoCloseRunEvent extends jdk.jfr.Event {
+
+  @Label("Due")
+  int due;
+
+  @Label("Closed")
+  int closed;
+
+  @Label("Failed")
+  int failed;
+
+  @Label("Outcome")
+  String outcome;
+
+  public static AutoCloseRunEvent start() {
+    final AutoCloseRunEvent event = new AutoCloseRunEvent();
+    event.begin();
+    return event;
+  }
+
+  public void finish(final String outcome, final int due, final int closed, final int failed) {
+    end();
+    if (shouldCommit()) {
+      this.outcome = outcome;
+      this.due = due;
+      this.closed = closed;
+      this.failed = failed;
+      commit();
+    }
+  }
+}
@@ -0,0 +1,53 @@
+package uk.co.louiseconnell.hangout.metrics.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+import java.util.function.Supplier;
+
+/**
+ * One request to Discord's REST API, from being written to the response headers arriving (or the
+ * request failing). Time spent queued behind Discord4J's rate limiters comes before it.
+ */
+@Name("hangout.DiscordRestCall")
+@Label("Discord REST Call")
+@Category({"Hangout", "Discord"})
+@StackTrace(false)
+public class DiscordRestCallEvent extends jdk.jfr.Event {
+
+  @Label("Method")
+  String method;
+
+  @Label("Route")
+  String route;
+
+  @Label("Status")
+  int status;
+
+  @Label("Error")
+  String error;
+
+  /**
+   * @param route worked out only while the event is being recorded
+   */
+  public static DiscordRestCallEvent start(final String method, final Supplier<String> route) {
+    final DiscordRestCallEvent event = new DiscordRestCallEvent();
+    if (event.isEnabled()) {
+      event.method = method;
+      event.route = route.get();
+    }
+    event.begin();
+    return event;
+  }
+
+  public void finish(final int status, final Throwable error) {
+    end();
+    if (shouldCommit()) {
+      this.status = status;
+      this.error = error == null ? null : error.getClass().getSimpleName();
+      commit();
+    }
+  }
+}
@@ -0,0 +1,55 @@
+package uk.co.louiseconnell.hangout.metrics.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+import java.util.function.BooleanSupplier;
+
+/**
+ * Building a poll or summary embed, including the timeslot and tally reads behind it.
+ */
+@Name("hangout.EmbedRendered")
+@Label("Embed Rendered")
+@Category({"Hangout", "Rendering"})
+@StackTrace(false)
+public class EmbedRenderedEvent extends jdk.jfr.Event {
+
+  @Label("Event ID")
+  long eventId;
+
+  @Label("Kind")
+  @Description("poll or summary")
+  String kind;
+
+  @Label("Timeslots")
+  int timeslots;
+
+  @Label("Cache Hit")
+  @Description("Timeslots and tallies were both served from the event cache")
+  boolean cacheHit;
+
+  /**
+   * @param cacheHit asked before rendering, and only while the event is being recorded
+   */
+  public static EmbedRenderedEvent start(final String kind, final long eventId, final BooleanSupplier cacheHit) {
+    final EmbedRenderedEvent event = new EmbedRenderedEvent();
+    if (event.isEnabled()) {
+      event.kind = kind;
+      event.eventId = eventId;
+      event.cacheHit = cacheHit.getAsBoolean();
+    }
+    event.begin();
+    return event;
+  }
+
+  public void finish(final int timeslots) {
+    end();
+    if (shouldCommit()) {
+      this.timeslots = timeslots;
+      commit();
+    }
+  }
+}
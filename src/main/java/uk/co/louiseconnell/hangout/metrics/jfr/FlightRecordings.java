@@ -0,0 +1,144 @@
+package uk.co.louiseconnell.hangout.metrics.jfr;
+
+import jdk.jfr.Configuration;
+import jdk.jfr.Recording;
+import jdk.jfr.RecordingState;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.text.ParseException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * One on-demand JDK Flight Recorder recording at a time, for profiling a live incident. It records
+ * the JVM's own events with the chosen settings ({@code default} costs around 1%, {@code profile}
+ * a little more) along with the hangout events in this package, keeping at most
+ * {@code hangout.jfr.max-age} / {@code max-size} of history on disk. A dump copies whatever is
+ * held so far into a file, whether or not the recording has been stopped.
+ *
+ * <p>The JVM events that would capture the environment, system properties, JVM arguments and other
+ * processes' command lines are switched off, since those hold the bot token and database passwords.
+ */
+@Component
+@Slf4j
+public class FlightRecordings implements DisposableBean {
+
+  static final List<String> SECRET_EVENTS = List.of(
+      "jdk.InitialEnvironmentVariable",
+      "jdk.InitialSystemProperty",
+      "jdk.JVMInformation",
+      "jdk.SystemProcess");
+
+  private final Duration maxAge;
+  private final long maxSizeBytes;
+
+  private Recording recording;
+
+  public FlightRecordings(final @Value("${hangout.jfr.max-age:30m}") Duration maxAge,
+                          final @Value("${hangout.jfr.max-size-mb:250}") long maxSizeMb) {
+    this.maxAge = maxAge;
+    this.maxSizeBytes = maxSizeMb * 1024 * 1024;
+  }
+
+  /**
+   * Start a new recording, discarding the previous one if it was stopped.
+   *
+   * @param settings a JFR configuration name, {@code default} or {@code profile}
+   * @throws IllegalStateException if a recording is already running
+   * @throws IllegalArgumentException if there is no such configuration
+   */
+  public synchronized RecordingStatus start(final String settings) {
+    if (recording != null && recording.getState() == RecordingState.RUNNING) {
+      throw new IllegalStateException("A recording is already running");
+    }
+    final Configuration configuration;
+    try {
+      configuration = Configuration.getConfiguration(settings);
+    } catch (IOException | ParseException e) {
+      throw new IllegalArgumentException("Unknown JFR settings: " + settings, e);
+    }
+    closeRecording();
+    final Map<String, String> eventSettings = new HashMap<>(configuration.getSettings());
+    for (String event : SECRET_EVENTS) {
+      eventSettings.put(event + "#enabled", "false");
+    }
+    final Recording started = new Recording(eventSettings);
+    started.setName("hangout-" + settings);
+    started.setToDisk(true);
+    started.setMaxAge(maxAge);
+    started.setMaxSize(maxSizeBytes);
+    started.start();
+    recording = started;
+    log.info("Started flight recording {} with {} settings", started.getId(), settings);
+    return status();
+  }
+
+  /**
+   * Stop the running recording. Its data is kept for {@link #dump()} until the next start.
+   *
+   * @throws IllegalStateException if nothing is running
+   */
+  public synchronized RecordingStatus stop() {
+    if (recording == null || recording.getState() != RecordingState.RUNNING) {
+      throw new IllegalStateException("No recording is running");
+    }
+    recording.stop();
+    log.info("Stopped flight recording {}", recording.getId());
+    return status();
+  }
+
+  /**
+   * Write the current recording's data to a new temporary file, which the caller deletes.
+   *
+   * @throws IllegalStateException if there is nothing to dump
+   */
+  public synchronized Path dump() throws IOException {
+    if (recording == null) {
+      throw new IllegalStateException("No recording has been started");
+    }
+    final Path file = Files.createTempFile("hangout-", ".jfr");
+    try {
+      recording.dump(file);
+    } catch (IOException | RuntimeException e) {
+      Files.deleteIfExists(file);
+      throw e;
+    }
+    log.info("Dumped flight recording {} to {} ({} bytes)", recording.getId(), file, Files.size(file));
+    return file;
+  }
+
+  /**
+   * The current recording, or {@code null} if none has been started.
+   */
+  public synchronized RecordingStatus status() {
+    if (recording == null) {
+      return null;
+    }
+    return new RecordingStatus(recording.getId(), recording.getName(), recording.getState().name(),
+        recording.getStartTime(), recording.getStopTime(), recording.getSize());
+  }
+
+  @Override
+  public synchronized void destroy() {
+    closeRecording();
+  }
+
+  private void closeRecording() {
+    if (recording != null) {
+      recording.close();
+      recording = null;
+    }
+  }
+
+  public record RecordingStatus(long id, String name, String state, Instant startedAt, Instant stoppedAt,
+                                long sizeBytes) {}
+}
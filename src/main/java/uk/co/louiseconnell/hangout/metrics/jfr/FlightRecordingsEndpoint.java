@@ -0,0 +1,110 @@
+package uk.co.louiseconnell.hangout.metrics.jfr;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Selector;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.boot.actuate.endpoint.web.WebEndpointResponse;
+import org.springframework.boot.actuate.endpoint.web.annotation.WebEndpoint;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * The {@code jfr} actuator endpoint, for controlling {@link FlightRecordings}. Like every actuator
+ * endpoint it is served on the management port, which is not exposed publicly, rather than next to
+ * the public API: a recording is a detailed picture of the running bot.
+ *
+ * <ul>
+ *   <li>{@code GET /actuator/jfr}: the current recording</li>
+ *   <li>{@code POST /actuator/jfr/start?settings=default|profile} and {@code POST /actuator/jfr/stop}</li>
+ *   <li>{@code GET /actuator/jfr/dump}: the recording so far, as a {@code .jfr} file</li>
+ * </ul>
+ */
+@Component
+@WebEndpoint(id = "jfr")
+@RequiredArgsConstructor
+public class FlightRecordingsEndpoint {
+
+  private final FlightRecordings flightRecordings;
+
+  @ReadOperation
+  public WebEndpointResponse<FlightRecordings.RecordingStatus> recording() {
+    final FlightRecordings.RecordingStatus status = flightRecordings.status();
+    return status != null ? new WebEndpointResponse<>(status) : new WebEndpointResponse<>(WebEndpointResponse.STATUS_NOT_FOUND);
+  }
+
+  @WriteOperation
+  public WebEndpointResponse<FlightRecordings.RecordingStatus> control(final @Selector String action,
+                                                                       final @Nullable String settings) {
+    try {
+      return switch (action) {
+        case "start" -> new WebEndpointResponse<>(flightRecordings.start(settings != null ? settings : "default"));
+        case "stop" -> new WebEndpointResponse<>(flightRecordings.stop());
+        default -> new WebEndpointResponse<>(WebEndpointResponse.STATUS_NOT_FOUND);
+      };
+    } catch (IllegalArgumentException e) {
+      return new WebEndpointResponse<>(WebEndpointResponse.STATUS_BAD_REQUEST);
+    } catch (IllegalStateException e) {
+      return new WebEndpointResponse<>(409);
+    }
+  }
+
+  @ReadOperation(produces = "application/octet-stream")
+  public WebEndpointResponse<Resource> dump(final @Selector String dump) throws IOException {
+    if (!"dump".equals(dump)) {
+      return new WebEndpointResponse<>(WebEndpointResponse.STATUS_NOT_FOUND);
+    }
+    try {
+      return new WebEndpointResponse<>(new TemporaryFileResource(flightRecordings.dump()));
+    } catch (IllegalStateException e) {
+      return new WebEndpointResponse<>(WebEndpointResponse.STATUS_NOT_FOUND);
+    }
+  }
+
+  /**
+   * A dump file that is deleted once it has been read.
+   */
+  static final class TemporaryFileResource extends FileSystemResource {
+
+    private TemporaryFileResource(final Path file) {
+      super(file);
+    }
+
+    @Override
+    public InputStream getInputStream() throws IOException {
+      return new FilterInputStream(super.getInputStream()) {
+        @Override
+        public void close() throws IOException {
+          try {
+            super.close();
+          } finally {
+            deleteFile();
+          }
+        }
+      };
+    }
+
+    @Override
+    public boolean isFile() {
+      // Read through getInputStream rather than copied straight from the file, so it gets deleted
+      return false;
+    }
+
+    private void deleteFile() {
+      try {
+        Files.deleteIfExists(getFile().toPath());
+      } catch (IOException e) {
+        throw new UncheckedIOException(e);
+      }
+    }
+  }
+}
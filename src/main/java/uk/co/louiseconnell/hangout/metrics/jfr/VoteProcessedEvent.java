@@ -0,0 +1,55 @@
+package uk.co.louiseconnell.hangout.metrics.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * One reaction on the vote path, from looking up its poll to the vote being written (or turned
+ * away) and the updated embed rendered. The edit that follows is a {@link DiscordRestCallEvent}.
+ * A throttled burst is recorded again as {@code flushed} when it is finally applied, without an
+ * emoji unless it clears every vote.
+ */
+@Name("hangout.VoteProcessed")
+@Label("Vote Processed")
+@Category({"Hangout", "Gateway"})
+@Description("A reaction handled on the vote path")
+@StackTrace(false)
+public class VoteProcessedEvent extends jdk.jfr.Event {
+
+  @Label("Event ID")
+  long eventId;
+
+  @Label("Timeslot ID")
+  long timeslotId;
+
+  @Label("Emoji")
+  String emoji;
+
+  @Label("Added")
+  boolean added;
+
+  @Label("Outcome")
+  @Description("applied, flushed, throttled, coalesced, closed, not_poll, ignored or error")
+  String outcome;
+
+  public static VoteProcessedEvent start(final String emoji, final boolean added) {
+    final VoteProcessedEvent event = new VoteProcessedEvent();
+    event.emoji = emoji;
+    event.added = added;
+    event.begin();
+    return event;
+  }
+
+  public void finish(final String outcome, final long eventId, final long timeslotId) {
+    end();
+    if (shouldCommit()) {
+      this.outcome = outcome;
+      this.eventId = eventId;
+      this.timeslotId = timeslotId;
+      commit();
+    }
+  }
+}
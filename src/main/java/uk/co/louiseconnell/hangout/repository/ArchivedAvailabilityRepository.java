@@ -0,0 +1,30 @@
+package uk.co.louiseconnell.hangout.repository;
+
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import uk.co.louiseconnell.hangout.entity.ArchivedAvailability;
+import uk.co.louiseconnell.hangout.repository.AvailabilityRepository.TimeslotTally;
+
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface ArchivedAvailabilityRepository extends JpaRepository<ArchivedAvailability, Long> {
+    
+    @Query("SELECT a.eventId AS eventId, a.timeslotId AS timeslotId, COUNT(a) AS available FROM ArchivedAvailability a " +
+           "WHERE a.eventId = :eventId AND a.status = 'AVAILABLE' GROUP BY a.eventId, a.timeslotId")
+    List<TimeslotTally> countAvailableByEvent(@Param("eventId") Long eventId);
+    
+    @Modifying
+    @Query(value = "INSERT INTO availabilities_archive (id, user_discord_id, event_id, timeslot_id, voted_at, status, closed_at)"
+        + " SELECT a.id, a.user_discord_id, a.event_id, a.timeslot_id, a.voted_at, a.status, e.closed_at"
+        + " FROM availabilities a JOIN events e ON e.id = a.event_id WHERE a.event_id IN (:eventIds)", nativeQuery = true)
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "availabilities_archive"))
+    int copyFromAvailabilities(@Param("eventIds") Collection<Long> eventIds);
+}
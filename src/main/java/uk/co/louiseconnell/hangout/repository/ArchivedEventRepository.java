@@ -0,0 +1,30 @@
+package uk.co.louiseconnell.hangout.repository;
+
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import uk.co.louiseconnell.hangout.entity.ArchivedEvent;
+
+import java.util.Collection;
+import java.util.Optional;
+
+@Repository
+public interface ArchivedEventRepository extends JpaRepository<ArchivedEvent, Long> {
+    
+    Optional<ArchivedEvent> findByMessageId(Long messageId);
+    
+    // Naming the table keeps Hibernate from invalidating every cache region after a native write
+    @Modifying
+    @Query(value = "INSERT INTO events_archive (id, title, description, creator_discord_id, channel_id, message_id,"
+        + " created_at, deadline, status, closed_at, results)"
+        + " SELECT id, title, description, creator_discord_id, channel_id, message_id, created_at, deadline, status, closed_at,"
+        + " results"
+        + " FROM events WHERE id IN (:eventIds)", nativeQuery = true)
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "events_archive"))
+    int copyFromEvents(@Param("eventIds") Collection<Long> eventIds);
+}
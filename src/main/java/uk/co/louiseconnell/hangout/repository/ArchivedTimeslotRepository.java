@@ -0,0 +1,27 @@
+package uk.co.louiseconnell.hangout.repository;
+
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import uk.co.louiseconnell.hangout.entity.ArchivedTimeslot;
+
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface ArchivedTimeslotRepository extends JpaRepository<ArchivedTimeslot, Long> {
+    
+    List<ArchivedTimeslot> findByEventIdOrderByStartTime(Long eventId);
+    
+    @Modifying
+    @Query(value = "INSERT INTO timeslots_archive (id, event_id, start_time, end_time, description, emoji, closed_at)"
+        + " SELECT t.id, t.event_id, t.start_time, t.end_time, t.description, t.emoji, e.closed_at"
+        + " FROM timeslots t JOIN events e ON e.id = t.event_id WHERE t.event_id IN (:eventIds)", nativeQuery = true)
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "timeslots_archive"))
+    int copyFromTimeslots(@Param("eventIds") Collection<Long> eventIds);
+}
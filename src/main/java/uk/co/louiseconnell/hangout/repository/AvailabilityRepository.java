@@ -1,26 +1,61 @@
 package uk.co.louiseconnell.hangout.repository;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 import uk.co.louiseconnell.hangout.entity.Availability;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface AvailabilityRepository extends JpaRepository<Availability, Long> {
     
-    List<Availability> findByEventId(Long eventId);
+    @Query("SELECT a FROM Availability a WHERE a.event.id = :eventId")
+    List<Availability> findByEventId(@Param("eventId") Long eventId);
     
-    List<Availability> findByTimeslotId(Long timeslotId);
+    @Query("SELECT a FROM Availability a WHERE a.timeslot.id = :timeslotId")
+    List<Availability> findByTimeslotId(@Param("timeslotId") Long timeslotId);
     
-    Optional<Availability> findByUserDiscordIdAndTimeslotId(String userDiscordId, Long timeslotId);
+    @Query("SELECT a FROM Availability a WHERE a.user.discordId = :userDiscordId AND a.timeslot.id = :timeslotId")
+    Optional<Availability> findByUserDiscordIdAndTimeslotId(@Param("userDiscordId") Long userDiscordId,
+                                                            @Param("timeslotId") Long timeslotId);
     
     @Query("SELECT a FROM Availability a WHERE a.event.id = :eventId AND a.user.discordId = :userDiscordId")
-    List<Availability> findByEventAndUser(@Param("eventId") Long eventId, @Param("userDiscordId") String userDiscordId);
+    List<Availability> findByEventAndUser(@Param("eventId") Long eventId, @Param("userDiscordId") Long userDiscordId);
     
     @Query("SELECT COUNT(a) FROM Availability a WHERE a.timeslot.id = :timeslotId AND a.status = 'AVAILABLE'")
     int countAvailableByTimeslot(@Param("timeslotId") Long timeslotId);
+    
+    @Query("SELECT a.event.id AS eventId, a.timeslot.id AS timeslotId, COUNT(a) AS available FROM Availability a " +
+           "WHERE a.event.id IN :eventIds AND a.status = 'AVAILABLE' GROUP BY a.event.id, a.timeslot.id")
+    List<TimeslotTally> countAvailableByEvents(@Param("eventIds") Collection<Long> eventIds);
+    
+    @Query("SELECT a.event.id AS eventId, COUNT(DISTINCT a.user.discordId) AS voters, MAX(a.votedAt) AS lastVoteAt"
+           + " FROM Availability a WHERE a.event.id IN :eventIds GROUP BY a.event.id")
+    List<VoterTally> countVotersByEvents(@Param("eventIds") Collection<Long> eventIds);
+    
+    @Modifying
+    @Query("DELETE FROM Availability a WHERE a.timeslot.id IN :timeslotIds")
+    int deleteByTimeslotIds(@Param("timeslotIds") Collection<Long> timeslotIds);
+    
+    @Modifying
+    @Query("DELETE FROM Availability a WHERE a.event.id IN :eventIds")
+    int deleteByEventIds(@Param("eventIds") Collection<Long> eventIds);
+    
+    interface TimeslotTally {
+        Long getEventId();
+        Long getTimeslotId();
+        long getAvailable();
+    }
+    
+    interface VoterTally {
+        Long getEventId();
+        long getVoters();
+        LocalDateTime getLastVoteAt();
+    }
 }
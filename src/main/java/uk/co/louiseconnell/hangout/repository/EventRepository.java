@@ -1,11 +1,19 @@
 package uk.co.louiseconnell.hangout.repository;
 
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 import uk.co.louiseconnell.hangout.entity.Event;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import java.time.LocalDateTime;
@@ -13,15 +21,77 @@ import java.time.LocalDateTime;
 @Repository
 public interface EventRepository extends JpaRepository<Event, Long> {
     
-    List<Event> findByChannelIdAndStatus(String channelId, Event.EventStatus status);
+    List<Event> findByChannelIdAndStatus(Long channelId, Event.EventStatus status);
     
-    List<Event> findByCreatorDiscordId(String creatorDiscordId);
+    List<Event> findByCreatorDiscordId(Long creatorDiscordId);
     
-    Optional<Event> findByMessageId(String messageId);
+    Optional<Event> findByMessageId(Long messageId);
+    
+    @Modifying(clearAutomatically = true)
+    @Query("UPDATE Event e SET e.messageId = NULL WHERE e.messageId = :messageId")
+    int clearMessageId(@Param("messageId") Long messageId);
+    
+    List<Event> findByStatusIn(Collection<Event.EventStatus> statuses);
     
     @Query("SELECT e FROM Event e WHERE e.channelId = :channelId AND e.status = 'ACTIVE' ORDER BY e.createdAt DESC")
-    List<Event> findActiveEventsByChannel(@Param("channelId") String channelId);
+    List<Event> findActiveEventsByChannel(@Param("channelId") Long channelId);
 
     @Query("SELECT e FROM Event e WHERE e.status = 'ACTIVE' AND e.deadline IS NOT NULL AND e.deadline <= :now")
     List<Event> findDueActiveEvents(@Param("now") LocalDateTime now);
+
+    /**
+     * The newest events in a channel with the given status, newest first. Pass the page size as an
+     * unpaged {@code PageRequest.of(0, size)}; no count query is run.
+     */
+    List<Event> findByChannelIdAndStatusOrderByCreatedAtDescIdDesc(Long channelId, Event.EventStatus status, Pageable page);
+
+    /**
+     * The events that come after {@code (createdAt, id)} in the same order as
+     * {@link #findByChannelIdAndStatusOrderByCreatedAtDescIdDesc}, seeking on the
+     * {@code (channel_id, status, created_at, id)} index rather than skipping rows.
+     */
+    @Query("SELECT e FROM Event e WHERE e.channelId = :channelId AND e.status = :status"
+        + " AND (e.createdAt < :createdAt OR (e.createdAt = :createdAt AND e.id < :id))"
+        + " ORDER BY e.createdAt DESC, e.id DESC")
+    List<Event> findByChannelAndStatusAfter(@Param("channelId") Long channelId,
+                                            @Param("status") Event.EventStatus status,
+                                            @Param("createdAt") LocalDateTime createdAt,
+                                            @Param("id") Long id,
+                                            Pageable page);
+
+    /**
+     * How many events in the channel have one of the statuses, counting no further than {@code cap}.
+     */
+    @Query(value = "SELECT COUNT(*) FROM (SELECT 1 FROM events WHERE channel_id = :channelId"
+        + " AND status IN (:statuses) LIMIT :cap) capped", nativeQuery = true)
+    int countByChannelAndStatusesUpTo(@Param("channelId") Long channelId,
+                                      @Param("statuses") Collection<String> statuses,
+                                      @Param("cap") int cap);
+
+    /**
+     * The oldest events closed before {@code closedBefore}, locked for archiving. Rows another
+     * archiver has locked are skipped rather than waited for.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @QueryHints(@QueryHint(name = AvailableSettings.JAKARTA_LOCK_TIMEOUT, value = "-2"))
+    @Query("SELECT e FROM Event e WHERE e.status = 'CLOSED' AND e.closedAt < :closedBefore ORDER BY e.closedAt, e.id")
+    List<Event> findArchivableForUpdate(@Param("closedBefore") LocalDateTime closedBefore, Pageable page);
+
+    @Query("SELECT MIN(e.closedAt) FROM Event e WHERE e.status = 'CLOSED'")
+    Optional<LocalDateTime> findEarliestClosedAt();
+    
+    @Query("SELECT e.id FROM Event e WHERE e.id > :afterId ORDER BY e.id")
+    List<Long> findIdsAfter(@Param("afterId") Long afterId, Pageable page);
+
+    /**
+     * The given events, locked in ID order. Summary rebuilds take these locks, and so do votes on an
+     * event that has no summary row to lock yet.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT e FROM Event e WHERE e.id IN :ids ORDER BY e.id")
+    List<Event> findAllForUpdate(@Param("ids") Collection<Long> ids);
+
+    @Modifying
+    @Query("DELETE FROM Event e WHERE e.id IN :ids")
+    int deleteByIds(@Param("ids") Collection<Long> ids);
 }
@@ -0,0 +1,26 @@
+package uk.co.louiseconnell.hangout.repository;
+
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import uk.co.louiseconnell.hangout.entity.EventSummary;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface EventSummaryRepository extends JpaRepository<EventSummary, Long> {
+    
+    // Votes on the same event queue here, so each applies its change to the one before
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT s FROM EventSummary s WHERE s.eventId = :eventId")
+    Optional<EventSummary> findForUpdate(@Param("eventId") Long eventId);
+    
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT s FROM EventSummary s WHERE s.eventId IN :eventIds")
+    List<EventSummary> findAllForUpdate(@Param("eventIds") Collection<Long> eventIds);
+}
@@ -0,0 +1,9 @@
+package uk.co.louiseconnell.hangout.repository;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+import uk.co.louiseconnell.hangout.entity.GatewaySession;
+
+@Repository
+public interface GatewaySessionRepository extends JpaRepository<GatewaySession, Integer> {
+}
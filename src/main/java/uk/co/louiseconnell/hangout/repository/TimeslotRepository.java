@@ -1,21 +1,45 @@
 package uk.co.louiseconnell.hangout.repository;
 
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 import uk.co.louiseconnell.hangout.entity.Timeslot;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface TimeslotRepository extends JpaRepository<Timeslot, Long> {
     
-    List<Timeslot> findByEventIdOrderByStartTime(Long eventId);
+    @Query("SELECT t FROM Timeslot t WHERE t.event.id = :eventId ORDER BY t.startTime")
+    List<Timeslot> findByEventIdOrderByStartTime(@Param("eventId") Long eventId);
     
-    Optional<Timeslot> findByEventIdAndEmoji(Long eventId, String emoji);
+    @Query("SELECT t FROM Timeslot t WHERE t.event.id = :eventId AND t.emoji = :emoji")
+    Optional<Timeslot> findByEventIdAndEmoji(@Param("eventId") Long eventId, @Param("emoji") String emoji);
     
+    // Result IDs are cached, the rows come from the timeslots entity region; any write to
+    // timeslots through Hibernate invalidates it
     @Query("SELECT t FROM Timeslot t WHERE t.event.id = :eventId ORDER BY t.startTime")
+    @QueryHints({
+        @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+        @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = "timeslots-by-event")
+    })
     List<Timeslot> findTimeslotsByEventOrdered(@Param("eventId") Long eventId);
+    
+    @Query("SELECT t FROM Timeslot t WHERE t.event.id IN :eventIds ORDER BY t.event.id, t.startTime")
+    List<Timeslot> findTimeslotsByEventsOrdered(@Param("eventIds") Collection<Long> eventIds);
+    
+    @Modifying
+    @Query("DELETE FROM Timeslot t WHERE t.id IN :ids")
+    int deleteByIds(@Param("ids") Collection<Long> ids);
+    
+    @Modifying
+    @Query("DELETE FROM Timeslot t WHERE t.event.id IN :eventIds")
+    int deleteByEventIds(@Param("eventIds") Collection<Long> eventIds);
 }
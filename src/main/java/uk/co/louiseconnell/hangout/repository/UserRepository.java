@@ -7,9 +7,9 @@ import uk.co.louiseconnell.hangout.entity.User;
 import java.util.Optional;
 
 @Repository
-public interface UserRepository extends JpaRepository<User, String> {
+public interface UserRepository extends JpaRepository<User, Long> {
     
     Optional<User> findByUsername(String username);
     
-    boolean existsByDiscordId(String discordId);
+    boolean existsByDiscordId(Long discordId);
 }
@@ -6,11 +6,14 @@ import org.springframework.stereotype.Service;
 
 import java.time.ZoneId;
 import java.util.List;
+import java.util.Map;
 
 import discord4j.core.spec.EmbedCreateSpec;
 import discord4j.rest.util.Color;
 import uk.co.louiseconnell.hangout.entity.Event;
+import uk.co.louiseconnell.hangout.entity.EventResults;
 import uk.co.louiseconnell.hangout.entity.Timeslot;
+import uk.co.louiseconnell.hangout.metrics.jfr.EmbedRenderedEvent;
 import uk.co.louiseconnell.hangout.util.TimezoneUtil;
 
 @Service
@@ -23,7 +26,10 @@ public class DiscordEmbedService {
    * Create embed for hangout availability planner
    */
   public EmbedCreateSpec createHangoutEmbed(final Event event, final String userTimezone) {
+    final EmbedRenderedEvent trace = EmbedRenderedEvent.start("poll", event.getId(),
+        () -> hangoutService.isRenderCached(event.getId()));
     final List<Timeslot> timeslots = hangoutService.getTimeslotsByEvent(event.getId());
+    final Map<Long, Integer> counts = hangoutService.getAvailabilityCounts(event.getId());
     final ZoneId timezone = userTimezone != null ? ZoneId.of(userTimezone) : ZoneId.of("UTC");
 
     final boolean isDraft = event.getStatus() == Event.EventStatus.DRAFT;
@@ -44,7 +50,7 @@ public class DiscordEmbedService {
 
     // Add timeslot fields
     for (Timeslot timeslot : timeslots) {
-      final int availableCount = hangoutService.getAvailabilityCount(timeslot.getId());
+      final int availableCount = counts.getOrDefault(timeslot.getId(), 0);
       final String timeRange = TimezoneUtil.formatTimeRange(timeslot.getStartTime(), timeslot.getEndTime(), timezone);
 
       final String fieldValue = String.format("**Time:** %s\n**Available:** %d people\n%s",
@@ -72,6 +78,7 @@ public class DiscordEmbedService {
           false);
     }
 
+    trace.finish(timeslots.size());
     return embedBuilder.build();
   }
 
@@ -79,15 +86,12 @@ public class DiscordEmbedService {
    * Create embed for event summary/results
    */
   public EmbedCreateSpec createEventSummaryEmbed(final Event event) {
-    final List<Timeslot> timeslots = hangoutService.getTimeslotsByEvent(event.getId());
-    final java.time.ZoneId timezone = java.time.ZoneId.of(hangoutService.getUserTimezoneOrDefault(event.getCreatorDiscordId()));
-
-    // Find the most popular timeslot
-    final Timeslot mostPopular = timeslots.stream()
-        .max((t1, t2) -> Integer.compare(
-            hangoutService.getAvailabilityCount(t1.getId()),
-            hangoutService.getAvailabilityCount(t2.getId())))
-        .orElse(null);
+    final EmbedRenderedEvent trace = EmbedRenderedEvent.start("summary", event.getId(),
+        () -> event.getResults() != null || hangoutService.isRenderCached(event.getId()));
+    // Frozen on closed events, so they render without a query
+    final EventResults results = hangoutService.getResults(event);
+    final ZoneId timezone = ZoneId.of(results.timezone());
+    final EventResults.Slot mostPopular = results.winner();
 
     final Color summaryColor = (event.getStatus() == Event.EventStatus.CLOSED)
         ? Color.of(100, 100, 100) // gray for closed
@@ -104,27 +108,28 @@ public class DiscordEmbedService {
     }
 
     // Add results for each timeslot
-    for (Timeslot timeslot : timeslots) {
-      final int availableCount = hangoutService.getAvailabilityCount(timeslot.getId());
-      final String timeRange = TimezoneUtil.formatTimeRange(timeslot.getStartTime(), timeslot.getEndTime(), timezone);
+    final List<EventResults.Slot> slots = results.slots();
+    for (int i = 0; i < slots.size(); i++) {
+      final EventResults.Slot slot = slots.get(i);
+      final String timeRange = TimezoneUtil.formatTimeRange(slot.startTime(), slot.endTime(), timezone);
 
-      final String indicator = (timeslot.equals(mostPopular) && availableCount > 0) ? "🏆 " : "";
+      final String indicator = slot.equals(mostPopular) ? "🏆 " : "";
       final String fieldValue = String.format("%s**%d people available**\n%s",
-          indicator, availableCount, timeRange);
+          indicator, slot.available(), timeRange);
 
-      embedBuilder.addField(timeslot.getEmoji() + " Option " + (timeslots.indexOf(timeslot) + 1),
-          fieldValue, true);
+      embedBuilder.addField(slot.emoji() + " Option " + (i + 1), fieldValue, true);
     }
 
-    if (mostPopular != null && hangoutService.getAvailabilityCount(mostPopular.getId()) > 0) {
-      final String winnerTime = TimezoneUtil.formatTimeRange(mostPopular.getStartTime(), mostPopular.getEndTime(), timezone);
+    if (mostPopular != null) {
+      final String winnerTime = TimezoneUtil.formatTimeRange(mostPopular.startTime(), mostPopular.endTime(), timezone);
       embedBuilder.addField("🎉 Most Popular Time",
           String.format("%s\n**%d people** can make it!",
               winnerTime,
-              hangoutService.getAvailabilityCount(mostPopular.getId())),
+              mostPopular.available()),
           false);
     }
 
+    trace.finish(slots.size());
     return embedBuilder.build();
   }
 
@@ -0,0 +1,124 @@
+package uk.co.louiseconnell.hangout.service;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import uk.co.louiseconnell.hangout.datasource.ConnectionPool;
+import uk.co.louiseconnell.hangout.datasource.Workload;
+import uk.co.louiseconnell.hangout.entity.ArchivedEvent;
+import uk.co.louiseconnell.hangout.entity.ArchivedTimeslot;
+import uk.co.louiseconnell.hangout.entity.Event;
+import uk.co.louiseconnell.hangout.entity.Timeslot;
+import uk.co.louiseconnell.hangout.repository.ArchivedAvailabilityRepository;
+import uk.co.louiseconnell.hangout.repository.ArchivedEventRepository;
+import uk.co.louiseconnell.hangout.repository.ArchivedTimeslotRepository;
+import uk.co.louiseconnell.hangout.repository.AvailabilityRepository;
+import uk.co.louiseconnell.hangout.repository.AvailabilityRepository.TimeslotTally;
+import uk.co.louiseconnell.hangout.repository.EventRepository;
+import uk.co.louiseconnell.hangout.repository.TimeslotRepository;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Closed events that have been moved out of the hot tables, with their timeslots and votes. The
+ * archiver moves them here in batches; {@link HangoutService} reads here when a lookup misses the
+ * hot tables. Archived events come back as detached {@link Event}s and {@link Timeslot}s with no
+ * associations loaded, and are never written again.
+ */
+@Service
+@RequiredArgsConstructor
+public class EventArchive {
+
+  private final EventRepository eventRepository;
+  private final TimeslotRepository timeslotRepository;
+  private final AvailabilityRepository availabilityRepository;
+  private final ArchivedEventRepository archivedEventRepository;
+  private final ArchivedTimeslotRepository archivedTimeslotRepository;
+  private final ArchivedAvailabilityRepository archivedAvailabilityRepository;
+  private final EventCache eventCache;
+  private final JdbcTemplate jdbc;
+
+  private volatile Boolean partitioned;
+
+  public Optional<Event> findEvent(Long eventId) {
+    return archivedEventRepository.findById(eventId).map(ArchivedEvent::toEvent);
+  }
+
+  public Optional<Event> findEventByMessageId(Long messageId) {
+    return archivedEventRepository.findByMessageId(messageId).map(ArchivedEvent::toEvent);
+  }
+
+  public List<Timeslot> findTimeslots(Long eventId) {
+    return archivedTimeslotRepository.findByEventIdOrderByStartTime(eventId).stream()
+        .map(ArchivedTimeslot::toTimeslot)
+        .toList();
+  }
+
+  public List<TimeslotTally> countAvailable(Long eventId) {
+    return archivedAvailabilityRepository.countAvailableByEvent(eventId);
+  }
+
+  /**
+   * Create the monthly archive partitions for every event closed before {@code closedBefore}. Run
+   * before archiving, in its own transaction, so the batches don't hold the lock creating a
+   * partition takes. Nothing to do on databases without partitioned archive tables.
+   */
+  @Transactional
+  @ConnectionPool(Workload.BACKGROUND)
+  public void preparePartitions(LocalDateTime closedBefore) {
+    if (!isPartitioned()) {
+      return;
+    }
+    eventRepository.findEarliestClosedAt()
+        .filter(earliest -> earliest.isBefore(closedBefore))
+        .ifPresent(earliest -> jdbc.queryForList("SELECT create_archive_partitions(?, ?)",
+            Timestamp.valueOf(earliest), Timestamp.valueOf(closedBefore)));
+  }
+
+  /**
+   * Move the {@code batchSize} events closed longest before {@code closedBefore} into the archive,
+   * with their timeslots and votes, in one transaction.
+   *
+   * @return how many events were moved; fewer than {@code batchSize} once none are left
+   */
+  @Transactional
+  @ConnectionPool(Workload.BACKGROUND)
+  public int archiveBatch(LocalDateTime closedBefore, int batchSize) {
+    // Locked, so a vote racing the move fails on its foreign key instead of being left behind
+    final List<Event> events = eventRepository.findArchivableForUpdate(closedBefore, PageRequest.of(0, batchSize));
+    if (events.isEmpty()) {
+      return 0;
+    }
+    final List<Long> eventIds = events.stream().map(Event::getId).toList();
+    archivedEventRepository.copyFromEvents(eventIds);
+    archivedTimeslotRepository.copyFromTimeslots(eventIds);
+    archivedAvailabilityRepository.copyFromAvailabilities(eventIds);
+
+    // Bulk deletes, so the events and timeslots cache regions are invalidated once per batch; their
+    // summaries go by foreign key cascade
+    availabilityRepository.deleteByEventIds(eventIds);
+    timeslotRepository.deleteByEventIds(eventIds);
+    eventRepository.deleteByIds(eventIds);
+
+    for (Event event : events) {
+      // The cached rows are still right, but shouldn't hold entries live events need
+      eventCache.evictEvent(event.getId(), event.getMessageId());
+      eventCache.evictTimeslots(event.getId());
+    }
+    return events.size();
+  }
+
+  private boolean isPartitioned() {
+    if (partitioned == null) {
+      partitioned = "PostgreSQL".equals(jdbc.execute(
+          (ConnectionCallback<String>) connection -> connection.getMetaData().getDatabaseProductName()));
+    }
+    return partitioned;
+  }
+}
@@ -0,0 +1,289 @@
+package uk.co.louiseconnell.hangout.service;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Ticker;
+import uk.co.louiseconnell.hangout.entity.Event;
+import uk.co.louiseconnell.hangout.entity.Timeslot;
+
+/**
+ * In-memory caches for the reads on the vote path: message ID to event routing, events, ordered
+ * timeslots, per-timeslot AVAILABLE tallies and user timezones used when rendering embeds.
+ *
+ * <p>Entries are detached entities and must be treated as read-only. {@link HangoutService} evicts
+ * them after its writes commit. Each eviction takes the next value of a generation counter and
+ * stamps it on the evicted key, in a fixed table where keys that share a slot share a stamp. A load
+ * remembers the generation it started at and drops its own entry if that key has been stamped since,
+ * so a read that started before a commit can never leave stale data behind, while evictions of other
+ * keys leave it alone.
+ *
+ * <p>Each cache holds at most {@code hangout.cache.max-entries} entries and drops the least useful
+ * one to make room, so closed events age out on their own. Messages known not to be polls are kept
+ * apart from poll routing, and only for {@code hangout.cache.non-poll-ttl}, so reactions across busy
+ * channels cannot crowd new polls out.
+ */
+@Component
+public class EventCache {
+
+  private static final int STAMP_SLOTS = 4096;
+
+  // Which cache a key belongs to, so the same ID in two caches is stamped separately
+  private static final int EVENTS = 1;
+  private static final int ROUTES = 2;
+  private static final int TIMESLOTS = 3;
+  private static final int TALLIES = 4;
+  private static final int TIMEZONES = 5;
+
+  private final boolean enabled;
+
+  private final Cache<Long, Long> eventIdsByMessageId;
+  private final Cache<Long, Boolean> nonPollMessages;
+  private final Cache<Long, Event> events;
+  private final Cache<Long, List<Timeslot>> timeslots;
+  private final Cache<Long, Map<Long, Integer>> tallies;
+  private final Cache<Long, String> timezones;
+  private final AtomicLong generation = new AtomicLong();
+  private final AtomicLongArray evictedAt = new AtomicLongArray(STAMP_SLOTS);
+
+  private final LongAdder hits = new LongAdder();
+  private final LongAdder misses = new LongAdder();
+
+  @Autowired
+  public EventCache(final @Value("${hangout.cache.enabled:true}") boolean enabled,
+                    final @Value("${hangout.cache.max-entries:20000}") int maxEntries,
+                    final @Value("${hangout.cache.non-poll-ttl:10m}") Duration nonPollTtl) {
+    this(enabled, maxEntries, nonPollTtl, Ticker.systemTicker());
+  }
+
+  EventCache(final boolean enabled, final int maxEntries, final Duration nonPollTtl, final Ticker ticker) {
+    this.enabled = enabled;
+    this.eventIdsByMessageId = Caffeine.newBuilder().maximumSize(maxEntries).build();
+    this.nonPollMessages = Caffeine.newBuilder().maximumSize(maxEntries).expireAfterWrite(nonPollTtl).ticker(ticker).build();
+    this.events = Caffeine.newBuilder().maximumSize(maxEntries).build();
+    this.timeslots = Caffeine.newBuilder().maximumSize(maxEntries).build();
+    this.tallies = Caffeine.newBuilder().maximumSize(maxEntries).build();
+    this.timezones = Caffeine.newBuilder().maximumSize(maxEntries).build();
+  }
+
+  public boolean isEnabled() {
+    return enabled;
+  }
+
+  public long getGeneration() {
+    return generation.get();
+  }
+
+  public Optional<Event> event(final Long eventId, final Supplier<Optional<Event>> loader) {
+    final Event cached = enabled ? events.getIfPresent(eventId) : null;
+    if (cached != null) {
+      hits.increment();
+      return Optional.of(cached);
+    }
+    misses.increment();
+    final long gen = generation.get();
+    final Optional<Event> loaded = loader.get();
+    loaded.ifPresent(event -> putIfCurrent(events, EVENTS, eventId, event, gen));
+    return loaded;
+  }
+
+  public Optional<Event> eventByMessageId(final Long messageId,
+                                          final Supplier<Optional<Event>> loader) {
+    final Long eventId = enabled ? eventIdsByMessageId.getIfPresent(messageId) : null;
+    if (eventId != null) {
+      final Event cached = events.getIfPresent(eventId);
+      if (cached != null) {
+        hits.increment();
+        return Optional.of(cached);
+      }
+    } else if (enabled && nonPollMessages.getIfPresent(messageId) != null) {
+      hits.increment();
+      return Optional.empty();
+    }
+    misses.increment();
+    final long gen = generation.get();
+    final Optional<Event> loaded = loader.get();
+    if (loaded.isPresent()) {
+      putEvent(loaded.get(), gen);
+    } else {
+      // Reactions land on every message in the channel; remember the ones that are not polls
+      putIfCurrent(nonPollMessages, ROUTES, messageId, Boolean.TRUE, gen);
+    }
+    return loaded;
+  }
+
+  public List<Timeslot> timeslots(final Long eventId, final Supplier<List<Timeslot>> loader) {
+    final List<Timeslot> cached = enabled ? timeslots.getIfPresent(eventId) : null;
+    if (cached != null) {
+      hits.increment();
+      return cached;
+    }
+    misses.increment();
+    final long gen = generation.get();
+    final List<Timeslot> loaded = List.copyOf(loader.get());
+    putIfCurrent(timeslots, TIMESLOTS, eventId, loaded, gen);
+    return loaded;
+  }
+
+  /**
+   * AVAILABLE vote count per timeslot ID for one event.
+   */
+  public Map<Long, Integer> tallies(final Long eventId, final Supplier<Map<Long, Integer>> loader) {
+    final Map<Long, Integer> cached = enabled ? tallies.getIfPresent(eventId) : null;
+    if (cached != null) {
+      hits.increment();
+      return cached;
+    }
+    misses.increment();
+    final long gen = generation.get();
+    final Map<Long, Integer> loaded = Map.copyOf(loader.get());
+    putIfCurrent(tallies, TALLIES, eventId, loaded, gen);
+    return loaded;
+  }
+
+  /**
+   * Whether both the timeslots and the tallies of an event are cached, without counting a lookup.
+   */
+  public boolean hasRenderData(final Long eventId) {
+    return enabled && timeslots.getIfPresent(eventId) != null && tallies.getIfPresent(eventId) != null;
+  }
+
+  public String timezone(final Long userDiscordId, final Supplier<String> loader) {
+    final String cached = enabled ? timezones.getIfPresent(userDiscordId) : null;
+    if (cached != null) {
+      hits.increment();
+      return cached;
+    }
+    misses.increment();
+    final long gen = generation.get();
+    final String loaded = loader.get();
+    putIfCurrent(timezones, TIMEZONES, userDiscordId, loaded, gen);
+    return loaded;
+  }
+
+  /**
+   * Bulk-load entry point for warm-up. {@code gen} is the generation read before the data was
+   * queried, so a key written since is not overwritten with older rows.
+   */
+  public void putEvent(final Event event, final long gen) {
+    putIfCurrent(events, EVENTS, event.getId(), event, gen);
+    if (event.getMessageId() != null) {
+      putIfCurrent(eventIdsByMessageId, ROUTES, event.getMessageId(), event.getId(), gen);
+    }
+  }
+
+  public void putTimeslots(final Long eventId, final List<Timeslot> slots, final long gen) {
+    putIfCurrent(timeslots, TIMESLOTS, eventId, List.copyOf(slots), gen);
+  }
+
+  public void putTallies(final Long eventId, final Map<Long, Integer> counts, final long gen) {
+    putIfCurrent(tallies, TALLIES, eventId, Map.copyOf(counts), gen);
+  }
+
+  public void putTimezone(final Long userDiscordId, final String timezone, final long gen) {
+    putIfCurrent(timezones, TIMEZONES, userDiscordId, timezone, gen);
+  }
+
+  /**
+   * Drop an event and its message routing once the current transaction commits. Pass every message
+   * ID the event had or now has.
+   */
+  public void evictEvent(final Long eventId, final Long... messageIds) {
+    afterCompletion(() -> {
+      evict(events, EVENTS, eventId);
+      for (Long messageId : messageIds) {
+        if (messageId != null) {
+          evict(eventIdsByMessageId, ROUTES, messageId);
+          nonPollMessages.invalidate(messageId);
+        }
+      }
+    });
+  }
+
+  /**
+   * Drop an event's timeslots and, since they are keyed by timeslot, its tallies.
+   */
+  public void evictTimeslots(final Long eventId) {
+    afterCompletion(() -> {
+      evict(timeslots, TIMESLOTS, eventId);
+      evict(tallies, TALLIES, eventId);
+    });
+  }
+
+  public void evictTallies(final Long eventId) {
+    afterCompletion(() -> evict(tallies, TALLIES, eventId));
+  }
+
+  public void evictTimezone(final Long userDiscordId) {
+    afterCompletion(() -> evict(timezones, TIMEZONES, userDiscordId));
+  }
+
+  public int getEventCount() {
+    return (int) events.estimatedSize();
+  }
+
+  public long getHitCount() {
+    return hits.sum();
+  }
+
+  public long getMissCount() {
+    return misses.sum();
+  }
+
+  private <V> void putIfCurrent(final Cache<Long, V> cache, final int region, final Long key, final V value, final long gen) {
+    if (!enabled || value == null || evictedSince(region, key, gen)) {
+      return;
+    }
+    cache.put(key, value);
+    // An eviction of this key may have slipped in between the check and the put; undo if so
+    if (evictedSince(region, key, gen)) {
+      cache.asMap().remove(key, value);
+    }
+  }
+
+  private boolean evictedSince(final int region, final Long key, final long gen) {
+    return evictedAt.get(slot(region, key)) > gen;
+  }
+
+  private void evict(final Cache<Long, ?> cache, final int region, final Long key) {
+    // Stamp before removing, so a load that reads the old row after this point cannot put it back
+    final long stamp = generation.incrementAndGet();
+    evictedAt.accumulateAndGet(slot(region, key), stamp, Math::max);
+    cache.invalidate(key);
+  }
+
+  private void afterCompletion(final Runnable eviction) {
+    if (TransactionSynchronizationManager.isSynchronizationActive()) {
+      // Evicting before commit would let a concurrent read cache the pre-commit rows again
+      TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+        @Override
+        public void afterCompletion(final int status) {
+          eviction.run();
+        }
+      });
+    } else {
+      eviction.run();
+    }
+  }
+
+  private static int slot(final int region, final long key) {
+    long z = key * 31 + region;
+    z = (z ^ (z >>> 33)) * 0xff51afd7ed558ccdL;
+    z = (z ^ (z >>> 33)) * 0xc4ceb9fe1a85ec53L;
+    return (int) (z ^ (z >>> 33)) & (STAMP_SLOTS - 1);
+  }
+}
@@ -0,0 +1,157 @@
+package uk.co.louiseconnell.hangout.service;
+
+import lombok.extern.slf4j.Slf4j;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+import uk.co.louiseconnell.hangout.datasource.ReadYourWrites;
+import uk.co.louiseconnell.hangout.datasource.Workload;
+import uk.co.louiseconnell.hangout.entity.Event;
+import uk.co.louiseconnell.hangout.entity.Timeslot;
+import uk.co.louiseconnell.hangout.entity.User;
+import uk.co.louiseconnell.hangout.repository.AvailabilityRepository;
+import uk.co.louiseconnell.hangout.repository.AvailabilityRepository.TimeslotTally;
+import uk.co.louiseconnell.hangout.repository.EventRepository;
+import uk.co.louiseconnell.hangout.repository.TimeslotRepository;
+import uk.co.louiseconnell.hangout.repository.UserRepository;
+
+/**
+ * Fills {@link EventCache} for every DRAFT and ACTIVE event once the bot connects, so the first
+ * reactions after a restart do not pay for cold routing, timeslot, tally and timezone lookups.
+ * Loads are done a batch of events at a time with one query per table rather than per event.
+ */
+@Service
+@Slf4j
+public class EventCacheWarmer {
+
+  private final EventRepository eventRepository;
+  private final TimeslotRepository timeslotRepository;
+  private final AvailabilityRepository availabilityRepository;
+  private final UserRepository userRepository;
+  private final EventCache eventCache;
+  private final ReadYourWrites readYourWrites;
+  private final int batchSize;
+  private final Duration readinessTimeout;
+
+  private final AtomicBoolean started = new AtomicBoolean();
+  private final CountDownLatch warmed = new CountDownLatch(1);
+
+  public EventCacheWarmer(final EventRepository eventRepository,
+                          final TimeslotRepository timeslotRepository,
+                          final AvailabilityRepository availabilityRepository,
+                          final UserRepository userRepository,
+                          final EventCache eventCache,
+                          final ReadYourWrites readYourWrites,
+                          final @Value("${hangout.cache.warmup.batch-size:500}") int batchSize,
+                          final @Value("${hangout.cache.warmup.readiness-timeout:60s}") Duration readinessTimeout) {
+    this.eventRepository = eventRepository;
+    this.timeslotRepository = timeslotRepository;
+    this.availabilityRepository = availabilityRepository;
+    this.userRepository = userRepository;
+    this.eventCache = eventCache;
+    this.readYourWrites = readYourWrites;
+    this.batchSize = Math.max(1, batchSize);
+    this.readinessTimeout = readinessTimeout;
+  }
+
+  /**
+   * Warm the caches on a worker thread the first time this is called, once the bot has logged in;
+   * later calls do nothing, since the caches have been kept up to date since then.
+   */
+  public Mono<Void> warmUpOnce() {
+    if (!started.compareAndSet(false, true)) {
+      return Mono.empty();
+    }
+    if (!eventCache.isEnabled()) {
+      warmed.countDown();
+      return Mono.empty();
+    }
+    // A self-call, so @ConnectionPool wouldn't apply. Read from the primary, like any cache load
+    return Mono.fromRunnable(() -> Workload.BACKGROUND.run(() -> readYourWrites.callOnPrimary(() -> {
+          warmUp();
+          return null;
+        })))
+        .subscribeOn(Schedulers.boundedElastic())
+        .onErrorResume(err -> {
+          log.warn("Cache warm-up failed, serving from a cold cache: {}", err.toString());
+          return Mono.empty();
+        })
+        .doFinally(signal -> warmed.countDown())
+        .then();
+  }
+
+  public boolean isWarm() {
+    return warmed.getCount() == 0;
+  }
+
+  /**
+   * Block until the first warm-up has finished, or the readiness timeout passes.
+   *
+   * @return true if warm-up finished in time
+   */
+  public boolean awaitWarm() throws InterruptedException {
+    return warmed.await(readinessTimeout.toMillis(), TimeUnit.MILLISECONDS);
+  }
+
+  void warmUp() {
+    final long startNanos = System.nanoTime();
+    final long gen = eventCache.getGeneration();
+    final List<Event> events = eventRepository.findByStatusIn(List.of(Event.EventStatus.ACTIVE, Event.EventStatus.DRAFT));
+    int timeslotCount = 0;
+    for (int from = 0; from < events.size(); from += batchSize) {
+      timeslotCount += warmBatch(events.subList(from, Math.min(events.size(), from + batchSize)), gen);
+    }
+    log.info("Warmed caches for {} live event(s) and {} timeslot(s) in {}ms",
+        events.size(), timeslotCount, (System.nanoTime() - startNanos) / 1_000_000);
+  }
+
+  private int warmBatch(final List<Event> batch, final long gen) {
+    final List<Long> eventIds = new ArrayList<>(batch.size());
+    final Set<Long> creatorIds = new HashSet<>();
+    for (Event event : batch) {
+      eventIds.add(event.getId());
+      creatorIds.add(event.getCreatorDiscordId());
+      eventCache.putEvent(event, gen);
+    }
+
+    final Map<Long, List<Timeslot>> slotsByEvent = new HashMap<>();
+    final List<Timeslot> slots = timeslotRepository.findTimeslotsByEventsOrdered(eventIds);
+    for (Timeslot slot : slots) {
+      slotsByEvent.computeIfAbsent(slot.getEvent().getId(), id -> new ArrayList<>()).add(slot);
+    }
+
+    final Map<Long, List<TimeslotTally>> talliesByEvent = new HashMap<>();
+    for (TimeslotTally row : availabilityRepository.countAvailableByEvents(eventIds)) {
+      talliesByEvent.computeIfAbsent(row.getEventId(), id -> new ArrayList<>()).add(row);
+    }
+
+    for (Long eventId : eventIds) {
+      final List<Timeslot> eventSlots = slotsByEvent.getOrDefault(eventId, List.of());
+      eventCache.putTimeslots(eventId, eventSlots, gen);
+      eventCache.putTallies(eventId, HangoutService.toTallies(eventSlots, talliesByEvent.getOrDefault(eventId, List.of())), gen);
+    }
+
+    // Creators without a user row render in UTC, same as getUserTimezoneOrDefault
+    final Map<Long, String> timezones = new HashMap<>();
+    creatorIds.forEach(id -> timezones.put(id, "UTC"));
+    for (User user : userRepository.findAllById(creatorIds)) {
+      timezones.put(user.getDiscordId(), HangoutService.timezoneOrDefault(user));
+    }
+    timezones.forEach((id, tz) -> eventCache.putTimezone(id, tz, gen));
+    return slots.size();
+  }
+}
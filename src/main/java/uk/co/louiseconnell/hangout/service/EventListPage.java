@@ -0,0 +1,79 @@
+package uk.co.louiseconnell.hangout.service;
+
+import uk.co.louiseconnell.hangout.entity.Event;
+import uk.co.louiseconnell.hangout.entity.EventSummary;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * One page of a channel's event list: drafts, then active, then closed events, newest first within
+ * each status.
+ *
+ * @param events the events on this page
+ * @param offset how many events came before this page, for display only
+ * @param next where the next page starts, or {@code null} if this is the last one
+ * @param total how many listed events the channel has, capped at {@link #TOTAL_CAP}
+ * @param summaries the vote summaries of the events on this page that have one, by event ID
+ */
+public record EventListPage(List<Event> events, int offset, Cursor next, int total,
+                            Map<Long, EventSummary> summaries) {
+
+  /** The channel's total is only counted up to here, so the count costs the same for any history. */
+  public static final int TOTAL_CAP = 100;
+
+  /** Statuses in the order they are listed. Scheduled events aren't listed. */
+  static final List<Event.EventStatus> LISTED = List.of(
+      Event.EventStatus.DRAFT, Event.EventStatus.ACTIVE, Event.EventStatus.CLOSED);
+
+  public boolean isTotalCapped() {
+    return total >= TOTAL_CAP;
+  }
+
+  public Optional<EventSummary> summary(final Event event) {
+    return Optional.ofNullable(summaries.get(event.getId()));
+  }
+
+  /**
+   * The position just after an event in list order: its status rank, created time and ID. Encoded
+   * as colon separated numbers so it fits in a component custom ID.
+   *
+   * @param offset how many events have been listed up to and including this one
+   */
+  public record Cursor(int rank, LocalDateTime createdAt, long id, int offset) {
+
+    static Cursor after(final Event event, final int offset) {
+      return new Cursor(LISTED.indexOf(event.getStatus()), event.getCreatedAt(), event.getId(), offset);
+    }
+
+    public String encode() {
+      final long micros = createdAt.toEpochSecond(ZoneOffset.UTC) * 1_000_000L + createdAt.getNano() / 1_000;
+      return rank + ":" + micros + ":" + id + ":" + offset;
+    }
+
+    /**
+     * @throws IllegalArgumentException if the value wasn't produced by {@link #encode()}
+     */
+    public static Cursor decode(final String value) {
+      final String[] parts = value.split(":");
+      if (parts.length != 4) {
+        throw new IllegalArgumentException("Malformed list cursor: " + value);
+      }
+      try {
+        final int rank = Integer.parseInt(parts[0]);
+        if (rank < 0 || rank >= LISTED.size()) {
+          throw new IllegalArgumentException("Malformed list cursor: " + value);
+        }
+        final long micros = Long.parseLong(parts[1]);
+        final LocalDateTime createdAt = LocalDateTime.ofEpochSecond(Math.floorDiv(micros, 1_000_000L),
+            (int) Math.floorMod(micros, 1_000_000L) * 1_000, ZoneOffset.UTC);
+        return new Cursor(rank, createdAt, Long.parseLong(parts[2]), Integer.parseInt(parts[3]));
+      } catch (NumberFormatException e) {
+        throw new IllegalArgumentException("Malformed list cursor: " + value, e);
+      }
+    }
+  }
+}
@@ -0,0 +1,196 @@
+package uk.co.louiseconnell.hangout.service;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import uk.co.louiseconnell.hangout.datasource.ConnectionPool;
+import uk.co.louiseconnell.hangout.datasource.Workload;
+import uk.co.louiseconnell.hangout.entity.EventSummary;
+import uk.co.louiseconnell.hangout.entity.EventSummary.SlotCount;
+import uk.co.louiseconnell.hangout.entity.Timeslot;
+import uk.co.louiseconnell.hangout.repository.AvailabilityRepository;
+import uk.co.louiseconnell.hangout.repository.AvailabilityRepository.TimeslotTally;
+import uk.co.louiseconnell.hangout.repository.AvailabilityRepository.VoterTally;
+import uk.co.louiseconnell.hangout.repository.EventRepository;
+import uk.co.louiseconnell.hangout.repository.EventSummaryRepository;
+import uk.co.louiseconnell.hangout.repository.TimeslotRepository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * The {@link EventSummary} of each event. {@link HangoutService} applies every vote to it in the
+ * vote's own transaction, having locked the row first, so readers get an event's totals from one
+ * row. {@link #rebuild} works them out again from the votes, for events from before summaries
+ * existed and after changes too big to apply one vote at a time.
+ */
+@Service
+@RequiredArgsConstructor
+public class EventSummaries {
+
+  private final EventRepository eventRepository;
+  private final TimeslotRepository timeslotRepository;
+  private final AvailabilityRepository availabilityRepository;
+  private final EventSummaryRepository eventSummaryRepository;
+  private final EventCache eventCache;
+
+  public Optional<EventSummary> find(Long eventId) {
+    return eventSummaryRepository.findById(eventId);
+  }
+
+  /**
+   * Summaries of the given events, by event ID, in one query. Events without one are left out.
+   */
+  public Map<Long, EventSummary> findAll(Collection<Long> eventIds) {
+    if (eventIds.isEmpty()) {
+      return Map.of();
+    }
+    return eventSummaryRepository.findAllById(eventIds).stream()
+        .collect(Collectors.toMap(EventSummary::getEventId, Function.identity()));
+  }
+
+  /**
+   * The event's summary, locked until the transaction ends. Empty for an event that has none yet,
+   * which is then left alone until it is rebuilt.
+   *
+   * <p>Without a summary row there is nothing to queue on, so the event's row is locked instead.
+   * That waits for a {@link #rebuild} in progress, which may be creating the summary without having
+   * seen this transaction's vote, and then the new summary is locked and used as usual.
+   */
+  public Optional<EventSummary> lock(Long eventId) {
+    final Optional<EventSummary> summary = eventSummaryRepository.findForUpdate(eventId);
+    if (summary.isPresent()) {
+      return summary;
+    }
+    eventRepository.findAllForUpdate(List.of(eventId));
+    return eventSummaryRepository.findForUpdate(eventId);
+  }
+
+  /**
+   * Start the summary of a new event, with no votes.
+   */
+  public void create(Long eventId, List<Timeslot> timeslots) {
+    final List<SlotCount> slots = slots(timeslots, Map.of());
+    eventSummaryRepository.save(EventSummary.builder()
+        .eventId(eventId)
+        .slots(slots)
+        .voterCount(0)
+        .build());
+  }
+
+  /**
+   * Bring a locked summary's timeslots in line with the event's, keeping the counts of those that
+   * are still there.
+   */
+  public void timeslotsChanged(EventSummary summary, List<Timeslot> timeslots) {
+    final List<SlotCount> slots = slots(timeslots, summary.counts());
+    summary.setSlots(slots);
+    summary.setLeadingTimeslotId(leading(slots));
+    eventSummaryRepository.save(summary);
+  }
+
+  /**
+   * Apply a change in votes to a locked summary.
+   *
+   * @param availableDeltas change in AVAILABLE votes, by timeslot ID
+   * @param voterDelta      1 for a user's first vote on the event, -1 when their last is removed
+   * @param votedAt         when the vote was cast, or {@code null} if votes were only removed
+   */
+  public void apply(EventSummary summary, Map<Long, Integer> availableDeltas, int voterDelta, LocalDateTime votedAt) {
+    final List<SlotCount> slots = summary.getSlots().stream()
+        .map(slot -> new SlotCount(slot.timeslotId(),
+            Math.max(0, slot.available() + availableDeltas.getOrDefault(slot.timeslotId(), 0))))
+        .toList();
+    summary.setSlots(slots);
+    summary.setLeadingTimeslotId(leading(slots));
+    summary.setVoterCount(Math.max(0, summary.getVoterCount() + voterDelta));
+    if (votedAt != null) {
+      summary.setLastVoteAt(votedAt);
+    }
+    eventSummaryRepository.save(summary);
+  }
+
+  /**
+   * Work out the summaries of the given events again from their timeslots and votes, creating any
+   * that are missing, in a constant number of statements. The events must still be in the hot
+   * tables. The last vote time can only come from votes that are still there.
+   */
+  @Transactional
+  public void rebuild(Collection<Long> eventIds) {
+    if (eventIds.isEmpty()) {
+      return;
+    }
+    // Locked first, as votes do, so none is applied to a summary being replaced
+    final Map<Long, EventSummary> existing = eventSummaryRepository.findAllForUpdate(eventIds).stream()
+        .collect(Collectors.toMap(EventSummary::getEventId, Function.identity()));
+    // Votes on events with no summary yet wait on the event rows instead, so none is missed by one created here
+    eventRepository.findAllForUpdate(eventIds);
+    final Map<Long, List<Timeslot>> timeslots = timeslotRepository.findTimeslotsByEventsOrdered(eventIds).stream()
+        .collect(Collectors.groupingBy(t -> t.getEvent().getId()));
+    final Map<Long, Map<Long, Integer>> counts = new HashMap<>();
+    for (TimeslotTally tally : availabilityRepository.countAvailableByEvents(eventIds)) {
+      counts.computeIfAbsent(tally.getEventId(), id -> new HashMap<>())
+          .put(tally.getTimeslotId(), (int) tally.getAvailable());
+    }
+    final Map<Long, VoterTally> voters = availabilityRepository.countVotersByEvents(eventIds).stream()
+        .collect(Collectors.toMap(VoterTally::getEventId, Function.identity()));
+
+    for (Long eventId : eventIds) {
+      final EventSummary summary = existing.getOrDefault(eventId, EventSummary.builder().eventId(eventId).build());
+      final List<SlotCount> slots = slots(timeslots.getOrDefault(eventId, List.of()), counts.getOrDefault(eventId, Map.of()));
+      final VoterTally voterTally = voters.get(eventId);
+      summary.setSlots(slots);
+      summary.setLeadingTimeslotId(leading(slots));
+      summary.setVoterCount(voterTally == null ? 0 : (int) voterTally.getVoters());
+      summary.setLastVoteAt(voterTally == null ? null : voterTally.getLastVoteAt());
+      eventSummaryRepository.save(summary);
+      eventCache.evictTallies(eventId);
+    }
+  }
+
+  /**
+   * Rebuild the summaries of the {@code batchSize} events after {@code afterEventId}, in ID order,
+   * in one transaction.
+   *
+   * @return the IDs of the events rebuilt; fewer than {@code batchSize} once none are left
+   */
+  @Transactional
+  @ConnectionPool(Workload.BACKGROUND)
+  public List<Long> rebuildBatch(long afterEventId, int batchSize) {
+    final List<Long> eventIds = eventRepository.findIdsAfter(afterEventId, PageRequest.of(0, batchSize));
+    rebuild(eventIds);
+    return eventIds;
+  }
+
+  /**
+   * A count per timeslot, in display order.
+   */
+  private static List<SlotCount> slots(List<Timeslot> timeslots, Map<Long, Integer> counts) {
+    return timeslots.stream()
+        .sorted(Comparator.comparing(Timeslot::getStartTime))
+        .map(t -> new SlotCount(t.getId(), counts.getOrDefault(t.getId(), 0)))
+        .toList();
+  }
+
+  /**
+   * The earliest of the timeslots with the most AVAILABLE votes, as {@link
+   * uk.co.louiseconnell.hangout.entity.EventResults} picks its winner; {@code null} if none has any.
+   */
+  private static Long leading(List<SlotCount> slots) {
+    SlotCount leading = null;
+    for (SlotCount slot : slots) {
+      if (slot.available() > 0 && (leading == null || slot.available() > leading.available())) {
+        leading = slot;
+      }
+    }
+    return leading == null ? null : leading.timeslotId();
+  }
+}
@@ -1,30 +1,46 @@
 package uk.co.louiseconnell.hangout.service;
 
+import io.micrometer.core.annotation.Timed;
 import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import uk.co.louiseconnell.hangout.datasource.ConnectionPool;
+import uk.co.louiseconnell.hangout.datasource.ReadYourWrites;
+import uk.co.louiseconnell.hangout.datasource.Workload;
 import uk.co.louiseconnell.hangout.entity.Availability;
 import uk.co.louiseconnell.hangout.entity.Event;
+import uk.co.louiseconnell.hangout.entity.EventResults;
+import uk.co.louiseconnell.hangout.entity.EventSummary;
 import uk.co.louiseconnell.hangout.entity.Timeslot;
 import uk.co.louiseconnell.hangout.entity.User;
 import uk.co.louiseconnell.hangout.repository.AvailabilityRepository;
+import uk.co.louiseconnell.hangout.repository.AvailabilityRepository.TimeslotTally;
 import uk.co.louiseconnell.hangout.repository.EventRepository;
 import uk.co.louiseconnell.hangout.repository.TimeslotRepository;
 import uk.co.louiseconnell.hangout.repository.UserRepository;
 
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
+@Timed("hangout.service")
 public class HangoutService {
 
   private final EventRepository eventRepository;
   private final TimeslotRepository timeslotRepository;
   private final AvailabilityRepository availabilityRepository;
   private final UserRepository userRepository;
+  private final EventCache eventCache;
+  private final EventArchive eventArchive;
+  private final ReadYourWrites readYourWrites;
+  private final EventSummaries eventSummaries;
 
   private static final String[] NUMBER_EMOJIS = new String[] {
       "1️⃣", "2️⃣", "3️⃣", "4️⃣", "5️⃣", "6️⃣", "7️⃣", "8️⃣", "9️⃣", "🔟"
@@ -33,8 +49,8 @@ public class HangoutService {
   @Transactional
   public Event createHangoutEvent(String title,
                                   String description,
-                                  String creatorDiscordId,
-                                  String channelId,
+                                  Long creatorDiscordId,
+                                  Long channelId,
                                   LocalDateTime deadline,
                                   List<TimeslotRequest> timeslotRequests) {
     if (timeslotRequests == null || timeslotRequests.isEmpty()) {
@@ -69,14 +85,15 @@ public class HangoutService {
     }
 
     event.setTimeslots(new java.util.HashSet<>(saved));
+    eventSummaries.create(event.getId(), saved);
     return event;
   }
 
   @Transactional
   public Event createDraftEvent(String title,
                                 String description,
-                                String creatorDiscordId,
-                                String channelId) {
+                                Long creatorDiscordId,
+                                Long channelId) {
     Event event = Event.builder()
         .title(title)
         .description(description)
@@ -85,7 +102,9 @@ public class HangoutService {
         .createdAt(LocalDateTime.now())
         .status(Event.EventStatus.DRAFT)
         .build();
-    return eventRepository.save(event);
+    event = eventRepository.save(event);
+    eventSummaries.create(event.getId(), List.of());
+    return event;
   }
 
   @Transactional
@@ -95,6 +114,7 @@ public class HangoutService {
     if (event.getStatus() != Event.EventStatus.DRAFT && event.getStatus() != Event.EventStatus.ACTIVE) {
       throw new IllegalStateException("Can only add timeslots to DRAFT or ACTIVE events");
     }
+    final Optional<EventSummary> summary = eventSummaries.lock(eventId);
     // Determine next available emoji
     List<Timeslot> existing = timeslotRepository.findTimeslotsByEventOrdered(eventId);
     String emoji = NUMBER_EMOJIS[Math.min(existing.size(), NUMBER_EMOJIS.length - 1)];
@@ -105,7 +125,12 @@ public class HangoutService {
         .description(req.description())
         .emoji(emoji)
         .build();
-    return timeslotRepository.save(t);
+    final Timeslot saved = timeslotRepository.save(t);
+    final List<Timeslot> timeslots = new ArrayList<>(existing);
+    timeslots.add(saved);
+    summary.ifPresent(s -> eventSummaries.timeslotsChanged(s, timeslots));
+    eventCache.evictTimeslots(eventId);
+    return saved;
   }
 
   @Transactional
@@ -119,70 +144,120 @@ public class HangoutService {
     if (slots.isEmpty()) {
       throw new IllegalStateException("No timeslots proposed for this draft");
     }
-    // Pick most popular (AVAILABLE count)
+    // Pick most popular (AVAILABLE count), earliest first on a tie
+    final Map<Long, Integer> counts = toTallies(slots, availabilityRepository.countAvailableByEvents(List.of(eventId)));
     Timeslot winner = slots.stream()
-        .max((a, b) -> Integer.compare(getAvailabilityCount(a.getId()), getAvailabilityCount(b.getId())))
+        .max((a, b) -> Integer.compare(counts.get(a.getId()), counts.get(b.getId())))
         .orElse(slots.get(0));
 
-    // Remove non-winning timeslots and their availabilities
-    for (Timeslot slot : slots) {
-      if (!slot.getId().equals(winner.getId())) {
-        List<Availability> votes = availabilityRepository.findByTimeslotId(slot.getId());
-        if (!votes.isEmpty()) {
-          availabilityRepository.deleteAll(votes);
-        }
-        timeslotRepository.delete(slot);
-      }
+    // Remove non-winning timeslots and their availabilities in bulk
+    final List<Long> losers = slots.stream()
+        .map(Timeslot::getId)
+        .filter(id -> !id.equals(winner.getId()))
+        .toList();
+    if (!losers.isEmpty()) {
+      availabilityRepository.deleteByTimeslotIds(losers);
+      timeslotRepository.deleteByIds(losers);
+      // Whose votes went with them isn't known here
+      eventSummaries.rebuild(List.of(eventId));
     }
 
     // Mark active
     event.setStatus(Event.EventStatus.ACTIVE);
     eventRepository.save(event);
+    eventCache.evictEvent(eventId);
+    eventCache.evictTimeslots(eventId);
     return event;
   }
 
   @Transactional
-  public void updateEventMessageId(Long eventId, String messageId) {
+  public void updateEventMessageId(Long eventId, Long messageId) {
     Event event = eventRepository.findById(eventId)
         .orElseThrow(() -> new IllegalArgumentException("Event not found: " + eventId));
+    final Long previousMessageId = event.getMessageId();
     event.setMessageId(messageId);
     eventRepository.save(event);
+    eventCache.evictEvent(eventId, previousMessageId, messageId);
   }
 
-  @Transactional(readOnly = true)
+  /**
+   * Forget the Discord message of the event that was posted as {@code messageId}, after the message
+   * was deleted. Only one caller gets the event back when several race to detach the same message.
+   */
+  @Transactional
+  public Optional<Event> detachMessage(Long messageId) {
+    Optional<Event> eventOpt = eventRepository.findByMessageId(messageId);
+    if (eventOpt.isEmpty() || eventRepository.clearMessageId(messageId) == 0) {
+      return Optional.empty();
+    }
+    Event event = eventOpt.get();
+    event.setMessageId(null);
+    eventCache.evictEvent(event.getId(), messageId);
+    return Optional.of(event);
+  }
+
+  // The cached reads below are deliberately not @Transactional: a cache hit should not check out a
+  // connection, and each loader is a single repository query, or two when it falls back to the
+  // archive. A move to the archive commits all of an event at once, so a read that misses the hot
+  // tables finds it there. Loaders read from the primary, since what they load is served until the
+  // next eviction.
+
   public List<Timeslot> getTimeslotsByEvent(Long eventId) {
-    return timeslotRepository.findTimeslotsByEventOrdered(eventId);
+    return eventCache.timeslots(eventId, () -> readYourWrites.callOnPrimary(() -> {
+      final List<Timeslot> timeslots = timeslotRepository.findTimeslotsByEventOrdered(eventId);
+      return timeslots.isEmpty() ? eventArchive.findTimeslots(eventId) : timeslots;
+    }));
   }
 
-  @Transactional(readOnly = true)
-  public Optional<Event> getEventByMessageId(String messageId) {
-    return eventRepository.findByMessageId(messageId);
+  /**
+   * The live event posted as {@code messageId}. Archived events are left out: this routes every
+   * reaction in a channel, and votes on them are refused anyway.
+   */
+  public Optional<Event> getEventByMessageId(Long messageId) {
+    return eventCache.eventByMessageId(messageId,
+        () -> readYourWrites.callOnPrimary(() -> eventRepository.findByMessageId(messageId)));
+  }
+
+  /**
+   * The event posted as {@code messageId}, looking in the archive too, for lookups by message link.
+   */
+  public Optional<Event> findEventByMessageId(Long messageId) {
+    return getEventByMessageId(messageId).or(() -> eventArchive.findEventByMessageId(messageId));
   }
 
-  @Transactional(readOnly = true)
   public Optional<Event> getEventById(Long id) {
-    return eventRepository.findById(id);
+    return eventCache.event(id,
+        () -> readYourWrites.callOnPrimary(() -> eventRepository.findById(id).or(() -> eventArchive.findEvent(id))));
   }
 
-  @Transactional(readOnly = true)
   public Optional<Timeslot> findTimeslotByEmoji(Long eventId, String emoji) {
-    return timeslotRepository.findByEventIdAndEmoji(eventId, emoji);
+    return getTimeslotsByEvent(eventId).stream()
+        .filter(t -> emoji.equals(t.getEmoji()))
+        .findFirst();
   }
 
   @Transactional
-  public void voteForTimeslot(String userDiscordId, Long timeslotId, Availability.AvailabilityStatus status) {
+  public void voteForTimeslot(Long userDiscordId, Long timeslotId, Availability.AvailabilityStatus status) {
     Timeslot timeslot = timeslotRepository.findById(timeslotId)
         .orElseThrow(() -> new IllegalArgumentException("Timeslot not found: " + timeslotId));
+    final Long eventId = timeslot.getEvent().getId();
 
     // Ensure user exists or create minimal record
     User user = userRepository.findById(userDiscordId)
         .orElseGet(() -> userRepository.save(User.builder()
             .discordId(userDiscordId)
-            .username(userDiscordId)
+            .username(String.valueOf(userDiscordId))
             .build()));
 
+    // Locked before reading the user's votes, so two of their first votes can't both count them
+    final Optional<EventSummary> summary = eventSummaries.lock(eventId);
+    final List<Availability> votes = availabilityRepository.findByEventAndUser(eventId, userDiscordId);
+
     // If user already has a vote for this timeslot, update it; otherwise create
-    Optional<Availability> existing = availabilityRepository.findByUserDiscordIdAndTimeslotId(userDiscordId, timeslotId);
+    Optional<Availability> existing = votes.stream()
+        .filter(vote -> vote.getTimeslot().getId().equals(timeslotId))
+        .findFirst();
+    final Availability.AvailabilityStatus previous = existing.map(Availability::getStatus).orElse(null);
     Availability availability = existing.orElseGet(() -> Availability.builder()
         .user(user)
         .event(timeslot.getEvent())
@@ -192,53 +267,166 @@ public class HangoutService {
     availability.setStatus(status);
     availability.setVotedAt(LocalDateTime.now());
     availabilityRepository.save(availability);
+    summary.ifPresent(s -> eventSummaries.apply(s, Map.of(timeslotId, available(status) - available(previous)),
+        votes.isEmpty() ? 1 : 0, availability.getVotedAt()));
+    eventCache.evictTallies(eventId);
+    readYourWrites.wrote(userDiscordId);
   }
 
   @Transactional
-  public void removeUserVote(String userDiscordId, Long timeslotId) {
+  public void removeUserVote(Long userDiscordId, Long timeslotId) {
     availabilityRepository.findByUserDiscordIdAndTimeslotId(userDiscordId, timeslotId)
-        .ifPresent(availabilityRepository::delete);
+        .ifPresent(availability -> {
+          final Long eventId = availability.getEvent().getId();
+          final Optional<EventSummary> summary = eventSummaries.lock(eventId);
+          availabilityRepository.delete(availability);
+          summary.ifPresent(s -> eventSummaries.apply(s, Map.of(timeslotId, -available(availability.getStatus())),
+              availabilityRepository.findByEventAndUser(eventId, userDiscordId).isEmpty() ? -1 : 0, null));
+          eventCache.evictTallies(eventId);
+          readYourWrites.wrote(userDiscordId);
+        });
   }
 
   @Transactional
-  public void removeAllUserVotes(String userDiscordId, Long eventId) {
+  public void removeAllUserVotes(Long userDiscordId, Long eventId) {
+    final Optional<EventSummary> summary = eventSummaries.lock(eventId);
     List<Availability> votes = availabilityRepository.findByEventAndUser(eventId, userDiscordId);
     if (!votes.isEmpty()) {
       availabilityRepository.deleteAll(votes);
+      summary.ifPresent(s -> eventSummaries.apply(s, votes.stream().collect(Collectors.toMap(
+          vote -> vote.getTimeslot().getId(), vote -> -available(vote.getStatus()))), -1, null));
+      eventCache.evictTallies(eventId);
+      readYourWrites.wrote(userDiscordId);
     }
   }
 
+  /**
+   * Whether rendering the event's embed would be served entirely from the cache.
+   */
+  public boolean isRenderCached(Long eventId) {
+    return eventCache.hasRenderData(eventId);
+  }
+
   @Transactional(readOnly = true)
   public int getAvailabilityCount(Long timeslotId) {
     return availabilityRepository.countAvailableByTimeslot(timeslotId);
   }
 
+  /**
+   * AVAILABLE vote counts for every timeslot of an event, keyed by timeslot ID, from its summary.
+   * Events without one are counted from their votes, looking in the archive for an event with
+   * timeslots but no votes.
+   */
+  public Map<Long, Integer> getAvailabilityCounts(Long eventId) {
+    return eventCache.tallies(eventId, () -> readYourWrites.callOnPrimary(
+        () -> eventSummaries.find(eventId).map(EventSummary::counts).orElseGet(() -> {
+          final List<Timeslot> timeslots = getTimeslotsByEvent(eventId);
+          final List<TimeslotTally> rows = availabilityRepository.countAvailableByEvents(List.of(eventId));
+          return toTallies(timeslots, rows.isEmpty() && !timeslots.isEmpty() ? eventArchive.countAvailable(eventId) : rows);
+        })));
+  }
+
+  /**
+   * The event's vote totals in one row, if it has a summary; archived events, and events from before
+   * summaries that haven't been rebuilt, don't.
+   */
+  public Optional<EventSummary> getEventSummary(Long eventId) {
+    return eventSummaries.find(eventId);
+  }
+
+  /**
+   * The event's results: those frozen when it closed, or else worked out from its timeslots and
+   * votes as they stand.
+   */
+  public EventResults getResults(Event event) {
+    if (event.getResults() != null) {
+      return event.getResults();
+    }
+    return EventResults.of(getTimeslotsByEvent(event.getId()), getAvailabilityCounts(event.getId()),
+        getUserTimezoneOrDefault(event.getCreatorDiscordId()));
+  }
+
   @Transactional(readOnly = true)
-  public List<Event> getActiveEventsForChannel(String channelId) {
+  public List<Event> getActiveEventsForChannel(Long channelId) {
     return eventRepository.findActiveEventsByChannel(channelId);
   }
 
   @Transactional(readOnly = true)
-  public List<Event> getEventsByChannelAndStatus(String channelId, Event.EventStatus status) {
+  public List<Event> getEventsByChannelAndStatus(Long channelId, Event.EventStatus status) {
     return eventRepository.findByChannelIdAndStatus(channelId, status);
   }
 
+  /**
+   * A page of the channel's event list starting after {@code after}, or the first page if it is
+   * {@code null}. Each page costs at most one query per listed status plus a capped count, however
+   * much history the channel has.
+   */
   @Transactional(readOnly = true)
+  public EventListPage getEventListPage(Long channelId, EventListPage.Cursor after, int pageSize) {
+    // One extra row tells us whether there is a next page without counting
+    final int wanted = pageSize + 1;
+    final List<Event> events = new ArrayList<>(wanted);
+    final int firstRank = after == null ? 0 : after.rank();
+    for (int rank = firstRank; rank < EventListPage.LISTED.size() && events.size() < wanted; rank++) {
+      final Event.EventStatus status = EventListPage.LISTED.get(rank);
+      final PageRequest remaining = PageRequest.of(0, wanted - events.size());
+      events.addAll(after != null && rank == firstRank
+          ? eventRepository.findByChannelAndStatusAfter(channelId, status, after.createdAt(), after.id(), remaining)
+          : eventRepository.findByChannelIdAndStatusOrderByCreatedAtDescIdDesc(channelId, status, remaining));
+    }
+    final int offset = after == null ? 0 : after.offset();
+    EventListPage.Cursor next = null;
+    if (events.size() > pageSize) {
+      events.remove(pageSize);
+      next = EventListPage.Cursor.after(events.get(pageSize - 1), offset + pageSize);
+    }
+    final int total = eventRepository.countByChannelAndStatusesUpTo(channelId,
+        EventListPage.LISTED.stream().map(Enum::name).toList(), EventListPage.TOTAL_CAP);
+    final Map<Long, EventSummary> summaries = eventSummaries.findAll(events.stream().map(Event::getId).toList());
+    return new EventListPage(List.copyOf(events), offset, next, Math.max(total, offset + events.size()), summaries);
+  }
+
+  @Transactional(readOnly = true)
+  @ConnectionPool(Workload.BACKGROUND)
   public List<Event> findDueActiveEvents(LocalDateTime now) {
     return eventRepository.findDueActiveEvents(now);
   }
 
+  /**
+   * The user's votes on the event, from the primary if they have just voted.
+   */
   @Transactional(readOnly = true)
-  public List<Availability> getUserVotesForEvent(String userDiscordId, Long eventId) {
-    return availabilityRepository.findByEventAndUser(eventId, userDiscordId);
+  public List<Availability> getUserVotesForEvent(Long userDiscordId, Long eventId) {
+    return readYourWrites.callAs(userDiscordId, () -> availabilityRepository.findByEventAndUser(eventId, userDiscordId));
   }
 
+  /**
+   * Close the event, freezing its results onto it in the same transaction. Closing it again keeps
+   * the first results.
+   *
+   * @return the closed event, with its results
+   */
   @Transactional
-  public void closeEvent(Long eventId) {
+  public Event closeEvent(Long eventId) {
     Event event = eventRepository.findById(eventId)
         .orElseThrow(() -> new IllegalArgumentException("Event not found: " + eventId));
     event.setStatus(Event.EventStatus.CLOSED);
+    if (event.getClosedAt() == null) {
+      event.setClosedAt(LocalDateTime.now());
+    }
+    if (event.getResults() == null) {
+      // Read here rather than through the cache, and with the summary locked, so the results are
+      // the votes as of the close and any still in flight are applied after it
+      final List<Timeslot> timeslots = timeslotRepository.findTimeslotsByEventOrdered(eventId);
+      final Map<Long, Integer> counts = eventSummaries.lock(eventId).map(EventSummary::counts)
+          .orElseGet(() -> toTallies(timeslots, availabilityRepository.countAvailableByEvents(List.of(eventId))));
+      event.setResults(EventResults.of(timeslots, counts, getUserTimezoneOrDefault(event.getCreatorDiscordId())));
+    }
     eventRepository.save(event);
+    eventCache.evictEvent(eventId);
+    // Its results are rendered from the event from now on
+    eventCache.evictTallies(eventId);
+    return event;
   }
 
   @Transactional
@@ -247,22 +435,49 @@ public class HangoutService {
         .orElseThrow(() -> new IllegalArgumentException("Event not found: " + eventId));
     event.setDeadline(deadline);
     eventRepository.save(event);
+    eventCache.evictEvent(eventId);
   }
 
   @Transactional
-  public void updateUserTimezone(String userDiscordId, String timezone) {
+  public void updateUserTimezone(Long userDiscordId, String timezone) {
     User user = userRepository.findById(userDiscordId)
-        .orElseGet(() -> User.builder().discordId(userDiscordId).username(userDiscordId).build());
+        .orElseGet(() -> User.builder().discordId(userDiscordId).username(String.valueOf(userDiscordId)).build());
     user.setTimezone(timezone);
     userRepository.save(user);
+    eventCache.evictTimezone(userDiscordId);
+    readYourWrites.wrote(userDiscordId);
   }
 
-  @Transactional(readOnly = true)
-  public String getUserTimezoneOrDefault(String userDiscordId) {
-    return userRepository.findById(userDiscordId)
-        .map(User::getTimezone)
-        .filter(tz -> tz != null && !tz.isBlank())
-        .orElse("UTC");
+  public String getUserTimezoneOrDefault(Long userDiscordId) {
+    return eventCache.timezone(userDiscordId, () -> readYourWrites.callOnPrimary(
+        () -> userRepository.findById(userDiscordId)
+            .map(HangoutService::timezoneOrDefault)
+            .orElse("UTC")));
+  }
+
+  private static int available(Availability.AvailabilityStatus status) {
+    return status == Availability.AvailabilityStatus.AVAILABLE ? 1 : 0;
+  }
+
+  static String timezoneOrDefault(User user) {
+    final String tz = user.getTimezone();
+    return tz != null && !tz.isBlank() ? tz : "UTC";
+  }
+
+  /**
+   * Counts for the given timeslots, with zero for any timeslot that has no AVAILABLE votes.
+   */
+  static Map<Long, Integer> toTallies(List<Timeslot> timeslots, List<TimeslotTally> rows) {
+    final Map<Long, Integer> counts = new HashMap<>();
+    for (Timeslot timeslot : timeslots) {
+      counts.put(timeslot.getId(), 0);
+    }
+    for (TimeslotTally row : rows) {
+      if (counts.containsKey(row.getTimeslotId())) {
+        counts.put(row.getTimeslotId(), (int) row.getAvailable());
+      }
+    }
+    return counts;
   }
 
   public record TimeslotRequest(LocalDateTime startTime, LocalDateTime endTime, String description) {}
@@ -5,6 +5,9 @@ import discord4j.core.event.domain.interaction.ChatInputInteractionEvent;
 import org.springframework.stereotype.Component;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
+import uk.co.louiseconnell.hangout.discord.GuildScheduler;
+import uk.co.louiseconnell.hangout.discord.InFlightWork;
+import uk.co.louiseconnell.hangout.discord.InteractionAcks;
 import uk.co.louiseconnell.hangout.service.commands.slash.SlashCommand;
 
 import java.util.Collection;
@@ -15,10 +18,14 @@ public class SlashCommandListener {
 
   private final Collection<SlashCommand> commands;
 
-  public SlashCommandListener(List<SlashCommand> slashCommands, GatewayDiscordClient client) {
+  public SlashCommandListener(List<SlashCommand> slashCommands, GatewayDiscordClient client, InFlightWork inFlightWork,
+                              GuildScheduler guildScheduler, InteractionAcks interactionAcks) {
     commands = slashCommands;
 
-    client.on(ChatInputInteractionEvent.class, this::handle).subscribe();
+    client.on(ChatInputInteractionEvent.class, event -> inFlightWork.admit(() ->
+        interactionAcks.run(event, InteractionAcks.commandKey(event), () ->
+            guildScheduler.schedule("slash_command", event.getInteraction().getGuildId(), () -> handle(event),
+                () -> interactionAcks.replyBusy(event))))).subscribe();
   }
 
 
@@ -5,6 +5,7 @@ import discord4j.core.event.domain.message.MessageCreateEvent;
 import org.springframework.stereotype.Component;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
+import uk.co.louiseconnell.hangout.discord.InFlightWork;
 import uk.co.louiseconnell.hangout.service.commands.text.TextCommand;
 
 import java.util.Collection;
@@ -15,10 +16,10 @@ public class TextCommandListener {
 
   private final Collection<TextCommand> commands;
 
-  public TextCommandListener(List<TextCommand> textCommands, GatewayDiscordClient client) {
+  public TextCommandListener(List<TextCommand> textCommands, GatewayDiscordClient client, InFlightWork inFlightWork) {
     this.commands = textCommands;
 
-    client.on(MessageCreateEvent.class, this::handle).subscribe();
+    client.on(MessageCreateEvent.class, event -> inFlightWork.admit(() -> handle(event))).subscribe();
   }
 
   public Mono<Void> handle(MessageCreateEvent event) {
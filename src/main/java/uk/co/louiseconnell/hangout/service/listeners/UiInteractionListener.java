@@ -22,8 +22,13 @@ import discord4j.core.object.entity.channel.GuildMessageChannel;
 import discord4j.rest.util.Color;
 import discord4j.rest.util.Permission;
 import reactor.core.publisher.Mono;
+import uk.co.louiseconnell.hangout.discord.GuildScheduler;
+import uk.co.louiseconnell.hangout.discord.InFlightWork;
+import uk.co.louiseconnell.hangout.discord.InteractionAcks;
+import uk.co.louiseconnell.hangout.discord.MessageEditor;
 import uk.co.louiseconnell.hangout.entity.Event;
 import uk.co.louiseconnell.hangout.service.DiscordEmbedService;
+import uk.co.louiseconnell.hangout.service.EventListPage;
 import uk.co.louiseconnell.hangout.service.HangoutService;
 import uk.co.louiseconnell.hangout.util.TimezoneUtil;
 
@@ -31,19 +36,40 @@ import uk.co.louiseconnell.hangout.util.TimezoneUtil;
 @Slf4j
 public class UiInteractionListener {
 
+  private static final int LIST_PAGE_SIZE = 5;
+
   private final HangoutService hangoutService;
   private final DiscordEmbedService embedService;
   private final GatewayDiscordClient gateway;
+  private final MessageEditor messageEditor;
+  private final InFlightWork inFlightWork;
+  private final InteractionAcks interactionAcks;
 
   public UiInteractionListener(final HangoutService hangoutService,
       final DiscordEmbedService embedService,
-      final GatewayDiscordClient gateway) {
+      final GatewayDiscordClient gateway,
+      final MessageEditor messageEditor,
+      final InFlightWork inFlightWork,
+      final GuildScheduler guildScheduler,
+      final InteractionAcks interactionAcks) {
     this.hangoutService = hangoutService;
     this.embedService = embedService;
     this.gateway = gateway;
-    this.gateway.on(ButtonInteractionEvent.class, this::handleButton).subscribe();
-    this.gateway.on(SelectMenuInteractionEvent.class, this::handleSelectMenu).subscribe();
-    this.gateway.on(ModalSubmitInteractionEvent.class, this::handleModalSubmit).subscribe();
+    this.messageEditor = messageEditor;
+    this.inFlightWork = inFlightWork;
+    this.interactionAcks = interactionAcks;
+    this.gateway.on(ButtonInteractionEvent.class, event -> inFlightWork.admit(() ->
+        interactionAcks.run(event, InteractionAcks.componentKey("button", event.getCustomId()), () ->
+            guildScheduler.schedule("button", event.getInteraction().getGuildId(), () -> handleButton(event),
+                () -> interactionAcks.replyBusy(event))))).subscribe();
+    this.gateway.on(SelectMenuInteractionEvent.class, event -> inFlightWork.admit(() ->
+        interactionAcks.run(event, InteractionAcks.componentKey("select_menu", event.getCustomId()), () ->
+            guildScheduler.schedule("select_menu", event.getInteraction().getGuildId(), () -> handleSelectMenu(event),
+                () -> interactionAcks.replyBusy(event))))).subscribe();
+    this.gateway.on(ModalSubmitInteractionEvent.class, event -> inFlightWork.admit(() ->
+        interactionAcks.run(event, InteractionAcks.componentKey("modal_submit", event.getCustomId()), () ->
+            guildScheduler.schedule("modal_submit", event.getInteraction().getGuildId(), () -> handleModalSubmit(event),
+                () -> interactionAcks.replyBusy(event))))).subscribe();
   }
 
   private Mono<java.util.List<Permission>> getMissingPermissions(final Snowflake channelId, final java.util.List<Permission> required) {
@@ -74,7 +100,7 @@ public class UiInteractionListener {
     return "";
   }
 
-  private Mono<Void> handleButton(final ButtonInteractionEvent event) {
+  Mono<Void> handleButton(final ButtonInteractionEvent event) {
     final String customId = event.getCustomId();
     try {
       switch (customId) {
@@ -95,17 +121,16 @@ public class UiInteractionListener {
         }
       }
       if (customId.startsWith("hangout:list:page:")) {
-        final int offset = Integer.parseInt(customId.substring("hangout:list:page:".length()));
-        return renderListPage(event, offset);
+        return renderListPage(event, EventListPage.Cursor.decode(customId.substring("hangout:list:page:".length())));
       }
       if (customId.startsWith("hangout:evt:view:")) {
         final Long id = Long.parseLong(customId.substring("hangout:evt:view:".length()));
         final var evOpt = hangoutService.getEventById(id);
         if (evOpt.isEmpty()) {
-          return event.reply(InteractionApplicationCommandCallbackSpec.builder().content("Event not found.").ephemeral(true).build());
+          return interactionAcks.reply(event, InteractionApplicationCommandCallbackSpec.builder().content("Event not found.").ephemeral(true).build());
         }
         final var summary = embedService.createEventSummaryEmbed(evOpt.get());
-        return event.reply(InteractionApplicationCommandCallbackSpec.builder().addEmbed(summary).ephemeral(true).build());
+        return interactionAcks.reply(event, InteractionApplicationCommandCallbackSpec.builder().addEmbed(summary).ephemeral(true).build());
       }
       if (customId.startsWith("hangout:evt:propose:")) {
         final String id = customId.substring("hangout:evt:propose:".length());
@@ -116,7 +141,7 @@ public class UiInteractionListener {
             .addComponent(ActionRow.of(TextInput.small("end", "End (e.g., Fri 21:00)").required(true)))
             .addComponent(ActionRow.of(TextInput.paragraph("desc", "Note (optional)").required(false)))
             .build();
-        return event.presentModal(modal);
+        return interactionAcks.presentModal(event, modal);
       }
       if (customId.startsWith("hangout:evt:setdeadline:")) {
         final String id = customId.substring("hangout:evt:setdeadline:".length());
@@ -125,7 +150,7 @@ public class UiInteractionListener {
             .title("Set Deadline")
             .addComponent(ActionRow.of(TextInput.small("deadline", "Deadline (e.g., Sep 10 18:00)").required(true)))
             .build();
-        return event.presentModal(modal);
+        return interactionAcks.presentModal(event, modal);
       }
       if (customId.startsWith("hangout:evt:close:")) {
         final String id = customId.substring("hangout:evt:close:".length());
@@ -134,7 +159,7 @@ public class UiInteractionListener {
             .title("Close Event")
             .addComponent(ActionRow.of(TextInput.small("confirm", "Type CLOSE to confirm").required(true)))
             .build();
-        return event.presentModal(modal);
+        return interactionAcks.presentModal(event, modal);
       }
       if (customId.startsWith("hangout:evt:finalize:")) {
         final Long id = Long.parseLong(customId.substring("hangout:evt:finalize:".length()));
@@ -144,37 +169,35 @@ public class UiInteractionListener {
             final var embed = embedService.createHangoutEmbed(ev, hangoutService.getUserTimezoneOrDefault(ev.getCreatorDiscordId()));
             final var channelSnowflake = Snowflake.of(ev.getChannelId());
             final var messageSnowflake = Snowflake.of(ev.getMessageId());
+            final var pollMessage = messageEditor.handle(channelSnowflake, messageSnowflake);
             final List<Permission> required = java.util.List.of(Permission.VIEW_CHANNEL, Permission.READ_MESSAGE_HISTORY, Permission.ADD_REACTIONS);
             return getMissingPermissions(channelSnowflake, required)
                 .flatMap(missing -> {
                   if (!missing.isEmpty()) {
                     final String msg = "🎯 Draft finalized. Missing permissions to update message: " + formatMissing(missing);
-                    return event.reply(InteractionApplicationCommandCallbackSpec.builder().content(msg).ephemeral(true).build());
+                    return interactionAcks.reply(event, InteractionApplicationCommandCallbackSpec.builder().content(msg).ephemeral(true).build());
                   }
-                  return gateway.getMessageById(channelSnowflake, messageSnowflake)
-                      .flatMap(msg -> msg.edit(MessageEditSpec.builder()
+                  return pollMessage.edit(MessageEditSpec.builder()
                           .addEmbed(embed)
-                          .components(ActionRow.of(
+                          .addComponent(ActionRow.of(
                               discord4j.core.object.component.Button.secondary("hangout:evt:setdeadline:" + ev.getId(), "Set Deadline"),
                               discord4j.core.object.component.Button.danger("hangout:evt:close:" + ev.getId(), "Close")
                           ))
-                          .build()))
-                      .then(gateway.getMessageById(channelSnowflake, messageSnowflake)
-                          .flatMap(msg -> msg.addReaction(discord4j.core.object.reaction.ReactionEmoji.unicode("❓"))))
-                      .then(gateway.getMessageById(channelSnowflake, messageSnowflake)
-                          .flatMap(msg -> msg.addReaction(discord4j.core.object.reaction.ReactionEmoji.unicode("❌"))))
+                          .build())
+                      .then(pollMessage.addReaction("❓"))
+                      .then(pollMessage.addReaction("❌"))
                       .onErrorResume(err -> {
                         log.warn("Failed to update finalized event message {} in channel {}: {}", messageSnowflake.asString(), channelSnowflake.asString(), err.toString());
                         return reactor.core.publisher.Mono.empty();
                       });
                 });
           }
-          return event.reply(InteractionApplicationCommandCallbackSpec.builder()
+          return interactionAcks.reply(event, InteractionApplicationCommandCallbackSpec.builder()
               .content("🎯 Draft finalized. Event is now active.")
               .ephemeral(true)
               .build());
         } catch (final Exception ex) {
-          return event.reply(InteractionApplicationCommandCallbackSpec.builder()
+          return interactionAcks.reply(event, InteractionApplicationCommandCallbackSpec.builder()
               .content("❌ Failed to finalize draft: " + ex.getMessage())
               .ephemeral(true)
               .build());
@@ -182,42 +205,36 @@ public class UiInteractionListener {
       }
       return Mono.empty();
     } catch (final Exception ex) {
-      return event.reply(InteractionApplicationCommandCallbackSpec.builder()
+      return interactionAcks.reply(event, InteractionApplicationCommandCallbackSpec.builder()
           .content("❌ Error: " + ex.getMessage())
           .ephemeral(true)
           .build());
     }
   }
 
-  private Mono<Void> renderListPage(final ButtonInteractionEvent event, final int offset) {
-    final String channelId = event.getInteraction().getChannelId().asString();
-    final String viewerTz = hangoutService.getUserTimezoneOrDefault(event.getInteraction().getUser().getId().asString());
+  private Mono<Void> renderListPage(final ButtonInteractionEvent event, final EventListPage.Cursor after) {
+    final long channelId = event.getInteraction().getChannelId().asLong();
+    final String viewerTz = hangoutService.getUserTimezoneOrDefault(event.getInteraction().getUser().getId().asLong());
     final var viewerZone = java.time.ZoneId.of(viewerTz);
-    final List<Event> active = hangoutService.getActiveEventsForChannel(channelId);
-    final List<Event> drafts = hangoutService.getEventsByChannelAndStatus(channelId, Event.EventStatus.DRAFT);
-    final List<Event> closedAll = hangoutService.getEventsByChannelAndStatus(channelId, Event.EventStatus.CLOSED);
-    final List<Event> all = new java.util.ArrayList<>();
-    all.addAll(drafts);
-    all.addAll(active);
-    all.addAll(closedAll);
-    if (all.isEmpty()) {
-      return event.reply(InteractionApplicationCommandCallbackSpec.builder()
+    final EventListPage page = hangoutService.getEventListPage(channelId, after, LIST_PAGE_SIZE);
+    if (page.events().isEmpty()) {
+      return interactionAcks.reply(event, InteractionApplicationCommandCallbackSpec.builder()
           .content("No hangout events found in this channel.")
           .ephemeral(true)
           .build());
     }
-    final int pageSize = 5;
-    final int end = Math.min(offset + pageSize, all.size());
-    final List<Event> items = all.subList(offset, end);
+    final List<Event> items = page.events();
+    final int end = page.offset() + items.size();
     final var guildIdOpt = event.getInteraction().getGuildId().map(s -> s.asString());
 
     final EmbedCreateSpec.Builder embed = EmbedCreateSpec.builder()
         .title("Hangout Events")
         .color(Color.BLUE)
-        .description("Events " + (offset + 1) + "–" + end + " of " + all.size());
+        .description("Events " + (page.offset() + 1) + "–" + end + " of " + page.total() + (page.isTotalCapped() ? "+" : ""));
     final java.util.List<discord4j.core.object.component.LayoutComponent> rows = new java.util.ArrayList<>();
     for (Event ev : items) {
-      final String status = ev.getStatus().name();
+      final String status = ev.getStatus().name()
+          + page.summary(ev).map(summary -> " | " + summary.getVoterCount() + " voted").orElse("");
       final String deadlineStr = ev.getDeadline() != null ? (" | deadline: " + TimezoneUtil.formatForDiscord(ev.getDeadline(), viewerZone)) : "";
       final String url = (ev.getMessageId() != null && guildIdOpt.isPresent())
           ? (" | " + "https://discord.com/channels/" + guildIdOpt.get() + "/" + ev.getChannelId() + "/" + ev.getMessageId())
@@ -237,10 +254,10 @@ public class UiInteractionListener {
       }
       rows.add(ActionRow.of(buttons));
     }
-    if (end < all.size()) {
-      rows.add(ActionRow.of(discord4j.core.object.component.Button.primary("hangout:list:page:" + end, "Load More")));
+    if (page.next() != null) {
+      rows.add(ActionRow.of(discord4j.core.object.component.Button.primary("hangout:list:page:" + page.next().encode(), "Load More")));
     }
-    return event.reply(InteractionApplicationCommandCallbackSpec.builder()
+    return interactionAcks.reply(event, InteractionApplicationCommandCallbackSpec.builder()
         .addEmbed(embed.build())
         .components(rows.toArray(new discord4j.core.object.component.LayoutComponent[0]))
         .ephemeral(true)
@@ -254,7 +271,7 @@ public class UiInteractionListener {
     }
     final var selected = event.getValues();
     if (selected.isEmpty()) {
-      return event.reply(InteractionApplicationCommandCallbackSpec.builder()
+      return interactionAcks.reply(event, InteractionApplicationCommandCallbackSpec.builder()
           .content("Please select a draft event.")
           .ephemeral(true)
           .build());
@@ -269,7 +286,7 @@ public class UiInteractionListener {
         .addComponent(ActionRow.of(TextInput.small("end", "End (YYYY-MM-DD HH:MM)").required(true)))
         .addComponent(ActionRow.of(TextInput.paragraph("desc", "Note (optional)").required(false)))
         .build();
-    return event.presentModal(modal);
+    return interactionAcks.presentModal(event, modal);
   }
 
   /**
@@ -292,18 +309,18 @@ public class UiInteractionListener {
         }
 
         if (startStr.isBlank() || endStr.isBlank()) {
-          return event.reply(InteractionApplicationCommandCallbackSpec.builder()
+          return interactionAcks.reply(event, InteractionApplicationCommandCallbackSpec.builder()
               .content("Start and end are required.")
               .ephemeral(true)
               .build());
         }
 
-        final String userTz = hangoutService.getUserTimezoneOrDefault(event.getInteraction().getUser().getId().asString());
+        final String userTz = hangoutService.getUserTimezoneOrDefault(event.getInteraction().getUser().getId().asLong());
         final java.time.ZoneId zone = java.time.ZoneId.of(userTz);
         final java.time.LocalDateTime start = uk.co.louiseconnell.hangout.util.DateTimeParser.parseToUtc(startStr, zone);
         final java.time.LocalDateTime end = uk.co.louiseconnell.hangout.util.DateTimeParser.parseToUtc(endStr, zone);
         if (end.isBefore(start)) {
-          return event.reply(InteractionApplicationCommandCallbackSpec.builder()
+          return interactionAcks.reply(event, InteractionApplicationCommandCallbackSpec.builder()
               .content("End time must be after start time.")
               .ephemeral(true)
               .build());
@@ -318,24 +335,23 @@ public class UiInteractionListener {
           final var embed = embedService.createHangoutEmbed(ev, hangoutService.getUserTimezoneOrDefault(ev.getCreatorDiscordId()));
           final var channelSnowflake = Snowflake.of(ev.getChannelId());
           final var messageSnowflake = Snowflake.of(ev.getMessageId());
-          return gateway.getMessageById(channelSnowflake, messageSnowflake)
-              .flatMap(msg -> msg.edit(MessageEditSpec.builder().addEmbed(embed).build()))
-              .then(gateway.getMessageById(channelSnowflake, messageSnowflake)
-                  .flatMap(msg -> msg.addReaction(discord4j.core.object.reaction.ReactionEmoji.unicode(timeslot.getEmoji()))))
-              .then(event.reply(InteractionApplicationCommandCallbackSpec.builder()
+          final var pollMessage = messageEditor.handle(channelSnowflake, messageSnowflake);
+          return pollMessage.edit(MessageEditSpec.builder().addEmbed(embed).build())
+              .then(pollMessage.addReaction(timeslot.getEmoji()))
+              .then(interactionAcks.reply(event, InteractionApplicationCommandCallbackSpec.builder()
                   .content("✅ Proposed timeslot added to draft " + eventId + ".")
                   .ephemeral(true)
                   .build()))
               .onErrorResume(err -> {
                 log.warn("Failed to update draft message {} in channel {}: {}", messageSnowflake.asString(), channelSnowflake.asString(), err.toString());
-                return event.reply(InteractionApplicationCommandCallbackSpec.builder()
+                return interactionAcks.reply(event, InteractionApplicationCommandCallbackSpec.builder()
                     .content("✅ Proposed timeslot added to draft " + eventId + ". (Couldn’t update message; check bot permissions)")
                     .ephemeral(true)
                     .build());
               });
         }
 
-        return event.reply(InteractionApplicationCommandCallbackSpec.builder()
+        return interactionAcks.reply(event, InteractionApplicationCommandCallbackSpec.builder()
             .content("✅ Proposed timeslot added to draft " + eventId + ".")
             .ephemeral(true)
             .build());
@@ -352,44 +368,43 @@ public class UiInteractionListener {
         final String endStr = getModalValue(event, "time1_end");
 
         if (title.isBlank() || startStr.isBlank() || endStr.isBlank()) {
-          return event.reply(InteractionApplicationCommandCallbackSpec.builder()
+          return interactionAcks.reply(event, InteractionApplicationCommandCallbackSpec.builder()
               .content("Title, start and end are required.")
               .ephemeral(true)
               .build());
         }
 
-        final String userTz = hangoutService.getUserTimezoneOrDefault(event.getInteraction().getUser().getId().asString());
+        final String userTz = hangoutService.getUserTimezoneOrDefault(event.getInteraction().getUser().getId().asLong());
         final java.time.ZoneId zone = java.time.ZoneId.of(userTz);
         final java.time.LocalDateTime start = uk.co.louiseconnell.hangout.util.DateTimeParser.parseToUtc(startStr, zone);
         final java.time.LocalDateTime end = uk.co.louiseconnell.hangout.util.DateTimeParser.parseToUtc(endStr, zone);
         if (end.isBefore(start)) {
-          return event.reply(InteractionApplicationCommandCallbackSpec.builder()
+          return interactionAcks.reply(event, InteractionApplicationCommandCallbackSpec.builder()
               .content("End time must be after start time.")
               .ephemeral(true)
               .build());
         }
 
-        final String creatorId = event.getInteraction().getUser().getId().asString();
-        final String channelId = event.getInteraction().getChannelId().asString();
+        final long creatorId = event.getInteraction().getUser().getId().asLong();
+        final long channelId = event.getInteraction().getChannelId().asLong();
         final java.util.List<uk.co.louiseconnell.hangout.service.HangoutService.TimeslotRequest> slots = java.util.List.of(
             new uk.co.louiseconnell.hangout.service.HangoutService.TimeslotRequest(start, end, null));
         final var hangoutEvent = hangoutService.createHangoutEvent(title, description, creatorId, channelId, null, slots);
         final String tz = hangoutService.getUserTimezoneOrDefault(creatorId);
         final var embed = embedService.createHangoutEmbed(hangoutEvent, tz);
 
-        return event.reply(InteractionApplicationCommandCallbackSpec.builder()
+        return interactionAcks.replyWithMessage(event, InteractionApplicationCommandCallbackSpec.builder()
             .addEmbed(embed)
             .build())
-            .then(event.getReply())
             .flatMap(message -> {
-              hangoutService.updateEventMessageId(hangoutEvent.getId(), message.getId().asString());
+              hangoutService.updateEventMessageId(hangoutEvent.getId(), message.getId().asLong());
               final java.util.List<reactor.core.publisher.Mono<Void>> reactions = new java.util.ArrayList<>();
               final java.util.List<uk.co.louiseconnell.hangout.entity.Timeslot> eventTimeslots = hangoutService.getTimeslotsByEvent(hangoutEvent.getId());
               for (uk.co.louiseconnell.hangout.entity.Timeslot t : eventTimeslots) {
-                reactions.add(message.addReaction(discord4j.core.object.reaction.ReactionEmoji.unicode(t.getEmoji())));
+                reactions.add(message.addReaction(discord4j.core.object.emoji.Emoji.unicode(t.getEmoji())));
               }
-              reactions.add(message.addReaction(discord4j.core.object.reaction.ReactionEmoji.unicode("❓")));
-              reactions.add(message.addReaction(discord4j.core.object.reaction.ReactionEmoji.unicode("❌")));
+              reactions.add(message.addReaction(discord4j.core.object.emoji.Emoji.unicode("❓")));
+              reactions.add(message.addReaction(discord4j.core.object.emoji.Emoji.unicode("❌")));
               return reactor.core.publisher.Mono.when(reactions);
             });
       } else if (customId.equals("hangout:modal:create-draft")) {
@@ -401,32 +416,31 @@ public class UiInteractionListener {
         if (description != null && description.isBlank()) {
           description = null;
         }
-        final String creatorId = event.getInteraction().getUser().getId().asString();
-        final String channelId = event.getInteraction().getChannelId().asString();
+        final long creatorId = event.getInteraction().getUser().getId().asLong();
+        final long channelId = event.getInteraction().getChannelId().asLong();
         final var draft = hangoutService.createDraftEvent(title, description, creatorId, channelId);
 
         final String tz = hangoutService.getUserTimezoneOrDefault(creatorId);
         final var embed = embedService.createHangoutEmbed(draft, tz);
-        return event.reply(InteractionApplicationCommandCallbackSpec.builder()
+        return interactionAcks.replyWithMessage(event, InteractionApplicationCommandCallbackSpec.builder()
             .addEmbed(embed)
             .components(java.util.List.of(ActionRow.of(
                 discord4j.core.object.component.Button.success("hangout:evt:propose:" + draft.getId(), "Propose Time"),
                 discord4j.core.object.component.Button.primary("hangout:evt:finalize:" + draft.getId(), "Finalize"))))
             .build())
-            .then(event.getReply())
             .flatMap(message -> {
-              hangoutService.updateEventMessageId(draft.getId(), message.getId().asString());
+              hangoutService.updateEventMessageId(draft.getId(), message.getId().asLong());
               return Mono.empty();
             });
       } else if (customId.startsWith("hangout:modal:set-deadline:")) {
         final Long eventId = Long.parseLong(customId.substring("hangout:modal:set-deadline:".length()));
         final String input = getModalValue(event, "deadline");
-        final String userTz = hangoutService.getUserTimezoneOrDefault(event.getInteraction().getUser().getId().asString());
+        final String userTz = hangoutService.getUserTimezoneOrDefault(event.getInteraction().getUser().getId().asLong());
         final java.time.ZoneId zone = java.time.ZoneId.of(userTz);
         final java.time.LocalDateTime deadline = uk.co.louiseconnell.hangout.util.DateTimeParser.parseToUtc(input, zone);
 
         if (deadline.isBefore(java.time.LocalDateTime.now())) {
-          return event.reply(InteractionApplicationCommandCallbackSpec.builder()
+          return interactionAcks.reply(event, InteractionApplicationCommandCallbackSpec.builder()
               .content("Deadline must be in the future.")
               .ephemeral(true)
               .build());
@@ -436,7 +450,7 @@ public class UiInteractionListener {
         if (!slots.isEmpty()) {
           final var latestEnd = slots.stream().map(uk.co.louiseconnell.hangout.entity.Timeslot::getEndTime).max(java.time.LocalDateTime::compareTo).get();
           if (deadline.isBefore(latestEnd)) {
-            return event.reply(InteractionApplicationCommandCallbackSpec.builder()
+            return interactionAcks.reply(event, InteractionApplicationCommandCallbackSpec.builder()
                 .content("Deadline must be after the latest timeslot end.")
                 .ephemeral(true)
                 .build());
@@ -451,15 +465,13 @@ public class UiInteractionListener {
           final var embed = embedService.createHangoutEmbed(ev, hangoutService.getUserTimezoneOrDefault(ev.getCreatorDiscordId()));
           final var channelSnowflake = Snowflake.of(ev.getChannelId());
           final var messageSnowflake = Snowflake.of(ev.getMessageId());
-          gateway.getMessageById(channelSnowflake, messageSnowflake)
-              .flatMap(msg -> msg.edit(MessageEditSpec.builder().addEmbed(embed).build()))
+          inFlightWork.submit(messageEditor.edit(channelSnowflake, messageSnowflake, MessageEditSpec.builder().addEmbed(embed).build())
               .onErrorResume(err -> {
                 log.warn("Failed to edit message {} in channel {} after deadline update: {}", messageSnowflake.asString(), channelSnowflake.asString(), err.toString());
                 return reactor.core.publisher.Mono.empty();
-              })
-              .subscribe();
+              }), "deadline update for event " + eventId);
         }
-        return event.reply(InteractionApplicationCommandCallbackSpec.builder()
+        return interactionAcks.reply(event, InteractionApplicationCommandCallbackSpec.builder()
             .content("✅ Deadline updated.")
             .ephemeral(true)
             .build());
@@ -467,7 +479,7 @@ public class UiInteractionListener {
         final Long eventId = Long.parseLong(customId.substring("hangout:modal:close:".length()));
         final String confirm = getModalValue(event, "confirm");
         if (!"CLOSE".equalsIgnoreCase(confirm.trim())) {
-          return event.reply(InteractionApplicationCommandCallbackSpec.builder()
+          return interactionAcks.reply(event, InteractionApplicationCommandCallbackSpec.builder()
               .content("Type CLOSE to confirm.")
               .ephemeral(true)
               .build());
@@ -479,25 +491,23 @@ public class UiInteractionListener {
           final var summary = embedService.createEventSummaryEmbed(ev);
           final var channelSnowflake = Snowflake.of(ev.getChannelId());
           final var messageSnowflake = Snowflake.of(ev.getMessageId());
-          gateway.getMessageById(channelSnowflake, messageSnowflake)
-              .flatMap(msg -> msg.edit(MessageEditSpec.builder()
+          inFlightWork.submit(messageEditor.edit(channelSnowflake, messageSnowflake, MessageEditSpec.builder()
                   .addEmbed(summary)
-                  .components()
-                  .build()))
+                  .components(java.util.List.of())
+                  .build())
               .onErrorResume(err -> {
                 log.warn("Failed to edit message {} in channel {} after close: {}", messageSnowflake.asString(), channelSnowflake.asString(), err.toString());
                 return reactor.core.publisher.Mono.empty();
-              })
-              .subscribe();
+              }), "close event " + eventId);
         }
-        return event.reply(InteractionApplicationCommandCallbackSpec.builder()
+        return interactionAcks.reply(event, InteractionApplicationCommandCallbackSpec.builder()
             .content("🔒 Event closed.")
             .ephemeral(true)
             .build());
       }
       return Mono.empty();
     } catch (final Exception ex) {
-      return event.reply(InteractionApplicationCommandCallbackSpec.builder()
+      return interactionAcks.reply(event, InteractionApplicationCommandCallbackSpec.builder()
           .content("❌ Failed to handle modal: " + ex.getMessage())
           .ephemeral(true)
           .build());
@@ -513,7 +523,7 @@ public class UiInteractionListener {
         .addComponent(ActionRow.of(TextInput.small("time1_start", "Start (YYYY-MM-DD HH:MM)").required(true)))
         .addComponent(ActionRow.of(TextInput.small("time1_end", "End (YYYY-MM-DD HH:MM)").required(true)))
         .build();
-    return event.presentModal(modal);
+    return interactionAcks.presentModal(event, modal);
   }
 
   private Mono<Void> onCreateDraft(final ButtonInteractionEvent event) {
@@ -523,71 +533,18 @@ public class UiInteractionListener {
         .addComponent(ActionRow.of(TextInput.small("title", "Title").required(true)))
         .addComponent(ActionRow.of(TextInput.paragraph("description", "Description (optional)").required(false)))
         .build();
-    return event.presentModal(modal);
+    return interactionAcks.presentModal(event, modal);
   }
 
   private Mono<Void> onList(final ButtonInteractionEvent event) {
-    final String channelId = event.getInteraction().getChannelId().asString();
-    final String viewerTz = hangoutService.getUserTimezoneOrDefault(event.getInteraction().getUser().getId().asString());
-    final var viewerZone = java.time.ZoneId.of(viewerTz);
-    final List<Event> active = hangoutService.getActiveEventsForChannel(channelId);
-    final List<Event> drafts = hangoutService.getEventsByChannelAndStatus(channelId, Event.EventStatus.DRAFT);
-    final List<Event> closedAll = hangoutService.getEventsByChannelAndStatus(channelId, Event.EventStatus.CLOSED);
-    final List<Event> closed = closedAll.size() > 5 ? closedAll.subList(0, 5) : closedAll;
-
-    if (active.isEmpty() && drafts.isEmpty() && closed.isEmpty()) {
-      return event.reply(InteractionApplicationCommandCallbackSpec.builder()
-          .content("No hangout events found in this channel.")
-          .ephemeral(true)
-          .build());
-    }
-
-    // Build a compact embed with up to 5 entries and per-item action buttons
-    final var guildIdOpt = event.getInteraction().getGuildId().map(s -> s.asString());
-    final List<Event> items = new java.util.ArrayList<>();
-    items.addAll(drafts);
-    items.addAll(active);
-    if (items.size() > 5) {
-      items.subList(5, items.size()).clear();
-    }
-
-    final EmbedCreateSpec.Builder embed = EmbedCreateSpec.builder()
-        .title("Hangout Events")
-        .color(Color.BLUE)
-        .description("Select an action below each listed event. Showing up to 5.");
-
-    final java.util.List<discord4j.core.object.component.LayoutComponent> rows = new java.util.ArrayList<>();
-    for (Event ev : items) {
-      final String status = ev.getStatus().name();
-      final String deadlineStr = ev.getDeadline() != null ? (" | deadline: " + TimezoneUtil.formatForDiscord(ev.getDeadline(), viewerZone)) : "";
-      final String url = (ev.getMessageId() != null && guildIdOpt.isPresent())
-          ? (" | " + "https://discord.com/channels/" + guildIdOpt.get() + "/" + ev.getChannelId() + "/" + ev.getMessageId())
-          : "";
-      embed.addField(ev.getTitle() + " (#" + ev.getId() + ")",
-          status + deadlineStr + url,
-          false);
-
-      final List<discord4j.core.object.component.Button> buttons = new java.util.ArrayList<>();
-      buttons.add(discord4j.core.object.component.Button.secondary("hangout:evt:view:" + ev.getId(), "View"));
-      if (ev.getStatus() == Event.EventStatus.DRAFT) {
-        buttons.add(discord4j.core.object.component.Button.success("hangout:evt:propose:" + ev.getId(), "Propose"));
-        buttons.add(discord4j.core.object.component.Button.primary("hangout:evt:finalize:" + ev.getId(), "Finalize"));
-      }
-      rows.add(ActionRow.of(buttons));
-    }
-
-    return event.reply(InteractionApplicationCommandCallbackSpec.builder()
-        .addEmbed(embed.build())
-        .components(rows.toArray(new discord4j.core.object.component.LayoutComponent[0]))
-        .ephemeral(true)
-        .build());
+    return renderListPage(event, null);
   }
 
   private Mono<Void> onPropose(final ButtonInteractionEvent event) {
-    final String channelId = event.getInteraction().getChannelId().asString();
+    final long channelId = event.getInteraction().getChannelId().asLong();
     final List<Event> drafts = hangoutService.getEventsByChannelAndStatus(channelId, Event.EventStatus.DRAFT);
     if (drafts.isEmpty()) {
-      return event.reply(InteractionApplicationCommandCallbackSpec.builder()
+      return interactionAcks.reply(event, InteractionApplicationCommandCallbackSpec.builder()
           .content("No draft events here. Use /hangout draft_create to start one.")
           .ephemeral(true)
           .build());
@@ -598,7 +555,7 @@ public class UiInteractionListener {
         .map(ev -> SelectMenu.Option.of(ev.getTitle() + " (" + ev.getId() + ")", String.valueOf(ev.getId())))
         .toList();
 
-    return event.reply(InteractionApplicationCommandCallbackSpec.builder()
+    return interactionAcks.reply(event, InteractionApplicationCommandCallbackSpec.builder()
         .content("Pick a draft to propose a time for:")
         .components(ActionRow.of(SelectMenu.of("hangout:select:draft", options)))
         .ephemeral(true)
@@ -0,0 +1,103 @@
+package uk.co.louiseconnell.hangout.datasource;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.junit.jupiter.api.Test;
+import org.springframework.aop.aspectj.annotation.AspectJProxyFactory;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.util.Map;
+import javax.sql.DataSource;
+
+class BulkheadDataSourceTest {
+
+  @Test
+  void shouldUseInteractivePool_UnlessBackground() throws SQLException {
+    final Connection interactiveConnection = mock(Connection.class);
+    final Connection backgroundConnection = mock(Connection.class);
+    final DataSource interactive = mock(DataSource.class);
+    final DataSource background = mock(DataSource.class);
+    when(interactive.getConnection()).thenReturn(interactiveConnection);
+    when(background.getConnection()).thenReturn(backgroundConnection);
+    final BulkheadDataSource bulkheads = new BulkheadDataSource(
+        Map.of(Workload.INTERACTIVE, interactive, Workload.BACKGROUND, background));
+
+    assertSame(interactiveConnection, bulkheads.getConnection());
+    assertSame(backgroundConnection, Workload.BACKGROUND.call(() -> connection(bulkheads)));
+    assertSame(interactiveConnection, bulkheads.getConnection());
+  }
+
+  @Test
+  void shouldSetWorkload_WhenMethodAnnotated() {
+    final AspectJProxyFactory factory = new AspectJProxyFactory(new Job());
+    factory.addAspect(new ConnectionPoolAspect());
+    final Job job = factory.getProxy();
+
+    assertEquals(Workload.BACKGROUND, job.run());
+    assertEquals(Workload.INTERACTIVE, job.reply());
+    assertEquals(Workload.INTERACTIVE, Workload.current());
+  }
+
+  @Test
+  void shouldKeepInteractiveConnections_WhenBackgroundPoolExhausted() throws Exception {
+    try (BulkheadDataSource bulkheads = new BulkheadDataSource(Map.of(
+        Workload.INTERACTIVE, pool("interactive", 2, 5_000),
+        Workload.BACKGROUND, pool("background", 1, 250)))) {
+      try (Connection held = Workload.BACKGROUND.call(() -> connection(bulkheads))) {
+        final IllegalStateException exhausted = assertThrows(IllegalStateException.class,
+            () -> Workload.BACKGROUND.call(() -> connection(bulkheads)));
+        assertInstanceOf(SQLTransientConnectionException.class, exhausted.getCause());
+
+        try (Connection vote = bulkheads.getConnection()) {
+          assertTrue(vote.isValid(1));
+        }
+      }
+    }
+  }
+
+  @Test
+  void shouldReject_WhenWorkloadHasNoPool() {
+    assertThrows(IllegalArgumentException.class,
+        () -> new BulkheadDataSource(Map.of(Workload.INTERACTIVE, mock(DataSource.class))));
+  }
+
+  @ConnectionPool(Workload.BACKGROUND)
+  static class Job {
+
+    public Workload run() {
+      return Workload.current();
+    }
+
+    @ConnectionPool(Workload.INTERACTIVE)
+    public Workload reply() {
+      return Workload.current();
+    }
+  }
+
+  private static HikariDataSource pool(final String name, final int size, final long timeoutMillis) {
+    final HikariDataSource pool = new HikariDataSource();
+    pool.setPoolName(name);
+    pool.setJdbcUrl("jdbc:h2:mem:bulkheads;DB_CLOSE_DELAY=-1");
+    pool.setMaximumPoolSize(size);
+    pool.setConnectionTimeout(timeoutMillis);
+    return pool;
+  }
+
+  /** Checked exceptions wrapped, so a pool timeout keeps its SQL exception as the cause. */
+  private static Connection connection(final DataSource dataSource) {
+    try {
+      return dataSource.getConnection();
+    } catch (SQLException e) {
+      throw new IllegalStateException(e);
+    }
+  }
+}
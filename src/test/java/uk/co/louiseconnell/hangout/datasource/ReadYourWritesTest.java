@@ -0,0 +1,90 @@
+package uk.co.louiseconnell.hangout.datasource;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+class ReadYourWritesTest {
+
+  private static final long SECOND = 1_000_000_000L;
+
+  private AtomicLong clock;
+  private ReadYourWrites readYourWrites;
+
+  @BeforeEach
+  void setUp() {
+    clock = new AtomicLong(42 * SECOND);
+    readYourWrites = new ReadYourWrites(true, Duration.ofSeconds(5), clock::get);
+  }
+
+  @AfterEach
+  void tearDown() {
+    if (TransactionSynchronizationManager.isSynchronizationActive()) {
+      TransactionSynchronizationManager.clearSynchronization();
+    }
+  }
+
+  @Test
+  void shouldPinUserToPrimary_UntilWindowCloses() {
+    readYourWrites.wrote(1L);
+
+    assertTrue(readYourWrites.callAs(1L, readYourWrites::isPinnedToPrimary));
+    assertFalse(readYourWrites.callAs(2L, readYourWrites::isPinnedToPrimary));
+
+    clock.addAndGet(5 * SECOND);
+
+    assertFalse(readYourWrites.callAs(1L, readYourWrites::isPinnedToPrimary));
+  }
+
+  @Test
+  void shouldStartWindow_WhenTransactionCommits() {
+    TransactionSynchronizationManager.initSynchronization();
+    readYourWrites.wrote(1L);
+
+    assertFalse(readYourWrites.isSticky(1L));
+
+    TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+
+    assertTrue(readYourWrites.isSticky(1L));
+  }
+
+  @Test
+  void shouldRestorePreviousPin_WhenCallReturns() {
+    readYourWrites.wrote(1L);
+
+    readYourWrites.callAs(1L, () -> {
+      // A nested read for another user stays on the primary with the outer one
+      assertTrue(readYourWrites.callAs(2L, readYourWrites::isPinnedToPrimary));
+      return null;
+    });
+
+    assertFalse(readYourWrites.isPinnedToPrimary());
+  }
+
+  @Test
+  void shouldPinToPrimary_WhenLoadingCache() {
+    assertTrue(readYourWrites.callOnPrimary(readYourWrites::isPinnedToPrimary));
+    assertTrue(readYourWrites.callOnPrimary(() -> readYourWrites.callAs(2L, readYourWrites::isPinnedToPrimary)));
+
+    assertFalse(readYourWrites.isPinnedToPrimary());
+  }
+
+  @Test
+  void shouldDoNothing_WhenNoReplica() {
+    final ReadYourWrites disabled = new ReadYourWrites(false, Duration.ofSeconds(5), clock::get);
+
+    disabled.wrote(1L);
+
+    assertFalse(disabled.isSticky(1L));
+    assertFalse(disabled.callAs(1L, disabled::isPinnedToPrimary));
+    assertFalse(disabled.callOnPrimary(disabled::isPinnedToPrimary));
+  }
+}
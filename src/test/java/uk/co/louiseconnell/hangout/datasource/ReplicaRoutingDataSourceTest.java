@@ -0,0 +1,125 @@
+package uk.co.louiseconnell.hangout.datasource;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+import javax.sql.DataSource;
+
+class ReplicaRoutingDataSourceTest {
+
+  private final Connection primaryConnection = mock(Connection.class);
+  private final Connection replicaConnection = mock(Connection.class);
+  private final DataSource primary = mock(DataSource.class);
+  private final DataSource replica = mock(DataSource.class);
+  private final JdbcTemplate replicaJdbc = mock(JdbcTemplate.class);
+  private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+  private ReplicaLagMonitor lagMonitor;
+  private ReadYourWrites readYourWrites;
+  private ReplicaRoutingDataSource routing;
+
+  @BeforeEach
+  void setUp() throws SQLException {
+    when(primary.getConnection()).thenReturn(primaryConnection);
+    when(replica.getConnection()).thenReturn(replicaConnection);
+    lagMonitor = new ReplicaLagMonitor(replicaJdbc, Duration.ofSeconds(5));
+    readYourWrites = new ReadYourWrites(true, Duration.ofSeconds(5), System::nanoTime);
+    routing = new ReplicaRoutingDataSource(primary, replica, lagMonitor, readYourWrites, registry);
+    replicaLag(0.2);
+  }
+
+  @AfterEach
+  void tearDown() {
+    TransactionSynchronizationManager.setCurrentTransactionReadOnly(false);
+  }
+
+  @Test
+  void shouldUsePrimary_WhenNotReadOnly() throws SQLException {
+    assertSame(primaryConnection, routing.getConnection());
+  }
+
+  @Test
+  void shouldUseReplica_WhenReadOnlyAndCaughtUp() throws SQLException {
+    TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+
+    assertSame(replicaConnection, routing.getConnection());
+    assertEquals(1, reads("replica"));
+  }
+
+  @Test
+  void shouldUsePrimary_WhenReplicaLagging() throws SQLException {
+    TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+    replicaLag(7.5);
+
+    assertSame(primaryConnection, routing.getConnection());
+    assertEquals(7.5, lagMonitor.getLagSeconds());
+    assertEquals(1, reads("lagging"));
+
+    replicaLag(1.0);
+
+    assertSame(replicaConnection, routing.getConnection());
+  }
+
+  @Test
+  void shouldUsePrimary_WhenLagCheckFails() throws SQLException {
+    TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+    when(replicaJdbc.queryForObject(ReplicaLagMonitor.LAG_SQL, Double.class)).thenThrow(new QueryTimeoutException("timeout"));
+    lagMonitor.check();
+
+    assertSame(primaryConnection, routing.getConnection());
+    assertTrue(Double.isNaN(lagMonitor.getLagSeconds()));
+  }
+
+  @Test
+  void shouldFallBackToPrimary_WhenReplicaConnectionFails() throws SQLException {
+    TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+    when(replica.getConnection()).thenThrow(new SQLException("Connection refused"));
+
+    assertSame(primaryConnection, routing.getConnection());
+    assertFalse(lagMonitor.isUsable());
+    assertEquals(1, reads("replica-error"));
+  }
+
+  @Test
+  void shouldUsePrimary_WhenUserJustVoted() throws SQLException {
+    TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+    readYourWrites.wrote(1L);
+
+    assertSame(primaryConnection, readYourWrites.callAs(1L, this::connection));
+    assertSame(replicaConnection, readYourWrites.callAs(2L, this::connection));
+    assertEquals(1, reads("read-your-writes"));
+  }
+
+  private void replicaLag(final double seconds) {
+    when(replicaJdbc.queryForObject(eq(ReplicaLagMonitor.LAG_SQL), eq(Double.class))).thenReturn(seconds);
+    lagMonitor.check();
+  }
+
+  private Connection connection() {
+    try {
+      return routing.getConnection();
+    } catch (SQLException e) {
+      throw new IllegalStateException(e);
+    }
+  }
+
+  private double reads(final String reason) {
+    return registry.get("hangout.datasource.reads").tag("reason", reason).counter().count();
+  }
+}
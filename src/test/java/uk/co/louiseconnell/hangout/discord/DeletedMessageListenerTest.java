@@ -0,0 +1,65 @@
+package uk.co.louiseconnell.hangout.discord;
+
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Optional;
+
+import discord4j.common.util.Snowflake;
+import discord4j.core.event.domain.message.MessageDeleteEvent;
+import discord4j.rest.RestClient;
+import uk.co.louiseconnell.hangout.entity.Event;
+import uk.co.louiseconnell.hangout.service.DiscordEmbedService;
+import uk.co.louiseconnell.hangout.service.HangoutService;
+
+class DeletedMessageListenerTest {
+
+  private static final long CHANNEL_ID = 10L;
+  private static final long MESSAGE_ID = 20L;
+
+  private HangoutService hangoutService;
+  private MessageEditor messageEditor;
+  private DeletedMessageListener listener;
+
+  @BeforeEach
+  void setUp() {
+    hangoutService = mock(HangoutService.class);
+    messageEditor = mock(MessageEditor.class);
+    listener = new DeletedMessageListener(hangoutService, mock(DiscordEmbedService.class), messageEditor,
+        mock(RestClient.class), new InFlightWork(), false);
+  }
+
+  @Test
+  void shouldNotOpenTransaction_WhenDeletedMessageIsNotPoll() {
+    when(hangoutService.getEventByMessageId(MESSAGE_ID)).thenReturn(Optional.empty());
+
+    listener.handleDelete(deleted()).block();
+
+    verify(hangoutService, never()).detachMessage(anyLong());
+  }
+
+  @Test
+  void shouldDetachEvent_WhenDeletedMessageIsPoll() {
+    final Event event = Event.builder().id(1L).messageId(MESSAGE_ID).status(Event.EventStatus.ACTIVE).build();
+    when(hangoutService.getEventByMessageId(MESSAGE_ID)).thenReturn(Optional.of(event));
+    when(hangoutService.detachMessage(MESSAGE_ID)).thenReturn(Optional.of(event));
+
+    listener.handleDelete(deleted()).block();
+
+    verify(hangoutService).detachMessage(MESSAGE_ID);
+    verify(messageEditor).markGone(MESSAGE_ID);
+  }
+
+  private static MessageDeleteEvent deleted() {
+    final MessageDeleteEvent event = mock(MessageDeleteEvent.class);
+    when(event.getChannelId()).thenReturn(Snowflake.of(CHANNEL_ID));
+    when(event.getMessageId()).thenReturn(Snowflake.of(MESSAGE_ID));
+    return event;
+  }
+}
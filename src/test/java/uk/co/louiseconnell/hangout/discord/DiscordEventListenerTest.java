@@ -0,0 +1,72 @@
+package uk.co.louiseconnell.hangout.discord;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.DefaultApplicationArguments;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import discord4j.common.util.Snowflake;
+import discord4j.core.GatewayDiscordClient;
+import discord4j.core.object.entity.Guild;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import uk.co.louiseconnell.hangout.metrics.GuildTiers;
+import uk.co.louiseconnell.hangout.service.EventCacheWarmer;
+
+class DiscordEventListenerTest {
+
+  private GatewayDiscordClient gateway;
+  private EventCacheWarmer cacheWarmer;
+  private GuildTiers guildTiers;
+  private DiscordEventListener listener;
+
+  @BeforeEach
+  void setUp() throws InterruptedException {
+    gateway = mock(GatewayDiscordClient.class);
+    // Subscribed after login, so READY, RESUME and the startup GUILD_CREATEs have already gone elsewhere
+    doReturn(Flux.empty()).when(gateway).on(any(), any());
+    when(gateway.getGuilds()).thenReturn(Flux.empty());
+    cacheWarmer = mock(EventCacheWarmer.class);
+    when(cacheWarmer.awaitWarm()).thenReturn(true);
+    guildTiers = new GuildTiers(100, 1000, 10000);
+    listener = new DiscordEventListener(gateway, mock(ReactionListener.class), mock(ReactionDeduplicator.class),
+        mock(DeletedMessageListener.class), new InFlightWork(), mock(GuildScheduler.class), cacheWarmer, guildTiers);
+  }
+
+  @Test
+  void shouldStartWarmUp_WhenReadyWasNotSeen() {
+    final AtomicBoolean warming = new AtomicBoolean();
+    when(cacheWarmer.warmUpOnce()).thenReturn(Mono.fromRunnable(() -> warming.set(true)));
+
+    listener.run(new DefaultApplicationArguments());
+
+    assertTrue(warming.get());
+  }
+
+  @Test
+  void shouldRecordGuildTiers_WhenGuildCreateWasNotSeen() {
+    when(cacheWarmer.warmUpOnce()).thenReturn(Mono.empty());
+    final Flux<Guild> guilds = Flux.just(guild(1L, 50), guild(2L, 5000));
+    when(gateway.getGuilds()).thenReturn(guilds);
+
+    listener.run(new DefaultApplicationArguments());
+
+    assertEquals("small", guildTiers.tierOf(1L));
+    assertEquals("large", guildTiers.tierOf(2L));
+  }
+
+  private static Guild guild(final long id, final int memberCount) {
+    final Guild guild = mock(Guild.class);
+    when(guild.getId()).thenReturn(Snowflake.of(id));
+    when(guild.getMemberCount()).thenReturn(memberCount);
+    return guild;
+  }
+}
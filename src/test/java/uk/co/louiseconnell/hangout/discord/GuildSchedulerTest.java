@@ -0,0 +1,115 @@
+package uk.co.louiseconnell.hangout.discord;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.core.scheduler.Schedulers;
+import uk.co.louiseconnell.hangout.metrics.GuildTiers;
+
+class GuildSchedulerTest {
+
+  private static final long BIG_GUILD = 1L;
+  private static final long SMALL_GUILD = 2L;
+
+  private final List<String> started = new ArrayList<>();
+  private final List<Sinks.Empty<Void>> runningWork = new ArrayList<>();
+
+  @Test
+  void shouldRunSmallGuildNext_WhenBigGuildHasBacklog() {
+    final GuildScheduler scheduler = scheduler(1, 1, 100, Map.of());
+    for (int i = 1; i <= 5; i++) {
+      submit(scheduler, BIG_GUILD, "big" + i);
+    }
+    submit(scheduler, SMALL_GUILD, "small1");
+
+    finishAll(6);
+
+    assertEquals(List.of("big1", "big2", "small1", "big3", "big4", "big5"), started);
+  }
+
+  @Test
+  void shouldShareSlotsByWeight_WhenGuildHasExtraWeight() {
+    final GuildScheduler scheduler = scheduler(1, 1, 100, Map.of(BIG_GUILD, 2));
+    submit(scheduler, SMALL_GUILD, "small1");
+    for (int i = 1; i <= 4; i++) {
+      submit(scheduler, BIG_GUILD, "big" + i);
+    }
+    for (int i = 2; i <= 3; i++) {
+      submit(scheduler, SMALL_GUILD, "small" + i);
+    }
+
+    finishAll(7);
+
+    assertEquals(List.of("small1", "big1", "big2", "small2", "big3", "big4", "small3"), started);
+  }
+
+  @Test
+  void shouldDropWork_WhenGuildQueueIsFull() {
+    final GuildScheduler scheduler = scheduler(1, 1, 2, Map.of());
+    for (int i = 1; i <= 4; i++) {
+      submit(scheduler, BIG_GUILD, "big" + i);
+    }
+
+    final GuildScheduler.GuildStats stats = scheduler.snapshot().get(0);
+    assertEquals(2, stats.queued());
+    assertEquals(1, stats.rejected());
+  }
+
+  @Test
+  void shouldRunFallback_WhenGuildQueueIsFull() {
+    final GuildScheduler scheduler = scheduler(1, 1, 1, Map.of());
+    submit(scheduler, BIG_GUILD, "big1");
+    submit(scheduler, BIG_GUILD, "big2");
+
+    final String result = scheduler.schedule("test", BIG_GUILD, () -> Mono.just("queued"), () -> Mono.just("busy"))
+        .block(Duration.ofSeconds(1));
+
+    assertEquals("busy", result);
+    assertEquals(List.of("big1"), started);
+  }
+
+  @Test
+  void shouldCapRunningWork_WhenGuildHitsItsQuota() {
+    final GuildScheduler scheduler = scheduler(4, 2, 100, Map.of());
+    for (int i = 1; i <= 4; i++) {
+      submit(scheduler, BIG_GUILD, "big" + i);
+    }
+    submit(scheduler, SMALL_GUILD, "small1");
+
+    assertEquals(3, scheduler.getRunningCount());
+    assertEquals(2, scheduler.getQueuedCount());
+    assertEquals(List.of("big1", "big2", "small1"), started);
+  }
+
+  private GuildScheduler scheduler(final int concurrency, final int perGuild, final int maxQueued, final Map<Long, Integer> weights) {
+    return new GuildScheduler(concurrency, perGuild, maxQueued, 1, weights, Schedulers.immediate(), false,
+        new SimpleMeterRegistry(), new GuildTiers(100, 1000, 10000));
+  }
+
+  private void submit(final GuildScheduler scheduler, final long guildId, final String name) {
+    scheduler.schedule("test", guildId, () -> {
+      started.add(name);
+      final Sinks.Empty<Void> work = Sinks.empty();
+      runningWork.add(work);
+      return work.asMono();
+    }).subscribe();
+  }
+
+  /**
+   * Complete running work in start order until {@code count} tasks have run.
+   */
+  private void finishAll(final int count) {
+    for (int i = 0; i < count; i++) {
+      runningWork.get(i).tryEmitEmpty();
+    }
+  }
+}
@@ -0,0 +1,150 @@
+package uk.co.louiseconnell.hangout.discord;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import discord4j.common.util.Snowflake;
+import discord4j.core.event.domain.interaction.ButtonInteractionEvent;
+import discord4j.core.object.command.Interaction;
+import discord4j.core.object.entity.Message;
+import discord4j.core.spec.InteractionApplicationCommandCallbackSpec;
+import discord4j.core.spec.InteractionCallbackSpec;
+import discord4j.core.spec.InteractionFollowupCreateSpec;
+import discord4j.core.spec.InteractionReplyEditSpec;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import reactor.core.Disposable;
+import reactor.core.Disposables;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+import uk.co.louiseconnell.hangout.metrics.GuildTiers;
+
+class InteractionAcksTest {
+
+  private static final Duration BUDGET = Duration.ofSeconds(2);
+  private static final String KEY = "button:hangout:evt:finalize";
+
+  private final ManualTimer clock = new ManualTimer();
+  private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+  private final InteractionAcks acks = new InteractionAcks(true, BUDGET, 10, clock, registry, new GuildTiers(100, 1000, 10000));
+  private ButtonInteractionEvent event;
+
+  @BeforeEach
+  void setUp() {
+    event = mock(ButtonInteractionEvent.class);
+    final Interaction interaction = mock(Interaction.class);
+    when(event.getInteraction()).thenReturn(interaction);
+    when(interaction.getId()).thenReturn(Snowflake.of(42L));
+    when(event.reply(any(InteractionApplicationCommandCallbackSpec.class))).thenReturn(Mono.empty());
+    when(event.deferReply(any(InteractionCallbackSpec.class))).thenReturn(Mono.empty());
+    when(event.editReply(any(InteractionReplyEditSpec.class))).thenReturn(Mono.just(mock(Message.class)));
+    when(event.createFollowup(any(InteractionFollowupCreateSpec.class))).thenReturn(Mono.just(mock(Message.class)));
+    when(event.deleteReply()).thenReturn(Mono.empty());
+  }
+
+  @Test
+  void shouldReplyDirectly_WhenHandlerAnswersWithinBudget() {
+    acks.run(event, KEY, () -> acks.reply(event, reply(true))).block();
+    clock.fire();
+
+    verify(event).reply(any(InteractionApplicationCommandCallbackSpec.class));
+    verify(event, never()).deferReply(any(InteractionCallbackSpec.class));
+    assertEquals(1, acks.snapshot().get(0).count());
+    assertEquals(0, acks.getDeferredCount());
+  }
+
+  @Test
+  void shouldDeferAndEditReply_WhenHandlerExceedsBudget() {
+    final Sinks.Empty<Void> slowWork = Sinks.empty();
+    acks.run(event, KEY, () -> slowWork.asMono().then(acks.reply(event, reply(true)))).subscribe();
+
+    clock.fire();
+    verify(event).deferReply(any(InteractionCallbackSpec.class));
+
+    slowWork.tryEmitEmpty();
+    verify(event).editReply(any(InteractionReplyEditSpec.class));
+    verify(event, never()).reply(any(InteractionApplicationCommandCallbackSpec.class));
+    assertEquals(1, acks.getDeferredCount());
+    assertEquals(1, registry.get("hangout.interaction.ack").tag("deferred", "true").timer().count());
+  }
+
+  @Test
+  void shouldPostFollowup_WhenDeferredReplyShouldBePublic() {
+    final Sinks.Empty<Void> slowWork = Sinks.empty();
+    acks.run(event, KEY, () -> slowWork.asMono().then(acks.replyWithMessage(event, reply(false))).then()).subscribe();
+
+    clock.fire();
+    slowWork.tryEmitEmpty();
+
+    verify(event).createFollowup(any(InteractionFollowupCreateSpec.class));
+    verify(event).deleteReply();
+    verify(event, never()).editReply(any(InteractionReplyEditSpec.class));
+  }
+
+  @Test
+  void shouldRemovePlaceholder_WhenDeferredHandlerNeverReplies() {
+    final Sinks.Empty<Void> slowWork = Sinks.empty();
+    acks.run(event, KEY, slowWork::asMono).subscribe();
+
+    clock.fire();
+    slowWork.tryEmitEmpty();
+
+    verify(event).deleteReply();
+  }
+
+  @Test
+  void shouldDropTrailingIds_WhenBuildingComponentKey() {
+    assertEquals("button:hangout:evt:finalize", InteractionAcks.componentKey("button", "hangout:evt:finalize:123"));
+    assertEquals("button:hangout:list:page", InteractionAcks.componentKey("button", "hangout:list:page:5"));
+    assertEquals("modal:hangout:modal:create", InteractionAcks.componentKey("modal", "hangout:modal:create"));
+  }
+
+  private static InteractionApplicationCommandCallbackSpec reply(final boolean ephemeral) {
+    return InteractionApplicationCommandCallbackSpec.builder()
+        .content("🎯 Draft finalized.")
+        .ephemeral(ephemeral)
+        .build();
+  }
+
+  /**
+   * Holds delayed tasks until {@link #fire()} so the budget can run out on demand.
+   */
+  private static final class ManualTimer implements Scheduler {
+    private final List<Runnable> delayed = new ArrayList<>();
+
+    @Override
+    public Disposable schedule(final Runnable task) {
+      task.run();
+      return Disposables.disposed();
+    }
+
+    @Override
+    public Disposable schedule(final Runnable task, final long delay, final TimeUnit unit) {
+      delayed.add(task);
+      return () -> delayed.remove(task);
+    }
+
+    @Override
+    public Worker createWorker() {
+      return Schedulers.immediate().createWorker();
+    }
+
+    void fire() {
+      new ArrayList<>(delayed).forEach(Runnable::run);
+      delayed.clear();
+    }
+  }
+}
@@ -0,0 +1,117 @@
+package uk.co.louiseconnell.hangout.discord;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import discord4j.common.util.Snowflake;
+import discord4j.core.GatewayDiscordClient;
+import discord4j.core.spec.EmbedCreateSpec;
+import discord4j.core.spec.MessageEditSpec;
+import discord4j.discordjson.json.MessageData;
+import discord4j.rest.RestClient;
+import discord4j.rest.http.client.ClientException;
+import discord4j.rest.service.ChannelService;
+import io.netty.handler.codec.http.HttpResponseStatus;
+import reactor.core.publisher.Mono;
+
+class MessageEditorTest {
+
+  private static final Snowflake CHANNEL = Snowflake.of(10L);
+  private static final Snowflake MESSAGE = Snowflake.of(20L);
+
+  private ChannelService channelService;
+  private MessageEditor editor;
+
+  @BeforeEach
+  void setUp() {
+    final GatewayDiscordClient gateway = mock(GatewayDiscordClient.class);
+    final RestClient restClient = mock(RestClient.class);
+    channelService = mock(ChannelService.class);
+    when(gateway.getRestClient()).thenReturn(restClient);
+    when(restClient.getChannelService()).thenReturn(channelService);
+    editSucceeds();
+    editor = new MessageEditor(gateway, event -> { }, true, 64);
+  }
+
+  @Test
+  void shouldHashEqual_WhenPayloadsAreIdentical() {
+    assertEquals(MessageEditor.hash(spec("2 people")), MessageEditor.hash(spec("2 people")));
+    assertNotEquals(MessageEditor.hash(spec("2 people")), MessageEditor.hash(spec("3 people")));
+  }
+
+  @Test
+  void shouldSkipEdit_WhenPayloadMatchesLastSent() {
+    editor.edit(CHANNEL, MESSAGE, spec("2 people")).block();
+    editor.edit(CHANNEL, MESSAGE, spec("2 people")).block();
+
+    verifyEdits(1);
+    assertEquals(1, editor.getSentCount());
+    assertEquals(1, editor.getSkippedCount());
+  }
+
+  @Test
+  void shouldSendEdit_WhenPayloadChanged() {
+    editor.edit(CHANNEL, MESSAGE, spec("2 people")).block();
+    editor.edit(CHANNEL, MESSAGE, spec("3 people")).block();
+
+    verifyEdits(2);
+  }
+
+  @Test
+  void shouldResend_WhenLastEditFailed() {
+    editor.edit(CHANNEL, MESSAGE, spec("2 people")).block();
+    when(channelService.editMessage(anyLong(), anyLong(), any())).thenReturn(Mono.error(new IllegalStateException("boom")));
+    editor.edit(CHANNEL, MESSAGE, spec("3 people")).onErrorResume(err -> Mono.empty()).block();
+    editSucceeds();
+
+    editor.edit(CHANNEL, MESSAGE, spec("2 people")).block();
+
+    verifyEdits(3);
+  }
+
+  @Test
+  void shouldCompleteEmpty_WhenMessageIsGone() {
+    final ClientException notFound = mock(ClientException.class);
+    when(notFound.getStatus()).thenReturn(HttpResponseStatus.NOT_FOUND);
+    when(channelService.editMessage(anyLong(), anyLong(), any())).thenReturn(Mono.error(notFound));
+
+    editor.handle(CHANNEL, MESSAGE).edit(spec("2 people")).block();
+
+    assertEquals(1, editor.getGoneCount());
+    assertEquals(0, editor.getSentCount());
+  }
+
+  @Test
+  void shouldNotCallDiscord_WhenMessageWasMarkedGone() {
+    editor.markGone(MESSAGE.asLong());
+
+    editor.handle(CHANNEL, MESSAGE).edit(spec("2 people")).block();
+    editor.handle(CHANNEL, MESSAGE).addReaction("❓").block();
+
+    verifyEdits(0);
+    verify(channelService, times(0)).createReaction(anyLong(), anyLong(), any());
+  }
+
+  private void editSucceeds() {
+    when(channelService.editMessage(anyLong(), anyLong(), any())).thenReturn(Mono.just(mock(MessageData.class)));
+  }
+
+  private void verifyEdits(final int count) {
+    verify(channelService, times(count)).editMessage(anyLong(), anyLong(), any());
+  }
+
+  private static MessageEditSpec spec(final String value) {
+    return MessageEditSpec.builder()
+        .addEmbed(EmbedCreateSpec.builder().title("Games night").addField("1️⃣ Option 1", value, false).build())
+        .build();
+  }
+}
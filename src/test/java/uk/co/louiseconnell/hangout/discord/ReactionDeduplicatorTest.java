@@ -0,0 +1,137 @@
+package uk.co.louiseconnell.hangout.discord;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+class ReactionDeduplicatorTest {
+
+  private AtomicLong clock;
+  private ReactionDeduplicator deduplicator;
+
+  @BeforeEach
+  void setUp() {
+    clock = new AtomicLong();
+    deduplicator = new ReactionDeduplicator(true, Duration.ofMinutes(2), 1024, clock::get);
+  }
+
+  @Test
+  void shouldDropReplay_WhenSameReactionIsRedelivered() {
+    assertFalse(deduplicator.isReplay(100L, 7L, "1️⃣", true));
+    assertTrue(deduplicator.isReplay(100L, 7L, "1️⃣", true));
+    assertEquals(1, deduplicator.getDroppedCount());
+  }
+
+  @Test
+  void shouldKeepToggles_WhenUserAddsRemovesAndAddsAgain() {
+    assertFalse(deduplicator.isReplay(100L, 7L, "1️⃣", true));
+    assertFalse(deduplicator.isReplay(100L, 7L, "1️⃣", false));
+    assertFalse(deduplicator.isReplay(100L, 7L, "1️⃣", true));
+  }
+
+  @Test
+  void shouldDropOnlyFirstEvent_WhenOddRunIsReplayed() {
+    deduplicator.isReplay(100L, 7L, "1️⃣", true);
+    deduplicator.isReplay(100L, 7L, "1️⃣", false);
+    deduplicator.isReplay(100L, 7L, "1️⃣", true);
+
+    assertTrue(deduplicator.isReplay(100L, 7L, "1️⃣", true));
+    assertFalse(deduplicator.isReplay(100L, 7L, "1️⃣", false));
+    assertFalse(deduplicator.isReplay(100L, 7L, "1️⃣", true));
+  }
+
+  @Test
+  void shouldDropNothing_WhenEvenRunIsReplayed() {
+    deduplicator.isReplay(100L, 7L, "1️⃣", true);
+    deduplicator.isReplay(100L, 7L, "1️⃣", false);
+
+    assertFalse(deduplicator.isReplay(100L, 7L, "1️⃣", true));
+    assertFalse(deduplicator.isReplay(100L, 7L, "1️⃣", false));
+  }
+
+  @ParameterizedTest
+  @ValueSource(ints = {1, 2, 3, 4, 5})
+  void shouldEndInOriginalState_WhenRunIsReplayed(final int length) {
+    boolean voted = false;
+    for (int i = 0; i < length; i++) {
+      final boolean isAdd = i % 2 == 0;
+      if (!deduplicator.isReplay(100L, 7L, "1️⃣", isAdd)) {
+        voted = isAdd;
+      }
+    }
+    final boolean original = voted;
+
+    for (int i = 0; i < length; i++) {
+      final boolean isAdd = i % 2 == 0;
+      if (!deduplicator.isReplay(100L, 7L, "1️⃣", isAdd)) {
+        voted = isAdd;
+      }
+    }
+
+    assertEquals(original, voted);
+  }
+
+  @Test
+  void shouldKeepReAdd_WhenAllReactionsWereRemoved() {
+    deduplicator.isReplay(100L, 7L, "1️⃣", true);
+    deduplicator.isReplay(100L, 8L, "2️⃣", true);
+
+    deduplicator.clearMessage(100L);
+    clock.incrementAndGet();
+
+    assertFalse(deduplicator.isReplay(100L, 7L, "1️⃣", true));
+    assertFalse(deduplicator.isReplay(100L, 8L, "2️⃣", true));
+    assertTrue(deduplicator.isReplay(100L, 8L, "2️⃣", true));
+  }
+
+  @Test
+  void shouldKeepReAdd_WhenEmojiWasRemoved() {
+    deduplicator.isReplay(100L, 7L, "1️⃣", true);
+    deduplicator.isReplay(100L, 7L, "2️⃣", true);
+
+    deduplicator.clearEmoji(100L, "1️⃣");
+
+    assertFalse(deduplicator.isReplay(100L, 7L, "1️⃣", true));
+    assertTrue(deduplicator.isReplay(100L, 7L, "2️⃣", true));
+  }
+
+  @Test
+  void shouldKeepReAdd_WhenClearWasOverwrittenBySlotCollision() {
+    final ReactionDeduplicator tiny = new ReactionDeduplicator(true, Duration.ofMinutes(2), 16, clock::get);
+    tiny.isReplay(100L, 7L, "1️⃣", true);
+    clock.incrementAndGet();
+
+    // Sixteen slots leave a single slot for clears, so the second takes the first one's place
+    tiny.clearMessage(100L);
+    clock.incrementAndGet();
+    tiny.clearMessage(200L);
+
+    assertFalse(tiny.isReplay(100L, 7L, "1️⃣", true));
+  }
+
+  @Test
+  void shouldKeepEvent_WhenUserMessageOrEmojiDiffers() {
+    deduplicator.isReplay(100L, 7L, "1️⃣", true);
+
+    assertFalse(deduplicator.isReplay(100L, 8L, "1️⃣", true));
+    assertFalse(deduplicator.isReplay(101L, 7L, "1️⃣", true));
+    assertFalse(deduplicator.isReplay(100L, 7L, "2️⃣", true));
+  }
+
+  @Test
+  void shouldKeepEvent_WhenWindowHasPassed() {
+    deduplicator.isReplay(100L, 7L, "1️⃣", true);
+
+    clock.addAndGet(Duration.ofMinutes(3).toNanos());
+
+    assertFalse(deduplicator.isReplay(100L, 7L, "1️⃣", true));
+  }
+}
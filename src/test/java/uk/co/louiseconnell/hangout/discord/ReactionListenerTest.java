@@ -0,0 +1,187 @@
+package uk.co.louiseconnell.hangout.discord;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+import discord4j.common.util.Snowflake;
+import discord4j.core.GatewayDiscordClient;
+import discord4j.core.event.domain.message.ReactionAddEvent;
+import discord4j.core.object.emoji.Emoji;
+import discord4j.core.object.entity.Member;
+import discord4j.core.spec.EmbedCreateSpec;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+import uk.co.louiseconnell.hangout.entity.Availability;
+import uk.co.louiseconnell.hangout.entity.Event;
+import uk.co.louiseconnell.hangout.entity.Timeslot;
+import uk.co.louiseconnell.hangout.metrics.GuildTiers;
+import uk.co.louiseconnell.hangout.service.DiscordEmbedService;
+import uk.co.louiseconnell.hangout.service.HangoutService;
+
+class ReactionListenerTest {
+
+  private static final long GUILD_ID = 1L;
+  private static final long CHANNEL_ID = 10L;
+  private static final long MESSAGE_ID = 20L;
+  private static final long USER_ID = 30L;
+  private static final long SELF_ID = 31L;
+  private static final long EVENT_ID = 40L;
+  private static final long TIMESLOT_ID = 50L;
+  private static final String EMOJI = "1️⃣";
+  private static final long SECOND = 1_000_000_000L;
+
+  private AtomicLong clock;
+  private HangoutService hangoutService;
+  private DiscordEmbedService embedService;
+  private MessageEditor messageEditor;
+  private GuildScheduler scheduler;
+  private InFlightWork inFlightWork;
+  private ReactionListener listener;
+
+  @BeforeEach
+  void setUp() {
+    hangoutService = mock(HangoutService.class);
+    final Event event = Event.builder().id(EVENT_ID).channelId(CHANNEL_ID).status(Event.EventStatus.ACTIVE).build();
+    when(hangoutService.getEventByMessageId(MESSAGE_ID)).thenReturn(Optional.of(event));
+    when(hangoutService.getEventById(EVENT_ID)).thenReturn(Optional.of(event));
+    when(hangoutService.findTimeslotByEmoji(EVENT_ID, EMOJI))
+        .thenReturn(Optional.of(Timeslot.builder().id(TIMESLOT_ID).emoji(EMOJI).build()));
+    embedService = mock(DiscordEmbedService.class);
+    when(embedService.createHangoutEmbed(any(), any())).thenReturn(EmbedCreateSpec.builder().title("Poll").build());
+    messageEditor = mock(MessageEditor.class);
+    when(messageEditor.edit(any(), any(), any())).thenReturn(Mono.empty());
+
+    // One token, back after 200ms of the test's clock
+    clock = new AtomicLong(42 * SECOND);
+    final VoteThrottle throttle = new VoteThrottle(true, 5.0, 1, 1, 16, clock::get);
+    scheduler = new GuildScheduler(1, 1, 100, 1, Map.of(), Schedulers.immediate(), false,
+        new SimpleMeterRegistry(), new GuildTiers(100, 1000, 10000));
+    inFlightWork = new InFlightWork();
+    listener = new ReactionListener(hangoutService, embedService, messageEditor, throttle,
+        new ReactionDeduplicator(false, Duration.ofMinutes(2), 16), scheduler, inFlightWork);
+  }
+
+  @Test
+  void shouldFreeGuildSlot_WhenVoteIsThrottled() throws Exception {
+    vote();
+    vote();
+
+    // The throttled vote finished straight away instead of sleeping in the guild's only slot
+    assertEquals(0, scheduler.getRunningCount());
+    assertEquals(1, inFlightWork.getInFlightCount());
+    clock.addAndGet(SECOND);
+
+    verify(hangoutService, timeout(2000).times(2))
+        .voteForTimeslot(eq(USER_ID), eq(TIMESLOT_ID), eq(Availability.AvailabilityStatus.AVAILABLE));
+    assertTrue(inFlightWork.awaitIdle(Duration.ofSeconds(2)));
+  }
+
+  @Test
+  void shouldApplyBurstOnce_WhenVotesArriveWhileThrottled() throws Exception {
+    vote();
+    vote();
+    vote();
+    vote();
+    clock.addAndGet(SECOND);
+
+    assertTrue(inFlightWork.awaitIdle(Duration.ofSeconds(2)));
+    verify(hangoutService, times(2)).voteForTimeslot(anyLong(), anyLong(), any());
+  }
+
+  @Test
+  void shouldKeepEveryVote_WhenGuildQueueIsFull() throws Exception {
+    final GuildScheduler busy = new GuildScheduler(1, 1, 1, 1, Map.of(), Schedulers.immediate(), false,
+        new SimpleMeterRegistry(), new GuildTiers(100, 1000, 10000));
+    final ReactionListener listener = new ReactionListener(hangoutService, embedService, messageEditor,
+        new VoteThrottle(true, 5.0, 1, 1, 16, clock::get),
+        new ReactionDeduplicator(false, Duration.ofMinutes(2), 16), busy, inFlightWork);
+    // One task running and one queued, so the guild has no room for anything else
+    final Sinks.Empty<Void> running = Sinks.empty();
+    busy.schedule("test", GUILD_ID, running::asMono).subscribe();
+    busy.schedule("test", GUILD_ID, Mono::empty).subscribe();
+
+    for (long voter = 100; voter < 110; voter++) {
+      listener.scheduleReactionAdd(reaction(voter, null)).block(Duration.ofSeconds(1));
+    }
+    verify(hangoutService, never()).voteForTimeslot(anyLong(), anyLong(), any());
+    running.tryEmitEmpty();
+
+    assertTrue(inFlightWork.awaitIdle(Duration.ofSeconds(5)));
+    for (long voter = 100; voter < 110; voter++) {
+      verify(hangoutService).voteForTimeslot(voter, TIMESLOT_ID, Availability.AvailabilityStatus.AVAILABLE);
+    }
+  }
+
+  @Test
+  void shouldWriteVoteOnSchedulerThread_WithoutLookingUpUser() {
+    final Scheduler workers = Schedulers.newSingle("guild-work-test");
+    try {
+      final GuildScheduler pooled = new GuildScheduler(1, 1, 100, 1, Map.of(), workers, false,
+          new SimpleMeterRegistry(), new GuildTiers(100, 1000, 10000));
+      final AtomicReference<String> votedOn = new AtomicReference<>();
+      doAnswer(invocation -> {
+        votedOn.set(Thread.currentThread().getName());
+        return null;
+      }).when(hangoutService).voteForTimeslot(anyLong(), anyLong(), any());
+      final ReactionAddEvent event = reaction(USER_ID, null);
+
+      pooled.schedule("reaction_add", GUILD_ID, () -> listener.handleReactionAdd(event)).block(Duration.ofSeconds(1));
+
+      assertTrue(votedOn.get().startsWith("guild-work-test"));
+      verify(event, never()).getUser();
+    } finally {
+      workers.dispose();
+    }
+  }
+
+  @Test
+  void shouldIgnoreReaction_WhenBotAddsIt() {
+    final Member bot = mock(Member.class);
+    when(bot.isBot()).thenReturn(true);
+
+    listener.handleReactionAdd(reaction(USER_ID, bot)).block(Duration.ofSeconds(1));
+    listener.handleReactionAdd(reaction(SELF_ID, null)).block(Duration.ofSeconds(1));
+
+    verify(hangoutService, never()).getEventByMessageId(anyLong());
+  }
+
+  private void vote() {
+    final ReactionAddEvent event = reaction(USER_ID, null);
+    scheduler.schedule("reaction_add", GUILD_ID, () -> listener.handleReactionAdd(event)).block(Duration.ofSeconds(1));
+  }
+
+  private static ReactionAddEvent reaction(final long userId, final Member member) {
+    final GatewayDiscordClient client = mock(GatewayDiscordClient.class);
+    when(client.getSelfId()).thenReturn(Snowflake.of(SELF_ID));
+    final ReactionAddEvent event = mock(ReactionAddEvent.class);
+    when(event.getClient()).thenReturn(client);
+    when(event.getMessageId()).thenReturn(Snowflake.of(MESSAGE_ID));
+    when(event.getUserId()).thenReturn(Snowflake.of(userId));
+    when(event.getMember()).thenReturn(Optional.ofNullable(member));
+    when(event.getGuildId()).thenReturn(Optional.of(Snowflake.of(GUILD_ID)));
+    when(event.getEmoji()).thenReturn(Emoji.unicode(EMOJI));
+    return event;
+  }
+}
@@ -0,0 +1,67 @@
+package uk.co.louiseconnell.hangout.discord;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+class VoteThrottleTest {
+
+  private static final long SECOND = 1_000_000_000L;
+
+  private AtomicLong clock;
+  private VoteThrottle throttle;
+
+  @BeforeEach
+  void setUp() {
+    clock = new AtomicLong(42 * SECOND);
+    throttle = new VoteThrottle(true, 1.0, 3, 4, 16, clock::get);
+  }
+
+  @Test
+  void shouldAllowBurst_ThenThrottle_WhenUserTogglesRapidly() {
+    assertEquals(0, throttle.tryAcquire(1L, 10L));
+    assertEquals(0, throttle.tryAcquire(1L, 10L));
+    assertEquals(0, throttle.tryAcquire(1L, 10L));
+
+    final long wait = throttle.tryAcquire(1L, 10L);
+
+    assertTrue(wait > 0 && wait <= SECOND);
+    assertEquals(3, throttle.getAllowedCount());
+    assertEquals(1, throttle.getThrottledCount());
+  }
+
+  @Test
+  void shouldAllowAgain_WhenBucketRefills() {
+    for (int i = 0; i < 3; i++) {
+      throttle.tryAcquire(1L, 10L);
+    }
+    final long wait = throttle.tryAcquire(1L, 10L);
+
+    clock.addAndGet(wait);
+
+    assertEquals(0, throttle.tryAcquire(1L, 10L));
+  }
+
+  @Test
+  void shouldKeepSeparateBuckets_WhenUserOrEventDiffers() {
+    for (int i = 0; i < 3; i++) {
+      throttle.tryAcquire(1L, 10L);
+    }
+
+    assertEquals(0, throttle.tryAcquire(2L, 10L));
+    assertEquals(0, throttle.tryAcquire(1L, 11L));
+  }
+
+  @Test
+  void shouldNeverThrottle_WhenDisabled() {
+    final VoteThrottle disabled = new VoteThrottle(false, 1.0, 1, 1, 1, clock::get);
+
+    for (int i = 0; i < 10; i++) {
+      assertEquals(0, disabled.tryAcquire(1L, 10L));
+    }
+  }
+}
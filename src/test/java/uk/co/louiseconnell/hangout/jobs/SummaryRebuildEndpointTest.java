@@ -0,0 +1,71 @@
+package uk.co.louiseconnell.hangout.jobs;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.actuate.endpoint.web.WebEndpointResponse;
+
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import uk.co.louiseconnell.hangout.service.EventSummaries;
+
+class SummaryRebuildEndpointTest {
+
+  private final EventSummaries eventSummaries = mock(EventSummaries.class);
+  private final SummaryRebuilder rebuilder = new SummaryRebuilder(eventSummaries, new SimpleMeterRegistry(), 2);
+  private final SummaryRebuildEndpoint endpoint = new SummaryRebuildEndpoint(rebuilder);
+
+  @Test
+  void shouldRebuildInBackground_WhenAsked() throws Exception {
+    final CountDownLatch release = new CountDownLatch(1);
+    when(eventSummaries.rebuildBatch(anyLong(), anyInt())).thenAnswer(invocation -> {
+      release.await(5, TimeUnit.SECONDS);
+      return List.of(1L);
+    });
+
+    // Answered while the rebuild is still going
+    final WebEndpointResponse<SummaryRebuilder.Status> started = endpoint.rebuild("rebuild");
+    assertEquals(202, started.getStatus());
+    assertTrue(started.getBody().running());
+    assertEquals(409, endpoint.rebuild("rebuild").getStatus());
+    release.countDown();
+
+    final SummaryRebuilder.Status status = awaitFinished();
+    assertEquals(1, status.lastRebuild().events());
+    assertNull(status.lastError());
+  }
+
+  @Test
+  void shouldKeepError_WhenRebuildFails() throws Exception {
+    when(eventSummaries.rebuildBatch(anyLong(), anyInt())).thenThrow(new IllegalStateException("database gone"));
+
+    assertEquals(202, endpoint.rebuild("rebuild").getStatus());
+
+    assertTrue(awaitFinished().lastError().contains("database gone"));
+  }
+
+  @Test
+  void shouldRefuse_WhenActionIsUnknown() {
+    assertEquals(WebEndpointResponse.STATUS_NOT_FOUND, endpoint.rebuild("restart").getStatus());
+  }
+
+  private SummaryRebuilder.Status awaitFinished() throws InterruptedException {
+    final long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+    while (endpoint.status().running() && System.nanoTime() < deadline) {
+      TimeUnit.MILLISECONDS.sleep(10);
+    }
+    final SummaryRebuilder.Status status = endpoint.status();
+    assertFalse(status.running());
+    return status;
+  }
+}
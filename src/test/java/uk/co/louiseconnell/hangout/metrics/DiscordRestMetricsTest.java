@@ -0,0 +1,28 @@
+package uk.co.louiseconnell.hangout.metrics;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import org.junit.jupiter.api.Test;
+
+class DiscordRestMetricsTest {
+
+  @Test
+  void shouldReplaceIds_WhenRouteHasSnowflakes() {
+    assertEquals("/api/v10/channels/{id}/messages/{id}",
+        DiscordRestMetrics.route("/api/v10/channels/1234567890123/messages/9876543210987"));
+  }
+
+  @Test
+  void shouldHideEmoji_WhenRouteIsReaction() {
+    assertEquals("/api/v10/channels/{id}/messages/{id}/reactions/{emoji}/@me",
+        DiscordRestMetrics.route("/api/v10/channels/1/messages/2/reactions/%E2%9D%93/@me"));
+  }
+
+  @Test
+  void shouldHideToken_WhenRouteIsInteractionCallback() {
+    assertEquals("/api/v10/interactions/{id}/{token}/callback",
+        DiscordRestMetrics.route("/api/v10/interactions/1234/aW50ZXJhY3Rpb24/callback?with_response=false"));
+    assertEquals("/api/v10/webhooks/{id}/{token}/messages/@original",
+        DiscordRestMetrics.route("/api/v10/webhooks/1234/aW50ZXJhY3Rpb24/messages/@original"));
+  }
+}
@@ -0,0 +1,31 @@
+package uk.co.louiseconnell.hangout.metrics;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import org.junit.jupiter.api.Test;
+
+class GuildTiersTest {
+
+  private final GuildTiers tiers = new GuildTiers(100, 1000, 10000);
+
+  @Test
+  void shouldBucketByMemberCount_WhenGuildIsKnown() {
+    tiers.record(1L, 100);
+    tiers.record(2L, 101);
+    tiers.record(3L, 50_000);
+
+    assertEquals("small", tiers.tierOf(1L));
+    assertEquals("medium", tiers.tierOf(2L));
+    assertEquals("huge", tiers.tierOf(3L));
+    assertEquals(GuildTiers.UNKNOWN, tiers.tierOf(4L));
+    assertEquals(GuildTiers.DM, tiers.tierOf(0L));
+  }
+
+  @Test
+  void shouldReportGuildTier_WhenRunningOnItsBehalf() {
+    tiers.record(1L, 5000);
+
+    assertEquals("large", tiers.callAs(1L, tiers::currentTier));
+    assertEquals(GuildTiers.NONE, tiers.currentTier());
+  }
+}
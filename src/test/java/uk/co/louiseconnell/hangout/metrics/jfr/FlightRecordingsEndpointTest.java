@@ -0,0 +1,60 @@
+package uk.co.louiseconnell.hangout.metrics.jfr;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.InputStream;
+import java.nio.file.Path;
+import java.time.Duration;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.actuate.endpoint.web.WebEndpointResponse;
+import org.springframework.core.io.Resource;
+
+class FlightRecordingsEndpointTest {
+
+  private final FlightRecordings recordings = new FlightRecordings(Duration.ofMinutes(5), 50);
+  private final FlightRecordingsEndpoint endpoint = new FlightRecordingsEndpoint(recordings);
+
+  @AfterEach
+  void tearDown() {
+    recordings.destroy();
+  }
+
+  @Test
+  void shouldStartAndStop_WhenAsked() {
+    assertEquals(WebEndpointResponse.STATUS_NOT_FOUND, endpoint.recording().getStatus());
+
+    assertEquals("RUNNING", endpoint.control("start", null).getBody().state());
+    assertEquals("RUNNING", endpoint.recording().getBody().state());
+    assertEquals("STOPPED", endpoint.control("stop", null).getBody().state());
+  }
+
+  @Test
+  void shouldRefuse_WhenActionCannotBeDone() {
+    assertEquals(WebEndpointResponse.STATUS_BAD_REQUEST, endpoint.control("start", "nope").getStatus());
+    assertEquals(409, endpoint.control("stop", null).getStatus());
+    assertEquals(WebEndpointResponse.STATUS_NOT_FOUND, endpoint.control("restart", null).getStatus());
+
+    endpoint.control("start", "profile");
+
+    assertEquals(409, endpoint.control("start", "default").getStatus());
+  }
+
+  @Test
+  void shouldDeleteDump_WhenItHasBeenRead() throws Exception {
+    assertEquals(WebEndpointResponse.STATUS_NOT_FOUND, endpoint.dump("dump").getStatus());
+    endpoint.control("start", null);
+
+    final Resource dump = endpoint.dump("dump").getBody();
+    final Path file = dump.getFile().toPath();
+    assertTrue(dump.exists());
+    try (InputStream in = dump.getInputStream()) {
+      assertTrue(in.readAllBytes().length > 0);
+    }
+
+    assertFalse(file.toFile().exists());
+  }
+}
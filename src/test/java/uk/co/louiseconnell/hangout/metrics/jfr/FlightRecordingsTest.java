@@ -0,0 +1,93 @@
+package uk.co.louiseconnell.hangout.metrics.jfr;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+class FlightRecordingsTest {
+
+  private final FlightRecordings recordings = new FlightRecordings(Duration.ofMinutes(5), 50);
+
+  @AfterEach
+  void tearDown() {
+    recordings.destroy();
+  }
+
+  @Test
+  void shouldDumpHangoutEvents_WhenRecordingWasRunning() throws Exception {
+    recordings.start("default");
+    VoteProcessedEvent.start("1️⃣", true).finish("applied", 7L, 70L);
+    DiscordRestCallEvent.start("PATCH", () -> "/api/v10/channels/{id}/messages/{id}").finish(200, null);
+    assertEquals("STOPPED", recordings.stop().state());
+
+    final Path dump = recordings.dump();
+    try {
+      final List<RecordedEvent> events = RecordingFile.readAllEvents(dump);
+      final RecordedEvent vote = events.stream()
+          .filter(event -> event.getEventType().getName().equals("hangout.VoteProcessed"))
+          .findFirst()
+          .orElseThrow();
+      assertEquals("applied", vote.getString("outcome"));
+      assertEquals(70L, vote.getLong("timeslotId"));
+      assertTrue(events.stream().anyMatch(event -> event.getEventType().getName().equals("hangout.DiscordRestCall")
+          && event.getInt("status") == 200));
+    } finally {
+      Files.deleteIfExists(dump);
+    }
+  }
+
+  @ParameterizedTest
+  @ValueSource(strings = {"default", "profile"})
+  void shouldLeaveOutSecrets_WhenDumping(final String settings) throws Exception {
+    recordings.start(settings);
+    recordings.stop();
+
+    final Path dump = recordings.dump();
+    try {
+      final List<String> recorded = RecordingFile.readAllEvents(dump).stream()
+          .map(event -> event.getEventType().getName())
+          .distinct()
+          .toList();
+      assertTrue(recorded.contains("jdk.CPUInformation"));
+      for (String secret : FlightRecordings.SECRET_EVENTS) {
+        assertFalse(recorded.contains(secret), secret + " was recorded");
+      }
+    } finally {
+      Files.deleteIfExists(dump);
+    }
+  }
+
+  @Test
+  void shouldRefuseSecondRecording_WhenOneIsRunning() {
+    recordings.start("default");
+
+    assertThrows(IllegalStateException.class, () -> recordings.start("profile"));
+    assertEquals("RUNNING", recordings.status().state());
+  }
+
+  @Test
+  void shouldRejectSettings_WhenNoSuchConfiguration() {
+    assertThrows(IllegalArgumentException.class, () -> recordings.start("nope"));
+    assertNull(recordings.status());
+  }
+
+  @Test
+  void shouldRefuseDumpAndStop_WhenNothingWasStarted() {
+    assertThrows(IllegalStateException.class, recordings::dump);
+    assertThrows(IllegalStateException.class, recordings::stop);
+  }
+}
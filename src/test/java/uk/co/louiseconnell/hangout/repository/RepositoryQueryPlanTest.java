@@ -0,0 +1,307 @@
+package uk.co.louiseconnell.hangout.repository;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.fail;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.AutoConfigurationPackage;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ContextConfiguration;
+
+import java.lang.reflect.Method;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+import uk.co.louiseconnell.hangout.HangoutApplication;
+import uk.co.louiseconnell.hangout.entity.Event;
+import uk.co.louiseconnell.hangout.support.SqlStatementCounter;
+
+/**
+ * Runs every repository query against a million seeded votes and checks H2's plan for each SQL
+ * statement it issues: every table must be read through an index, seeking on the index's leading
+ * column. A table scan, or an index walked end to end, fails the test.
+ *
+ * <p>H2 stands in for PostgreSQL, so this checks that each query shape has an index to use, not
+ * which one the PostgreSQL planner would pick. The PostgreSQL-only partial indexes have full
+ * equivalents here.
+ *
+ * <p>Seeding takes over a minute, so the test is tagged out of the default build; run it with
+ * {@code mvn -Pquery-plans test}.
+ */
+@Tag("query-plans")
+@DataJpaTest(properties = {
+    "spring.datasource.url=jdbc:h2:mem:query-plans;MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1",
+    "spring.datasource.driver-class-name=org.h2.Driver",
+    "spring.datasource.username=sa",
+    "spring.datasource.password=",
+    "spring.jpa.hibernate.ddl-auto=none",
+    "spring.jpa.show-sql=false",
+    "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+    "spring.jpa.properties.hibernate.session_factory.statement_inspector=uk.co.louiseconnell.hangout.support.SqlStatementCounter",
+    "spring.liquibase.enabled=true",
+    // Plans are read from the statements sent; a cache hit sends none
+    "spring.jpa.properties.hibernate.cache.use_second_level_cache=false",
+    "spring.jpa.properties.hibernate.cache.use_query_cache=false"
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@ContextConfiguration(classes = RepositoryQueryPlanTest.Config.class)
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class RepositoryQueryPlanTest {
+
+  private static final int EVENTS = 10_000;
+  private static final int VOTES_PER_EVENT = 100;
+  private static final int SEED_CHUNK = 50_000;
+
+  /** An index or table access in H2's plan, e.g. {@code /* public.idx_x: a = ?1 *}{@code /}. */
+  private static final Pattern ACCESS = Pattern.compile("/\\* public\\.(\\w+)(\\.tableScan)?(?::\\s*([^*]*?))?\\s*\\*/");
+
+  @Autowired
+  private JdbcTemplate jdbc;
+
+  @Autowired
+  private EventRepository eventRepository;
+
+  @Autowired
+  private TimeslotRepository timeslotRepository;
+
+  @Autowired
+  private AvailabilityRepository availabilityRepository;
+
+  @Autowired
+  private UserRepository userRepository;
+
+  @Autowired
+  private ArchivedEventRepository archivedEventRepository;
+
+  @Autowired
+  private ArchivedTimeslotRepository archivedTimeslotRepository;
+
+  @Autowired
+  private ArchivedAvailabilityRepository archivedAvailabilityRepository;
+
+  @Autowired
+  private EventSummaryRepository eventSummaryRepository;
+
+  /** Leading column of every index, by index name. */
+  private Map<String, String> leadingColumns;
+
+  @BeforeAll
+  void seed() {
+    // 100 channels of 10,000 events, mostly closed, five timeslots each, and 100 votes per event
+    // from 10,000 users: a million availabilities
+    jdbc.update("INSERT INTO users (discord_id, username) SELECT x - 1, 'user' || (x - 1) FROM SYSTEM_RANGE(1, 10000) r(x)");
+    jdbc.update("INSERT INTO events (id, title, creator_discord_id, channel_id, message_id, created_at, deadline, status)"
+        + " SELECT x, 'Games night ' || x, MOD(x, 10000), MOD(x, 100), 1000000000000000000 + x,"
+        + " DATEADD('MINUTE', x, TIMESTAMP '2025-01-01 00:00:00'),"
+        + " CASE WHEN MOD(x, 10) = 0 THEN DATEADD('DAY', MOD(x, 60), TIMESTAMP '2025-01-01 00:00:00') END,"
+        + " CASE MOD(x, 10) WHEN 0 THEN 'ACTIVE' WHEN 1 THEN 'DRAFT' ELSE 'CLOSED' END"
+        + " FROM SYSTEM_RANGE(1, ?) r(x)", EVENTS);
+    jdbc.update("INSERT INTO timeslots (id, event_id, start_time, end_time, emoji)"
+        + " SELECT x, (x - 1) / 5 + 1, DATEADD('HOUR', MOD(x, 5), TIMESTAMP '2025-03-01 18:00:00'),"
+        + " DATEADD('HOUR', MOD(x, 5) + 1, TIMESTAMP '2025-03-01 18:00:00'), 'e' || MOD(x, 5)"
+        + " FROM SYSTEM_RANGE(1, ?) r(x)", EVENTS * 5);
+    // In chunks: as one statement H2 takes minutes over it
+    for (int from = 1; from <= EVENTS * VOTES_PER_EVENT; from += SEED_CHUNK) {
+      jdbc.update("INSERT INTO availabilities (user_discord_id, event_id, timeslot_id, voted_at, status)"
+          + " SELECT MOD(x - 1, 100) + 100 * MOD((x - 1) / 100, 100), (x - 1) / 100 + 1,"
+          + " ((x - 1) / 100) * 5 + MOD(x - 1, 5) + 1, TIMESTAMP '2025-02-01 12:00:00',"
+          + " CASE WHEN MOD(x, 4) = 0 THEN 'MAYBE' ELSE 'AVAILABLE' END"
+          + " FROM SYSTEM_RANGE(?, ?) r(x)", from, from + SEED_CHUNK - 1);
+    }
+    // Closed a day after creation, and the first 2,000 events' worth of history archived as well
+    jdbc.update("UPDATE events SET closed_at = DATEADD('DAY', 1, created_at) WHERE status = 'CLOSED'");
+    jdbc.update("INSERT INTO events_archive (id, title, creator_discord_id, channel_id, message_id, created_at, deadline, status, closed_at)"
+        + " SELECT id, title, creator_discord_id, channel_id, message_id, created_at, deadline, status, closed_at"
+        + " FROM events WHERE status = 'CLOSED' AND id <= 2000");
+    jdbc.update("INSERT INTO timeslots_archive (id, event_id, start_time, end_time, emoji, closed_at)"
+        + " SELECT t.id, t.event_id, t.start_time, t.end_time, t.emoji, e.closed_at"
+        + " FROM timeslots t JOIN events_archive e ON e.id = t.event_id");
+    jdbc.update("INSERT INTO availabilities_archive (id, user_discord_id, event_id, timeslot_id, voted_at, status, closed_at)"
+        + " SELECT a.id, a.user_discord_id, a.event_id, a.timeslot_id, a.voted_at, a.status, e.closed_at"
+        + " FROM availabilities a JOIN events_archive e ON e.id = a.event_id");
+    // Every event still in the hot tables has a summary
+    jdbc.update("INSERT INTO event_summaries (event_id, slots, voter_count, version)"
+        + " SELECT id, JSON '[]', 100, 0 FROM events WHERE id > 2000");
+    jdbc.execute("ANALYZE");
+
+    leadingColumns = jdbc.query("SELECT index_name, column_name FROM information_schema.index_columns"
+            + " WHERE table_schema = 'public' AND ordinal_position = 1",
+        (rs, row) -> Map.entry(rs.getString(1), rs.getString(2)))
+        .stream()
+        .collect(Collectors.toMap(Map.Entry::getKey, Map.Entry::getValue));
+  }
+
+  @Test
+  void shouldSeekAnIndex_WhenRunningAnyRepositoryQuery() {
+    assertEquals(EVENTS * VOTES_PER_EVENT, jdbc.queryForObject("SELECT COUNT(*) FROM availabilities", Integer.class));
+
+    final List<String> problems = new ArrayList<>();
+    queries().forEach((name, query) -> {
+      final List<String> statements = SqlStatementCounter.capture(query);
+      if (statements.isEmpty()) {
+        problems.add(name + " issued no SQL");
+      }
+      for (String sql : statements) {
+        final String plan = explain(sql);
+        final List<String> found = accessProblems(plan);
+        if (!found.isEmpty()) {
+          problems.add(name + ": " + String.join(", ", found) + "\n" + plan);
+        }
+      }
+    });
+
+    if (!problems.isEmpty()) {
+      fail(problems.size() + " repository queries don't seek an index:\n\n" + String.join("\n\n", problems));
+    }
+  }
+
+  @Test
+  void shouldCheckEveryRepositoryQuery_WhenOneIsAdded() {
+    final Set<String> declared = new TreeSet<>();
+    for (Class<?> repository : List.of(EventRepository.class, TimeslotRepository.class, AvailabilityRepository.class,
+        UserRepository.class, GatewaySessionRepository.class, ArchivedEventRepository.class,
+        ArchivedTimeslotRepository.class, ArchivedAvailabilityRepository.class, EventSummaryRepository.class)) {
+      for (Method method : repository.getDeclaredMethods()) {
+        if (!method.isDefault() && !method.isSynthetic() && !java.lang.reflect.Modifier.isStatic(method.getModifiers())) {
+          declared.add(repository.getSimpleName() + "." + method.getName());
+        }
+      }
+    }
+
+    final Set<String> missing = new TreeSet<>(declared);
+    missing.removeAll(queries().keySet());
+    assertEquals(Set.of(), missing, "repository queries without a plan check");
+  }
+
+  /**
+   * One invocation of each query method on the repositories, with arguments that hit the seeded data.
+   */
+  private Map<String, Runnable> queries() {
+    final Map<String, Runnable> queries = new LinkedHashMap<>();
+    final LocalDateTime created = LocalDateTime.of(2025, 1, 3, 0, 0);
+    queries.put("EventRepository.findByChannelIdAndStatus",
+        () -> eventRepository.findByChannelIdAndStatus(7L, Event.EventStatus.ACTIVE));
+    queries.put("EventRepository.findByCreatorDiscordId", () -> eventRepository.findByCreatorDiscordId(42L));
+    queries.put("EventRepository.findByMessageId", () -> eventRepository.findByMessageId(1000000000000000042L));
+    queries.put("EventRepository.clearMessageId", () -> eventRepository.clearMessageId(-1L));
+    queries.put("EventRepository.findByStatusIn",
+        () -> eventRepository.findByStatusIn(List.of(Event.EventStatus.ACTIVE, Event.EventStatus.DRAFT)));
+    queries.put("EventRepository.findActiveEventsByChannel", () -> eventRepository.findActiveEventsByChannel(7L));
+    queries.put("EventRepository.findDueActiveEvents", () -> eventRepository.findDueActiveEvents(created));
+    queries.put("EventRepository.findByChannelIdAndStatusOrderByCreatedAtDescIdDesc",
+        () -> eventRepository.findByChannelIdAndStatusOrderByCreatedAtDescIdDesc(7L, Event.EventStatus.CLOSED,
+            PageRequest.of(0, 6)));
+    queries.put("EventRepository.findByChannelAndStatusAfter",
+        () -> eventRepository.findByChannelAndStatusAfter(7L, Event.EventStatus.CLOSED, created, 2000L,
+            PageRequest.of(0, 6)));
+    queries.put("EventRepository.countByChannelAndStatusesUpTo",
+        () -> eventRepository.countByChannelAndStatusesUpTo(7L, List.of("DRAFT", "ACTIVE", "CLOSED"), 100));
+    queries.put("EventRepository.findArchivableForUpdate",
+        () -> eventRepository.findArchivableForUpdate(created, PageRequest.of(0, 200)));
+    queries.put("EventRepository.findEarliestClosedAt", () -> eventRepository.findEarliestClosedAt());
+    queries.put("EventRepository.findIdsAfter", () -> eventRepository.findIdsAfter(4200L, PageRequest.of(0, 500)));
+    queries.put("EventRepository.deleteByIds", () -> eventRepository.deleteByIds(List.of(-1L, -2L)));
+
+    queries.put("TimeslotRepository.findByEventIdOrderByStartTime", () -> timeslotRepository.findByEventIdOrderByStartTime(42L));
+    queries.put("TimeslotRepository.findByEventIdAndEmoji", () -> timeslotRepository.findByEventIdAndEmoji(42L, "e1"));
+    queries.put("TimeslotRepository.findTimeslotsByEventOrdered", () -> timeslotRepository.findTimeslotsByEventOrdered(42L));
+    queries.put("TimeslotRepository.findTimeslotsByEventsOrdered",
+        () -> timeslotRepository.findTimeslotsByEventsOrdered(List.of(42L, 43L, 44L)));
+    queries.put("TimeslotRepository.deleteByIds", () -> timeslotRepository.deleteByIds(List.of(-1L, -2L)));
+    queries.put("TimeslotRepository.deleteByEventIds", () -> timeslotRepository.deleteByEventIds(List.of(-1L, -2L)));
+
+    queries.put("AvailabilityRepository.findByEventId", () -> availabilityRepository.findByEventId(42L));
+    queries.put("AvailabilityRepository.findByTimeslotId", () -> availabilityRepository.findByTimeslotId(210L));
+    queries.put("AvailabilityRepository.findByUserDiscordIdAndTimeslotId",
+        () -> availabilityRepository.findByUserDiscordIdAndTimeslotId(4101L, 210L));
+    queries.put("AvailabilityRepository.findByEventAndUser", () -> availabilityRepository.findByEventAndUser(42L, 4101L));
+    queries.put("AvailabilityRepository.countAvailableByTimeslot", () -> availabilityRepository.countAvailableByTimeslot(210L));
+    queries.put("AvailabilityRepository.countAvailableByEvents",
+        () -> availabilityRepository.countAvailableByEvents(List.of(42L, 43L, 44L)));
+    queries.put("AvailabilityRepository.countVotersByEvents",
+        () -> availabilityRepository.countVotersByEvents(List.of(42L, 43L, 44L)));
+    queries.put("AvailabilityRepository.deleteByTimeslotIds", () -> availabilityRepository.deleteByTimeslotIds(List.of(-1L, -2L)));
+    queries.put("AvailabilityRepository.deleteByEventIds", () -> availabilityRepository.deleteByEventIds(List.of(-1L, -2L)));
+
+    queries.put("UserRepository.findByUsername", () -> userRepository.findByUsername("user42"));
+    queries.put("UserRepository.existsByDiscordId", () -> userRepository.existsByDiscordId(42L));
+
+    queries.put("ArchivedEventRepository.findByMessageId",
+        () -> archivedEventRepository.findByMessageId(1000000000000000042L));
+    queries.put("ArchivedEventRepository.copyFromEvents", () -> archivedEventRepository.copyFromEvents(List.of(-1L, -2L)));
+    queries.put("ArchivedTimeslotRepository.findByEventIdOrderByStartTime",
+        () -> archivedTimeslotRepository.findByEventIdOrderByStartTime(42L));
+    queries.put("ArchivedTimeslotRepository.copyFromTimeslots",
+        () -> archivedTimeslotRepository.copyFromTimeslots(List.of(-1L, -2L)));
+    queries.put("ArchivedAvailabilityRepository.countAvailableByEvent",
+        () -> archivedAvailabilityRepository.countAvailableByEvent(42L));
+    queries.put("ArchivedAvailabilityRepository.copyFromAvailabilities",
+        () -> archivedAvailabilityRepository.copyFromAvailabilities(List.of(-1L, -2L)));
+
+    queries.put("EventSummaryRepository.findForUpdate", () -> eventSummaryRepository.findForUpdate(4242L));
+    queries.put("EventSummaryRepository.findAllForUpdate",
+        () -> eventSummaryRepository.findAllForUpdate(List.of(4242L, 4243L, 4244L)));
+    return queries;
+  }
+
+  private String explain(final String sql) {
+    return jdbc.execute((ConnectionCallback<String>) connection -> {
+      try (PreparedStatement statement = connection.prepareStatement("EXPLAIN " + sql);
+           ResultSet plan = statement.executeQuery()) {
+        plan.next();
+        return plan.getString(1);
+      }
+    });
+  }
+
+  /**
+   * Table scans, and index accesses that don't constrain the index's leading column, in a plan.
+   */
+  private List<String> accessProblems(final String plan) {
+    final List<String> problems = new ArrayList<>();
+    final Matcher access = ACCESS.matcher(plan);
+    boolean any = false;
+    while (access.find()) {
+      any = true;
+      final String name = access.group(1);
+      if (access.group(2) != null) {
+        problems.add("table scan of " + name);
+        continue;
+      }
+      final String leading = leadingColumns.get(name);
+      final String condition = access.group(3);
+      if (leading == null) {
+        problems.add("unknown index " + name);
+      } else if (condition == null || !Pattern.compile("(^|\\W)" + leading + "\\s*(=|<|>|IN\\(|IS\\s)").matcher(condition).find()) {
+        problems.add("full walk of " + name + " (" + leading + " not constrained)");
+      }
+    }
+    if (!any) {
+      problems.add("no table access in plan");
+    }
+    return problems;
+  }
+
+  /** Deliberately not a {@code @Configuration}, so component scanning never picks it up. */
+  @AutoConfigurationPackage(basePackageClasses = HangoutApplication.class)
+  static class Config {
+  }
+}
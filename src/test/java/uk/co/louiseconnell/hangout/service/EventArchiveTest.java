@@ -0,0 +1,150 @@
+package uk.co.louiseconnell.hangout.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static uk.co.louiseconnell.hangout.support.SqlStatementCounter.assertAtMost;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+import uk.co.louiseconnell.hangout.entity.Event;
+import uk.co.louiseconnell.hangout.entity.Timeslot;
+import uk.co.louiseconnell.hangout.support.QueryBudgetFixtures;
+import uk.co.louiseconnell.hangout.support.QueryBudgetTest;
+
+/**
+ * Archiving moves whole events out of the hot tables in batches of constant cost, and reads of an
+ * archived event look the same as before it moved.
+ */
+@QueryBudgetTest
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class EventArchiveTest {
+
+  private static final long CHANNEL_ID = 300_000_000_000_000_001L;
+  private static final long MESSAGE_ID = 500_000_000_000_000_001L;
+  private static final int TIMESLOTS = 5;
+
+  @Autowired
+  private EventArchive eventArchive;
+
+  @Autowired
+  private HangoutService hangoutService;
+
+  @Autowired
+  private EventCache eventCache;
+
+  @Autowired
+  private QueryBudgetFixtures fixtures;
+
+  private final LocalDateTime now = LocalDateTime.now();
+
+  @AfterEach
+  void tearDown() {
+    fixtures.deleteAll();
+  }
+
+  @Test
+  void shouldMoveOnlyEventsClosedBeforeCutoff_WhenArchiving() {
+    final long old = closedEvent(now.minusDays(40), 10);
+    closedEvent(now.minusDays(1), 10);
+    fixtures.timeslots(fixtures.event(CHANNEL_ID, Event.EventStatus.ACTIVE, null), TIMESLOTS);
+
+    assertEquals(1, eventArchive.archiveBatch(now.minusDays(30), 200));
+
+    assertEquals(2, fixtures.count("events"));
+    assertEquals(2 * TIMESLOTS, fixtures.count("timeslots"));
+    assertEquals(10, fixtures.count("availabilities"));
+    assertEquals(1, fixtures.count("events_archive"));
+    assertEquals(TIMESLOTS, fixtures.count("timeslots_archive"));
+    assertEquals(10, fixtures.count("availabilities_archive"));
+    assertTrue(eventArchive.findEvent(old).isPresent());
+  }
+
+  @Test
+  void shouldReadArchivedEvent_WhenNoLongerInHotTables() {
+    final long eventId = closedEvent(now.minusDays(40), 12);
+    hangoutService.updateEventMessageId(eventId, MESSAGE_ID);
+    hangoutService.getEventById(eventId);
+    final List<Timeslot> timeslots = hangoutService.getTimeslotsByEvent(eventId);
+    final Map<Long, Integer> counts = hangoutService.getAvailabilityCounts(eventId);
+    final int cachedEvents = eventCache.getEventCount();
+
+    eventArchive.archiveBatch(now.minusDays(30), 200);
+
+    assertEquals(cachedEvents - 1, eventCache.getEventCount());
+    final Event archived = hangoutService.getEventById(eventId).orElseThrow();
+    assertEquals(Event.EventStatus.CLOSED, archived.getStatus());
+    assertEquals(MESSAGE_ID, archived.getMessageId());
+    assertEquals(timeslots.stream().map(Timeslot::getId).toList(),
+        hangoutService.getTimeslotsByEvent(eventId).stream().map(Timeslot::getId).toList());
+    assertEquals(counts, hangoutService.getAvailabilityCounts(eventId));
+    assertEquals(eventId, hangoutService.findEventByMessageId(MESSAGE_ID).orElseThrow().getId());
+    // Reactions on the old poll are not routed to it
+    assertTrue(hangoutService.getEventByMessageId(MESSAGE_ID).isEmpty());
+  }
+
+  @Test
+  void shouldStopAtBatchSize_WhenManyEventsDue() {
+    for (int i = 0; i < 5; i++) {
+      closedEvent(now.minusDays(40 + i), 3);
+    }
+
+    assertEquals(2, eventArchive.archiveBatch(now.minusDays(30), 2));
+    assertEquals(2, eventArchive.archiveBatch(now.minusDays(30), 2));
+    assertEquals(1, eventArchive.archiveBatch(now.minusDays(30), 2));
+    assertEquals(0, eventArchive.archiveBatch(now.minusDays(30), 2));
+    assertEquals(5, fixtures.count("events_archive"));
+    assertEquals(0, fixtures.count("events"));
+  }
+
+  @Test
+  void shouldKeepResults_WhenArchived() {
+    final long eventId = fixtures.event(CHANNEL_ID, Event.EventStatus.ACTIVE, null);
+    fixtures.votes(eventId, fixtures.timeslots(eventId, TIMESLOTS), 12);
+    final Event closed = hangoutService.closeEvent(eventId);
+
+    assertEquals(1, eventArchive.archiveBatch(LocalDateTime.now().plusMinutes(1), 200));
+
+    final Event archived = eventArchive.findEvent(eventId).orElseThrow();
+    assertNotNull(archived.getResults());
+    assertEquals(closed.getResults(), archived.getResults());
+  }
+
+  @Test
+  void shouldRecordCloseTime_WhenClosingEvent() {
+    final long eventId = fixtures.event(CHANNEL_ID, Event.EventStatus.ACTIVE, null);
+
+    hangoutService.closeEvent(eventId);
+
+    assertNotNull(hangoutService.getEventById(eventId).orElseThrow().getClosedAt());
+  }
+
+  @ParameterizedTest
+  @ValueSource(ints = {10, 100, 1000})
+  void shouldStayWithinBudget_WhenArchiving(final int votes) {
+    for (int i = 0; i < 3; i++) {
+      closedEvent(now.minusDays(40 + i), votes / 3);
+    }
+
+    // lock the batch, three copies, three deletes
+    assertAtMost(7, "archive with " + votes + " votes",
+        () -> assertEquals(3, eventArchive.archiveBatch(now.minusDays(30), 200)));
+  }
+
+  private long closedEvent(final LocalDateTime closedAt, final int votes) {
+    final long eventId = fixtures.event(CHANNEL_ID, Event.EventStatus.ACTIVE, null);
+    fixtures.votes(eventId, fixtures.timeslots(eventId, TIMESLOTS), votes);
+    fixtures.close(eventId, closedAt);
+    return eventId;
+  }
+}
@@ -0,0 +1,154 @@
+package uk.co.louiseconnell.hangout.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import uk.co.louiseconnell.hangout.entity.Event;
+
+class EventCacheTest {
+
+  private AtomicLong clock;
+  private EventCache cache;
+  private AtomicInteger loads;
+
+  @BeforeEach
+  void setUp() {
+    clock = new AtomicLong();
+    cache = new EventCache(true, 100, Duration.ofMinutes(10), clock::get);
+    loads = new AtomicInteger();
+  }
+
+  @Test
+  void shouldLoadOnce_WhenEventIsReadTwice() {
+    final Event event = event(1L, 500L);
+
+    cache.event(1L, () -> load(event));
+    final Optional<Event> second = cache.event(1L, () -> load(event));
+
+    assertEquals(1, loads.get());
+    assertEquals(event, second.orElseThrow());
+  }
+
+  @Test
+  void shouldRouteByMessageId_WhenEventWasWarmed() {
+    cache.putEvent(event(1L, 500L), cache.getGeneration());
+
+    final Optional<Event> routed = cache.eventByMessageId(500L, () -> load(null));
+
+    assertEquals(0, loads.get());
+    assertEquals(1L, routed.orElseThrow().getId());
+  }
+
+  @Test
+  void shouldRememberNonPollMessages_WhenLookupFindsNothing() {
+    cache.eventByMessageId(999L, () -> load(null));
+    final Optional<Event> second = cache.eventByMessageId(999L, () -> load(null));
+
+    assertEquals(1, loads.get());
+    assertTrue(second.isEmpty());
+  }
+
+  @Test
+  void shouldLookUpAgain_WhenNonPollMessageHasExpired() {
+    cache.eventByMessageId(999L, () -> load(null));
+
+    clock.addAndGet(Duration.ofMinutes(11).toNanos());
+    cache.eventByMessageId(999L, () -> load(null));
+
+    assertEquals(2, loads.get());
+  }
+
+  @Test
+  void shouldCacheNewPoll_WhenManyNonPollMessagesWereSeen() {
+    for (long messageId = 1000L; messageId < 2000L; messageId++) {
+      final long id = messageId;
+      cache.eventByMessageId(id, () -> load(null));
+    }
+
+    cache.eventByMessageId(500L, () -> load(event(1L, 500L)));
+    final Optional<Event> routed = cache.eventByMessageId(500L, () -> load(null));
+
+    assertEquals(1001, loads.get());
+    assertEquals(1L, routed.orElseThrow().getId());
+  }
+
+  @Test
+  void shouldRoutePoll_WhenMessageWasSeenBeforeItBecameOne() {
+    cache.eventByMessageId(500L, () -> load(null));
+
+    cache.evictEvent(1L, 500L);
+    final Optional<Event> routed = cache.eventByMessageId(500L, () -> load(event(1L, 500L)));
+
+    assertEquals(2, loads.get());
+    assertEquals(1L, routed.orElseThrow().getId());
+  }
+
+  @Test
+  void shouldReload_WhenEventWasEvicted() {
+    cache.event(1L, () -> load(event(1L, 500L)));
+
+    cache.evictEvent(1L, 500L);
+    cache.event(1L, () -> load(event(1L, 500L)));
+
+    assertEquals(2, loads.get());
+  }
+
+  @Test
+  void shouldNotCacheLoad_WhenEvictionRacedIt() {
+    // The eviction lands while the (now stale) row is being read
+    cache.event(1L, () -> {
+      cache.evictEvent(1L);
+      return load(event(1L, 500L));
+    });
+    cache.event(1L, () -> load(event(1L, 500L)));
+
+    assertEquals(2, loads.get());
+  }
+
+  @Test
+  void shouldCacheLoad_WhenOtherEventWasEvicted() {
+    cache.event(1L, () -> {
+      cache.evictEvent(2L, 600L);
+      cache.evictTallies(1L);
+      return load(event(1L, 500L));
+    });
+    cache.event(1L, () -> load(event(1L, 500L)));
+
+    assertEquals(1, loads.get());
+  }
+
+  @Test
+  void shouldKeepWarmedEntries_WhenVotesLandDuringWarmUp() {
+    final long gen = cache.getGeneration();
+    cache.evictTallies(2L);
+    cache.evictEvent(3L, 700L);
+
+    cache.putEvent(event(1L, 500L), gen);
+    cache.putTallies(1L, Map.of(10L, 2), gen);
+    cache.putTallies(2L, Map.of(20L, 1), gen);
+
+    assertEquals(1L, cache.eventByMessageId(500L, () -> load(null)).orElseThrow().getId());
+    assertEquals(Map.of(10L, 2), cache.tallies(1L, Map::of));
+    // Voted on after warm-up read it, so the warmed copy is stale
+    assertEquals(Map.of(), cache.tallies(2L, Map::of));
+    assertEquals(0, loads.get());
+  }
+
+  private Optional<Event> load(final Event event) {
+    loads.incrementAndGet();
+    return Optional.ofNullable(event);
+  }
+
+  private static Event event(final Long id, final Long messageId) {
+    return Event.builder().id(id).messageId(messageId).status(Event.EventStatus.ACTIVE).build();
+  }
+}
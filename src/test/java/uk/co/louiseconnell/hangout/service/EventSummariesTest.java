@@ -0,0 +1,213 @@
+package uk.co.louiseconnell.hangout.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static uk.co.louiseconnell.hangout.support.SqlStatementCounter.assertAtMost;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import uk.co.louiseconnell.hangout.entity.Availability;
+import uk.co.louiseconnell.hangout.entity.Event;
+import uk.co.louiseconnell.hangout.entity.EventSummary;
+import uk.co.louiseconnell.hangout.entity.Timeslot;
+import uk.co.louiseconnell.hangout.jobs.SummaryRebuilder;
+import uk.co.louiseconnell.hangout.support.QueryBudgetFixtures;
+import uk.co.louiseconnell.hangout.support.QueryBudgetTest;
+
+/**
+ * Summaries kept up by the vote path match what a rebuild works out from the votes, however the
+ * votes got there.
+ */
+@QueryBudgetTest
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class EventSummariesTest {
+
+  private static final long CHANNEL_ID = 300_000_000_000_000_001L;
+  private static final long VOTER_ID = 400_000_000_000_000_001L;
+  private static final int TIMESLOTS = 5;
+
+  @Autowired
+  private HangoutService hangoutService;
+
+  @Autowired
+  private EventSummaries eventSummaries;
+
+  @Autowired
+  private QueryBudgetFixtures fixtures;
+
+  @Autowired
+  private PlatformTransactionManager transactionManager;
+
+  @AfterEach
+  void tearDown() {
+    fixtures.deleteAll();
+  }
+
+  @Test
+  void shouldMatchRebuild_WhenVotesChangedOneAtATime() {
+    final Event event = newEvent();
+    final List<Long> timeslotIds = timeslotIds(event);
+
+    hangoutService.voteForTimeslot(VOTER_ID, timeslotIds.get(2), Availability.AvailabilityStatus.AVAILABLE);
+    hangoutService.voteForTimeslot(VOTER_ID, timeslotIds.get(1), Availability.AvailabilityStatus.AVAILABLE);
+    hangoutService.voteForTimeslot(VOTER_ID + 1, timeslotIds.get(2), Availability.AvailabilityStatus.AVAILABLE);
+    hangoutService.voteForTimeslot(VOTER_ID + 2, timeslotIds.get(0), Availability.AvailabilityStatus.MAYBE);
+    hangoutService.voteForTimeslot(VOTER_ID + 1, timeslotIds.get(2), Availability.AvailabilityStatus.UNAVAILABLE);
+    hangoutService.voteForTimeslot(VOTER_ID + 3, timeslotIds.get(1), Availability.AvailabilityStatus.AVAILABLE);
+    hangoutService.removeUserVote(VOTER_ID + 2, timeslotIds.get(0));
+    hangoutService.removeAllUserVotes(VOTER_ID, event.getId());
+
+    final EventSummary applied = hangoutService.getEventSummary(event.getId()).orElseThrow();
+    assertEquals(List.of(0, 1, 0, 0, 0), applied.getSlots().stream().map(EventSummary.SlotCount::available).toList());
+    assertEquals(timeslotIds.get(1), applied.getLeadingTimeslotId());
+    assertEquals(2, applied.getVoterCount());
+    assertEquals(8, applied.getVersion());
+
+    fixtures.summarize(event.getId());
+    final EventSummary rebuilt = hangoutService.getEventSummary(event.getId()).orElseThrow();
+    assertEquals(applied.getSlots(), rebuilt.getSlots());
+    assertEquals(applied.getLeadingTimeslotId(), rebuilt.getLeadingTimeslotId());
+    assertEquals(applied.getVoterCount(), rebuilt.getVoterCount());
+  }
+
+  @Test
+  void shouldCountEachVoterOnce_WhenVotingConcurrently() throws Exception {
+    final Event event = newEvent();
+    final List<Long> timeslotIds = timeslotIds(event);
+    final ExecutorService voters = Executors.newFixedThreadPool(4);
+    try {
+      final List<Future<?>> votes = new ArrayList<>();
+      for (int voter = 0; voter < 8; voter++) {
+        final long voterId = VOTER_ID + voter;
+        votes.add(voters.submit(() -> {
+          for (Long timeslotId : timeslotIds) {
+            hangoutService.voteForTimeslot(voterId, timeslotId, Availability.AvailabilityStatus.AVAILABLE);
+          }
+        }));
+      }
+      for (Future<?> vote : votes) {
+        vote.get();
+      }
+    } finally {
+      voters.shutdown();
+    }
+
+    final EventSummary summary = hangoutService.getEventSummary(event.getId()).orElseThrow();
+    assertEquals(8, summary.getVoterCount());
+    assertTrue(summary.getSlots().stream().allMatch(slot -> slot.available() == 8));
+    assertEquals(timeslotIds.get(0), summary.getLeadingTimeslotId());
+  }
+
+  @Test
+  void shouldKeepCounts_WhenTimeslotAdded() {
+    final Event event = newEvent();
+    final List<Long> timeslotIds = timeslotIds(event);
+    hangoutService.voteForTimeslot(VOTER_ID, timeslotIds.get(3), Availability.AvailabilityStatus.AVAILABLE);
+
+    // Earlier than the others, so it is listed first
+    final LocalDateTime start = LocalDateTime.now().plusHours(1);
+    final Timeslot added = hangoutService.addTimeslotToEvent(event.getId(),
+        new HangoutService.TimeslotRequest(start, start.plusHours(1), null));
+
+    final EventSummary summary = hangoutService.getEventSummary(event.getId()).orElseThrow();
+    assertEquals(added.getId(), summary.getSlots().get(0).timeslotId());
+    assertEquals(List.of(0, 0, 0, 0, 1, 0), summary.getSlots().stream().map(EventSummary.SlotCount::available).toList());
+    assertEquals(timeslotIds.get(3), summary.getLeadingTimeslotId());
+  }
+
+  @Test
+  void shouldRebuildEveryEvent_WhenSummariesMissing() {
+    final List<Long> eventIds = new ArrayList<>();
+    for (int i = 0; i < 5; i++) {
+      final long eventId = fixtures.event(CHANNEL_ID, Event.EventStatus.ACTIVE, null);
+      fixtures.votes(eventId, fixtures.timeslots(eventId, TIMESLOTS), 3 * i);
+      eventIds.add(eventId);
+    }
+    final SummaryRebuilder rebuilder = new SummaryRebuilder(eventSummaries, new SimpleMeterRegistry(), 2);
+
+    assertEquals(5, rebuilder.rebuildAll().events());
+
+    for (int i = 0; i < 5; i++) {
+      final EventSummary summary = hangoutService.getEventSummary(eventIds.get(i)).orElseThrow();
+      assertEquals(3 * i, summary.getVoterCount());
+      assertEquals(3 * i, summary.getSlots().stream().mapToInt(EventSummary.SlotCount::available).sum());
+    }
+    assertNull(hangoutService.getEventSummary(eventIds.get(0)).orElseThrow().getLeadingTimeslotId());
+  }
+
+  @Test
+  void shouldCountVote_WhenCastWhileMissingSummaryIsRebuilt() throws Exception {
+    final long eventId = fixtures.event(CHANNEL_ID, Event.EventStatus.ACTIVE, null);
+    final List<Long> timeslotIds = fixtures.timeslots(eventId, TIMESLOTS);
+    final ExecutorService voter = Executors.newSingleThreadExecutor();
+    try {
+      final Future<?> vote = new TransactionTemplate(transactionManager).execute(status -> {
+        eventSummaries.rebuild(List.of(eventId));
+        // Cast before the rebuilt summary is committed, counted from votes that don't include it
+        final Future<?> cast = voter.submit(() ->
+            hangoutService.voteForTimeslot(VOTER_ID, timeslotIds.get(0), Availability.AvailabilityStatus.AVAILABLE));
+        try {
+          cast.get(200, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+          // Waiting for the rebuild, as it should be
+        } catch (InterruptedException | ExecutionException e) {
+          throw new IllegalStateException(e);
+        }
+        return cast;
+      });
+      vote.get(5, TimeUnit.SECONDS);
+    } finally {
+      voter.shutdown();
+    }
+
+    final EventSummary summary = hangoutService.getEventSummary(eventId).orElseThrow();
+    assertEquals(1, summary.getVoterCount());
+    assertEquals(1, summary.getSlots().stream().mapToInt(EventSummary.SlotCount::available).sum());
+  }
+
+  @ParameterizedTest
+  @ValueSource(ints = {10, 100, 1000})
+  void shouldStayWithinBudget_WhenRebuilding(final int votes) {
+    for (int i = 0; i < 3; i++) {
+      final long eventId = fixtures.event(CHANNEL_ID, Event.EventStatus.ACTIVE, null);
+      fixtures.votes(eventId, fixtures.timeslots(eventId, TIMESLOTS), votes / 3);
+    }
+
+    // event IDs, lock the summaries, lock the events, timeslots, grouped tally, voters, one batch of inserts
+    assertAtMost(7, "rebuild with " + votes + " votes",
+        () -> assertEquals(3, eventSummaries.rebuildBatch(0, 500).size()));
+  }
+
+  private Event newEvent() {
+    final LocalDateTime start = LocalDateTime.now().plusDays(1);
+    final List<HangoutService.TimeslotRequest> requests = new ArrayList<>();
+    for (int i = 0; i < TIMESLOTS; i++) {
+      requests.add(new HangoutService.TimeslotRequest(start.plusHours(i), start.plusHours(i + 1), null));
+    }
+    return hangoutService.createHangoutEvent("Games night", null, QueryBudgetFixtures.CREATOR_ID, CHANNEL_ID, null, requests);
+  }
+
+  private List<Long> timeslotIds(final Event event) {
+    return hangoutService.getTimeslotsByEvent(event.getId()).stream().map(Timeslot::getId).toList();
+  }
+}
@@ -0,0 +1,235 @@
+package uk.co.louiseconnell.hangout.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static uk.co.louiseconnell.hangout.support.SqlStatementCounter.assertAtMost;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import discord4j.core.spec.EmbedCreateSpec;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import uk.co.louiseconnell.hangout.discord.InFlightWork;
+import uk.co.louiseconnell.hangout.discord.MessageEditor;
+import uk.co.louiseconnell.hangout.entity.Availability;
+import uk.co.louiseconnell.hangout.entity.Event;
+import uk.co.louiseconnell.hangout.entity.EventResults;
+import uk.co.louiseconnell.hangout.jobs.AutoCloseScheduler;
+import uk.co.louiseconnell.hangout.support.QueryBudgetFixtures;
+import uk.co.louiseconnell.hangout.support.QueryBudgetTest;
+
+/**
+ * Statement budgets for the hot paths. Each budget is a constant: if the number of statements grows
+ * with the number of votes, something has started loading rows one at a time.
+ */
+@QueryBudgetTest
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class HangoutServiceQueryBudgetTest {
+
+  private static final int TIMESLOTS = 5;
+  private static final long CHANNEL_ID = 300_000_000_000_000_001L;
+  private static final long OTHER_CHANNEL_ID = 300_000_000_000_000_002L;
+  private static final long NEW_VOTER_ID = 400_000_000_000_000_001L;
+
+  @Autowired
+  private HangoutService hangoutService;
+
+  @Autowired
+  private DiscordEmbedService embedService;
+
+  @Autowired
+  private QueryBudgetFixtures fixtures;
+
+  @AfterEach
+  void tearDown() {
+    fixtures.deleteAll();
+  }
+
+  @ParameterizedTest
+  @ValueSource(ints = {10, 100, 1000})
+  void shouldStayWithinBudget_WhenVoting(final int votes) {
+    final long eventId = fixtures.event(CHANNEL_ID, Event.EventStatus.ACTIVE, null);
+    final List<Long> timeslotIds = fixtures.timeslots(eventId, TIMESLOTS);
+    fixtures.votes(eventId, timeslotIds, votes);
+    fixtures.summarize(eventId);
+
+    // timeslot, user, merge and insert of the new user, lock the summary, the user's votes, the ID
+    // sequence (once per 50 votes), insert vote, update the summary, then timeslots and the summary
+    // for the re-render
+    assertAtMost(11, "vote with " + votes + " votes", () -> {
+      hangoutService.voteForTimeslot(NEW_VOTER_ID, timeslotIds.get(0), Availability.AvailabilityStatus.AVAILABLE);
+      hangoutService.getAvailabilityCounts(eventId);
+    });
+  }
+
+  @ParameterizedTest
+  @ValueSource(ints = {1, 5, 10})
+  void shouldBatchInserts_WhenCreatingEvent(final int timeslots) {
+    final LocalDateTime start = LocalDateTime.now().plusDays(1);
+    final List<HangoutService.TimeslotRequest> requests = new ArrayList<>();
+    for (int i = 0; i < timeslots; i++) {
+      requests.add(new HangoutService.TimeslotRequest(start.plusHours(i), start.plusHours(i + 1), null));
+    }
+
+    // event ID, timeslot IDs, then one insert for the event, one batch for its timeslots and one for
+    // its summary
+    assertAtMost(5, "create with " + timeslots + " timeslots", () -> hangoutService.createHangoutEvent(
+        "Games night", null, QueryBudgetFixtures.CREATOR_ID, CHANNEL_ID, null, requests));
+
+    assertEquals(timeslots, fixtures.count("timeslots"));
+  }
+
+  @ParameterizedTest
+  @ValueSource(ints = {10, 100, 1000})
+  void shouldStayWithinBudget_WhenRenderingCold(final int votes) {
+    final long eventId = fixtures.event(CHANNEL_ID, Event.EventStatus.ACTIVE, null);
+    fixtures.votes(eventId, fixtures.timeslots(eventId, TIMESLOTS), votes);
+    fixtures.summarize(eventId);
+    final Event event = hangoutService.getEventById(eventId).orElseThrow();
+
+    // timeslots, summary, creator timezone
+    assertAtMost(3, "render with " + votes + " votes", () -> {
+      embedService.createHangoutEmbed(event, "UTC");
+      embedService.createEventSummaryEmbed(event);
+    });
+  }
+
+  @ParameterizedTest
+  @ValueSource(ints = {10, 100, 1000})
+  void shouldRenderWithoutQueries_WhenEventClosed(final int votes) {
+    final long eventId = fixtures.event(CHANNEL_ID, Event.EventStatus.ACTIVE, null);
+    fixtures.votes(eventId, fixtures.timeslots(eventId, TIMESLOTS), votes);
+    final Event closed = hangoutService.closeEvent(eventId);
+    final EmbedCreateSpec[] summary = new EmbedCreateSpec[1];
+
+    assertAtMost(0, "render closed with " + votes + " votes",
+        () -> summary[0] = embedService.createEventSummaryEmbed(closed));
+
+    // One field per timeslot, then the winner
+    assertEquals(TIMESLOTS + 1, summary[0].fields().size());
+  }
+
+  @Test
+  void shouldKeepResults_WhenVotesChangeAfterClosing() {
+    final long eventId = fixtures.event(CHANNEL_ID, Event.EventStatus.ACTIVE, null);
+    final List<Long> timeslotIds = fixtures.timeslots(eventId, TIMESLOTS);
+    fixtures.votes(eventId, timeslotIds, 2 * TIMESLOTS);
+    hangoutService.closeEvent(eventId);
+
+    hangoutService.voteForTimeslot(NEW_VOTER_ID, timeslotIds.get(1), Availability.AvailabilityStatus.AVAILABLE);
+    hangoutService.closeEvent(eventId);
+
+    final EventResults results = hangoutService.getEventById(eventId).orElseThrow().getResults();
+    // A tie goes to the earliest timeslot
+    assertEquals(timeslotIds.get(0), results.winnerTimeslotId());
+    assertEquals(timeslotIds, results.slots().stream().map(EventResults.Slot::timeslotId).toList());
+    assertTrue(results.slots().stream().allMatch(slot -> slot.available() == 2));
+    assertEquals("UTC", results.timezone());
+  }
+
+  @Test
+  void shouldHaveNoWinner_WhenNobodyAvailable() {
+    final long eventId = fixtures.event(CHANNEL_ID, Event.EventStatus.ACTIVE, null);
+    fixtures.timeslots(eventId, TIMESLOTS);
+
+    final EventResults results = hangoutService.closeEvent(eventId).getResults();
+
+    assertNull(results.winnerTimeslotId());
+    assertEquals(TIMESLOTS, results.slots().size());
+  }
+
+  @ParameterizedTest
+  @ValueSource(ints = {10, 100, 1000})
+  void shouldStayWithinBudget_WhenListing(final int votes) {
+    for (int i = 0; i < 3; i++) {
+      final long eventId = fixtures.event(CHANNEL_ID, Event.EventStatus.ACTIVE, null);
+      fixtures.votes(eventId, fixtures.timeslots(eventId, TIMESLOTS), votes / 3);
+    }
+
+    assertAtMost(3, "list with " + votes + " votes", () -> {
+      hangoutService.getActiveEventsForChannel(CHANNEL_ID);
+      hangoutService.getEventsByChannelAndStatus(CHANNEL_ID, Event.EventStatus.CLOSED);
+      hangoutService.findDueActiveEvents(LocalDateTime.now());
+    });
+  }
+
+  @ParameterizedTest
+  @ValueSource(ints = {10, 100, 1000})
+  void shouldStayWithinBudget_WhenPagingList(final int history) {
+    fixtures.events(CHANNEL_ID, Event.EventStatus.DRAFT, 3);
+    fixtures.events(CHANNEL_ID, Event.EventStatus.ACTIVE, 4);
+    fixtures.events(CHANNEL_ID, Event.EventStatus.CLOSED, history);
+    fixtures.events(OTHER_CHANNEL_ID, Event.EventStatus.CLOSED, 5);
+
+    final List<Event> listed = new ArrayList<>();
+    EventListPage.Cursor cursor = null;
+    do {
+      final EventListPage.Cursor after = cursor;
+      final EventListPage[] page = new EventListPage[1];
+      // one query per status the page spans, plus the capped count and the page's summaries
+      assertAtMost(5, "list page after " + listed.size() + " of " + history,
+          () -> page[0] = hangoutService.getEventListPage(CHANNEL_ID, after, 5));
+      assertEquals(listed.size(), page[0].offset());
+      assertEquals(7 + history >= EventListPage.TOTAL_CAP, page[0].isTotalCapped());
+      if (!page[0].isTotalCapped()) {
+        assertEquals(7 + history, page[0].total());
+      }
+      listed.addAll(page[0].events());
+      cursor = page[0].next() == null ? null : EventListPage.Cursor.decode(page[0].next().encode());
+    } while (cursor != null);
+
+    assertEquals(7 + history, listed.size());
+    assertEquals(7 + history, listed.stream().map(Event::getId).distinct().count());
+    assertEquals(List.of(Event.EventStatus.DRAFT, Event.EventStatus.ACTIVE, Event.EventStatus.CLOSED),
+        listed.stream().map(Event::getStatus).distinct().toList());
+    for (int i = 1; i < listed.size(); i++) {
+      final Event previous = listed.get(i - 1);
+      final Event current = listed.get(i);
+      assertTrue(previous.getStatus() != current.getStatus()
+          || previous.getCreatedAt().isAfter(current.getCreatedAt())
+          || (previous.getCreatedAt().isEqual(current.getCreatedAt()) && previous.getId() > current.getId()),
+          "out of order at " + i);
+    }
+  }
+
+  @ParameterizedTest
+  @ValueSource(ints = {10, 100, 1000})
+  void shouldStayWithinBudget_WhenFinalizingDraft(final int votes) {
+    final long eventId = fixtures.event(CHANNEL_ID, Event.EventStatus.DRAFT, null);
+    fixtures.votes(eventId, fixtures.timeslots(eventId, TIMESLOTS), votes);
+    fixtures.summarize(eventId);
+
+    // event, timeslots, grouped tally, two bulk deletes, the summary rebuilt (lock, timeslots,
+    // grouped tally, voters), then the status and summary updates
+    assertAtMost(11, "finalize with " + votes + " votes", () -> hangoutService.finalizeDraftToActive(eventId));
+
+    assertEquals(1, fixtures.count("timeslots"));
+  }
+
+  @ParameterizedTest
+  @ValueSource(ints = {10, 100, 1000})
+  void shouldStayWithinBudget_WhenAutoClosing(final int votes) {
+    final long eventId = fixtures.event(CHANNEL_ID, Event.EventStatus.ACTIVE, LocalDateTime.now().minusMinutes(1));
+    fixtures.votes(eventId, fixtures.timeslots(eventId, TIMESLOTS), votes);
+    fixtures.summarize(eventId);
+    final AutoCloseScheduler scheduler = new AutoCloseScheduler(hangoutService, embedService,
+        mock(MessageEditor.class), new InFlightWork(), new SimpleMeterRegistry());
+
+    // due events, then the close: find, timeslots, locked summary, creator timezone, update; the
+    // summary is rendered from the results it froze
+    assertAtMost(6, "auto-close with " + votes + " votes", scheduler::autoCloseDueEvents);
+
+    assertEquals(Event.EventStatus.CLOSED, hangoutService.getEventById(eventId).orElseThrow().getStatus());
+  }
+}
@@ -0,0 +1,210 @@
+package uk.co.louiseconnell.hangout.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.AutoConfigurationPackage;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import javax.sql.DataSource;
+
+import discord4j.core.spec.EmbedCreateSpec;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import uk.co.louiseconnell.hangout.HangoutApplication;
+import uk.co.louiseconnell.hangout.datasource.DataSourceConfiguration;
+import uk.co.louiseconnell.hangout.datasource.ReadYourWrites;
+import uk.co.louiseconnell.hangout.datasource.ReplicaLagMonitor;
+import uk.co.louiseconnell.hangout.datasource.ReplicaRoutingDataSource;
+import uk.co.louiseconnell.hangout.entity.Availability;
+import uk.co.louiseconnell.hangout.entity.Event;
+import uk.co.louiseconnell.hangout.repository.EventRepository;
+import uk.co.louiseconnell.hangout.support.QueryBudgetFixtures;
+
+/**
+ * Cached reads with a replica that reports no lag but has stopped replaying: a copy of the primary
+ * taken with {@link #replicate()}. Whatever {@link EventCache} and the second-level cache hold
+ * must come from the primary, or it is served stale until the next eviction.
+ */
+@DataJpaTest(properties = {
+    "spring.jpa.hibernate.ddl-auto=none",
+    "spring.jpa.show-sql=false",
+    "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+    "spring.liquibase.enabled=true",
+    // Its own second-level cache regions, not those of the other JPA tests in this JVM
+    "spring.jpa.properties.hibernate.javax.cache.uri=application.conf",
+    "hangout.datasource.replica.enabled=true"
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@ContextConfiguration(classes = ReplicaReadsTest.Config.class)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class ReplicaReadsTest {
+
+  private static final long CHANNEL_ID = 300_000_000_000_000_001L;
+  private static final long VOTER_ID = 400_000_000_000_000_001L;
+  private static final long MESSAGE_ID = 500_000_000_000_000_001L;
+
+  @Autowired
+  private HangoutService hangoutService;
+
+  @Autowired
+  private DiscordEmbedService embedService;
+
+  @Autowired
+  private EventRepository eventRepository;
+
+  @Autowired
+  private EntityManagerFactory entityManagerFactory;
+
+  @Autowired
+  private QueryBudgetFixtures fixtures;
+
+  @Autowired
+  private MeterRegistry registry;
+
+  @TempDir
+  private Path snapshotDir;
+
+  @AfterEach
+  void tearDown() {
+    fixtures.deleteAll();
+  }
+
+  @Test
+  void shouldRenderVote_WhenReplicaHasNotReplayedIt() {
+    final long eventId = fixtures.event(CHANNEL_ID, Event.EventStatus.ACTIVE, null);
+    final List<Long> timeslotIds = fixtures.timeslots(eventId, 3);
+    fixtures.summarize(eventId);
+    replicate();
+    final Event event = hangoutService.getEventById(eventId).orElseThrow();
+    assertTrue(available(embedService.createHangoutEmbed(event, "UTC")).startsWith("0 people"));
+
+    hangoutService.voteForTimeslot(VOTER_ID, timeslotIds.get(0), Availability.AvailabilityStatus.AVAILABLE);
+
+    assertTrue(available(embedService.createHangoutEmbed(event, "UTC")).startsWith("1 people"));
+  }
+
+  @Test
+  void shouldRouteReactions_WhenReplicaHasNotReplayedNewMessage() {
+    final long eventId = fixtures.event(CHANNEL_ID, Event.EventStatus.ACTIVE, null);
+    replicate();
+
+    hangoutService.updateEventMessageId(eventId, MESSAGE_ID);
+
+    assertEquals(eventId, hangoutService.getEventByMessageId(MESSAGE_ID).orElseThrow().getId());
+  }
+
+  @Test
+  void shouldKeepReplicaReadsOutOfSecondLevelCache_WhenReadOnly() {
+    final long eventId = fixtures.event(CHANNEL_ID, Event.EventStatus.ACTIVE, null);
+    replicate();
+    final LocalDateTime deadline = LocalDateTime.now().plusDays(2).withNano(0);
+    hangoutService.updateEventDeadline(eventId, deadline);
+    // Fallen out of its region, as after the region's expiry
+    entityManagerFactory.getCache().evict(Event.class, eventId);
+
+    // A plain repository read is read-only, so the replica serves it
+    final double replicaReads = registry.counter("hangout.datasource.reads", "target", "replica", "reason", "replica").count();
+    assertNull(eventRepository.findById(eventId).orElseThrow().getDeadline());
+    assertEquals(replicaReads + 1, registry.counter("hangout.datasource.reads", "target", "replica", "reason", "replica").count());
+    assertFalse(entityManagerFactory.getCache().contains(Event.class, eventId));
+
+    assertEquals(deadline, hangoutService.getEventById(eventId).orElseThrow().getDeadline());
+    assertTrue(entityManagerFactory.getCache().contains(Event.class, eventId));
+  }
+
+  /**
+   * Copy the primary to the replica, which then stands still.
+   */
+  private void replicate() {
+    final String snapshot = snapshotDir.resolve("primary.sql").toString();
+    new JdbcTemplate(Config.primary()).execute("SCRIPT TO '" + snapshot + "'");
+    final JdbcTemplate replica = new JdbcTemplate(Config.replica());
+    replica.execute("DROP ALL OBJECTS");
+    replica.execute("RUNSCRIPT FROM '" + snapshot + "'");
+  }
+
+  private static String available(final EmbedCreateSpec embed) {
+    final String value = embed.fields().get(0).value();
+    return value.substring(value.indexOf("**Available:** ") + "**Available:** ".length());
+  }
+
+  /** Deliberately not a {@code @Configuration}, so component scanning never picks it up. */
+  @AutoConfigurationPackage(basePackageClasses = HangoutApplication.class)
+  @Import({HangoutService.class, EventCache.class, EventArchive.class, EventSummaries.class, ReadYourWrites.class,
+      DiscordEmbedService.class, QueryBudgetFixtures.class})
+  static class Config {
+
+    static DataSource primary() {
+      return h2("replica-reads-primary");
+    }
+
+    static DataSource replica() {
+      return h2("replica-reads-replica");
+    }
+
+    @Bean
+    MeterRegistry meterRegistry() {
+      return new SimpleMeterRegistry();
+    }
+
+    /**
+     * Routed as in production, with the lag check always finding the replica caught up.
+     */
+    @Bean
+    @Primary
+    DataSource dataSource(final ReadYourWrites readYourWrites, final MeterRegistry registry) {
+      final JdbcTemplate lagCheck = mock(JdbcTemplate.class);
+      when(lagCheck.queryForObject(anyString(), eq(Double.class))).thenReturn(0.0);
+      final ReplicaLagMonitor lagMonitor = new ReplicaLagMonitor(lagCheck, Duration.ofSeconds(5));
+      lagMonitor.check();
+      return new LazyConnectionDataSourceProxy(
+          new ReplicaRoutingDataSource(primary(), replica(), lagMonitor, readYourWrites, registry));
+    }
+
+    @Bean
+    static BeanPostProcessor replicaReadsJpaDialect(final ObjectProvider<ReadYourWrites> readYourWrites) {
+      return DataSourceConfiguration.replicaReadsJpaDialect(readYourWrites);
+    }
+
+    @Bean
+    HibernatePropertiesCustomizer releaseConnectionsAfterTransaction() {
+      return new DataSourceConfiguration().releaseConnectionsAfterTransaction();
+    }
+
+    private static DataSource h2(final String name) {
+      final JdbcDataSource dataSource = new JdbcDataSource();
+      dataSource.setURL("jdbc:h2:mem:" + name + ";MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1");
+      dataSource.setUser("sa");
+      return dataSource;
+    }
+  }
+}
@@ -0,0 +1,157 @@
+package uk.co.louiseconnell.hangout.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static uk.co.louiseconnell.hangout.support.SqlStatementCounter.capture;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import uk.co.louiseconnell.hangout.entity.Availability;
+import uk.co.louiseconnell.hangout.entity.Event;
+import uk.co.louiseconnell.hangout.entity.Timeslot;
+import uk.co.louiseconnell.hangout.entity.User;
+import uk.co.louiseconnell.hangout.repository.EventRepository;
+import uk.co.louiseconnell.hangout.repository.TimeslotRepository;
+import uk.co.louiseconnell.hangout.repository.UserRepository;
+import uk.co.louiseconnell.hangout.support.QueryBudgetFixtures;
+import uk.co.louiseconnell.hangout.support.QueryBudgetTest;
+
+/**
+ * The second-level cache serves repeated reads, and every {@link HangoutService} write is visible
+ * to the next read. Goes through the repositories, under {@link EventCache}, so each read reaches
+ * Hibernate.
+ */
+@QueryBudgetTest
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class SecondLevelCacheTest {
+
+  private static final long CHANNEL_ID = 300_000_000_000_000_001L;
+  private static final long VOTER_ID = 400_000_000_000_000_001L;
+
+  @Autowired
+  private HangoutService hangoutService;
+
+  @Autowired
+  private EventRepository eventRepository;
+
+  @Autowired
+  private TimeslotRepository timeslotRepository;
+
+  @Autowired
+  private UserRepository userRepository;
+
+  @Autowired
+  private EntityManagerFactory entityManagerFactory;
+
+  @Autowired
+  private QueryBudgetFixtures fixtures;
+
+  @AfterEach
+  void tearDown() {
+    fixtures.deleteAll();
+  }
+
+  @Test
+  void shouldSkipDatabase_WhenReadingAgain() {
+    final long eventId = fixtures.event(CHANNEL_ID, Event.EventStatus.ACTIVE, null);
+    final List<Long> timeslotIds = fixtures.timeslots(eventId, 3);
+    hangoutService.voteForTimeslot(VOTER_ID, timeslotIds.get(0), Availability.AvailabilityStatus.AVAILABLE);
+    eventRepository.findById(eventId);
+    timeslotRepository.findTimeslotsByEventOrdered(eventId);
+
+    final List<String> statements = capture(() -> {
+      eventRepository.findById(eventId);
+      timeslotRepository.findTimeslotsByEventOrdered(eventId);
+      userRepository.findById(VOTER_ID);
+      timeslotRepository.findById(timeslotIds.get(1));
+    });
+
+    assertEquals(List.of(), statements);
+    assertTrue(entityManagerFactory.getCache().contains(User.class, VOTER_ID));
+  }
+
+  @Test
+  void shouldSkipTimeslotAndUserSelects_WhenVotingAgain() {
+    final long eventId = fixtures.event(CHANNEL_ID, Event.EventStatus.ACTIVE, null);
+    final List<Long> timeslotIds = fixtures.timeslots(eventId, 3);
+    hangoutService.voteForTimeslot(VOTER_ID, timeslotIds.get(0), Availability.AvailabilityStatus.AVAILABLE);
+    timeslotRepository.findById(timeslotIds.get(1));
+
+    final List<String> statements = capture(() ->
+        hangoutService.voteForTimeslot(VOTER_ID, timeslotIds.get(1), Availability.AvailabilityStatus.AVAILABLE));
+
+    assertTrue(statements.stream().noneMatch(sql -> sql.contains(" from users ") || sql.contains(" from timeslots ")),
+        () -> String.join("\n", statements));
+  }
+
+  @Test
+  void shouldSeeChange_WhenEventClosedOrRescheduled() {
+    final long eventId = fixtures.event(CHANNEL_ID, Event.EventStatus.ACTIVE, null);
+    eventRepository.findById(eventId);
+
+    hangoutService.closeEvent(eventId);
+    assertEquals(Event.EventStatus.CLOSED, eventRepository.findById(eventId).orElseThrow().getStatus());
+
+    final LocalDateTime deadline = LocalDateTime.now().plusDays(2).withNano(0);
+    hangoutService.updateEventDeadline(eventId, deadline);
+    assertEquals(deadline, eventRepository.findById(eventId).orElseThrow().getDeadline());
+  }
+
+  @Test
+  void shouldSeeNewTimezone_WhenUserUpdatesIt() {
+    hangoutService.updateUserTimezone(VOTER_ID, "UTC");
+    userRepository.findById(VOTER_ID);
+
+    hangoutService.updateUserTimezone(VOTER_ID, "Europe/London");
+
+    assertEquals("Europe/London", userRepository.findById(VOTER_ID).orElseThrow().getTimezone());
+  }
+
+  @Test
+  void shouldDropLosingTimeslots_WhenDraftFinalized() {
+    final long eventId = fixtures.event(CHANNEL_ID, Event.EventStatus.DRAFT, null);
+    final List<Long> timeslotIds = fixtures.timeslots(eventId, 3);
+    hangoutService.voteForTimeslot(VOTER_ID, timeslotIds.get(1), Availability.AvailabilityStatus.AVAILABLE);
+    assertEquals(3, timeslotRepository.findTimeslotsByEventOrdered(eventId).size());
+    timeslotIds.forEach(timeslotRepository::findById);
+
+    hangoutService.finalizeDraftToActive(eventId);
+
+    assertEquals(List.of(timeslotIds.get(1)),
+        timeslotRepository.findTimeslotsByEventOrdered(eventId).stream().map(Timeslot::getId).toList());
+    assertTrue(timeslotRepository.findById(timeslotIds.get(0)).isEmpty());
+    assertEquals(Event.EventStatus.ACTIVE, eventRepository.findById(eventId).orElseThrow().getStatus());
+  }
+
+  @Test
+  void shouldSeeNewTimeslot_WhenAddedToEvent() {
+    final long eventId = fixtures.event(CHANNEL_ID, Event.EventStatus.DRAFT, null);
+    fixtures.timeslots(eventId, 1);
+    assertEquals(1, timeslotRepository.findTimeslotsByEventOrdered(eventId).size());
+
+    final LocalDateTime start = LocalDateTime.now().plusDays(3).withNano(0);
+    hangoutService.addTimeslotToEvent(eventId, new HangoutService.TimeslotRequest(start, start.plusHours(2), null));
+
+    assertEquals(2, timeslotRepository.findTimeslotsByEventOrdered(eventId).size());
+  }
+
+  @Test
+  void shouldSeeDetachedMessage_WhenPollDeleted() {
+    final long eventId = fixtures.event(CHANNEL_ID, Event.EventStatus.ACTIVE, null);
+    hangoutService.updateEventMessageId(eventId, 42L);
+    assertEquals(42L, eventRepository.findById(eventId).orElseThrow().getMessageId());
+
+    hangoutService.detachMessage(42L);
+
+    assertNull(eventRepository.findById(eventId).orElseThrow().getMessageId());
+  }
+}
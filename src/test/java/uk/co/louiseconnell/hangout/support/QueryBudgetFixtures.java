@@ -0,0 +1,125 @@
+package uk.co.louiseconnell.hangout.support;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.simple.SimpleJdbcInsert;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import uk.co.louiseconnell.hangout.entity.Event;
+import uk.co.louiseconnell.hangout.service.EventSummaries;
+
+/**
+ * Seeds events, timeslots and votes with plain JDBC batches, so setting up a thousand votes is
+ * quick and doesn't show up in the statement counts of the code under test. Seeded events have no
+ * summary until {@link #summarize} is called.
+ */
+public class QueryBudgetFixtures {
+
+  public static final long CREATOR_ID = 100_000_000_000_000_001L;
+
+  private static final String[] EMOJIS = {"1️⃣", "2️⃣", "3️⃣", "4️⃣", "5️⃣"};
+
+  private final JdbcTemplate jdbc;
+  private final EntityManagerFactory entityManagerFactory;
+  private final EventSummaries eventSummaries;
+  private final SimpleJdbcInsert events;
+  private final SimpleJdbcInsert timeslots;
+
+  public QueryBudgetFixtures(final JdbcTemplate jdbc, final EntityManagerFactory entityManagerFactory,
+                             final EventSummaries eventSummaries) {
+    this.jdbc = jdbc;
+    this.entityManagerFactory = entityManagerFactory;
+    this.eventSummaries = eventSummaries;
+    this.events = new SimpleJdbcInsert(jdbc).withTableName("events").usingGeneratedKeyColumns("id");
+    this.timeslots = new SimpleJdbcInsert(jdbc).withTableName("timeslots").usingGeneratedKeyColumns("id");
+  }
+
+  public long event(final long channelId, final Event.EventStatus status, final LocalDateTime deadline) {
+    final Map<String, Object> row = new HashMap<>();
+    row.put("title", "Games night");
+    row.put("creator_discord_id", CREATOR_ID);
+    row.put("channel_id", channelId);
+    row.put("created_at", Timestamp.valueOf(LocalDateTime.now()));
+    row.put("deadline", deadline == null ? null : Timestamp.valueOf(deadline));
+    row.put("status", status.name());
+    return events.executeAndReturnKey(row).longValue();
+  }
+
+  /**
+   * {@code count} events with no timeslots, created a second apart in pairs so that some share a
+   * created time.
+   */
+  public void events(final long channelId, final Event.EventStatus status, final int count) {
+    final List<Object[]> rows = new ArrayList<>();
+    final LocalDateTime now = LocalDateTime.now();
+    for (int i = 0; i < count; i++) {
+      rows.add(new Object[] {"Games night " + i, CREATOR_ID, channelId, Timestamp.valueOf(now.minusSeconds(i / 2)), status.name()});
+    }
+    jdbc.batchUpdate("INSERT INTO events (title, creator_discord_id, channel_id, created_at, status) VALUES (?, ?, ?, ?, ?)", rows);
+  }
+
+  public List<Long> timeslots(final long eventId, final int count) {
+    final List<Long> ids = new ArrayList<>();
+    final LocalDateTime start = LocalDateTime.now().plusDays(1);
+    for (int i = 0; i < count; i++) {
+      final Map<String, Object> row = new HashMap<>();
+      row.put("event_id", eventId);
+      row.put("start_time", Timestamp.valueOf(start.plusHours(i)));
+      row.put("end_time", Timestamp.valueOf(start.plusHours(i + 1)));
+      row.put("emoji", EMOJIS[i % EMOJIS.length]);
+      ids.add(timeslots.executeAndReturnKey(row).longValue());
+    }
+    return ids;
+  }
+
+  /**
+   * {@code count} AVAILABLE votes from distinct users, spread round robin over the timeslots.
+   */
+  public void votes(final long eventId, final List<Long> timeslotIds, final int count) {
+    final List<Object[]> users = new ArrayList<>();
+    final List<Object[]> votes = new ArrayList<>();
+    final Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+    for (int i = 0; i < count; i++) {
+      // Distinct from the creator and from the voters of other events
+      final long userId = 200_000_000_000_000_000L + eventId * 10_000 + i;
+      users.add(new Object[] {userId, "voter-" + eventId + "-" + i});
+      votes.add(new Object[] {userId, eventId, timeslotIds.get(i % timeslotIds.size()), now, "AVAILABLE"});
+    }
+    jdbc.batchUpdate("INSERT INTO users (discord_id, username) VALUES (?, ?)", users);
+    jdbc.batchUpdate("INSERT INTO availabilities (user_discord_id, event_id, timeslot_id, voted_at, status) VALUES (?, ?, ?, ?, ?)", votes);
+  }
+
+  public void close(final long eventId, final LocalDateTime closedAt) {
+    jdbc.update("UPDATE events SET status = 'CLOSED', closed_at = ? WHERE id = ?", Timestamp.valueOf(closedAt), eventId);
+  }
+
+  /**
+   * Build the summary of an event seeded here, as the vote path would have kept it.
+   */
+  public void summarize(final long eventId) {
+    eventSummaries.rebuild(List.of(eventId));
+  }
+
+  public int count(final String table) {
+    return jdbc.queryForObject("SELECT COUNT(*) FROM " + table, Integer.class);
+  }
+
+  public void deleteAll() {
+    jdbc.update("DELETE FROM availabilities_archive");
+    jdbc.update("DELETE FROM timeslots_archive");
+    jdbc.update("DELETE FROM events_archive");
+    jdbc.update("DELETE FROM event_summaries");
+    jdbc.update("DELETE FROM availabilities");
+    jdbc.update("DELETE FROM timeslots");
+    jdbc.update("DELETE FROM events");
+    jdbc.update("DELETE FROM users");
+    // Plain JDBC bypasses the second-level cache, and later tests reuse the same IDs
+    entityManagerFactory.getCache().evictAll();
+  }
+}
@@ -0,0 +1,53 @@
+package uk.co.louiseconnell.hangout.support;
+
+import org.springframework.boot.autoconfigure.AutoConfigurationPackage;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ContextConfiguration;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+import uk.co.louiseconnell.hangout.HangoutApplication;
+import uk.co.louiseconnell.hangout.datasource.ReadYourWrites;
+import uk.co.louiseconnell.hangout.service.DiscordEmbedService;
+import uk.co.louiseconnell.hangout.service.EventArchive;
+import uk.co.louiseconnell.hangout.service.EventCache;
+import uk.co.louiseconnell.hangout.service.EventSummaries;
+import uk.co.louiseconnell.hangout.service.HangoutService;
+
+/**
+ * JPA slice for statement budget tests: the real entities, repositories, Liquibase changelogs and
+ * services, on an in-memory H2 database in PostgreSQL mode standing in for Postgres. Nothing
+ * Discord related is started.
+ *
+ * <p>Test classes should also be {@code @Transactional(propagation = NOT_SUPPORTED)} so service
+ * transactions really commit and cache evictions run as they do in production.
+ */
+@Target(ElementType.TYPE)
+@Retention(RetentionPolicy.RUNTIME)
+@DataJpaTest(properties = {
+    "spring.datasource.url=jdbc:h2:mem:query-budget;MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1",
+    "spring.datasource.driver-class-name=org.h2.Driver",
+    "spring.datasource.username=sa",
+    "spring.datasource.password=",
+    "spring.jpa.hibernate.ddl-auto=none",
+    "spring.jpa.show-sql=false",
+    "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+    "spring.jpa.properties.hibernate.session_factory.statement_inspector=uk.co.louiseconnell.hangout.support.SqlStatementCounter",
+    "spring.liquibase.enabled=true"
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@ContextConfiguration(classes = QueryBudgetTest.Config.class)
+public @interface QueryBudgetTest {
+
+  /** Deliberately not a {@code @Configuration}, so component scanning never picks it up. */
+  @AutoConfigurationPackage(basePackageClasses = HangoutApplication.class)
+  @Import({HangoutService.class, EventCache.class, EventArchive.class, EventSummaries.class, ReadYourWrites.class,
+      DiscordEmbedService.class, QueryBudgetFixtures.class})
+  class Config {
+  }
+}
@@ -0,0 +1,61 @@
+package uk.co.louiseconnell.hangout.support;
+
+import static org.junit.jupiter.api.Assertions.fail;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Records every SQL statement Hibernate prepares, so tests can put a budget on how many statements
+ * a unit of work may issue. Registered through
+ * {@code spring.jpa.properties.hibernate.session_factory.statement_inspector}, which makes Hibernate
+ * create its own instance, hence the static state; query budget tests must not run in parallel.
+ */
+public class SqlStatementCounter implements StatementInspector {
+
+  private static final List<String> STATEMENTS = new ArrayList<>();
+  private static boolean recording;
+
+  @Override
+  public String inspect(final String sql) {
+    synchronized (STATEMENTS) {
+      if (recording) {
+        STATEMENTS.add(sql);
+      }
+    }
+    return sql;
+  }
+
+  /**
+   * Run {@code work} and return the statements it issued.
+   */
+  public static List<String> capture(final Runnable work) {
+    synchronized (STATEMENTS) {
+      STATEMENTS.clear();
+      recording = true;
+    }
+    try {
+      work.run();
+    } finally {
+      synchronized (STATEMENTS) {
+        recording = false;
+      }
+    }
+    synchronized (STATEMENTS) {
+      return new ArrayList<>(STATEMENTS);
+    }
+  }
+
+  /**
+   * Run {@code work} and fail if it issued more than {@code budget} statements, listing them.
+   */
+  public static void assertAtMost(final int budget, final String unitOfWork, final Runnable work) {
+    final List<String> statements = capture(work);
+    if (statements.size() > budget) {
+      fail(unitOfWork + " issued " + statements.size() + " SQL statements, budget is " + budget + ":\n  "
+          + String.join("\n  ", statements));
+    }
+  }
+}